@@ -0,0 +1,64 @@
+package com.demo.parkinglot.benchmark;
+
+import com.demo.parkinglot.tariff.Tariff;
+import com.demo.parkinglot.tariff.TimeBand;
+import com.demo.parkinglot.util.ParkingUtility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exit charge calculation: the flat hourly formula and the compiled tariff with time bands and a daily cap
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    /** One hour, one day, and a month-long stay */
+    @Param({"59", "1440", "43200"})
+    private long durationInMinutes;
+
+    private final LocalDateTime entryTime = LocalDateTime.of(2025, 3, 1, 17, 45);
+    private Tariff flatTariff;
+    private Tariff bandedTariff;
+
+    @Setup
+    public void setUp() {
+        flatTariff = Tariff.flat(2.0);
+        bandedTariff = Tariff.compile(2.0, 10, 20.0, List.of(
+                new TimeBand("07:00", "10:00", 1.5),
+                new TimeBand("16:00", "19:00", 1.5),
+                new TimeBand("22:00", "06:00", 0.5)));
+    }
+
+    @Benchmark
+    public double calculateParkingCharge() {
+        return ParkingUtility.calculateParkingCharge(durationInMinutes, 2.0);
+    }
+
+    @Benchmark
+    public double flatTariff() {
+        return flatTariff.charge(entryTime, durationInMinutes);
+    }
+
+    @Benchmark
+    public double bandedTariff() {
+        return bandedTariff.charge(entryTime, durationInMinutes);
+    }
+}
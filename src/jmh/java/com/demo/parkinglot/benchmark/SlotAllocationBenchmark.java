@@ -0,0 +1,106 @@
+package com.demo.parkinglot.benchmark;
+
+import com.demo.parkinglot.allocation.SlotAllocationIndex;
+import com.demo.parkinglot.entity.EntryGate;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.strategy.FirstAvailableStrategy;
+import com.demo.parkinglot.strategy.LevelWiseStrategy;
+import com.demo.parkinglot.strategy.NearestSlotStrategy;
+import com.demo.parkinglot.strategy.SlotAllocationStrategy;
+import com.demo.parkinglot.util.ParkingUtility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slot selection over the list of free slots, as the strategies receive it, and over the
+ * in-memory allocation index the entry path actually uses. Slots are spread over ten floors
+ * with random coordinates; the seed is fixed so every run sees the same layout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlotAllocationBenchmark {
+
+    private static final int FLOORS = 10;
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    private int slotCount;
+
+    private List<ParkingSlot> slots;
+    private EntryGate entryGate;
+    private SlotAllocationIndex index;
+    private final SlotAllocationStrategy nearestSlot = new NearestSlotStrategy();
+    private final SlotAllocationStrategy firstAvailable = new FirstAvailableStrategy();
+    private final SlotAllocationStrategy levelWise = new LevelWiseStrategy();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            ParkingSlot slot = new ParkingSlot();
+            slot.setId((long) i + 1);
+            slot.setSlotNumber("S-" + (i + 1));
+            slot.setSlotType(VehicleType.CAR);
+            // Shuffled floors, so sorting and scanning do real work
+            slot.setFloor(1 + random.nextInt(FLOORS));
+            slot.setXCoordinate(random.nextDouble() * 1000);
+            slot.setYCoordinate(random.nextDouble() * 1000);
+            slot.setAvailable(true);
+            slots.add(slot);
+        }
+        entryGate = new EntryGate();
+        entryGate.setId(1L);
+        entryGate.setXCoordinate(500.0);
+        entryGate.setYCoordinate(0.0);
+        index = SlotAllocationIndex.build(1L, VehicleType.CAR, slots, List.of(entryGate));
+    }
+
+    @Benchmark
+    public ParkingSlot findNearestSlot() {
+        return ParkingUtility.findNearestSlot(slots, entryGate);
+    }
+
+    @Benchmark
+    public ParkingSlot nearestSlotStrategy() {
+        return nearestSlot.allocateSlot(slots, entryGate);
+    }
+
+    @Benchmark
+    public ParkingSlot firstAvailableStrategy() {
+        return firstAvailable.allocateSlot(slots, entryGate);
+    }
+
+    @Benchmark
+    public ParkingSlot levelWiseStrategy() {
+        return levelWise.allocateSlot(slots, entryGate);
+    }
+
+    @Benchmark
+    public int nearestSlotFromIndex() {
+        return nearestSlot.selectSlot(index, entryGate);
+    }
+
+    @Benchmark
+    public int levelWiseFromIndex() {
+        return levelWise.selectSlot(index, entryGate);
+    }
+}
@@ -0,0 +1,41 @@
+package com.demo.parkinglot.benchmark;
+
+import com.demo.parkinglot.enums.AllocationStrategyType;
+import com.demo.parkinglot.strategy.SlotAllocationStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Strategy name parsing and strategy creation, as done when the allocation strategy is switched
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategyLookupBenchmark {
+
+    @Param({"NEAREST_SLOT", "first_available", " level_wise "})
+    private String strategyName;
+
+    @Benchmark
+    public AllocationStrategyType fromString() {
+        return AllocationStrategyType.fromString(strategyName);
+    }
+
+    @Benchmark
+    public SlotAllocationStrategy fromStringAndCreate() {
+        return AllocationStrategyType.fromString(strategyName).createStrategy();
+    }
+}
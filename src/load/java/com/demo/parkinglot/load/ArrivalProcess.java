@@ -0,0 +1,51 @@
+package com.demo.parkinglot.load;
+
+import java.util.Random;
+
+/**
+ * When the next vehicle arrives at the lot.
+ * Arrival times are generated open-loop, independent of how fast the server answers, so a slow
+ * server sees a growing backlog just as real gates would.
+ */
+public interface ArrivalProcess {
+
+    /**
+     * Time of the next arrival
+     * @param nowSeconds Time of the previous arrival, in seconds since the run started
+     * @return Seconds since the run started
+     */
+    double nextArrival(double nowSeconds, Random random);
+
+    /**
+     * Arrivals evenly spaced at a fixed rate
+     */
+    static ArrivalProcess constant(double perSecond) {
+        return (now, random) -> now + 1.0 / perSecond;
+    }
+
+    /**
+     * Poisson arrivals: exponentially distributed gaps with the given mean rate
+     */
+    static ArrivalProcess poisson(double perSecond) {
+        return (now, random) -> now - Math.log(1.0 - random.nextDouble()) / perSecond;
+    }
+
+    /**
+     * Poisson arrivals whose rate ramps linearly from the base rate up to the peak at the middle of the run
+     * and back down, like a rush hour. Generated by thinning a Poisson process at the peak rate.
+     */
+    static ArrivalProcess rushHour(double baseRate, double peakRate, double durationSeconds) {
+        double half = durationSeconds / 2;
+        return (now, random) -> {
+            double time = now;
+            while (true) {
+                time -= Math.log(1.0 - random.nextDouble()) / peakRate;
+                double distanceFromPeak = Math.min(Math.abs(time - half) / half, 1.0);
+                double rate = peakRate - (peakRate - baseRate) * distanceFromPeak;
+                if (random.nextDouble() * peakRate <= rate) {
+                    return time;
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.demo.parkinglot.load;
+
+import java.util.Random;
+
+/**
+ * How long a parked vehicle stays before it exits, in wall-clock milliseconds of the run
+ */
+public interface DwellTime {
+
+    long nextMillis(Random random);
+
+    static DwellTime fixed(long millis) {
+        return random -> millis;
+    }
+
+    static DwellTime exponential(long meanMillis) {
+        return random -> Math.round(-Math.log(1.0 - random.nextDouble()) * meanMillis);
+    }
+
+    /**
+     * Log-normal stays: most are close to the median, with a long tail of vehicles that stay much longer
+     */
+    static DwellTime logNormal(long medianMillis, double sigma) {
+        return random -> Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+    }
+}
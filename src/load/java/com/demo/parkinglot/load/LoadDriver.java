@@ -0,0 +1,237 @@
+package com.demo.parkinglot.load;
+
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.service.TariffService;
+import com.demo.parkinglot.util.ParkingUtility;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives entries and exits over HTTP.
+ * Arrivals follow the arrival process from the calling thread and each one is handed to a worker
+ * pool; a vehicle that entered is scheduled to exit after its dwell time. A declined or failed
+ * payment is retried with backoff through the retry endpoint. Every slot handed out is tracked
+ * until its exit succeeds, so a slot given to a second vehicle in the meantime is caught live.
+ * A slot whose holder has an exit in flight may already be free on the server, so handing it out
+ * again then is not counted; the final database check still covers that window.
+ */
+public class LoadDriver {
+
+    private static final long DRAIN_GRACE_MILLIS = 30_000;
+
+    private final LoadProfile profile;
+    private final URI baseUri;
+    private final Long parkingLotId;
+    private final List<Long> gateIds;
+    private final TariffService tariffService;
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LoadResults results = new LoadResults();
+    private final Map<Long, ParkedVehicle> occupiedSlots = new ConcurrentHashMap<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private ExecutorService workers;
+    private ScheduledExecutorService timer;
+
+    public LoadDriver(LoadProfile profile, URI baseUri, Long parkingLotId, List<Long> gateIds, TariffService tariffService) {
+        this.profile = profile;
+        this.baseUri = baseUri;
+        this.parkingLotId = parkingLotId;
+        this.gateIds = gateIds;
+        this.tariffService = tariffService;
+    }
+
+    /**
+     * Generate arrivals for the configured duration, then wait for the parked vehicles to leave
+     */
+    public LoadResults run() throws InterruptedException {
+        workers = Executors.newFixedThreadPool(profile.getWorkers(), runnable -> daemon(runnable, "load-worker-" + threadCount.incrementAndGet()));
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "load-timer"));
+        Random random = new Random(profile.getSeed());
+        ArrivalProcess arrivals = profile.arrivalProcess();
+        DwellTime dwellTime = profile.dwellTime();
+
+        long start = System.nanoTime();
+        double arrivalSeconds = 0;
+        int vehicle = 0;
+        while ((arrivalSeconds = arrivals.nextArrival(arrivalSeconds, random)) < profile.getDurationSeconds()) {
+            long due = start + (long) (arrivalSeconds * 1_000_000_000L);
+            waitUntil(due);
+            String plateNo = "LOAD-" + (++vehicle);
+            Long gateId = gateIds.get(random.nextInt(gateIds.size()));
+            long dwellMillis = dwellTime.nextMillis(random);
+            results.arrivals.increment();
+            outstanding.incrementAndGet();
+            workers.execute(() -> enter(plateNo, gateId, due, dwellMillis));
+        }
+
+        // Let every vehicle that got in leave; dwell is measured from each entry
+        long drainDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDwellEstimate() + DRAIN_GRACE_MILLIS);
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(100);
+        }
+        results.elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        results.stillParked = outstanding.get();
+        timer.shutdownNow();
+        workers.shutdownNow();
+        return results;
+    }
+
+    private void enter(String plateNo, Long gateId, long due, long dwellMillis) {
+        try {
+            HttpResponse<String> response = post("/api/entry", String.format(
+                    "{\"plateNo\":\"%s\",\"vehicleType\":\"CAR\",\"ownerId\":\"load\",\"entryGateId\":%d}", plateNo, gateId));
+            results.entryLatency.recordValue(micros(System.nanoTime() - due));
+            if (response.statusCode() != 200) {
+                if (response.statusCode() == 409 && isLotFull(response.body())) {
+                    results.lotFull.increment();
+                } else {
+                    results.entryErrors.increment();
+                }
+                outstanding.decrementAndGet();
+                return;
+            }
+
+            results.entryResponseBytes.add(response.body().length());
+            JsonNode ticket = objectMapper.readTree(response.body());
+            // Sent as a string, since the time-ordered ID does not fit a JSON number exactly
+            long ticketId = Long.parseLong(ticket.get("id").asText());
+            long slotId = ticket.get("slotId").asLong();
+            LocalDateTime entryTime = LocalDateTime.parse(ticket.get("entryTime").asText());
+            results.entries.increment();
+            ParkedVehicle parked = new ParkedVehicle(ticketId, slotId, entryTime);
+            ParkedVehicle previous = occupiedSlots.put(slotId, parked);
+            if (previous != null && !previous.leaving) {
+                results.doubleAllocations.increment();
+            }
+            scheduleExit(parked, 0, dwellMillis);
+        } catch (IOException | RuntimeException e) {
+            results.entryErrors.increment();
+            outstanding.decrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void scheduleExit(ParkedVehicle vehicle, int attempt, long delayMillis) {
+        long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        timer.schedule(() -> workers.execute(() -> exit(vehicle, attempt, due)), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void exit(ParkedVehicle vehicle, int attempt, long due) {
+        try {
+            vehicle.leaving = true;
+            HttpResponse<String> response = pay(vehicle, attempt);
+            if (response.statusCode() == 400 && response.body().contains("Expected")) {
+                // The stay crossed a billing boundary between quoting and paying
+                results.amountRequotes.increment();
+                response = pay(vehicle, attempt);
+            }
+            results.exitLatency.recordValue(micros(System.nanoTime() - due));
+
+            if (response.statusCode() == 200) {
+                results.exitResponseBytes.add(response.body().length());
+                occupiedSlots.remove(vehicle.slotId, vehicle);
+                results.exits.increment();
+                outstanding.decrementAndGet();
+            } else if (response.statusCode() == 402 || response.statusCode() == 409) {
+                vehicle.leaving = false;
+                // Declined, gateway error or circuit open: the slot stays occupied until a retry succeeds
+                if (attempt < profile.getMaxPaymentRetries()) {
+                    results.paymentRetries.increment();
+                    scheduleExit(vehicle, attempt + 1, 100L << attempt);
+                } else {
+                    results.abandonedExits.increment();
+                    outstanding.decrementAndGet();
+                }
+            } else {
+                results.exitErrors.increment();
+                outstanding.decrementAndGet();
+            }
+        } catch (IOException | RuntimeException e) {
+            results.exitErrors.increment();
+            outstanding.decrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Pay the amount currently due, through the retry endpoint after a failed attempt
+     */
+    private HttpResponse<String> pay(ParkedVehicle vehicle, int attempt) throws IOException, InterruptedException {
+        long minutes = ParkingUtility.calculateDurationInMinutes(vehicle.entryTime, LocalDateTime.now());
+        double amount = tariffService.tariffFor(parkingLotId, VehicleType.CAR).charge(vehicle.entryTime, minutes);
+        String path = attempt == 0 ? "/api/exit/" + vehicle.ticketId : "/api/exit/" + vehicle.ticketId + "/retry";
+        return post(path, "{\"amount\":" + amount + "}");
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private boolean isLotFull(String body) {
+        return body.contains("full") || body.contains("No available slots");
+    }
+
+    private long maxDwellEstimate() {
+        Random random = new Random(profile.getSeed());
+        DwellTime dwellTime = profile.dwellTime();
+        long max = 0;
+        for (int i = 0; i < 10_000; i++) {
+            max = Math.max(max, dwellTime.nextMillis(random));
+        }
+        return max;
+    }
+
+    private static void waitUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static long micros(long nanos) {
+        return Math.max(1, nanos / 1000);
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static final class ParkedVehicle {
+        private final long ticketId;
+        private final long slotId;
+        private final LocalDateTime entryTime;
+        private volatile boolean leaving;
+
+        ParkedVehicle(long ticketId, long slotId, LocalDateTime entryTime) {
+            this.ticketId = ticketId;
+            this.slotId = slotId;
+            this.entryTime = entryTime;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.demo.parkinglot.load;
+
+import com.demo.parkinglot.ParkingManagementSystemApplication;
+import com.demo.parkinglot.allocation.AllocationStatistics;
+import com.demo.parkinglot.config.ExecutionConfig;
+import com.demo.parkinglot.entity.EntryGate;
+import com.demo.parkinglot.entity.Floor;
+import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.enums.ExecutionMode;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.repository.EntryGateRepository;
+import com.demo.parkinglot.repository.FloorRepository;
+import com.demo.parkinglot.repository.ParkingLotRepository;
+import com.demo.parkinglot.repository.ParkingSlotRepository;
+import com.demo.parkinglot.service.EventJournalService;
+import com.demo.parkinglot.service.TariffService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load run: boots the application on a random port against a fresh in-memory H2
+ * database, seeds one lot with the configured gates and slots, drives POST /api/entry and
+ * /api/exit/{id} over HTTP and prints throughput, latency percentiles, allocation retries and
+ * double-allocation checks, response sizes and how long database connections were held.
+ * Exits with status 1 if any slot was given to two vehicles.
+ * With --execution-modes the run is repeated per execution mode and the runs are compared.
+ * <p>
+ * mvn -Pload test-compile exec:exec -Dload.args="--duration=60 --arrival=RUSH_HOUR --rate=50 --peak-rate=500"
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.parse(args);
+
+        boolean doubleAllocations = false;
+        if (profile.getExecutionModes().isEmpty()) {
+            LoadResults results = run(profile, null);
+            results.print(System.out, profile.describe());
+            doubleAllocations = results.hasDoubleAllocations();
+        } else {
+            // Same arrivals against a fresh application and database per execution mode
+            List<LoadResults> runs = new ArrayList<>();
+            for (String executionMode : profile.getExecutionModes()) {
+                LoadResults results = run(profile, executionMode);
+                results.print(System.out, profile.describe() + ", " + results.executionMode + " threads");
+                runs.add(results);
+                doubleAllocations |= results.hasDoubleAllocations();
+            }
+            LoadResults.printComparison(System.out, runs);
+        }
+        System.exit(doubleAllocations ? 1 : 0);
+    }
+
+    /**
+     * Boot the application, seed it, drive the load and check the final state
+     * @param executionMode Execution mode to run the application in, or null for the configured one
+     */
+    private static LoadResults run(LoadProfile profile, String executionMode) throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        String database = executionMode != null ? "loaddb-" + executionMode.toLowerCase() : "loaddb";
+        properties.put("spring.datasource.url", "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.root", "WARN");
+        // Lot-full and payment failures are expected under load; the report counts them
+        properties.put("logging.level.com.demo.parkinglot.exception", "OFF");
+        properties.put("parking.payment.stub.median-latency-ms", Long.toString(profile.getGatewayLatencyMs()));
+        properties.put("parking.payment.stub.decline-rate", Double.toString(profile.getDeclineRate()));
+        properties.put("parking.payment.stub.error-rate", Double.toString(profile.getErrorRate()));
+        properties.putAll(profile.getApplicationProperties());
+        if (executionMode != null) {
+            properties.put("parking.execution.mode", executionMode);
+        }
+
+        // Passed as command-line arguments so they take precedence over application.properties
+        String[] applicationArgs = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ParkingManagementSystemApplication.class, LoadSecurity.class)
+                .run(applicationArgs);
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            ParkingLot parkingLot = seed(context, profile);
+            List<Long> gateIds = context.getBean(EntryGateRepository.class).findByParkingLotId(parkingLot.getId())
+                    .stream().map(EntryGate::getId).toList();
+
+            AllocationStatistics allocationStatistics = context.getBean(AllocationStatistics.class);
+            Map<String, Object> before = allocationStatistics.getSnapshot();
+            Timer connectionUsage = context.getBean(MeterRegistry.class).get("hikaricp.connections.usage").timer();
+            long borrowsBefore = connectionUsage.count();
+            double heldMillisBefore = connectionUsage.totalTime(TimeUnit.MILLISECONDS);
+            LoadDriver driver = new LoadDriver(profile, URI.create("http://localhost:" + port), parkingLot.getId(),
+                    gateIds, context.getBean(TariffService.class));
+            LoadResults results = driver.run();
+            results.allocationStatistics = difference(before, allocationStatistics.getSnapshot());
+            // How long requests and flushes held a pooled JDBC connection during the run
+            results.connectionBorrows = connectionUsage.count() - borrowsBefore;
+            results.connectionHeldMillis = connectionUsage.totalTime(TimeUnit.MILLISECONDS) - heldMillisBefore;
+            results.maxConnectionHeldMillis = connectionUsage.max(TimeUnit.MILLISECONDS);
+            // Report what actually ran: VIRTUAL falls back to platform threads before Java 21
+            ExecutionConfig executionConfig = context.getBean(ExecutionConfig.class);
+            if (executionConfig.isVirtualThreads()) {
+                results.executionMode = "VIRTUAL";
+            } else if (executionConfig.getExecutionMode() == ExecutionMode.VIRTUAL) {
+                results.executionMode = "PLATFORM (VIRTUAL needs Java 21)";
+            } else {
+                results.executionMode = "PLATFORM";
+            }
+            checkFinalState(context, results);
+            return results;
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * One lot with the configured floors, gates spread along one side and slots in a grid on each floor
+     */
+    private static ParkingLot seed(ConfigurableApplicationContext context, LoadProfile profile) {
+        ParkingLot parkingLot = context.getBean(ParkingLotRepository.class)
+                .save(new ParkingLot("Load Test Lot", "Load", profile.getFloors()));
+
+        EntryGateRepository gateRepository = context.getBean(EntryGateRepository.class);
+        for (int gate = 0; gate < profile.getGates(); gate++) {
+            gateRepository.save(new EntryGate("Gate " + (gate + 1), gate + 1, gate * 100.0, 0.0, parkingLot));
+        }
+
+        FloorRepository floorRepository = context.getBean(FloorRepository.class);
+        ParkingSlotRepository slotRepository = context.getBean(ParkingSlotRepository.class);
+        int perFloor = (profile.getSlots() + profile.getFloors() - 1) / profile.getFloors();
+        int created = 0;
+        for (int floorNumber = 1; floorNumber <= profile.getFloors() && created < profile.getSlots(); floorNumber++) {
+            int count = Math.min(perFloor, profile.getSlots() - created);
+            Floor floor = floorRepository.save(new Floor(floorNumber, count, "Floor " + floorNumber, parkingLot));
+            List<ParkingSlot> slots = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ParkingSlot slot = new ParkingSlot();
+                slot.setSlotNumber(floorNumber + "-" + (i + 1));
+                slot.setSlotType(VehicleType.CAR);
+                slot.setFloor(floorNumber);
+                slot.setAvailable(true);
+                slot.setXCoordinate((i % 50) * 10.0);
+                slot.setYCoordinate((i / 50) * 10.0);
+                slot.setParkingLot(parkingLot);
+                slot.setFloorEntity(floor);
+                slots.add(slot);
+            }
+            slotRepository.saveAll(slots);
+            created += count;
+        }
+        return parkingLot;
+    }
+
+    /**
+     * Look for slots held by two active tickets, and active tickets whose slot is marked free
+     */
+    private static void checkFinalState(ConfigurableApplicationContext context, LoadResults results) {
+        // In JOURNAL mode the rows are written behind; bring them up to date first
+        context.getBean(EventJournalService.class).flush();
+        EntityManager entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        try {
+            results.slotsHeldTwice = entityManager.createQuery(
+                    "select t.slot.id from Ticket t where t.active = true group by t.slot.id having count(t) > 1")
+                    .getResultList().size();
+            results.activeTicketsOnFreeSlots = entityManager.createQuery(
+                    "select count(t) from Ticket t where t.active = true and t.slot.available = true", Long.class)
+                    .getSingleResult();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static Map<String, Object> difference(Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object> difference = new HashMap<>(after);
+        for (String counter : List.of("allocations", "attempts", "retries", "conflicts", "databaseFallbacks")) {
+            difference.put(counter, ((Number) after.get(counter)).longValue() - ((Number) before.get(counter)).longValue());
+        }
+        return difference;
+    }
+}
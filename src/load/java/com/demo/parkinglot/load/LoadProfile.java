@@ -0,0 +1,123 @@
+package com.demo.parkinglot.load;
+
+import com.demo.parkinglot.enums.ExecutionMode;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load run settings, read from --name=value arguments.
+ * Arguments starting with --parking., --spring. or --server. are passed on to the application instead.
+ * --execution-modes=PLATFORM,VIRTUAL repeats the run once per execution mode, each on a fresh application.
+ */
+public class LoadProfile {
+
+    private int durationSeconds = 60;
+    private String arrival = "POISSON";
+    private double rate = 100;
+    private double peakRate = 400;
+    private String dwell = "EXPONENTIAL";
+    private long dwellMillis = 5000;
+    private double dwellSigma = 0.8;
+    private int gates = 8;
+    private int floors = 4;
+    private int slots = 2000;
+    private int workers = 64;
+    private double declineRate = 0.0;
+    private double errorRate = 0.0;
+    private long gatewayLatencyMs = 20;
+    private int maxPaymentRetries = 3;
+    private long seed = 42;
+    private List<String> executionModes = List.of();
+    private final Map<String, String> applicationProperties = new LinkedHashMap<>();
+
+    public static LoadProfile parse(String[] args) {
+        LoadProfile profile = new LoadProfile();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (name.startsWith("parking.") || name.startsWith("spring.") || name.startsWith("server.")) {
+                profile.applicationProperties.put(name, value);
+                continue;
+            }
+            switch (name) {
+                case "duration" -> profile.durationSeconds = Integer.parseInt(value);
+                case "arrival" -> profile.arrival = value.toUpperCase();
+                case "rate" -> profile.rate = Double.parseDouble(value);
+                case "peak-rate" -> profile.peakRate = Double.parseDouble(value);
+                case "dwell" -> profile.dwell = value.toUpperCase();
+                case "dwell-ms" -> profile.dwellMillis = Long.parseLong(value);
+                case "dwell-sigma" -> profile.dwellSigma = Double.parseDouble(value);
+                case "gates" -> profile.gates = Integer.parseInt(value);
+                case "floors" -> profile.floors = Integer.parseInt(value);
+                case "slots" -> profile.slots = Integer.parseInt(value);
+                case "workers" -> profile.workers = Integer.parseInt(value);
+                case "decline-rate" -> profile.declineRate = Double.parseDouble(value);
+                case "error-rate" -> profile.errorRate = Double.parseDouble(value);
+                case "gateway-latency-ms" -> profile.gatewayLatencyMs = Long.parseLong(value);
+                case "max-payment-retries" -> profile.maxPaymentRetries = Integer.parseInt(value);
+                case "seed" -> profile.seed = Long.parseLong(value);
+                case "execution-modes" -> profile.executionModes = Arrays.stream(value.split(","))
+                        .map(mode -> ExecutionMode.fromString(mode).name())
+                        .toList();
+                default -> throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Arrival process for the configured kind: CONSTANT, POISSON or RUSH_HOUR (ramping from rate to peak-rate)
+     */
+    public ArrivalProcess arrivalProcess() {
+        return switch (arrival) {
+            case "CONSTANT" -> ArrivalProcess.constant(rate);
+            case "POISSON" -> ArrivalProcess.poisson(rate);
+            case "RUSH_HOUR" -> ArrivalProcess.rushHour(rate, peakRate, durationSeconds);
+            default -> throw new IllegalArgumentException("Unknown arrival process: " + arrival
+                    + ". Valid processes are: CONSTANT, POISSON, RUSH_HOUR");
+        };
+    }
+
+    /**
+     * Dwell time distribution for the configured kind: FIXED, EXPONENTIAL (mean dwell-ms) or LOGNORMAL (median dwell-ms)
+     */
+    public DwellTime dwellTime() {
+        return switch (dwell) {
+            case "FIXED" -> DwellTime.fixed(dwellMillis);
+            case "EXPONENTIAL" -> DwellTime.exponential(dwellMillis);
+            case "LOGNORMAL" -> DwellTime.logNormal(dwellMillis, dwellSigma);
+            default -> throw new IllegalArgumentException("Unknown dwell time distribution: " + dwell
+                    + ". Valid distributions are: FIXED, EXPONENTIAL, LOGNORMAL");
+        };
+    }
+
+    /**
+     * One line describing the run, for the report header
+     */
+    public String describe() {
+        String rates = arrival.equals("RUSH_HOUR") ? rate + "->" + peakRate + "/s" : rate + "/s";
+        return String.format("%ds %s arrivals at %s, %s dwell %dms, %d gates, %d slots on %d floors, "
+                        + "gateway %dms with %.1f%% declines and %.1f%% errors",
+                durationSeconds, arrival, rates, dwell, dwellMillis, gates, slots, floors,
+                gatewayLatencyMs, declineRate * 100, errorRate * 100);
+    }
+
+    public int getDurationSeconds() { return durationSeconds; }
+    public int getGates() { return gates; }
+    public int getFloors() { return floors; }
+    public int getSlots() { return slots; }
+    public int getWorkers() { return workers; }
+    public double getDeclineRate() { return declineRate; }
+    public double getErrorRate() { return errorRate; }
+    public long getGatewayLatencyMs() { return gatewayLatencyMs; }
+    public int getMaxPaymentRetries() { return maxPaymentRetries; }
+    public long getSeed() { return seed; }
+    public List<String> getExecutionModes() { return executionModes; }
+    public Map<String, String> getApplicationProperties() { return applicationProperties; }
+}
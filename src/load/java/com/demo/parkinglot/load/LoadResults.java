@@ -0,0 +1,111 @@
+package com.demo.parkinglot.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of one load run.
+ * Latencies are in microseconds and measured from when the request was due, not when it was sent,
+ * so time spent queued behind a slow server is counted (no coordinated omission).
+ */
+public class LoadResults {
+
+    private static final long MAX_LATENCY_MICROS = 600_000_000L;
+
+    final Histogram entryLatency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    final Histogram exitLatency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    final LongAdder arrivals = new LongAdder();
+    final LongAdder entries = new LongAdder();
+    final LongAdder lotFull = new LongAdder();
+    final LongAdder entryErrors = new LongAdder();
+    final LongAdder exits = new LongAdder();
+    final LongAdder paymentRetries = new LongAdder();
+    final LongAdder amountRequotes = new LongAdder();
+    final LongAdder abandonedExits = new LongAdder();
+    final LongAdder exitErrors = new LongAdder();
+    final LongAdder doubleAllocations = new LongAdder();
+    final LongAdder entryResponseBytes = new LongAdder();
+    final LongAdder exitResponseBytes = new LongAdder();
+
+    String executionMode;
+    double elapsedSeconds;
+    long stillParked;
+    Map<String, Object> allocationStatistics = Map.of();
+    long slotsHeldTwice;
+    long activeTicketsOnFreeSlots;
+    long connectionBorrows;
+    double connectionHeldMillis;
+    double maxConnectionHeldMillis;
+
+    /**
+     * Whether the run saw a slot given to two vehicles at once, live or in the final database state
+     */
+    public boolean hasDoubleAllocations() {
+        return doubleAllocations.sum() > 0 || slotsHeldTwice > 0 || activeTicketsOnFreeSlots > 0;
+    }
+
+    public void print(PrintStream out, String description) {
+        out.println();
+        out.println("=== Load run: " + description);
+        out.printf("Elapsed            %.1f s%n", elapsedSeconds);
+        out.printf("Arrivals           %d%n", arrivals.sum());
+        out.printf("Entries            %d ok, %d lot full, %d errors%n", entries.sum(), lotFull.sum(), entryErrors.sum());
+        out.printf("Exits              %d ok, %d abandoned after payment retries, %d errors, %d still parked%n",
+                exits.sum(), abandonedExits.sum(), exitErrors.sum(), stillParked);
+        out.printf("Payment retries    %d (amount re-quoted %d times)%n", paymentRetries.sum(), amountRequotes.sum());
+        out.printf("Throughput         %.1f entries/s, %.1f exits/s, %.1f ops/s%n",
+                entries.sum() / elapsedSeconds, exits.sum() / elapsedSeconds,
+                (entries.sum() + exits.sum()) / elapsedSeconds);
+        printLatency(out, "Entry latency", entryLatency);
+        printLatency(out, "Exit latency", exitLatency);
+        out.printf("Response size      %.0f B per entry, %.0f B per exit%n",
+                average(entryResponseBytes.sum(), entries.sum()), average(exitResponseBytes.sum(), exits.sum()));
+        out.printf("DB connections     %d borrows, held %.2f ms on average, max %.2f ms%n",
+                connectionBorrows, average(connectionHeldMillis, connectionBorrows), maxConnectionHeldMillis);
+        out.println("Allocation         " + allocationStatistics);
+        out.printf("Double allocation  %d live, %d slots held by two active tickets, %d active tickets on free slots -> %s%n",
+                doubleAllocations.sum(), slotsHeldTwice, activeTicketsOnFreeSlots,
+                hasDoubleAllocations() ? "FAILED" : "OK");
+    }
+
+    /**
+     * One line per run: throughput, latency percentiles and errors, for runs of the same load in different modes
+     */
+    public static void printComparison(PrintStream out, List<LoadResults> runs) {
+        out.println();
+        out.println("=== Execution mode comparison");
+        out.printf("%-44s %10s %10s %10s %10s %10s %8s%n",
+                "Mode", "ops/s", "entry p99", "exit p50", "exit p99", "exit max", "errors");
+        for (LoadResults run : runs) {
+            out.printf("%-44s %10.1f %8.1fms %8.1fms %8.1fms %8.1fms %8d%n", run.executionMode,
+                    (run.entries.sum() + run.exits.sum()) / run.elapsedSeconds,
+                    percentileMillis(run.entryLatency, 99), percentileMillis(run.exitLatency, 50),
+                    percentileMillis(run.exitLatency, 99), run.exitLatency.getMaxValue() / 1000.0,
+                    run.entryErrors.sum() + run.exitErrors.sum());
+        }
+    }
+
+    private static double average(double total, long count) {
+        return count == 0 ? 0 : total / count;
+    }
+
+    private static double percentileMillis(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private void printLatency(PrintStream out, String label, Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            out.printf("%-18s no requests%n", label);
+            return;
+        }
+        out.printf("%-18s p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms (%d requests)%n", label,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0, histogram.getTotalCount());
+    }
+}
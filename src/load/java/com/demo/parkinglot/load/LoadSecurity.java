@@ -0,0 +1,24 @@
+package com.demo.parkinglot.load;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Opens the entry and exit endpoints to the load generator, without OAuth2 login or CSRF tokens.
+ * Registered only as an extra source of the load run's application context, never component-scanned.
+ */
+public class LoadSecurity {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public SecurityFilterChain loadGeneratorFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher("/api/entry", "/api/exit/**")
+                .authorizeHttpRequests(authorize -> authorize.anyRequest().permitAll())
+                .csrf(csrf -> csrf.disable());
+        return http.build();
+    }
+}
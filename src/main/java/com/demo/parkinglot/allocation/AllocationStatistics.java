@@ -0,0 +1,94 @@
+package com.demo.parkinglot.allocation;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for slot allocation attempts, conflicts and fallbacks
+ */
+@Component
+public class AllocationStatistics {
+
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder databaseFallbacks = new LongAdder();
+    private final LongAccumulator maxAttempts = new LongAccumulator(Math::max, 0);
+    private final AtomicLong firstAllocationAt = new AtomicLong();
+
+    /**
+     * Record a successful allocation and how many candidates it took
+     */
+    public void recordAllocation(int attemptCount) {
+        allocations.increment();
+        attempts.add(attemptCount);
+        maxAttempts.accumulate(attemptCount);
+        if (firstAllocationAt.get() == 0) {
+            firstAllocationAt.compareAndSet(0, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Wall-clock time of the first allocation since startup, in epoch milliseconds, or 0 if there was none yet
+     */
+    public long getFirstAllocationAt() {
+        return firstAllocationAt.get();
+    }
+
+    /**
+     * Record a candidate that was lost to another request
+     */
+    public void recordConflict() {
+        conflicts.increment();
+    }
+
+    /**
+     * Record that all ranked candidates were exhausted and the database was asked directly
+     */
+    public void recordDatabaseFallback() {
+        databaseFallbacks.increment();
+    }
+
+    public long getAllocationCount() {
+        return allocations.sum();
+    }
+
+    public long getAttemptCount() {
+        return attempts.sum();
+    }
+
+    public long getConflictCount() {
+        return conflicts.sum();
+    }
+
+    public long getDatabaseFallbackCount() {
+        return databaseFallbacks.sum();
+    }
+
+    public long getMaxAttempts() {
+        return maxAttempts.get();
+    }
+
+    /**
+     * Get a snapshot of the counters
+     */
+    public Map<String, Object> getSnapshot() {
+        long allocationCount = allocations.sum();
+        long attemptCount = attempts.sum();
+
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("allocations", allocationCount);
+        snapshot.put("attempts", attemptCount);
+        snapshot.put("retries", attemptCount - allocationCount);
+        snapshot.put("conflicts", conflicts.sum());
+        snapshot.put("databaseFallbacks", databaseFallbacks.sum());
+        snapshot.put("maxAttemptsPerAllocation", maxAttempts.get());
+        snapshot.put("attemptsPerAllocation", allocationCount > 0 ? (double) attemptCount / allocationCount : 0.0);
+        return snapshot;
+    }
+}
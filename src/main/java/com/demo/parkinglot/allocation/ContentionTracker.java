@@ -0,0 +1,269 @@
+package com.demo.parkinglot.allocation;
+
+import com.demo.parkinglot.config.AllocationStrategyConfig;
+import com.demo.parkinglot.enums.VehicleType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Rolling window of slot allocation contention per lot and vehicle type.
+ * Time is cut into fixed buckets held in a ring; a bucket is replaced once its time has passed, so
+ * old contention drops out of the window without any sweeping. Within a bucket every counter is a
+ * LongAdder, so concurrent entries for the same lot do not contend on the diagnostics themselves.
+ * Per lot it records lock waits in claiming statements, candidates lost to another entry and the slots
+ * and gates involved, allocations and their attempts, database fallbacks and optimistic lock failures.
+ */
+@Component
+public class ContentionTracker {
+
+    private final long bucketMillis;
+    private final int trackedSlots;
+    private final LongSupplier clock;
+    private final AtomicReferenceArray<Bucket> ring;
+
+    @Autowired
+    public ContentionTracker(AllocationStrategyConfig config) {
+        this(config.getContentionWindowSeconds(), config.getContentionBucketSeconds(),
+                config.getContentionTrackedSlots(), System::currentTimeMillis);
+    }
+
+    ContentionTracker(int windowSeconds, int bucketSeconds, int trackedSlots, LongSupplier clock) {
+        this.bucketMillis = bucketSeconds * 1000L;
+        this.trackedSlots = trackedSlots;
+        this.clock = clock;
+        this.ring = new AtomicReferenceArray<>(Math.max(1, windowSeconds / bucketSeconds));
+    }
+
+    /**
+     * Counters of a lot and vehicle type in the current bucket; hold it for the duration of one allocation
+     */
+    public Cell cell(Long parkingLotId, VehicleType vehicleType) {
+        Cell[] cells = currentBucket().lots.computeIfAbsent(parkingLotId, id -> new Cell[VehicleType.values().length]);
+        Cell cell = cells[vehicleType.ordinal()];
+        if (cell == null) {
+            synchronized (cells) {
+                cell = cells[vehicleType.ordinal()];
+                if (cell == null) {
+                    cell = new Cell(trackedSlots);
+                    cells[vehicleType.ordinal()] = cell;
+                }
+            }
+        }
+        return cell;
+    }
+
+    /**
+     * Merge the buckets inside the window and list the most contended lots first
+     * @param limit Most lot and vehicle type rows to return
+     * @param hotSlots Most contended slots and gates listed per row
+     */
+    public Map<String, Object> getWindow(int limit, int hotSlots) {
+        long currentEpoch = clock.getAsLong() / bucketMillis;
+        Map<Long, Map<VehicleType, Totals>> merged = new HashMap<>();
+        long oldestEpoch = currentEpoch;
+        for (int i = 0; i < ring.length(); i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket == null || bucket.epoch <= currentEpoch - ring.length() || bucket.epoch > currentEpoch) {
+                continue;
+            }
+            oldestEpoch = Math.min(oldestEpoch, bucket.epoch);
+            bucket.lots.forEach((parkingLotId, cells) -> {
+                for (VehicleType vehicleType : VehicleType.values()) {
+                    Cell cell = cells[vehicleType.ordinal()];
+                    if (cell != null) {
+                        merged.computeIfAbsent(parkingLotId, id -> new HashMap<>())
+                                .computeIfAbsent(vehicleType, type -> new Totals())
+                                .add(cell);
+                    }
+                }
+            });
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        merged.forEach((parkingLotId, byType) -> byType.forEach((vehicleType, totals) ->
+                rows.add(totals.toMap(parkingLotId, vehicleType, hotSlots))));
+        rows.sort(Comparator.comparingLong((Map<String, Object> row) -> (Long) row.get("conflicts"))
+                .thenComparingDouble(row -> (Double) row.get("lockWaitMs"))
+                .reversed());
+
+        Map<String, Object> window = new LinkedHashMap<>();
+        window.put("windowSeconds", ring.length() * bucketMillis / 1000);
+        window.put("bucketSeconds", bucketMillis / 1000);
+        window.put("coveredSeconds", (currentEpoch - oldestEpoch + 1) * bucketMillis / 1000);
+        window.put("lots", rows.size() > limit ? new ArrayList<>(rows.subList(0, limit)) : rows);
+        return window;
+    }
+
+    private Bucket currentBucket() {
+        long epoch = clock.getAsLong() / bucketMillis;
+        int index = (int) (epoch % ring.length());
+        Bucket bucket = ring.get(index);
+        if (bucket == null || bucket.epoch < epoch) {
+            Bucket fresh = new Bucket(epoch);
+            // Whoever loses the race uses the winner's bucket
+            return ring.compareAndSet(index, bucket, fresh) ? fresh : ring.get(index);
+        }
+        return bucket;
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final Map<Long, Cell[]> lots = new ConcurrentHashMap<>();
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    /**
+     * Contention counters of one lot and vehicle type within one bucket
+     */
+    public static final class Cell {
+        private final int trackedSlots;
+        private final LongAdder allocations = new LongAdder();
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder databaseFallbacks = new LongAdder();
+        private final LongAdder optimisticLockFailures = new LongAdder();
+        private final LongAdder lockWaits = new LongAdder();
+        private final LongAdder lockWaitNanos = new LongAdder();
+        private final LongAccumulator maxLockWaitNanos = new LongAccumulator(Math::max, 0);
+        private final Map<Long, LongAdder> slotConflicts = new ConcurrentHashMap<>();
+        private final Map<Long, GateCounters> gates = new ConcurrentHashMap<>();
+
+        Cell(int trackedSlots) {
+            this.trackedSlots = trackedSlots;
+        }
+
+        /**
+         * Record a candidate slot lost to another entry, coming in through the given gate
+         */
+        public void conflict(Long slotId, Long entryGateId) {
+            conflicts.increment();
+            LongAdder slot = slotConflicts.get(slotId);
+            if (slot == null && slotConflicts.size() < trackedSlots) {
+                slot = slotConflicts.computeIfAbsent(slotId, id -> new LongAdder());
+            }
+            if (slot != null) {
+                slot.increment();
+            }
+            if (entryGateId != null) {
+                gate(entryGateId).conflicts.increment();
+            }
+        }
+
+        /**
+         * Record the time spent in a statement that may wait for another transaction's row lock
+         */
+        public void lockWait(long nanos) {
+            lockWaits.increment();
+            lockWaitNanos.add(nanos);
+            maxLockWaitNanos.accumulate(nanos);
+        }
+
+        /**
+         * Record a successful allocation and how many candidates it took
+         */
+        public void allocated(int attemptCount, Long entryGateId) {
+            allocations.increment();
+            attempts.add(attemptCount);
+            if (entryGateId != null) {
+                gate(entryGateId).allocations.increment();
+            }
+        }
+
+        public void databaseFallback() {
+            databaseFallbacks.increment();
+        }
+
+        public void optimisticLockFailure() {
+            optimisticLockFailures.increment();
+        }
+
+        private GateCounters gate(Long entryGateId) {
+            return gates.computeIfAbsent(entryGateId, id -> new GateCounters());
+        }
+    }
+
+    private static final class GateCounters {
+        private final LongAdder allocations = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+    }
+
+    /**
+     * Sums of the cells of one lot and vehicle type across the window
+     */
+    private static final class Totals {
+        private long allocations;
+        private long attempts;
+        private long conflicts;
+        private long databaseFallbacks;
+        private long optimisticLockFailures;
+        private long lockWaits;
+        private long lockWaitNanos;
+        private long maxLockWaitNanos;
+        private final Map<Long, Long> slotConflicts = new HashMap<>();
+        private final Map<Long, long[]> gates = new HashMap<>();
+
+        void add(Cell cell) {
+            allocations += cell.allocations.sum();
+            attempts += cell.attempts.sum();
+            conflicts += cell.conflicts.sum();
+            databaseFallbacks += cell.databaseFallbacks.sum();
+            optimisticLockFailures += cell.optimisticLockFailures.sum();
+            lockWaits += cell.lockWaits.sum();
+            lockWaitNanos += cell.lockWaitNanos.sum();
+            maxLockWaitNanos = Math.max(maxLockWaitNanos, cell.maxLockWaitNanos.get());
+            cell.slotConflicts.forEach((slotId, count) -> slotConflicts.merge(slotId, count.sum(), Long::sum));
+            cell.gates.forEach((gateId, counters) -> {
+                long[] gate = gates.computeIfAbsent(gateId, id -> new long[2]);
+                gate[0] += counters.allocations.sum();
+                gate[1] += counters.conflicts.sum();
+            });
+        }
+
+        Map<String, Object> toMap(Long parkingLotId, VehicleType vehicleType, int hotSlots) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("parkingLotId", parkingLotId);
+            row.put("vehicleType", vehicleType.name());
+            row.put("allocations", allocations);
+            row.put("attempts", attempts);
+            row.put("retriesPerAllocation", allocations > 0 ? (double) (attempts - allocations) / allocations : 0.0);
+            row.put("conflicts", conflicts);
+            row.put("databaseFallbacks", databaseFallbacks);
+            row.put("optimisticLockFailures", optimisticLockFailures);
+            row.put("lockWaits", lockWaits);
+            row.put("lockWaitMs", lockWaitNanos / 1_000_000.0);
+            row.put("averageLockWaitMs", lockWaits > 0 ? lockWaitNanos / 1_000_000.0 / lockWaits : 0.0);
+            row.put("maxLockWaitMs", maxLockWaitNanos / 1_000_000.0);
+
+            List<Map<String, Object>> slots = new ArrayList<>();
+            slotConflicts.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                    .limit(hotSlots)
+                    .forEach(entry -> slots.add(Map.of("slotId", entry.getKey(), "conflicts", entry.getValue())));
+            row.put("hotSlots", slots);
+
+            List<Map<String, Object>> gateRows = new ArrayList<>();
+            gates.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<Long, long[]> entry) -> entry.getValue()[1]).reversed())
+                    .limit(hotSlots)
+                    .forEach(entry -> gateRows.add(Map.of("entryGateId", entry.getKey(),
+                            "allocations", entry.getValue()[0], "conflicts", entry.getValue()[1])));
+            row.put("gates", gateRows);
+            return row;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.demo.parkinglot.allocation;
+
+import com.demo.parkinglot.exception.SlotAllocationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer command loop for one parking lot.
+ * Commands go into a bounded ring buffer and one owner thread drains them in batches,
+ * so state changes for the lot are applied in order without contending with each other.
+ * When the buffer stays full for longer than the offer timeout, new commands are rejected, unless the
+ * caller must not be refused, in which case it waits for space.
+ * A stopped sequencer refuses new commands and its owner thread exits once the queued ones are applied.
+ */
+public class LotSequencer {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final Long parkingLotId;
+    private final BlockingQueue<SequencedCommand<?>> ringBuffer;
+    private final int maxBatchSize;
+    private final long offerTimeoutMillis;
+    private final Consumer<List<SequencedCommand<?>>> batchHandler;
+    private final Thread owner;
+    /** Held shared while offering, and exclusively to stop, so nothing is queued after the owner's last look */
+    private final ReadWriteLock stopLock = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+
+    public LotSequencer(Long parkingLotId, int capacity, int maxBatchSize, long offerTimeoutMillis,
+                        Consumer<List<SequencedCommand<?>>> batchHandler) {
+        this.parkingLotId = parkingLotId;
+        this.ringBuffer = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.batchHandler = batchHandler;
+        this.owner = new Thread(this::drainLoop, "lot-sequencer-" + parkingLotId);
+        this.owner.setDaemon(true);
+        this.owner.start();
+    }
+
+    public Long getParkingLotId() { return parkingLotId; }
+
+    /**
+     * Queue a command for the owner thread
+     * @return Future completed by the owner thread, or failed immediately if the buffer is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> action) {
+        CompletableFuture<T> result = trySubmit(action);
+        if (result == null) {
+            return CompletableFuture.failedFuture(new SlotAllocationException("Parking lot " + parkingLotId + " is busy, please retry"));
+        }
+        return result;
+    }
+
+    /**
+     * Queue a command for the owner thread
+     * @return Future completed by the owner thread, or null if the command was not queued because the
+     *         buffer stayed full or the sequencer is stopped
+     */
+    public <T> CompletableFuture<T> trySubmit(Supplier<T> action) {
+        SequencedCommand<T> command = new SequencedCommand<>(action);
+        stopLock.readLock().lock();
+        try {
+            if (!running || !ringBuffer.offer(command, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            command.fail(new IllegalStateException("Submission interrupted"));
+        } finally {
+            stopLock.readLock().unlock();
+        }
+        return command.getResult();
+    }
+
+    /**
+     * Queue a command for the owner thread, waiting as long as it takes for buffer space.
+     * The stop lock is given up after every offer timeout, so a stop is never held back by a waiting caller.
+     * @return Future completed by the owner thread, or null if the sequencer was stopped before the command was queued
+     */
+    public <T> CompletableFuture<T> submitWaiting(Supplier<T> action) {
+        SequencedCommand<T> command = new SequencedCommand<>(action);
+        try {
+            while (true) {
+                stopLock.readLock().lock();
+                try {
+                    if (!running) {
+                        return null;
+                    }
+                    if (ringBuffer.offer(command, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                        return command.getResult();
+                    }
+                } finally {
+                    stopLock.readLock().unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            command.fail(new IllegalStateException("Submission interrupted"));
+            return command.getResult();
+        }
+    }
+
+    /**
+     * Number of commands waiting in the buffer
+     */
+    public int getQueueDepth() {
+        return ringBuffer.size();
+    }
+
+    /**
+     * Whether the owner thread is still running
+     */
+    public boolean isOwnerAlive() {
+        return owner.isAlive();
+    }
+
+    /**
+     * Refuse new commands and let the owner thread exit once it has applied the queued ones
+     */
+    public void stop() {
+        stopLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stopLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stop the owner thread now; queued commands are failed
+     */
+    public void shutdown() {
+        stop();
+        owner.interrupt();
+        List<SequencedCommand<?>> pending = new ArrayList<>();
+        ringBuffer.drainTo(pending);
+        pending.forEach(command -> command.fail(new IllegalStateException("Sequencer for parking lot " + parkingLotId + " stopped")));
+    }
+
+    private void drainLoop() {
+        List<SequencedCommand<?>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !ringBuffer.isEmpty()) {
+            try {
+                // Wakes up while idle to notice a stop
+                SequencedCommand<?> first = ringBuffer.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                ringBuffer.drainTo(batch, maxBatchSize - 1);
+                batchHandler.accept(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                // The handler must settle every command; anything left over is failed here
+                batch.forEach(command -> command.fail(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * A queued action and the future its caller is waiting on
+     */
+    public static class SequencedCommand<T> {
+
+        private final Supplier<T> action;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+
+        SequencedCommand(Supplier<T> action) {
+            this.action = action;
+        }
+
+        /**
+         * Run the action on the owner thread, holding the value until {@link #complete()}
+         */
+        public void run() {
+            value = action.get();
+        }
+
+        /**
+         * Hand the value from the last run to the caller
+         */
+        public void complete() {
+            result.complete(value);
+        }
+
+        public void fail(Throwable error) {
+            result.completeExceptionally(error);
+        }
+
+        public CompletableFuture<T> getResult() { return result; }
+    }
+}
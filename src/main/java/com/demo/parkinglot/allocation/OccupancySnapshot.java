@@ -0,0 +1,185 @@
+package com.demo.parkinglot.allocation;
+
+import com.demo.parkinglot.enums.VehicleType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary copy of the allocation indexes: per lot and vehicle type, the slot layout
+ * (IDs, floors, coordinates), the free-slot bitset and the gate rankings, as flat arrays.
+ * The file is written to a temporary name and moved into place, and ends with a CRC32 of
+ * everything before it. Reading maps the file and copies the arrays out in bulk, so no slot
+ * is looked at one by one and no distance ranking is recomputed.
+ */
+public final class OccupancySnapshot {
+
+    private static final int MAGIC = 0x504B4F53;
+    private static final int VERSION = 1;
+
+    private final Instant createdAt;
+    private final List<SlotAllocationIndex> indexes;
+
+    private OccupancySnapshot(Instant createdAt, List<SlotAllocationIndex> indexes) {
+        this.createdAt = createdAt;
+        this.indexes = Collections.unmodifiableList(indexes);
+    }
+
+    public Instant getCreatedAt() { return createdAt; }
+
+    public List<SlotAllocationIndex> getIndexes() { return indexes; }
+
+    /**
+     * Write the indexes to the file, replacing it atomically
+     * @return Size of the snapshot in bytes
+     */
+    public static long write(Path file, List<SlotAllocationIndex> indexes) throws IOException {
+        // Copy each index's bits and rankings once, so the size and the contents agree
+        List<long[]> bitsets = new ArrayList<>(indexes.size());
+        List<Map<Long, int[]>> rankings = new ArrayList<>(indexes.size());
+        long size = 4 + 4 + 8 + 4 + 8;
+        for (SlotAllocationIndex index : indexes) {
+            long[] bits = index.availableWords();
+            Map<Long, int[]> gateRankings = index.gateRankings();
+            bitsets.add(bits);
+            rankings.add(gateRankings);
+            size += 8 + 1 + 4 + (long) index.size() * (8 + 4 + 8 + 8) + 4 + (long) bits.length * 8 + 4
+                    + (long) gateRankings.size() * (8 + (long) index.size() * 4);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Occupancy snapshot too large: " + size + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(Instant.now().toEpochMilli());
+        buffer.putInt(indexes.size());
+        for (int i = 0; i < indexes.size(); i++) {
+            SlotAllocationIndex index = indexes.get(i);
+            int slots = index.size();
+            buffer.putLong(index.getParkingLotId());
+            buffer.put((byte) index.getSlotType().ordinal());
+            buffer.putInt(slots);
+            for (int ordinal = 0; ordinal < slots; ordinal++) {
+                buffer.putLong(index.slotIdAt(ordinal));
+            }
+            for (int ordinal = 0; ordinal < slots; ordinal++) {
+                buffer.putInt(index.floorAt(ordinal));
+            }
+            for (int ordinal = 0; ordinal < slots; ordinal++) {
+                buffer.putDouble(index.xAt(ordinal));
+            }
+            for (int ordinal = 0; ordinal < slots; ordinal++) {
+                buffer.putDouble(index.yAt(ordinal));
+            }
+            long[] bits = bitsets.get(i);
+            buffer.putInt(bits.length);
+            buffer.asLongBuffer().put(bits);
+            buffer.position(buffer.position() + bits.length * 8);
+            buffer.putInt(rankings.get(i).size());
+            for (Map.Entry<Long, int[]> ranking : rankings.get(i).entrySet()) {
+                buffer.putLong(ranking.getKey());
+                buffer.asIntBuffer().put(ranking.getValue());
+                buffer.position(buffer.position() + slots * 4);
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    /**
+     * Map the file and rebuild the indexes saved in it
+     * @throws IOException if the file cannot be read, or is truncated, corrupt or of another version
+     */
+    public static OccupancySnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < 28) {
+                throw new IOException("Occupancy snapshot is truncated");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, (int) length - 8));
+            if (buffer.getLong((int) length - 8) != crc.getValue()) {
+                throw new IOException("Occupancy snapshot checksum mismatch");
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not an occupancy snapshot of version " + VERSION);
+            }
+
+            Instant createdAt = Instant.ofEpochMilli(buffer.getLong());
+            int count = buffer.getInt();
+            List<SlotAllocationIndex> indexes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                indexes.add(readIndex(buffer));
+            }
+            return new OccupancySnapshot(createdAt, indexes);
+        } catch (RuntimeException e) {
+            // A buffer underflow or a bad enum ordinal means the file does not match the format
+            throw new IOException("Occupancy snapshot is malformed", e);
+        }
+    }
+
+    private static SlotAllocationIndex readIndex(ByteBuffer buffer) {
+        long parkingLotId = buffer.getLong();
+        VehicleType slotType = VehicleType.values()[buffer.get()];
+        int slots = buffer.getInt();
+
+        long[] slotIds = new long[slots];
+        buffer.asLongBuffer().get(slotIds);
+        buffer.position(buffer.position() + slots * 8);
+        int[] floors = new int[slots];
+        buffer.asIntBuffer().get(floors);
+        buffer.position(buffer.position() + slots * 4);
+        double[] xCoordinates = new double[slots];
+        buffer.asDoubleBuffer().get(xCoordinates);
+        buffer.position(buffer.position() + slots * 8);
+        double[] yCoordinates = new double[slots];
+        buffer.asDoubleBuffer().get(yCoordinates);
+        buffer.position(buffer.position() + slots * 8);
+
+        long[] availableWords = new long[buffer.getInt()];
+        buffer.asLongBuffer().get(availableWords);
+        buffer.position(buffer.position() + availableWords.length * 8);
+
+        int gates = buffer.getInt();
+        Map<Long, int[]> gateRankings = new HashMap<>(gates * 2);
+        for (int gate = 0; gate < gates; gate++) {
+            long gateId = buffer.getLong();
+            int[] ranking = new int[slots];
+            buffer.asIntBuffer().get(ranking);
+            buffer.position(buffer.position() + slots * 4);
+            gateRankings.put(gateId, ranking);
+        }
+        return SlotAllocationIndex.restore(parkingLotId, slotType, slotIds, floors, xCoordinates, yCoordinates,
+                availableWords, gateRankings);
+    }
+}
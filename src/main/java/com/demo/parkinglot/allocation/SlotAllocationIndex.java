@@ -0,0 +1,363 @@
+package com.demo.parkinglot.allocation;
+
+import com.demo.parkinglot.entity.EntryGate;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.enums.VehicleType;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory allocation index for one parking lot and vehicle type.
+ * Slots are numbered by ordinal (sorted by floor, then slot ID). Each entry gate
+ * gets the ordinals presorted once by distance, and a bitset tracks free slots,
+ * so nearest-slot lookup is "first set bit in gate order".
+ * Free counters per floor and in total are kept in step with the bitset, so full floors are
+ * skipped without scanning and a full lot is detected in O(1).
+ */
+public class SlotAllocationIndex {
+
+    private final Long parkingLotId;
+    private final VehicleType slotType;
+    private final long[] slotIds;
+    private final int[] floors;
+    private final double[] xCoordinates;
+    private final double[] yCoordinates;
+    private final Map<Long, Integer> ordinalsBySlotId;
+    private final Map<Long, int[]> gateRankings = new ConcurrentHashMap<>();
+    private final AtomicLongArray availableBits;
+    private final int[] floorNumbers;
+    private final int[] floorStarts;
+    private final int[] floorGroups;
+    private final AtomicIntegerArray availableByFloor;
+    private final AtomicInteger availableTotal = new AtomicInteger();
+
+    private SlotAllocationIndex(Long parkingLotId, VehicleType slotType, long[] slotIds, int[] floors,
+                                double[] xCoordinates, double[] yCoordinates) {
+        this.parkingLotId = parkingLotId;
+        this.slotType = slotType;
+        this.slotIds = slotIds;
+        this.floors = floors;
+        this.xCoordinates = xCoordinates;
+        this.yCoordinates = yCoordinates;
+
+        int size = slotIds.length;
+        this.ordinalsBySlotId = new HashMap<>(size * 2);
+        this.availableBits = new AtomicLongArray((size + 63) >>> 6);
+        this.floorGroups = new int[size];
+
+        // Ordinals are sorted by floor, so each floor is one contiguous ordinal range
+        int[] distinctFloors = new int[size];
+        int[] starts = new int[size + 1];
+        int groups = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || floors[i] != floors[i - 1]) {
+                distinctFloors[groups] = floors[i];
+                starts[groups] = i;
+                groups++;
+            }
+            floorGroups[i] = groups - 1;
+            ordinalsBySlotId.put(slotIds[i], i);
+        }
+        starts[groups] = size;
+        this.floorNumbers = Arrays.copyOf(distinctFloors, groups);
+        this.floorStarts = Arrays.copyOf(starts, groups + 1);
+        this.availableByFloor = new AtomicIntegerArray(groups);
+    }
+
+    /**
+     * Build an index from the slots of one lot and type, precomputing rankings for the given gates
+     */
+    public static SlotAllocationIndex build(Long parkingLotId, VehicleType slotType,
+                                            List<ParkingSlot> slots, List<EntryGate> entryGates) {
+        ParkingSlot[] ordered = slots.toArray(new ParkingSlot[0]);
+        Arrays.sort(ordered, Comparator.comparingInt(ParkingSlot::getFloor).thenComparing(ParkingSlot::getId));
+
+        int size = ordered.length;
+        long[] slotIds = new long[size];
+        int[] floors = new int[size];
+        double[] xCoordinates = new double[size];
+        double[] yCoordinates = new double[size];
+        for (int i = 0; i < size; i++) {
+            slotIds[i] = ordered[i].getId();
+            floors[i] = ordered[i].getFloor();
+            xCoordinates[i] = ordered[i].getXCoordinate();
+            yCoordinates[i] = ordered[i].getYCoordinate();
+        }
+
+        SlotAllocationIndex index = new SlotAllocationIndex(parkingLotId, slotType, slotIds, floors, xCoordinates, yCoordinates);
+        for (int i = 0; i < size; i++) {
+            if (ordered[i].isAvailable()) {
+                index.markAvailable(i);
+            }
+        }
+        for (EntryGate gate : entryGates) {
+            index.rankingFor(gate);
+        }
+        return index;
+    }
+
+    /**
+     * Recreate an index from its saved arrays, as written to an occupancy snapshot.
+     * Slots must already be in ordinal (floor, slot ID) order and each gate ranking must cover every ordinal.
+     */
+    static SlotAllocationIndex restore(Long parkingLotId, VehicleType slotType, long[] slotIds, int[] floors,
+                                       double[] xCoordinates, double[] yCoordinates, long[] availableWords,
+                                       Map<Long, int[]> gateRankings) {
+        SlotAllocationIndex index = new SlotAllocationIndex(parkingLotId, slotType, slotIds, floors, xCoordinates, yCoordinates);
+        for (int word = 0; word < availableWords.length; word++) {
+            long bits = availableWords[word];
+            while (bits != 0) {
+                index.markAvailable((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        index.gateRankings.putAll(gateRankings);
+        return index;
+    }
+
+    public Long getParkingLotId() { return parkingLotId; }
+
+    public VehicleType getSlotType() { return slotType; }
+
+    /**
+     * Number of slots in the index
+     */
+    public int size() {
+        return slotIds.length;
+    }
+
+    public long slotIdAt(int ordinal) {
+        return slotIds[ordinal];
+    }
+
+    public int floorAt(int ordinal) {
+        return floors[ordinal];
+    }
+
+    /**
+     * Get ordinal of a slot, or -1 if the slot is not part of this index
+     */
+    public int ordinalOf(Long slotId) {
+        Integer ordinal = ordinalsBySlotId.get(slotId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public boolean isAvailable(int ordinal) {
+        return (availableBits.get(ordinal >>> 6) & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * First free slot in ordinal (floor, slot ID) order, skipping full floors
+     * @return ordinal, or -1 if no slot is free
+     */
+    public int firstAvailable() {
+        int[] candidates = topAvailable(1);
+        return candidates.length > 0 ? candidates[0] : -1;
+    }
+
+    /**
+     * First free slot in distance order from the given gate
+     * @return ordinal, or -1 if no slot is free
+     */
+    public int firstAvailableFrom(EntryGate entryGate) {
+        if (availableTotal.get() == 0) {
+            return -1;
+        }
+        for (int ordinal : rankingFor(entryGate)) {
+            if (availableByFloor.get(floorGroups[ordinal]) > 0 && isAvailable(ordinal)) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Up to k free slots in ordinal (floor, slot ID) order.
+     * Floors are picked first by their free counter, then only that floor's range of the bitset is searched.
+     */
+    public int[] topAvailable(int k) {
+        int[] candidates = new int[k];
+        int found = 0;
+        for (int group = 0; group < floorNumbers.length && found < k; group++) {
+            if (availableByFloor.get(group) == 0) {
+                continue;
+            }
+            int end = floorStarts[group + 1];
+            int ordinal = nextAvailable(floorStarts[group], end);
+            while (ordinal >= 0 && found < k) {
+                candidates[found++] = ordinal;
+                ordinal = nextAvailable(ordinal + 1, end);
+            }
+        }
+        return found == k ? candidates : Arrays.copyOf(candidates, found);
+    }
+
+    /**
+     * Up to k free slots in distance order from the given gate
+     */
+    public int[] topAvailableFrom(EntryGate entryGate, int k) {
+        if (availableTotal.get() == 0) {
+            return new int[0];
+        }
+        int[] candidates = new int[k];
+        int found = 0;
+        for (int ordinal : rankingFor(entryGate)) {
+            if (availableByFloor.get(floorGroups[ordinal]) > 0 && isAvailable(ordinal)) {
+                candidates[found++] = ordinal;
+                if (found == k) {
+                    return candidates;
+                }
+            }
+        }
+        return Arrays.copyOf(candidates, found);
+    }
+
+    /**
+     * Mark a slot as occupied
+     * @return true if this call flipped the slot from free to occupied
+     */
+    public boolean markOccupied(int ordinal) {
+        long mask = 1L << ordinal;
+        long previous = availableBits.getAndUpdate(ordinal >>> 6, word -> word & ~mask);
+        if ((previous & mask) == 0) {
+            return false;
+        }
+        availableByFloor.decrementAndGet(floorGroups[ordinal]);
+        availableTotal.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Mark a slot as free
+     * @return true if this call flipped the slot from occupied to free
+     */
+    public boolean markAvailable(int ordinal) {
+        long mask = 1L << ordinal;
+        long previous = availableBits.getAndUpdate(ordinal >>> 6, word -> word | mask);
+        if ((previous & mask) != 0) {
+            return false;
+        }
+        availableByFloor.incrementAndGet(floorGroups[ordinal]);
+        availableTotal.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Number of free slots in the index
+     */
+    public int availableCount() {
+        return availableTotal.get();
+    }
+
+    /**
+     * Free slots per floor number, in floor order
+     */
+    public Map<Integer, Integer> getAvailableByFloor() {
+        Map<Integer, Integer> available = new LinkedHashMap<>();
+        for (int group = 0; group < floorNumbers.length; group++) {
+            available.put(floorNumbers[group], availableByFloor.get(group));
+        }
+        return available;
+    }
+
+    /**
+     * Total slots per floor number, in floor order
+     */
+    public Map<Integer, Integer> getTotalByFloor() {
+        Map<Integer, Integer> totals = new LinkedHashMap<>();
+        for (int group = 0; group < floorNumbers.length; group++) {
+            totals.put(floorNumbers[group], floorStarts[group + 1] - floorStarts[group]);
+        }
+        return totals;
+    }
+
+    /**
+     * Whether the other index has the same slots, positions and free bits as this one
+     */
+    public boolean matches(SlotAllocationIndex other) {
+        if (!Arrays.equals(slotIds, other.slotIds) || !Arrays.equals(floors, other.floors)
+                || !Arrays.equals(xCoordinates, other.xCoordinates) || !Arrays.equals(yCoordinates, other.yCoordinates)) {
+            return false;
+        }
+        return Arrays.equals(availableWords(), other.availableWords());
+    }
+
+    double xAt(int ordinal) {
+        return xCoordinates[ordinal];
+    }
+
+    double yAt(int ordinal) {
+        return yCoordinates[ordinal];
+    }
+
+    /**
+     * Copy of the free-slot bitset, one word at a time
+     */
+    long[] availableWords() {
+        long[] words = new long[availableBits.length()];
+        for (int word = 0; word < words.length; word++) {
+            words[word] = availableBits.get(word);
+        }
+        return words;
+    }
+
+    /**
+     * Gate rankings computed so far, keyed by gate ID
+     */
+    Map<Long, int[]> gateRankings() {
+        return new HashMap<>(gateRankings);
+    }
+
+    /**
+     * Next free ordinal in [from, to), or -1
+     */
+    private int nextAvailable(int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long bits = availableBits.get(word) & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                int ordinal = (word << 6) + Long.numberOfTrailingZeros(bits);
+                return ordinal < to ? ordinal : -1;
+            }
+            word++;
+            if ((word << 6) >= to) {
+                return -1;
+            }
+            bits = availableBits.get(word);
+        }
+    }
+
+    /**
+     * Slot ordinals sorted by squared distance from the gate, computed once per gate
+     */
+    private int[] rankingFor(EntryGate entryGate) {
+        return gateRankings.computeIfAbsent(entryGate.getId(), gateId -> rank(entryGate.getXCoordinate(), entryGate.getYCoordinate()));
+    }
+
+    private int[] rank(double gateX, double gateY) {
+        int size = slotIds.length;
+        double[] distances = new double[size];
+        Integer[] ordinals = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            double deltaX = gateX - xCoordinates[i];
+            double deltaY = gateY - yCoordinates[i];
+            distances[i] = deltaX * deltaX + deltaY * deltaY;
+            ordinals[i] = i;
+        }
+        // Ties keep ordinal (floor, slot ID) order, matching the list-based nearest-slot search
+        Arrays.sort(ordinals, (a, b) -> Double.compare(distances[a], distances[b]));
+        return Arrays.stream(ordinals).mapToInt(Integer::intValue).toArray();
+    }
+}
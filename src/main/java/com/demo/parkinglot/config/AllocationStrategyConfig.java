@@ -1,19 +1,33 @@
 package com.demo.parkinglot.config;
 
+import com.demo.parkinglot.enums.AllocationEngineType;
 import com.demo.parkinglot.enums.AllocationStrategyType;
+import jakarta.validation.constraints.Min;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
 
 /**
  * Configuration properties for slot allocation strategies
  */
 @Configuration
 @ConfigurationProperties(prefix = "parking.allocation")
+@Validated
 public class AllocationStrategyConfig {
 
     private String strategy = "NEAREST_SLOT";
     private boolean enableStrategySwitching = true;
     private boolean logStrategyUsage = false;
+    private String engine = "DATABASE";
+    @Min(1)
+    private int candidateCount = 5;
+    private int sequencerCapacity = 1024;
+    private int sequencerBatchSize = 32;
+    @Min(1)
+    private long sequencerOfferTimeoutMs = 100;
+    private int contentionWindowSeconds = 300;
+    private int contentionBucketSeconds = 10;
+    private int contentionTrackedSlots = 256;
 
     /**
      * Get current strategy type
@@ -29,6 +43,13 @@ public class AllocationStrategyConfig {
         this.strategy = strategyType.name();
     }
 
+    /**
+     * Get engine that decides slot claims
+     */
+    public AllocationEngineType getEngineType() {
+        return AllocationEngineType.fromString(engine);
+    }
+
     /**
      * Validate if strategy is valid
      */
@@ -60,4 +81,74 @@ public class AllocationStrategyConfig {
     public void setLogStrategyUsage(boolean logStrategyUsage) {
         this.logStrategyUsage = logStrategyUsage;
     }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+
+    public void setCandidateCount(int candidateCount) {
+        this.candidateCount = candidateCount;
+    }
+
+    public int getSequencerCapacity() {
+        return sequencerCapacity;
+    }
+
+    public void setSequencerCapacity(int sequencerCapacity) {
+        this.sequencerCapacity = sequencerCapacity;
+    }
+
+    public int getSequencerBatchSize() {
+        return sequencerBatchSize;
+    }
+
+    public void setSequencerBatchSize(int sequencerBatchSize) {
+        this.sequencerBatchSize = sequencerBatchSize;
+    }
+
+    public long getSequencerOfferTimeoutMs() {
+        return sequencerOfferTimeoutMs;
+    }
+
+    public void setSequencerOfferTimeoutMs(long sequencerOfferTimeoutMs) {
+        this.sequencerOfferTimeoutMs = sequencerOfferTimeoutMs;
+    }
+
+    /**
+     * Length of the rolling window reported by the contention endpoint
+     */
+    public int getContentionWindowSeconds() {
+        return contentionWindowSeconds;
+    }
+
+    public void setContentionWindowSeconds(int contentionWindowSeconds) {
+        this.contentionWindowSeconds = contentionWindowSeconds;
+    }
+
+    public int getContentionBucketSeconds() {
+        return contentionBucketSeconds;
+    }
+
+    public void setContentionBucketSeconds(int contentionBucketSeconds) {
+        this.contentionBucketSeconds = contentionBucketSeconds;
+    }
+
+    /**
+     * Distinct slots whose lost races are counted per lot and vehicle type in each bucket
+     */
+    public int getContentionTrackedSlots() {
+        return contentionTrackedSlots;
+    }
+
+    public void setContentionTrackedSlots(int contentionTrackedSlots) {
+        this.contentionTrackedSlots = contentionTrackedSlots;
+    }
 }
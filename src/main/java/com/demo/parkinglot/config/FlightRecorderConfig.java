@@ -0,0 +1,58 @@
+package com.demo.parkinglot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration for on-demand Java Flight Recorder recordings started from the admin API
+ */
+@Component
+@ConfigurationProperties(prefix = "parking.jfr")
+public class FlightRecorderConfig {
+
+    private String directory = "data/jfr";
+    private String settings = "profile";
+    private long maxAgeSeconds = 900;
+    private long maxSizeMb = 250;
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * JDK settings the recording starts from when none is given: "default" (about 1% overhead) or "profile" (about 2%)
+     */
+    public String getSettings() {
+        return settings;
+    }
+
+    public void setSettings(String settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Oldest data kept by a running recording; older chunks are dropped
+     */
+    public long getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    public void setMaxAgeSeconds(long maxAgeSeconds) {
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    /**
+     * Most data kept by a running recording; older chunks are dropped past it
+     */
+    public long getMaxSizeMb() {
+        return maxSizeMb;
+    }
+
+    public void setMaxSizeMb(long maxSizeMb) {
+        this.maxSizeMb = maxSizeMb;
+    }
+}
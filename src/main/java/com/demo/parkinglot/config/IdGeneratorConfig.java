@@ -0,0 +1,30 @@
+package com.demo.parkinglot.config;
+
+import com.demo.parkinglot.util.TimeOrderedIdGenerator;
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for ticket, receipt and receipt-number IDs.
+ * Every node writing to the same database needs its own node ID.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "parking.ids")
+public class IdGeneratorConfig {
+
+    private int nodeId = 0;
+
+    @PostConstruct
+    public void applyNodeId() {
+        TimeOrderedIdGenerator.useNode(nodeId);
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(int nodeId) {
+        this.nodeId = nodeId;
+    }
+}
@@ -0,0 +1,53 @@
+package com.demo.parkinglot.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the parking metrics.
+ * Per-lot meters are capped at max-lot-tags distinct lot IDs; meters for further lots are dropped
+ * instead of growing the registry without bound. The Prometheus endpoint takes HTTP Basic credentials of
+ * the scrape user; with no scrape password set it refuses every request.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "parking.metrics")
+public class MetricsConfig {
+
+    private int maxLotTags = 500;
+    private String scrapeUsername = "prometheus";
+    private String scrapePassword = "";
+
+    @Bean
+    public MeterFilter lotTagLimit() {
+        return MeterFilter.maximumAllowableTags("parking.lot", "lot", maxLotTags, MeterFilter.deny());
+    }
+
+    public int getMaxLotTags() {
+        return maxLotTags;
+    }
+
+    public void setMaxLotTags(int maxLotTags) {
+        this.maxLotTags = maxLotTags;
+    }
+
+    public String getScrapeUsername() {
+        return scrapeUsername;
+    }
+
+    public void setScrapeUsername(String scrapeUsername) {
+        this.scrapeUsername = scrapeUsername;
+    }
+
+    /**
+     * Password the Prometheus scraper presents; blank disables scraping
+     */
+    public String getScrapePassword() {
+        return scrapePassword;
+    }
+
+    public void setScrapePassword(String scrapePassword) {
+        this.scrapePassword = scrapePassword;
+    }
+}
@@ -1,17 +1,26 @@
 package com.demo.parkinglot.config;
 
 import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.tariff.TimeBand;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Startup tariff rules; compiled by TariffService, which owns them afterwards
+ */
 @Component
 @ConfigurationProperties(prefix = "parking.charges")
 public class ParkingChargesConfig {
     
     private Map<String, Double> hourlyRates = new HashMap<>();
+    private Map<String, Double> dailyCaps = new HashMap<>();
+    private int gracePeriodMinutes = 0;
+    private List<TimeBand> timeBands = new ArrayList<>();
     
     public ParkingChargesConfig() {
         // Set default rates
@@ -31,4 +40,41 @@ public class ParkingChargesConfig {
     public double getHourlyRate(VehicleType vehicleType) {
         return hourlyRates.getOrDefault(vehicleType.name(), vehicleType.getDefaultHourlyRate());
     }
+    
+    /**
+     * Maximum charge per 24 hours by vehicle type; types without an entry are uncapped
+     */
+    public Map<String, Double> getDailyCaps() {
+        return dailyCaps;
+    }
+    
+    public void setDailyCaps(Map<String, Double> dailyCaps) {
+        this.dailyCaps = dailyCaps;
+    }
+    
+    public double getDailyCap(VehicleType vehicleType) {
+        return dailyCaps.getOrDefault(vehicleType.name(), 0.0);
+    }
+    
+    /**
+     * Stays shorter than this are free
+     */
+    public int getGracePeriodMinutes() {
+        return gracePeriodMinutes;
+    }
+    
+    public void setGracePeriodMinutes(int gracePeriodMinutes) {
+        this.gracePeriodMinutes = gracePeriodMinutes;
+    }
+    
+    /**
+     * Time-of-day multipliers applied to every vehicle type's hourly rate
+     */
+    public List<TimeBand> getTimeBands() {
+        return timeBands;
+    }
+    
+    public void setTimeBands(List<TimeBand> timeBands) {
+        this.timeBands = timeBands;
+    }
 }
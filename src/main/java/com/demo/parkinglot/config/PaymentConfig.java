@@ -0,0 +1,201 @@
+package com.demo.parkinglot.config;
+
+import com.demo.parkinglot.enums.PaymentGatewayType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration for payment processing during vehicle exit
+ */
+@Component
+@ConfigurationProperties(prefix = "parking.payment")
+public class PaymentConfig {
+
+    private String gateway = "STUB";
+    private int gatewayThreads = 16;
+    private long pendingTimeoutMs = 60000;
+    private long callTimeoutMs = 2000;
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private final Stub stub = new Stub();
+    private final Http http = new Http();
+
+    /**
+     * Get the gateway adapter used at exit
+     */
+    public PaymentGatewayType getGatewayType() {
+        return PaymentGatewayType.fromString(gateway);
+    }
+
+    public String getGateway() {
+        return gateway;
+    }
+
+    public void setGateway(String gateway) {
+        this.gateway = gateway;
+    }
+
+    /**
+     * Threads calling the gateway in PLATFORM execution mode; also the bulkhead limit on concurrent gateway calls
+     */
+    public int getGatewayThreads() {
+        return gatewayThreads;
+    }
+
+    public void setGatewayThreads(int gatewayThreads) {
+        this.gatewayThreads = gatewayThreads;
+    }
+
+    /**
+     * How long a PENDING payment blocks a new attempt for the same ticket
+     */
+    public long getPendingTimeoutMs() {
+        return pendingTimeoutMs;
+    }
+
+    public void setPendingTimeoutMs(long pendingTimeoutMs) {
+        this.pendingTimeoutMs = pendingTimeoutMs;
+    }
+
+    /**
+     * Upper bound on one gateway call, including time queued for a gateway thread
+     */
+    public long getCallTimeoutMs() {
+        return callTimeoutMs;
+    }
+
+    public void setCallTimeoutMs(long callTimeoutMs) {
+        this.callTimeoutMs = callTimeoutMs;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Stub getStub() {
+        return stub;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    /**
+     * Circuit breaker around gateway calls
+     */
+    public static class CircuitBreaker {
+
+        private int failureRateThreshold = 50;
+        private int slidingWindowSize = 20;
+        private int minimumCalls = 10;
+        private long openDurationMs = 30000;
+        private int halfOpenCalls = 3;
+
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public long getOpenDurationMs() {
+            return openDurationMs;
+        }
+
+        public void setOpenDurationMs(long openDurationMs) {
+            this.openDurationMs = openDurationMs;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+    }
+
+    /**
+     * Local stub gateway: log-normal latency around the median, decline and error rates
+     */
+    public static class Stub {
+
+        private long medianLatencyMs = 100;
+        private double latencySigma = 0.3;
+        private double declineRate = 0.05;
+        private double errorRate = 0.0;
+
+        public long getMedianLatencyMs() {
+            return medianLatencyMs;
+        }
+
+        public void setMedianLatencyMs(long medianLatencyMs) {
+            this.medianLatencyMs = medianLatencyMs;
+        }
+
+        public double getLatencySigma() {
+            return latencySigma;
+        }
+
+        public void setLatencySigma(double latencySigma) {
+            this.latencySigma = latencySigma;
+        }
+
+        public double getDeclineRate() {
+            return declineRate;
+        }
+
+        public void setDeclineRate(double declineRate) {
+            this.declineRate = declineRate;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public void setErrorRate(double errorRate) {
+            this.errorRate = errorRate;
+        }
+    }
+
+    /**
+     * HTTP gateway adapter endpoint
+     */
+    public static class Http {
+
+        private String url;
+        private String apiKey;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getApiKey() {
+            return apiKey;
+        }
+
+        public void setApiKey(String apiKey) {
+            this.apiKey = apiKey;
+        }
+    }
+}
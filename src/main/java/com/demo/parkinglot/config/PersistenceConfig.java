@@ -0,0 +1,101 @@
+package com.demo.parkinglot.config;
+
+import com.demo.parkinglot.enums.PersistenceMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration for how entries and exits are persisted
+ */
+@Component
+@ConfigurationProperties(prefix = "parking.persistence")
+public class PersistenceConfig {
+
+    private String mode = "JPA";
+    private final Journal journal = new Journal();
+
+    /**
+     * Get the persistence mode for entries and exits
+     */
+    public PersistenceMode getPersistenceMode() {
+        return PersistenceMode.fromString(mode);
+    }
+
+    public boolean isJournalMode() {
+        return getPersistenceMode() == PersistenceMode.JOURNAL;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Event journal and write-behind settings, used in JOURNAL mode
+     */
+    public static class Journal {
+
+        private String directory = "data/journal";
+        private int segmentSizeMb = 64;
+        private int maxGroupCommit = 1024;
+        private int writeBehindBatchSize = 500;
+        private int maxApplyAttempts = 5;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentSizeMb() {
+            return segmentSizeMb;
+        }
+
+        public void setSegmentSizeMb(int segmentSizeMb) {
+            this.segmentSizeMb = segmentSizeMb;
+        }
+
+        /**
+         * Most appends forced to disk together
+         */
+        public int getMaxGroupCommit() {
+            return maxGroupCommit;
+        }
+
+        public void setMaxGroupCommit(int maxGroupCommit) {
+            this.maxGroupCommit = maxGroupCommit;
+        }
+
+        /**
+         * Most events applied to the database in one transaction
+         */
+        public int getWriteBehindBatchSize() {
+            return writeBehindBatchSize;
+        }
+
+        public void setWriteBehindBatchSize(int writeBehindBatchSize) {
+            this.writeBehindBatchSize = writeBehindBatchSize;
+        }
+
+        /**
+         * Flushes an event may fail on before the write-behind is held at it until resumed; failures of
+         * the database connection itself are retried without limit
+         */
+        public int getMaxApplyAttempts() {
+            return maxApplyAttempts;
+        }
+
+        public void setMaxApplyAttempts(int maxApplyAttempts) {
+            this.maxApplyAttempts = maxApplyAttempts;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.demo.parkinglot.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Configuration for the reactive API.
+ * Reads go through an R2DBC connection pool on the same database as JPA. The pool is kept out of the
+ * context on purpose: a ConnectionFactory bean would switch off the JDBC DataSource and with it JPA, so
+ * only a DatabaseClient is exposed and the R2DBC auto-configuration is excluded. Writes reuse the JPA
+ * services, which block, so they run on a bounded scheduler rather than on request threads.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "parking.reactive")
+public class ReactiveConfig {
+
+    @Autowired
+    private ExecutionConfig executionConfig;
+
+    private String r2dbcUrl = "r2dbc:h2:mem:///testdb;DB_CLOSE_DELAY=-1";
+    private String r2dbcUsername = "sa";
+    private String r2dbcPassword = "";
+    private int maxConnections = 10;
+    private int blockingThreads = 20;
+
+    private ConnectionPool connectionPool;
+
+    /**
+     * Non-blocking client for the reactive API's reads
+     */
+    @Bean
+    public DatabaseClient reactiveDatabaseClient() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate()
+                .option(ConnectionFactoryOptions.USER, r2dbcUsername)
+                .option(ConnectionFactoryOptions.PASSWORD, r2dbcPassword)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive-r2dbc")
+                .maxSize(maxConnections)
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * Scheduler the reactive API runs the blocking JPA services on; its threads follow the execution mode
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler reactiveBlockingScheduler() {
+        return Schedulers.fromExecutorService(
+                executionConfig.newExecutor("reactive-blocking-", blockingThreads), "reactive-blocking");
+    }
+
+    @PreDestroy
+    public void closeConnectionPool() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+
+    public String getR2dbcUrl() {
+        return r2dbcUrl;
+    }
+
+    public void setR2dbcUrl(String r2dbcUrl) {
+        this.r2dbcUrl = r2dbcUrl;
+    }
+
+    public String getR2dbcUsername() {
+        return r2dbcUsername;
+    }
+
+    public void setR2dbcUsername(String r2dbcUsername) {
+        this.r2dbcUsername = r2dbcUsername;
+    }
+
+    public String getR2dbcPassword() {
+        return r2dbcPassword;
+    }
+
+    public void setR2dbcPassword(String r2dbcPassword) {
+        this.r2dbcPassword = r2dbcPassword;
+    }
+
+    /**
+     * Most R2DBC connections held by the reactive reads
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * Platform threads running reactive entries, exits and retries in PLATFORM execution mode
+     */
+    public int getBlockingThreads() {
+        return blockingThreads;
+    }
+
+    public void setBlockingThreads(int blockingThreads) {
+        this.blockingThreads = blockingThreads;
+    }
+}
@@ -0,0 +1,46 @@
+package com.demo.parkinglot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration for the occupancy snapshot used to warm-start the allocation indexes
+ */
+@Component
+@ConfigurationProperties(prefix = "parking.snapshot")
+public class SnapshotConfig {
+
+    private boolean enabled = false;
+    private String directory = "data/snapshot";
+    private boolean verifyOnStartup = true;
+
+    /**
+     * Whether snapshots are written periodically and restored at startup
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Whether restored indexes are compared with the database in the background once the application is ready
+     */
+    public boolean isVerifyOnStartup() {
+        return verifyOnStartup;
+    }
+
+    public void setVerifyOnStartup(boolean verifyOnStartup) {
+        this.verifyOnStartup = verifyOnStartup;
+    }
+}
@@ -2,12 +2,15 @@ package com.demo.parkinglot.controller;
 
 import com.demo.parkinglot.dto.*;
 import com.demo.parkinglot.service.AdminService;
+import com.demo.parkinglot.service.SlotImportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -81,6 +84,16 @@ public class AdminController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Stream-import parking slots from a CSV or NDJSON body
+     */
+    @PostMapping(value = "/slots/import", consumes = {SlotImportService.CSV, SlotImportService.NDJSON})
+    public ResponseEntity<AdminResponse> importParkingSlots(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                            InputStream body) {
+        AdminResponse response = adminService.importParkingSlots(body, contentType);
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Get slot management statistics
      */
@@ -89,4 +102,113 @@ public class AdminController {
         AdminResponse response = adminService.getSlotStatistics();
         return ResponseEntity.ok(response);
     }
+    
+    /**
+     * Rebuild the slot statistics counters from the slot table
+     */
+    @PostMapping("/slots/statistics/rebuild")
+    public ResponseEntity<AdminResponse> rebuildSlotStatistics() {
+        AdminResponse response = adminService.rebuildSlotStatistics();
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Get slot allocation attempt and retry statistics
+     */
+    @GetMapping("/allocation/statistics")
+    public ResponseEntity<AdminResponse> getAllocationStatistics() {
+        AdminResponse response = adminService.getAllocationStatistics();
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Get lock waits, lost races, hot slots and gates per lot over the rolling contention window
+     */
+    @GetMapping("/allocation/contention")
+    public ResponseEntity<AdminResponse> getAllocationContention(@RequestParam(defaultValue = "20") int limit,
+                                                                 @RequestParam(defaultValue = "10") int hotSlots) {
+        AdminResponse response = adminService.getAllocationContention(limit, hotSlots);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Get payment gateway circuit breaker state and latency histogram
+     */
+    @GetMapping("/payments/gateway")
+    public ResponseEntity<AdminResponse> getPaymentGatewayStatistics() {
+        AdminResponse response = adminService.getPaymentGatewayStatistics();
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Get event journal group commit and write-behind counters
+     */
+    @GetMapping("/journal")
+    public ResponseEntity<AdminResponse> getJournalStatistics() {
+        AdminResponse response = adminService.getJournalStatistics();
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Resume the journal write-behind after the event it is held at has been fixed
+     */
+    @PostMapping("/journal/resume")
+    public ResponseEntity<AdminResponse> resumeJournalWriteBehind() {
+        AdminResponse response = adminService.resumeJournalWriteBehind();
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Get startup time, time to first allocation and occupancy snapshot figures
+     */
+    @GetMapping("/startup")
+    public ResponseEntity<AdminResponse> getStartupStatistics() {
+        AdminResponse response = adminService.getStartupStatistics();
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Write an occupancy snapshot now
+     */
+    @PostMapping("/snapshot")
+    public ResponseEntity<AdminResponse> writeOccupancySnapshot() {
+        AdminResponse response = adminService.writeOccupancySnapshot();
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Get the state of the on-demand flight recording and the last file written
+     */
+    @GetMapping("/jfr")
+    public ResponseEntity<AdminResponse> getFlightRecording() {
+        AdminResponse response = adminService.getFlightRecording();
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Start a bounded flight recording from the default or profile settings
+     */
+    @PostMapping("/jfr/start")
+    public ResponseEntity<AdminResponse> startFlightRecording(@RequestParam(required = false) String settings) {
+        AdminResponse response = adminService.startFlightRecording(settings);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Write the running flight recording to a file
+     */
+    @PostMapping("/jfr/dump")
+    public ResponseEntity<AdminResponse> dumpFlightRecording() {
+        AdminResponse response = adminService.dumpFlightRecording();
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Stop the running flight recording and write it to a file
+     */
+    @PostMapping("/jfr/stop")
+    public ResponseEntity<AdminResponse> stopFlightRecording() {
+        AdminResponse response = adminService.stopFlightRecording();
+        return ResponseEntity.ok(response);
+    }
 }
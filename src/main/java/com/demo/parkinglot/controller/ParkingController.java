@@ -3,15 +3,24 @@ package com.demo.parkinglot.controller;
 import com.demo.parkinglot.dto.ParkingRequest;
 import com.demo.parkinglot.dto.PaymentRequest;
 import com.demo.parkinglot.dto.ExitResponse;
+import com.demo.parkinglot.dto.EntryGateResponse;
+import com.demo.parkinglot.dto.TicketResponse;
 import com.demo.parkinglot.entity.*;
+import com.demo.parkinglot.enums.PaymentStatus;
+import com.demo.parkinglot.service.AvailabilityStreamService;
 import com.demo.parkinglot.service.ParkingService;
+import com.demo.parkinglot.service.PaymentService;
 import com.demo.parkinglot.repository.EntryGateRepository;
+import com.demo.parkinglot.repository.ParkingLotRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -27,11 +36,17 @@ public class ParkingController {
     
     @Autowired
     private EntryGateRepository entryGateRepository;
+    
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+    
+    @Autowired
+    private AvailabilityStreamService availabilityStreamService;
 
     @PostMapping("/entry")
-    public ResponseEntity<Ticket> parkVehicle(@RequestBody ParkingRequest request) {
+    public ResponseEntity<TicketResponse> parkVehicle(@RequestBody ParkingRequest request) {
         Ticket ticket = parkingService.parkVehicle(request.getPlateNo(), request.getVehicleType(), request.getOwnerId(), request.getEntryGateId());
-        return ResponseEntity.ok(ticket);
+        return ResponseEntity.ok(TicketResponse.of(ticket));
     }
 
     @PostMapping("/exit/{ticketId}")
@@ -40,9 +55,31 @@ public class ParkingController {
         return ResponseEntity.ok(response);
     }
     
+    @PostMapping("/exit/by-plate/{plateNo}")
+    public ResponseEntity<ExitResponse> exitVehicleByPlate(@PathVariable String plateNo, @RequestBody PaymentRequest paymentRequest) {
+        ExitResponse response = parkingService.unparkVehicleByPlate(plateNo, paymentRequest.getAmount());
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/exit/{ticketId}/async")
+    public ResponseEntity<Map<String, Object>> exitVehicleAsync(@PathVariable Long ticketId, @RequestBody PaymentRequest paymentRequest) {
+        PaymentService.PendingPayment pending = parkingService.unparkVehicleAsync(ticketId, paymentRequest.getAmount());
+        Map<String, Object> response = new HashMap<>();
+        response.put("paymentId", pending.getPaymentId());
+        response.put("ticketId", String.valueOf(pending.getTicketId()));
+        response.put("status", PaymentStatus.PENDING.name());
+        return ResponseEntity.accepted().body(response);
+    }
+    
+    @GetMapping("/payments/{paymentId}")
+    public ResponseEntity<Map<String, Object>> getPaymentStatus(@PathVariable Long paymentId) {
+        Map<String, Object> status = parkingService.getPaymentStatus(paymentId);
+        return ResponseEntity.ok(status);
+    }
+    
     @GetMapping("/entry-gates")
-    public ResponseEntity<List<EntryGate>> getEntryGates() {
-        List<EntryGate> gates = entryGateRepository.findAll();
+    public ResponseEntity<List<EntryGateResponse>> getEntryGates() {
+        List<EntryGateResponse> gates = entryGateRepository.findAllGateResponses();
         return ResponseEntity.ok(gates);
     }
     
@@ -52,6 +89,14 @@ public class ParkingController {
         return ResponseEntity.ok(status);
     }
     
+    @GetMapping(value = "/parking-lot/{parkingLotId}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@PathVariable Long parkingLotId) {
+        if (!parkingLotRepository.existsById(parkingLotId)) {
+            throw new IllegalArgumentException("Parking lot not found");
+        }
+        return availabilityStreamService.subscribe(parkingLotId);
+    }
+    
     @PostMapping("/exit/{ticketId}/retry")
     public ResponseEntity<ExitResponse> retryPayment(@PathVariable Long ticketId, @RequestBody PaymentRequest paymentRequest) {
         ExitResponse response = parkingService.retryPayment(ticketId, paymentRequest.getAmount());
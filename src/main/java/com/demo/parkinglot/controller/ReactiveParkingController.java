@@ -0,0 +1,51 @@
+package com.demo.parkinglot.controller;
+
+import com.demo.parkinglot.dto.ExitResponse;
+import com.demo.parkinglot.dto.ParkingRequest;
+import com.demo.parkinglot.dto.PaymentRequest;
+import com.demo.parkinglot.dto.TicketResponse;
+import com.demo.parkinglot.service.ReactiveParkingService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Non-blocking variant of the parking operations in {@link ParkingController}, for gate integrations.
+ * Handlers return at once and the response is written when the Mono emits, so a request waiting on the
+ * database or the payment gateway holds no servlet thread.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+public class ReactiveParkingController {
+
+    @Autowired
+    private ReactiveParkingService reactiveParkingService;
+
+    @PostMapping("/entry")
+    public Mono<ResponseEntity<TicketResponse>> parkVehicle(@RequestBody ParkingRequest request) {
+        return reactiveParkingService.parkVehicle(request.getPlateNo(), request.getVehicleType(), request.getOwnerId(), request.getEntryGateId())
+                .map(ticket -> ResponseEntity.ok(TicketResponse.of(ticket)));
+    }
+
+    @PostMapping("/exit/{ticketId}")
+    public Mono<ResponseEntity<ExitResponse>> exitVehicle(@PathVariable Long ticketId, @RequestBody PaymentRequest paymentRequest) {
+        return reactiveParkingService.unparkVehicle(ticketId, paymentRequest.getAmount())
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/exit/{ticketId}/retry")
+    public Mono<ResponseEntity<ExitResponse>> retryPayment(@PathVariable Long ticketId, @RequestBody PaymentRequest paymentRequest) {
+        return reactiveParkingService.retryPayment(ticketId, paymentRequest.getAmount())
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/parking-lot/{parkingLotId}/status")
+    public Mono<ResponseEntity<Map<String, Object>>> getParkingLotStatus(@PathVariable Long parkingLotId) {
+        return reactiveParkingService.getParkingLotStatus(parkingLotId)
+                .map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,13 @@
+package com.demo.parkinglot.dto;
+
+/**
+ * Entry gate as listed to clients, projected straight from the gate rows without loading the lot
+ */
+public record EntryGateResponse(
+        Long id,
+        String gateName,
+        int gateNumber,
+        double xCoordinate,
+        double yCoordinate,
+        Long parkingLotId) {
+}
@@ -2,29 +2,47 @@ package com.demo.parkinglot.dto;
 
 import com.demo.parkinglot.entity.Payment;
 import com.demo.parkinglot.entity.Receipt;
+import com.demo.parkinglot.enums.PaymentStatus;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of an exit: the payment, the receipt once paid, and a message.
+ * Built where the payment is settled, inside its transaction, so serializing it never touches the entities.
+ * Ticket and receipt IDs are time-ordered and above 2^53, so they are written as strings.
+ */
+public record ExitResponse(PaymentDetails payment, ReceiptDetails receipt, String message) {
 
-public class ExitResponse {
-    
-    private Payment payment;
-    private Receipt receipt;
-    private String message;
-    
-    // Constructors
-    public ExitResponse() {}
-    
     public ExitResponse(Payment payment, Receipt receipt, String message) {
-        this.payment = payment;
-        this.receipt = receipt;
-        this.message = message;
+        this(PaymentDetails.of(payment), receipt != null ? ReceiptDetails.of(receipt) : null, message);
+    }
+
+    public record PaymentDetails(
+            Long id,
+            @JsonFormat(shape = JsonFormat.Shape.STRING) Long ticketId,
+            double amount,
+            LocalDateTime paidAt,
+            PaymentStatus status,
+            String failureReason) {
+
+        static PaymentDetails of(Payment payment) {
+            return new PaymentDetails(payment.getId(), payment.getTicket().getId(), payment.getAmount(),
+                    payment.getPaidAt(), payment.getStatus(), payment.getFailureReason());
+        }
+    }
+
+    public record ReceiptDetails(
+            @JsonFormat(shape = JsonFormat.Shape.STRING) Long id,
+            String receiptNumber,
+            double totalAmount,
+            double hourlyRate,
+            long durationInMinutes,
+            LocalDateTime generatedAt) {
+
+        static ReceiptDetails of(Receipt receipt) {
+            return new ReceiptDetails(receipt.getId(), receipt.getReceiptNumber(), receipt.getTotalAmount(),
+                    receipt.getHourlyRate(), receipt.getDurationInMinutes(), receipt.getGeneratedAt());
+        }
     }
-    
-    // Getters and Setters
-    public Payment getPayment() { return payment; }
-    public void setPayment(Payment payment) { this.payment = payment; }
-    
-    public Receipt getReceipt() { return receipt; }
-    public void setReceipt(Receipt receipt) { this.receipt = receipt; }
-    
-    public String getMessage() { return message; }
-    public void setMessage(String message) { this.message = message; }
 }
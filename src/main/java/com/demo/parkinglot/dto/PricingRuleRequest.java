@@ -1,6 +1,9 @@
 package com.demo.parkinglot.dto;
 
 import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.tariff.TimeBand;
+
+import java.util.List;
 
 public class PricingRuleRequest {
     
@@ -8,6 +11,10 @@ public class PricingRuleRequest {
     private double hourlyRate;
     private String description;
     private boolean isActive;
+    private Long parkingLotId;
+    private Integer gracePeriodMinutes;
+    private Double dailyCap;
+    private List<TimeBand> timeBands;
     
     // Constructors
     public PricingRuleRequest() {}
@@ -31,4 +38,16 @@ public class PricingRuleRequest {
     
     public boolean isActive() { return isActive; }
     public void setActive(boolean active) { isActive = active; }
+    
+    public Long getParkingLotId() { return parkingLotId; }
+    public void setParkingLotId(Long parkingLotId) { this.parkingLotId = parkingLotId; }
+    
+    public Integer getGracePeriodMinutes() { return gracePeriodMinutes; }
+    public void setGracePeriodMinutes(Integer gracePeriodMinutes) { this.gracePeriodMinutes = gracePeriodMinutes; }
+    
+    public Double getDailyCap() { return dailyCap; }
+    public void setDailyCap(Double dailyCap) { this.dailyCap = dailyCap; }
+    
+    public List<TimeBand> getTimeBands() { return timeBands; }
+    public void setTimeBands(List<TimeBand> timeBands) { this.timeBands = timeBands; }
 }
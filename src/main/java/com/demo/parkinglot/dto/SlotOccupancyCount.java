@@ -0,0 +1,37 @@
+package com.demo.parkinglot.dto;
+
+import com.demo.parkinglot.enums.VehicleType;
+
+/**
+ * One row of the (lot, floor, slot type, available) slot count projection
+ */
+public class SlotOccupancyCount {
+    
+    private final Long parkingLotId;
+    private final int floor;
+    private final VehicleType slotType;
+    private final boolean available;
+    private final long count;
+    
+    public SlotOccupancyCount(int floor, VehicleType slotType, boolean available, long count) {
+        this(null, floor, slotType, available, count);
+    }
+    
+    public SlotOccupancyCount(Long parkingLotId, int floor, VehicleType slotType, boolean available, long count) {
+        this.parkingLotId = parkingLotId;
+        this.floor = floor;
+        this.slotType = slotType;
+        this.available = available;
+        this.count = count;
+    }
+    
+    public Long getParkingLotId() { return parkingLotId; }
+    
+    public int getFloor() { return floor; }
+    
+    public VehicleType getSlotType() { return slotType; }
+    
+    public boolean isAvailable() { return available; }
+    
+    public long getCount() { return count; }
+}
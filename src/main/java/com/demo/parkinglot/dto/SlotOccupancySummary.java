@@ -0,0 +1,47 @@
+package com.demo.parkinglot.dto;
+
+import com.demo.parkinglot.enums.VehicleType;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Slot totals and free counts per floor and per vehicle type, folded from the projection rows.
+ * Size is proportional to floors x types, not to the number of slots.
+ */
+public class SlotOccupancySummary {
+    
+    private final Map<Integer, Long> totalByFloor = new HashMap<>();
+    private final Map<Integer, Long> availableByFloor = new HashMap<>();
+    private final Map<VehicleType, Long> totalByType = new EnumMap<>(VehicleType.class);
+    private final Map<VehicleType, Long> availableByType = new EnumMap<>(VehicleType.class);
+    
+    public SlotOccupancySummary(List<SlotOccupancyCount> counts) {
+        for (SlotOccupancyCount count : counts) {
+            totalByFloor.merge(count.getFloor(), count.getCount(), Long::sum);
+            totalByType.merge(count.getSlotType(), count.getCount(), Long::sum);
+            if (count.isAvailable()) {
+                availableByFloor.merge(count.getFloor(), count.getCount(), Long::sum);
+                availableByType.merge(count.getSlotType(), count.getCount(), Long::sum);
+            }
+        }
+    }
+    
+    public long getTotalSlots(int floor) {
+        return totalByFloor.getOrDefault(floor, 0L);
+    }
+    
+    public long getAvailableSlots(int floor) {
+        return availableByFloor.getOrDefault(floor, 0L);
+    }
+    
+    public long getTotalSlots(VehicleType slotType) {
+        return totalByType.getOrDefault(slotType, 0L);
+    }
+    
+    public long getAvailableSlots(VehicleType slotType) {
+        return availableByType.getOrDefault(slotType, 0L);
+    }
+}
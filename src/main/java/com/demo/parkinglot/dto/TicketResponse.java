@@ -0,0 +1,46 @@
+package com.demo.parkinglot.dto;
+
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.entity.Ticket;
+import com.demo.parkinglot.enums.VehicleType;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ticket as returned to the gate: the ticket's own fields and the IDs and labels of what it refers to,
+ * with no entity graph behind it. The ticket ID is time-ordered and above 2^53, so it is written as a
+ * string that JSON clients cannot round.
+ */
+public record TicketResponse(
+        @JsonFormat(shape = JsonFormat.Shape.STRING) Long id,
+        String plateNo,
+        VehicleType vehicleType,
+        Long slotId,
+        String slotNumber,
+        int floor,
+        Long entryGateId,
+        Long parkingLotId,
+        LocalDateTime entryTime,
+        LocalDateTime exitTime,
+        boolean active) {
+
+    /**
+     * Copy a ticket; reads only the vehicle, slot and gate loaded with it, so it is safe after the transaction
+     */
+    public static TicketResponse of(Ticket ticket) {
+        ParkingSlot slot = ticket.getSlot();
+        return new TicketResponse(
+                ticket.getId(),
+                ticket.getVehicle().getPlateNo(),
+                ticket.getVehicle().getType(),
+                slot.getId(),
+                slot.getSlotNumber(),
+                slot.getFloor(),
+                ticket.getEntryGate().getId(),
+                slot.getParkingLot().getId(),
+                ticket.getEntryTime(),
+                ticket.getExitTime(),
+                ticket.isActive());
+    }
+}
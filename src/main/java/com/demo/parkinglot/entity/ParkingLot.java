@@ -1,6 +1,8 @@
 package com.demo.parkinglot.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
@@ -12,6 +14,7 @@ import java.util.Map;
 import java.util.HashMap;
 
 @Entity
+@EntityListeners(ParkingLotListener.class)
 public class ParkingLot {
     @Id
     @GeneratedValue
@@ -21,9 +24,11 @@ public class ParkingLot {
     private int totalFloors;
     private boolean isActive;
 
+    @JsonIgnore
     @OneToMany(mappedBy = "parkingLot", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<ParkingSlot> parkingSlots;
 
+    @JsonIgnore
     @OneToMany(mappedBy = "parkingLot", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<EntryGate> entryGates;
 
@@ -59,7 +64,8 @@ public class ParkingLot {
     public List<EntryGate> getEntryGates() { return entryGates; }
     public void setEntryGates(List<EntryGate> entryGates) { this.entryGates = entryGates; }
 
-    // Helper methods for floor management
+    // Helper methods for floor management; they walk the lazy slot collection, so they are kept out of JSON
+    @JsonIgnore
     public Map<Integer, Integer> getFloorCapacities() {
         Map<Integer, Integer> floorCapacities = new HashMap<>();
         if (parkingSlots != null) {
@@ -70,6 +76,7 @@ public class ParkingLot {
         return floorCapacities;
     }
 
+    @JsonIgnore
     public Map<Integer, Integer> getAvailableSlotsByFloor() {
         Map<Integer, Integer> availableByFloor = new HashMap<>();
         if (parkingSlots != null) {
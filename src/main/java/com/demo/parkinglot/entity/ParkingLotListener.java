@@ -0,0 +1,23 @@
+package com.demo.parkinglot.entity;
+
+import com.demo.parkinglot.service.OccupancyCounterService;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Registers new parking lots with the occupancy counters, whichever code path inserts them.
+ * Created by Spring through Hibernate's bean container; the service is injected lazily because
+ * it depends on repositories that need the entity manager factory being built.
+ */
+public class ParkingLotListener {
+
+    @Lazy
+    @Autowired
+    private OccupancyCounterService occupancyCounterService;
+
+    @PostPersist
+    public void created(ParkingLot parkingLot) {
+        occupancyCounterService.lotCreated(parkingLot);
+    }
+}
@@ -1,8 +1,8 @@
 package com.demo.parkinglot.entity;
 
-import com.demo.parkinglot.constants.ParkingConstants;
+import com.demo.parkinglot.util.ParkingUtility;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToOne;
 import java.time.LocalDateTime;
@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 public class Receipt {
     
     @Id
-    @GeneratedValue
+    @TimeOrderedId
     private Long id;
     
     @OneToOne
@@ -21,6 +21,7 @@ public class Receipt {
     private double hourlyRate;
     private long durationInMinutes;
     private LocalDateTime generatedAt;
+    @Column(unique = true)
     private String receiptNumber;
     
     // Constructors
@@ -36,7 +37,7 @@ public class Receipt {
     }
     
     public Receipt(Ticket ticket, double totalAmount, double hourlyRate, long durationInMinutes) {
-        this(ticket, totalAmount, hourlyRate, durationInMinutes, ParkingConstants.RECEIPT_PREFIX + "-" + System.currentTimeMillis());
+        this(ticket, totalAmount, hourlyRate, durationInMinutes, ParkingUtility.generateReceiptNumber());
     }
     
     // Getters and Setters
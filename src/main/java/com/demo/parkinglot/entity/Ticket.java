@@ -1,9 +1,7 @@
 package com.demo.parkinglot.entity;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
-import jakarta.persistence.OneToOne;
 import jakarta.persistence.ManyToOne;
 import java.time.LocalDateTime;
 
@@ -11,13 +9,13 @@ import java.time.LocalDateTime;
 public class Ticket {
 
     @Id
-    @GeneratedValue
+    @TimeOrderedId
     private Long id;
 
-    @OneToOne
+    @ManyToOne
     private Vehicle vehicle;
 
-    @OneToOne
+    @ManyToOne
     private ParkingSlot slot;
 
     @ManyToOne
@@ -0,0 +1,29 @@
+package com.demo.parkinglot.entity;
+
+import com.demo.parkinglot.util.TimeOrderedIdGenerator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.IdentifierGenerator;
+
+/**
+ * Hibernate ID generator backed by {@link TimeOrderedIdGenerator#shared()}.
+ * An ID already set on the entity is kept, so rows written behind from the event journal keep the ID
+ * their caller was given.
+ */
+public class TimeOrderedIdentifierGenerator implements IdentifierGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return TimeOrderedIdGenerator.shared().nextId();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return currentValue != null ? currentValue : generate(session, owner);
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+}
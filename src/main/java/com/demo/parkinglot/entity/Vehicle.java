@@ -4,10 +4,13 @@ import com.demo.parkinglot.enums.VehicleType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.EnumType;
 
 @Entity
+@Table(indexes = @Index(name = "idx_vehicle_plate_no", columnList = "plateNo"))
 public class Vehicle {
 
     @Id
@@ -0,0 +1,51 @@
+package com.demo.parkinglot.enums;
+
+/**
+ * Enum for where slot claims are decided
+ */
+public enum AllocationEngineType {
+    
+    DATABASE("Database", "Conditional UPDATE on the slot row decides the claim"),
+    MEMORY("Memory", "CAS on the in-memory occupancy bitset decides the claim, the database confirms it"),
+    SEQUENCER("Sequencer", "One owner thread per parking lot applies entries and exits in batches from a bounded queue");
+    
+    private final String displayName;
+    private final String description;
+    
+    AllocationEngineType(String displayName, String description) {
+        this.displayName = displayName;
+        this.description = description;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public static AllocationEngineType fromString(String engineName) {
+        if (engineName == null || engineName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Allocation engine cannot be null or empty");
+        }
+        
+        try {
+            return AllocationEngineType.valueOf(engineName.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid allocation engine: " + engineName + 
+                ". Valid engines are: " + getValidEngines());
+        }
+    }
+    
+    public static String getValidEngines() {
+        StringBuilder sb = new StringBuilder();
+        for (AllocationEngineType type : AllocationEngineType.values()) {
+            if (!sb.isEmpty()) {
+                sb.append(", ");
+            }
+            sb.append(type.name());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,50 @@
+package com.demo.parkinglot.enums;
+
+/**
+ * Enum for the kind of threads requests, gateway calls and background flushers run on
+ */
+public enum ExecutionMode {
+    
+    PLATFORM("Platform", "Requests run on Tomcat's worker pool and gateway calls on a fixed pool of platform threads"),
+    VIRTUAL("Virtual", "Requests, gateway calls and background flushers each run on their own virtual thread (Java 21+)");
+    
+    private final String displayName;
+    private final String description;
+    
+    ExecutionMode(String displayName, String description) {
+        this.displayName = displayName;
+        this.description = description;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public static ExecutionMode fromString(String modeName) {
+        if (modeName == null || modeName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Execution mode cannot be null or empty");
+        }
+        
+        try {
+            return ExecutionMode.valueOf(modeName.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid execution mode: " + modeName + 
+                ". Valid modes are: " + getValidModes());
+        }
+    }
+    
+    public static String getValidModes() {
+        StringBuilder sb = new StringBuilder();
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            if (!sb.isEmpty()) {
+                sb.append(", ");
+            }
+            sb.append(mode.name());
+        }
+        return sb.toString();
+    }
+}
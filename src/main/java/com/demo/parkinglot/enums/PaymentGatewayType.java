@@ -0,0 +1,50 @@
+package com.demo.parkinglot.enums;
+
+/**
+ * Enum for the payment gateway adapter used at exit
+ */
+public enum PaymentGatewayType {
+    
+    STUB("Stub", "Local simulation with configurable latency distribution and failure rates"),
+    HTTP("HTTP", "JSON over HTTP to an external payment provider");
+    
+    private final String displayName;
+    private final String description;
+    
+    PaymentGatewayType(String displayName, String description) {
+        this.displayName = displayName;
+        this.description = description;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public static PaymentGatewayType fromString(String gatewayName) {
+        if (gatewayName == null || gatewayName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Payment gateway cannot be null or empty");
+        }
+        
+        try {
+            return PaymentGatewayType.valueOf(gatewayName.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid payment gateway: " + gatewayName + 
+                ". Valid gateways are: " + getValidGateways());
+        }
+    }
+    
+    public static String getValidGateways() {
+        StringBuilder sb = new StringBuilder();
+        for (PaymentGatewayType type : PaymentGatewayType.values()) {
+            if (!sb.isEmpty()) {
+                sb.append(", ");
+            }
+            sb.append(type.name());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,50 @@
+package com.demo.parkinglot.enums;
+
+/**
+ * Enum for how parking entries and exits are made durable
+ */
+public enum PersistenceMode {
+    
+    JPA("JPA", "Entries and exits are written through JPA in the request transaction"),
+    JOURNAL("Journal", "Entries and exits are appended to a local event journal and written to the database behind");
+    
+    private final String displayName;
+    private final String description;
+    
+    PersistenceMode(String displayName, String description) {
+        this.displayName = displayName;
+        this.description = description;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public static PersistenceMode fromString(String modeName) {
+        if (modeName == null || modeName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Persistence mode cannot be null or empty");
+        }
+        
+        try {
+            return PersistenceMode.valueOf(modeName.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid persistence mode: " + modeName + 
+                ". Valid modes are: " + getValidModes());
+        }
+    }
+    
+    public static String getValidModes() {
+        StringBuilder sb = new StringBuilder();
+        for (PersistenceMode mode : PersistenceMode.values()) {
+            if (!sb.isEmpty()) {
+                sb.append(", ");
+            }
+            sb.append(mode.name());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.demo.parkinglot.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One payment gateway call, from taking a bulkhead permit to its outcome.
+ * Begun on the calling thread and committed on the thread that completes the call.
+ */
+@Name("com.demo.parkinglot.PaymentGatewayCall")
+@Label("Payment Gateway Call")
+@Category({"Parking", "Payment"})
+@Description("Charging an exit through the payment gateway")
+@StackTrace(false)
+public class PaymentGatewayEvent extends Event {
+
+    @Label("Ticket ID")
+    private long ticketId;
+
+    @Label("Amount")
+    private double amount;
+
+    @Label("Gateway")
+    private String gateway;
+
+    @Label("Outcome")
+    @Description("APPROVED, DECLINED, TIMEOUT, ERROR or REJECTED")
+    private String outcome;
+
+    public void setTicketId(long ticketId) {
+        this.ticketId = ticketId;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+
+    public void setGateway(String gateway) {
+        this.gateway = gateway;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+}
@@ -0,0 +1,38 @@
+package com.demo.parkinglot.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Generating and storing (or journaling) the receipt of a paid exit
+ */
+@Name("com.demo.parkinglot.ReceiptGeneration")
+@Label("Receipt Generation")
+@Category({"Parking", "Payment"})
+@StackTrace(false)
+public class ReceiptGenerationEvent extends Event {
+
+    @Label("Ticket ID")
+    private long ticketId;
+
+    @Label("Receipt Number")
+    private String receiptNumber;
+
+    @Label("Amount")
+    private double amount;
+
+    public void setTicketId(long ticketId) {
+        this.ticketId = ticketId;
+    }
+
+    public void setReceiptNumber(String receiptNumber) {
+        this.receiptNumber = receiptNumber;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+}
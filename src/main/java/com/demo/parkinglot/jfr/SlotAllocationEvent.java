@@ -0,0 +1,64 @@
+package com.demo.parkinglot.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One slot allocation for an entry, from ranking candidates to the claimed slot.
+ * While no recording is running, begin, the setters and commit are a few field writes.
+ */
+@Name("com.demo.parkinglot.SlotAllocation")
+@Label("Slot Allocation")
+@Category({"Parking", "Allocation"})
+@Description("Selecting and claiming a slot for a vehicle entry")
+@StackTrace(false)
+public class SlotAllocationEvent extends Event {
+
+    @Label("Parking Lot ID")
+    private long parkingLotId;
+
+    @Label("Vehicle Type")
+    private String vehicleType;
+
+    @Label("Strategy")
+    private String strategy;
+
+    @Label("Engine")
+    private String engine;
+
+    @Label("Candidates Scanned")
+    @Description("Candidate slots tried, including the one claimed")
+    private int candidatesScanned;
+
+    @Label("Slot ID")
+    @Description("Claimed slot, or 0 if none was claimed")
+    private long slotId;
+
+    public void setParkingLotId(long parkingLotId) {
+        this.parkingLotId = parkingLotId;
+    }
+
+    public void setVehicleType(String vehicleType) {
+        this.vehicleType = vehicleType;
+    }
+
+    public void setStrategy(String strategy) {
+        this.strategy = strategy;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public void setCandidatesScanned(int candidatesScanned) {
+        this.candidatesScanned = candidatesScanned;
+    }
+
+    public void setSlotId(long slotId) {
+        this.slotId = slotId;
+    }
+}
@@ -0,0 +1,320 @@
+package com.demo.parkinglot.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, checksummed event log in memory-mapped segment files.
+ * Each record is [length][CRC32][sequence][event], with the checksum over sequence and event. One writer
+ * thread drains every append queued so far, writes them into the mapped segment and forces the segment to
+ * disk once for the whole batch (group commit); only then are the appends' futures completed. Appends
+ * arriving while a force is running wait for the next one, so an append waits for at most one fsync batch.
+ * On open, records are read back until the first zero length or bad checksum, which marks a write torn by
+ * a crash; the torn tail is zeroed and appending resumes there.
+ */
+public class EventJournal {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxBatchSize;
+    private final Consumer<List<JournalEvent>> durableListener;
+    private final BlockingQueue<PendingAppend> appendQueue = new LinkedBlockingQueue<>();
+    private final NavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long lastSequence;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile IOException failure;
+
+    private final LongAdder appendedEvents = new LongAdder();
+    private final LongAdder groupCommits = new LongAdder();
+    private final LongAdder forceNanos = new LongAdder();
+    private volatile int largestBatch;
+    private int tornRecords;
+
+    /**
+     * @param durableListener Called on the writer thread with each batch once it is on disk, in sequence order
+     */
+    public EventJournal(Path directory, int segmentBytes, int maxBatchSize, Consumer<List<JournalEvent>> durableListener) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBatchSize = maxBatchSize;
+        this.durableListener = durableListener;
+    }
+
+    /**
+     * Read back the existing segments and start the writer
+     * @param afterSequence Events up to this sequence are already applied and are not returned
+     * @return Recovered events after the given sequence, in order
+     */
+    public synchronized List<JournalEvent> open(long afterSequence) throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .forEach(file -> segments.put(firstSequenceOf(file), file));
+        }
+
+        List<JournalEvent> recovered = new ArrayList<>();
+        lastSequence = afterSequence;
+        for (Path file : segments.values()) {
+            closeSegment();
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            lastSequence = Math.max(lastSequence, readSegment(afterSequence, recovered));
+        }
+        if (segment == null || segment.remaining() < HEADER_BYTES) {
+            rotate();
+        }
+
+        running = true;
+        writer = new Thread(this::writeLoop, "event-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        return recovered;
+    }
+
+    /**
+     * Queue an event for the next group commit
+     * @return Future completed with the event's sequence once it is on disk
+     */
+    public CompletableFuture<Long> append(JournalEvent event) {
+        PendingAppend pending = new PendingAppend(event);
+        if (failure != null) {
+            pending.result.completeExceptionally(new IllegalStateException("Event journal failed", failure));
+        } else if (!running) {
+            pending.result.completeExceptionally(new IllegalStateException("Event journal is not running"));
+        } else {
+            appendQueue.add(pending);
+        }
+        return pending.result;
+    }
+
+    /**
+     * Delete segments whose every record is at or below the given sequence; the current segment is kept
+     */
+    public void deleteSegmentsUpTo(long sequence) {
+        for (Map.Entry<Long, Path> entry : segments.entrySet()) {
+            Long next = segments.higherKey(entry.getKey());
+            if (next == null || next - 1 > sequence) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(entry.getValue());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            segments.remove(entry.getKey());
+        }
+    }
+
+    /**
+     * Stop the writer; appends still queued are failed
+     */
+    public synchronized void close() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+        }
+        List<PendingAppend> pending = new ArrayList<>();
+        appendQueue.drainTo(pending);
+        pending.forEach(append -> append.result.completeExceptionally(new IllegalStateException("Event journal stopped")));
+    }
+
+    /**
+     * Get append, group commit and force counters
+     */
+    public Map<String, Object> getSnapshot() {
+        long commits = groupCommits.sum();
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("appendedEvents", appendedEvents.sum());
+        snapshot.put("groupCommits", commits);
+        snapshot.put("averageBatchSize", commits > 0 ? (double) appendedEvents.sum() / commits : 0.0);
+        snapshot.put("largestBatch", largestBatch);
+        snapshot.put("averageForceMs", commits > 0 ? forceNanos.sum() / 1_000_000.0 / commits : 0.0);
+        snapshot.put("queuedAppends", appendQueue.size());
+        snapshot.put("segments", segments.size());
+        snapshot.put("tornRecordsOnOpen", tornRecords);
+        snapshot.put("failed", failure != null);
+        return snapshot;
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(appendQueue.take());
+                appendQueue.drainTo(batch, maxBatchSize - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException | RuntimeException e) {
+                // Records may be partly on disk, so nothing more is appended after a write failure
+                failure = e instanceof IOException io ? io : new IOException(e);
+                running = false;
+                batch.forEach(append -> append.result.completeExceptionally(new IllegalStateException("Event journal failed", e)));
+                List<PendingAppend> queued = new ArrayList<>();
+                appendQueue.drainTo(queued);
+                queued.forEach(append -> append.result.completeExceptionally(new IllegalStateException("Event journal failed", e)));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingAppend> batch) throws IOException {
+        List<JournalEvent> written = new ArrayList<>(batch.size());
+        for (PendingAppend append : batch) {
+            JournalEvent event = append.event.withSequence(lastSequence + 1);
+            write(event);
+            lastSequence = event.getSequence();
+            written.add(event);
+        }
+
+        long start = System.nanoTime();
+        segment.force();
+        forceNanos.add(System.nanoTime() - start);
+        groupCommits.increment();
+        appendedEvents.add(batch.size());
+        largestBatch = Math.max(largestBatch, batch.size());
+
+        // Hand the events on before any caller sees its append complete
+        durableListener.accept(written);
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(written.get(i).getSequence());
+        }
+    }
+
+    private void write(JournalEvent event) throws IOException {
+        int maxSize = event.maxEncodedSize() + Long.BYTES;
+        if (scratch.capacity() < maxSize) {
+            scratch = ByteBuffer.allocate(maxSize);
+        }
+        scratch.clear();
+        scratch.putLong(event.getSequence());
+        event.encode(scratch);
+        scratch.flip();
+
+        int length = scratch.remaining();
+        if (HEADER_BYTES + length > segmentBytes) {
+            throw new IllegalArgumentException("Event does not fit in a journal segment");
+        }
+        if (segment.remaining() < HEADER_BYTES + length) {
+            // The rest of the full segment stays zero, which reads back as its end
+            segment.force();
+            rotate(event.getSequence());
+        }
+
+        crc.reset();
+        crc.update(scratch.duplicate());
+        segment.putInt(length);
+        segment.putInt((int) crc.getValue());
+        segment.put(scratch);
+    }
+
+    /**
+     * Read records from the start of the mapped segment, leaving its position after the last good one
+     * @return Highest sequence read
+     */
+    private long readSegment(long afterSequence, List<JournalEvent> recovered) {
+        long highest = 0;
+        while (segment.remaining() >= HEADER_BYTES) {
+            int start = segment.position();
+            int length = segment.getInt();
+            int checksum = segment.getInt();
+            if (length <= 0) {
+                segment.position(start);
+                break;
+            }
+            if (length > segment.remaining() || checksumOf(segment, length) != checksum) {
+                segment.position(start);
+                zeroFrom(start);
+                tornRecords++;
+                break;
+            }
+            ByteBuffer record = segment.slice(segment.position(), length);
+            segment.position(segment.position() + length);
+            long sequence = record.getLong();
+            highest = sequence;
+            if (sequence > afterSequence) {
+                recovered.add(JournalEvent.decode(sequence, record));
+            }
+        }
+        return highest;
+    }
+
+    private int checksumOf(ByteBuffer buffer, int length) {
+        crc.reset();
+        crc.update(buffer.slice(buffer.position(), length));
+        return (int) crc.getValue();
+    }
+
+    private void zeroFrom(int position) {
+        byte[] zeros = new byte[8192];
+        ByteBuffer tail = segment.duplicate();
+        tail.position(position);
+        while (tail.hasRemaining()) {
+            tail.put(zeros, 0, Math.min(zeros.length, tail.remaining()));
+        }
+        segment.force();
+    }
+
+    private void rotate() throws IOException {
+        rotate(lastSequence + 1);
+    }
+
+    private void rotate(long firstSequence) throws IOException {
+        closeSegment();
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        segments.put(firstSequence, file);
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static class PendingAppend {
+        private final JournalEvent event;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        PendingAppend(JournalEvent event) {
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.demo.parkinglot.journal;
+
+import com.demo.parkinglot.enums.VehicleType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * One park or unpark, as appended to the event journal.
+ * An ENTRY carries everything needed to insert the ticket (and the vehicle if it is new) and occupy
+ * the slot; an EXIT carries the settled payment and the receipt, with IDs assigned up front so a
+ * replay writes exactly the rows the caller was told about.
+ */
+public final class JournalEvent {
+
+    public enum Type { ENTRY, EXIT }
+
+    private final long sequence;
+    private final Type type;
+    private final long ticketId;
+    private final long slotId;
+    private final LocalDateTime time;
+
+    // ENTRY
+    private final String plateNo;
+    private final VehicleType vehicleType;
+    private final String ownerId;
+    private final long entryGateId;
+
+    // EXIT
+    private final long paymentId;
+    private final double amount;
+    private final double hourlyRate;
+    private final long durationInMinutes;
+    private final long receiptId;
+    private final String receiptNumber;
+
+    private JournalEvent(long sequence, Type type, long ticketId, long slotId, LocalDateTime time,
+                         String plateNo, VehicleType vehicleType, String ownerId, long entryGateId,
+                         long paymentId, double amount, double hourlyRate, long durationInMinutes,
+                         long receiptId, String receiptNumber) {
+        this.sequence = sequence;
+        this.type = type;
+        this.ticketId = ticketId;
+        this.slotId = slotId;
+        this.time = time;
+        this.plateNo = plateNo;
+        this.vehicleType = vehicleType;
+        this.ownerId = ownerId;
+        this.entryGateId = entryGateId;
+        this.paymentId = paymentId;
+        this.amount = amount;
+        this.hourlyRate = hourlyRate;
+        this.durationInMinutes = durationInMinutes;
+        this.receiptId = receiptId;
+        this.receiptNumber = receiptNumber;
+    }
+
+    /**
+     * A vehicle entered and was given the slot
+     */
+    public static JournalEvent entry(long ticketId, long slotId, LocalDateTime entryTime, String plateNo,
+                                     VehicleType vehicleType, String ownerId, long entryGateId) {
+        return new JournalEvent(0, Type.ENTRY, ticketId, slotId, entryTime, plateNo, vehicleType, ownerId, entryGateId,
+                0, 0, 0, 0, 0, null);
+    }
+
+    /**
+     * A vehicle paid and left, freeing the slot
+     */
+    public static JournalEvent exit(long ticketId, long slotId, LocalDateTime exitTime, long paymentId, double amount,
+                                    double hourlyRate, long durationInMinutes, long receiptId, String receiptNumber) {
+        return new JournalEvent(0, Type.EXIT, ticketId, slotId, exitTime, null, null, null, 0,
+                paymentId, amount, hourlyRate, durationInMinutes, receiptId, receiptNumber);
+    }
+
+    /**
+     * Copy of this event with the sequence number the journal gave it
+     */
+    JournalEvent withSequence(long sequence) {
+        return new JournalEvent(sequence, type, ticketId, slotId, time, plateNo, vehicleType, ownerId, entryGateId,
+                paymentId, amount, hourlyRate, durationInMinutes, receiptId, receiptNumber);
+    }
+
+    /**
+     * Write the event fields (not the sequence) into the buffer
+     */
+    void encode(ByteBuffer buffer) {
+        buffer.put((byte) type.ordinal());
+        buffer.putLong(ticketId);
+        buffer.putLong(slotId);
+        buffer.putLong(time.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(time.getNano());
+        if (type == Type.ENTRY) {
+            putString(buffer, plateNo);
+            buffer.put((byte) vehicleType.ordinal());
+            putString(buffer, ownerId);
+            buffer.putLong(entryGateId);
+        } else {
+            buffer.putLong(paymentId);
+            buffer.putDouble(amount);
+            buffer.putDouble(hourlyRate);
+            buffer.putLong(durationInMinutes);
+            buffer.putLong(receiptId);
+            putString(buffer, receiptNumber);
+        }
+    }
+
+    /**
+     * Read an event written by {@link #encode(ByteBuffer)}
+     */
+    static JournalEvent decode(long sequence, ByteBuffer buffer) {
+        Type type = Type.values()[buffer.get()];
+        long ticketId = buffer.getLong();
+        long slotId = buffer.getLong();
+        LocalDateTime time = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        if (type == Type.ENTRY) {
+            String plateNo = getString(buffer);
+            VehicleType vehicleType = VehicleType.values()[buffer.get()];
+            String ownerId = getString(buffer);
+            long entryGateId = buffer.getLong();
+            return new JournalEvent(sequence, type, ticketId, slotId, time, plateNo, vehicleType, ownerId, entryGateId,
+                    0, 0, 0, 0, 0, null);
+        }
+        long paymentId = buffer.getLong();
+        double amount = buffer.getDouble();
+        double hourlyRate = buffer.getDouble();
+        long durationInMinutes = buffer.getLong();
+        long receiptId = buffer.getLong();
+        String receiptNumber = getString(buffer);
+        return new JournalEvent(sequence, type, ticketId, slotId, time, null, null, null, 0,
+                paymentId, amount, hourlyRate, durationInMinutes, receiptId, receiptNumber);
+    }
+
+    /**
+     * Upper bound on the encoded size
+     */
+    int maxEncodedSize() {
+        return 128 + 4 * (length(plateNo) + length(ownerId) + length(receiptNumber));
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    /**
+     * One-line description with every field, as logged when the write-behind is held at it
+     */
+    @Override
+    public String toString() {
+        String common = type + " sequence=" + sequence + " ticketId=" + ticketId + " slotId=" + slotId + " time=" + time;
+        if (type == Type.ENTRY) {
+            return common + " plateNo=" + plateNo + " vehicleType=" + vehicleType + " ownerId=" + ownerId
+                    + " entryGateId=" + entryGateId;
+        }
+        return common + " paymentId=" + paymentId + " amount=" + amount + " hourlyRate=" + hourlyRate
+                + " durationInMinutes=" + durationInMinutes + " receiptId=" + receiptId + " receiptNumber=" + receiptNumber;
+    }
+
+    public long getSequence() { return sequence; }
+    public Type getType() { return type; }
+    public long getTicketId() { return ticketId; }
+    public long getSlotId() { return slotId; }
+    public LocalDateTime getTime() { return time; }
+    public String getPlateNo() { return plateNo; }
+    public VehicleType getVehicleType() { return vehicleType; }
+    public String getOwnerId() { return ownerId; }
+    public long getEntryGateId() { return entryGateId; }
+    public long getPaymentId() { return paymentId; }
+    public double getAmount() { return amount; }
+    public double getHourlyRate() { return hourlyRate; }
+    public long getDurationInMinutes() { return durationInMinutes; }
+    public long getReceiptId() { return receiptId; }
+    public String getReceiptNumber() { return receiptNumber; }
+}
@@ -0,0 +1,214 @@
+package com.demo.parkinglot.metrics;
+
+import com.demo.parkinglot.allocation.AllocationStatistics;
+import com.demo.parkinglot.enums.AllocationStrategyType;
+import com.demo.parkinglot.enums.PaymentStatus;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.exception.SlotAllocationException;
+import com.demo.parkinglot.service.OccupancyCounterService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer meters for the entry, allocation and payment paths and per-lot occupancy.
+ * Every timer is registered up front for each tag combination and picked by enum ordinal, so
+ * recording does not build tags or look up the registry. Tags are bounded: vehicle type, strategy,
+ * outcome, payment status and lot ID, and the lot tag is capped by {@link com.demo.parkinglot.config.MetricsConfig}.
+ * Allocation counters are read from {@link AllocationStatistics} when scraped, adding nothing to the hot path.
+ */
+@Component
+public class ParkingMetrics {
+
+    /**
+     * Outcome of an entry request
+     */
+    public enum EntryOutcome { PARKED, LOT_FULL, REJECTED, FAILED }
+
+    /**
+     * Outcome of a payment gateway call
+     */
+    public enum GatewayOutcome { APPROVED, DECLINED, TIMEOUT, ERROR, REJECTED }
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    @Autowired
+    private OccupancyCounterService occupancyCounterService;
+
+    // Indexed by vehicle type ordinal, with a last row for unparseable types, then by outcome ordinal
+    private final Timer[][] entryTimers;
+    private final Map<AllocationStrategyType, Timer> strategyTimers = new EnumMap<>(AllocationStrategyType.class);
+    private final Map<PaymentStatus, Timer> paymentTimers = new EnumMap<>(PaymentStatus.class);
+    private final Timer[] gatewayTimers;
+    private final MultiGauge totalSlots;
+    private final MultiGauge availableSlots;
+
+    @Autowired
+    public ParkingMetrics(MeterRegistry registry, AllocationStatistics allocationStatistics) {
+        VehicleType[] vehicleTypes = VehicleType.values();
+        EntryOutcome[] entryOutcomes = EntryOutcome.values();
+        entryTimers = new Timer[vehicleTypes.length + 1][entryOutcomes.length];
+        for (int type = 0; type <= vehicleTypes.length; type++) {
+            String typeTag = type < vehicleTypes.length ? vehicleTypes[type].name() : UNKNOWN;
+            for (EntryOutcome outcome : entryOutcomes) {
+                entryTimers[type][outcome.ordinal()] = latencyTimer("parking.entry", "Vehicle entry, including slot allocation and commit")
+                        .tags("vehicleType", typeTag, "outcome", outcome.name())
+                        .register(registry);
+            }
+        }
+
+        for (AllocationStrategyType strategyType : AllocationStrategyType.values()) {
+            strategyTimers.put(strategyType, Timer.builder("parking.allocation.strategy")
+                    .description("Time for the allocation strategy to select or rank candidate slots")
+                    .tags("strategy", strategyType.name())
+                    .register(registry));
+        }
+
+        for (PaymentStatus status : PaymentStatus.values()) {
+            paymentTimers.put(status, latencyTimer("parking.payment", "Exit payment from validation to settlement")
+                    .tags("status", status.name())
+                    .register(registry));
+        }
+
+        GatewayOutcome[] gatewayOutcomes = GatewayOutcome.values();
+        gatewayTimers = new Timer[gatewayOutcomes.length];
+        for (GatewayOutcome outcome : gatewayOutcomes) {
+            gatewayTimers[outcome.ordinal()] = latencyTimer("parking.payment.gateway", "Payment gateway call")
+                    .tags("outcome", outcome.name())
+                    .register(registry);
+        }
+
+        allocationCounter(registry, "parking.allocation.allocations", "Slots allocated", allocationStatistics,
+                AllocationStatistics::getAllocationCount);
+        allocationCounter(registry, "parking.allocation.attempts", "Candidate slots tried, including the successful one",
+                allocationStatistics, AllocationStatistics::getAttemptCount);
+        allocationCounter(registry, "parking.allocation.conflicts", "Candidate slots lost to a concurrent entry",
+                allocationStatistics, AllocationStatistics::getConflictCount);
+        allocationCounter(registry, "parking.allocation.database.fallbacks", "Allocations that exhausted the ranked candidates",
+                allocationStatistics, AllocationStatistics::getDatabaseFallbackCount);
+        Gauge.builder("parking.allocation.attempts.max", allocationStatistics, AllocationStatistics::getMaxAttempts)
+                .description("Most candidates tried by a single allocation")
+                .register(registry);
+
+        totalSlots = MultiGauge.builder("parking.lot.slots")
+                .description("Slots per parking lot and vehicle type")
+                .register(registry);
+        availableSlots = MultiGauge.builder("parking.lot.slots.available")
+                .description("Free slots per parking lot and vehicle type")
+                .register(registry);
+    }
+
+    /**
+     * Record an entry request that started at the given System.nanoTime()
+     */
+    public void recordEntry(String vehicleType, EntryOutcome outcome, long startNanos) {
+        entryTimers[vehicleTypeRow(vehicleType)][outcome.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record how long a strategy took to select or rank slots
+     */
+    public void recordStrategySelection(AllocationStrategyType strategyType, long startNanos) {
+        strategyTimers.get(strategyType).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a finished exit payment with its final status
+     */
+    public void recordPayment(PaymentStatus status, long startNanos) {
+        paymentTimers.get(status).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a payment gateway call and how long it took
+     */
+    public void recordGatewayCall(GatewayOutcome outcome, long elapsedNanos) {
+        gatewayTimers[outcome.ordinal()].record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Classify a failed entry: a full lot, a request the service refused, or an unexpected failure
+     */
+    public static EntryOutcome outcomeOf(RuntimeException e) {
+        if (e instanceof SlotAllocationException) {
+            return e.getMessage() != null && e.getMessage().contains("is full") ? EntryOutcome.LOT_FULL : EntryOutcome.REJECTED;
+        }
+        if (e instanceof IllegalArgumentException || e instanceof IllegalStateException) {
+            return EntryOutcome.REJECTED;
+        }
+        return EntryOutcome.FAILED;
+    }
+
+    /**
+     * Refresh the per-lot occupancy gauges from the occupancy counters, summing the floors of each lot.
+     * Lots are registered in ID order, so past the lot tag cap it is the newest lots that go unreported.
+     */
+    @Scheduled(fixedDelayString = "${parking.metrics.occupancy-refresh-ms:15000}")
+    public void refreshOccupancy() {
+        List<OccupancyCounterService.CounterSnapshot> cells = new ArrayList<>(occupancyCounterService.snapshot());
+        cells.sort(Comparator.comparing(OccupancyCounterService.CounterSnapshot::getParkingLotId)
+                .thenComparing(OccupancyCounterService.CounterSnapshot::getSlotType));
+        Map<Tags, int[]> counts = new LinkedHashMap<>();
+        for (OccupancyCounterService.CounterSnapshot cell : cells) {
+            Tags tags = Tags.of("lot", String.valueOf(cell.getParkingLotId()), "vehicleType", cell.getSlotType().name());
+            int[] lotCounts = counts.computeIfAbsent(tags, key -> new int[2]);
+            lotCounts[0] += cell.getTotal();
+            lotCounts[1] += cell.getAvailable();
+        }
+
+        List<MultiGauge.Row<?>> totalRows = new ArrayList<>(counts.size());
+        List<MultiGauge.Row<?>> availableRows = new ArrayList<>(counts.size());
+        counts.forEach((tags, lotCounts) -> {
+            totalRows.add(MultiGauge.Row.of(tags, lotCounts[0]));
+            availableRows.add(MultiGauge.Row.of(tags, lotCounts[1]));
+        });
+        // Overwrite, so lots that disappeared stop being reported
+        totalSlots.register(totalRows, true);
+        availableSlots.register(availableRows, true);
+    }
+
+    private static Timer.Builder latencyTimer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30));
+    }
+
+    private static void allocationCounter(MeterRegistry registry, String name, String description,
+                                          AllocationStatistics allocationStatistics,
+                                          ToDoubleFunction<AllocationStatistics> count) {
+        FunctionCounter.builder(name, allocationStatistics, count)
+                .description(description)
+                .register(registry);
+    }
+
+    private static int vehicleTypeRow(String vehicleType) {
+        VehicleType[] vehicleTypes = VehicleType.values();
+        if (vehicleType != null) {
+            String trimmed = vehicleType.trim();
+            for (VehicleType type : vehicleTypes) {
+                if (type.name().equalsIgnoreCase(trimmed)) {
+                    return type.ordinal();
+                }
+            }
+        }
+        return vehicleTypes.length;
+    }
+}
@@ -1,10 +1,18 @@
 package com.demo.parkinglot.oauth.config;
 
+import com.demo.parkinglot.config.MetricsConfig;
 import com.demo.parkinglot.oauth.service.CustomOAuth2UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
@@ -13,14 +21,44 @@ public class SecurityConfig {
     @Autowired
     private CustomOAuth2UserService customOAuth2UserService;
 
+    @Autowired
+    private MetricsConfig metricsConfig;
+
+    /**
+     * Prometheus scraping: HTTP Basic with the configured scrape user, which holds only the METRICS role
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain metricsScrapeFilterChain(HttpSecurity http) throws Exception {
+        InMemoryUserDetailsManager scrapeUsers = new InMemoryUserDetailsManager();
+        if (!metricsConfig.getScrapePassword().isBlank()) {
+            PasswordEncoder passwordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
+            scrapeUsers.createUser(User.withUsername(metricsConfig.getScrapeUsername())
+                    .password(passwordEncoder.encode(metricsConfig.getScrapePassword()))
+                    .roles("METRICS")
+                    .build());
+        }
+        http
+                .securityMatcher("/actuator/prometheus")
+                .authorizeHttpRequests(authorize -> authorize.anyRequest().hasRole("METRICS"))
+                .httpBasic(Customizer.withDefaults())
+                .userDetailsService(scrapeUsers)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers("/swagger-ui/*", "/v3/api-docs/*", "/h2-console/*").permitAll() // Open docs and H2
                         .requestMatchers("/api/health/*", "/api/info/*").permitAll() // Health and info endpoints
-                        .requestMatchers("/api/admin/*").hasRole("ADMIN") // Admin only endpoints
+                        .requestMatchers("/actuator/health").permitAll() // Health checks
+                        .requestMatchers("/actuator/**").hasRole("ADMIN") // Other actuator endpoints
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN") // Admin only endpoints
                         .requestMatchers("/api/entry", "/api/exit/*", "/api/entry-gates", "/api/parking-lot/*/status").authenticated() // Public parking operations
+                        .requestMatchers("/api/reactive/**").authenticated() // Reactive variant of the parking operations
                         .anyRequest().authenticated()
                 )
                 .oauth2Login(oauth2 -> oauth2.userInfoEndpoint()
@@ -0,0 +1,199 @@
+package com.demo.parkinglot.payment;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker.
+ * While CLOSED, the outcomes of the last N calls are kept; once enough calls are recorded and the failure
+ * rate reaches the threshold, the breaker opens and calls are refused without touching the gateway.
+ * After the open duration a few trial calls are let through (HALF_OPEN): all of them succeeding closes
+ * the breaker again, any failure reopens it.
+ * Each granted call carries a {@link Permit} naming the state it was let through in; an outcome only counts
+ * towards the state its call was granted in, so a slow call started while CLOSED that finishes during
+ * HALF_OPEN is not taken for a trial call.
+ */
+public class CircuitBreaker {
+    
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+    
+    /**
+     * Permission for one call, tied to the state and the state period it was granted in
+     */
+    public static final class Permit {
+        
+        private static final Permit REFUSED = new Permit(State.OPEN, -1);
+        
+        private final State state;
+        private final long period;
+        
+        private Permit(State state, long period) {
+            this.state = state;
+            this.period = period;
+        }
+        
+        public boolean isGranted() {
+            return this != REFUSED;
+        }
+        
+        public State getState() {
+            return state;
+        }
+    }
+    
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationMillis;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+    
+    private final boolean[] outcomes;
+    private int bufferedCalls;
+    private int bufferedFailures;
+    private int nextOutcome;
+    
+    private State state = State.CLOSED;
+    /** Incremented on every transition, so permits from an earlier period are recognized */
+    private long period;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+    private long rejectedCalls;
+    private long timesOpened;
+    
+    public CircuitBreaker(int failureRateThreshold, int slidingWindowSize, int minimumCalls,
+                          long openDurationMillis, int halfOpenCalls, LongSupplier clock) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = Math.min(minimumCalls, slidingWindowSize);
+        this.openDurationMillis = openDurationMillis;
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+        this.outcomes = new boolean[slidingWindowSize];
+    }
+    
+    /**
+     * Ask to make one call; a granted permit must be passed to recordSuccess or recordFailure,
+     * or to releasePermission if the call was never made
+     * @return A permit that is not granted if the breaker is open or all half-open trial calls are in flight
+     */
+    public synchronized Permit tryAcquirePermission() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openDurationMillis) {
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.CLOSED) {
+            return new Permit(state, period);
+        }
+        if (state == State.HALF_OPEN && halfOpenPermits < halfOpenCalls) {
+            halfOpenPermits++;
+            return new Permit(state, period);
+        }
+        rejectedCalls++;
+        return Permit.REFUSED;
+    }
+    
+    /**
+     * Check whether a call would currently be let through, without taking a permission
+     */
+    public synchronized boolean isCallPermitted() {
+        return state != State.OPEN || clock.getAsLong() - openedAt >= openDurationMillis;
+    }
+    
+    /**
+     * Give back a permission whose call was never made, without recording an outcome
+     */
+    public synchronized void releasePermission(Permit permit) {
+        if (isCurrent(permit) && state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+    
+    /**
+     * Record a call that succeeded; ignored if the breaker has changed state since its permit was granted
+     */
+    public synchronized void recordSuccess(Permit permit) {
+        if (!isCurrent(permit)) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+    
+    /**
+     * Record a call that failed; ignored if the breaker has changed state since its permit was granted
+     */
+    public synchronized void recordFailure(Permit permit) {
+        if (!isCurrent(permit)) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (bufferedCalls >= minimumCalls && bufferedFailures * 100 >= failureRateThreshold * bufferedCalls) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+    
+    /**
+     * Get state, failure rate over the window and rejection counters
+     */
+    public synchronized Map<String, Object> getSnapshot() {
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("state", state.name());
+        snapshot.put("bufferedCalls", bufferedCalls);
+        snapshot.put("failureRatePercent", bufferedCalls > 0 ? bufferedFailures * 100.0 / bufferedCalls : 0.0);
+        snapshot.put("failureRateThresholdPercent", failureRateThreshold);
+        snapshot.put("rejectedCalls", rejectedCalls);
+        snapshot.put("timesOpened", timesOpened);
+        if (state == State.OPEN) {
+            snapshot.put("retryInMs", Math.max(0, openDurationMillis - (clock.getAsLong() - openedAt)));
+        }
+        return snapshot;
+    }
+    
+    private boolean isCurrent(Permit permit) {
+        return permit.isGranted() && permit.period == period;
+    }
+    
+    private void record(boolean failure) {
+        if (bufferedCalls == outcomes.length) {
+            if (outcomes[nextOutcome]) {
+                bufferedFailures--;
+            }
+        } else {
+            bufferedCalls++;
+        }
+        outcomes[nextOutcome] = failure;
+        if (failure) {
+            bufferedFailures++;
+        }
+        nextOutcome = (nextOutcome + 1) % outcomes.length;
+    }
+    
+    private void transitionTo(State newState) {
+        state = newState;
+        period++;
+        halfOpenPermits = 0;
+        halfOpenSuccesses = 0;
+        if (newState == State.OPEN) {
+            openedAt = clock.getAsLong();
+            timesOpened++;
+        }
+        if (newState == State.CLOSED) {
+            bufferedCalls = 0;
+            bufferedFailures = 0;
+            nextOutcome = 0;
+        }
+    }
+}
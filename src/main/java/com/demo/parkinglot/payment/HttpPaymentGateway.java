@@ -0,0 +1,74 @@
+package com.demo.parkinglot.payment;
+
+import com.demo.parkinglot.exception.PaymentProcessingException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Gateway adapter for a provider that takes a JSON charge request over HTTP.
+ * A 2xx response approves the charge, 402 declines it, anything else is a gateway error.
+ * Each request carries an Idempotency-Key header for its payment attempt, so a charge the provider received
+ * but did not answer before the timeout is not taken twice if the attempt is resent.
+ */
+public class HttpPaymentGateway implements PaymentGateway {
+    
+    private final HttpClient httpClient;
+    private final URI chargeUri;
+    private final String apiKey;
+    private final Duration requestTimeout;
+    
+    public HttpPaymentGateway(String chargeUrl, String apiKey, long requestTimeoutMs) {
+        if (chargeUrl == null || chargeUrl.isBlank()) {
+            throw new IllegalArgumentException("parking.payment.http.url is required for the HTTP payment gateway");
+        }
+        this.chargeUri = URI.create(chargeUrl);
+        this.apiKey = apiKey;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .build();
+    }
+    
+    @Override
+    public boolean charge(Long ticketId, double amount, String idempotencyKey) {
+        String body = String.format(Locale.ROOT, "{\"reference\":\"ticket-%d\",\"amount\":%.2f}", ticketId, amount);
+        HttpRequest.Builder request = HttpRequest.newBuilder(chargeUri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", idempotencyKey)
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (apiKey != null && !apiKey.isBlank()) {
+            request.header("Authorization", "Bearer " + apiKey);
+        }
+        
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new PaymentProcessingException("GATEWAY", "Payment gateway unreachable: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("GATEWAY", "Payment gateway call interrupted");
+        }
+        
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+            return true;
+        }
+        if (status == 402) {
+            return false;
+        }
+        throw new PaymentProcessingException("GATEWAY", "Payment gateway answered HTTP " + status);
+    }
+    
+    @Override
+    public String getGatewayName() {
+        return "HTTP";
+    }
+}
@@ -0,0 +1,88 @@
+package com.demo.parkinglot.payment;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram.
+ * Recording is one striped counter increment, so it can sit on every gateway call;
+ * percentiles are reported as the upper bound of the bucket they fall in.
+ */
+public class LatencyHistogram {
+    
+    private static final long[] BUCKET_BOUNDS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+    
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MS.length + 1];
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+    
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+    
+    /**
+     * Record one call duration
+     */
+    public void record(long elapsedNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MS.length && micros > BUCKET_BOUNDS_MS[bucket] * 1000) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+    
+    /**
+     * Get count, mean, max, bucket percentiles and per-bucket counts
+     */
+    public Map<String, Object> getSnapshot() {
+        long[] counts = new long[buckets.length];
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        
+        Map<String, Long> bucketCounts = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            bucketCounts.put("le" + BUCKET_BOUNDS_MS[i] + "ms", counts[i]);
+        }
+        bucketCounts.put("gt" + BUCKET_BOUNDS_MS[BUCKET_BOUNDS_MS.length - 1] + "ms", counts[BUCKET_BOUNDS_MS.length]);
+        
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("count", count);
+        snapshot.put("meanMs", count > 0 ? totalMicros.sum() / 1000.0 / count : 0.0);
+        snapshot.put("maxMs", maxMicros.get() / 1000.0);
+        snapshot.put("p50Ms", percentile(counts, count, 0.50));
+        snapshot.put("p95Ms", percentile(counts, count, 0.95));
+        snapshot.put("p99Ms", percentile(counts, count, 0.99));
+        snapshot.put("buckets", bucketCounts);
+        return snapshot;
+    }
+    
+    /**
+     * Upper bound of the bucket holding the given quantile; the max for the overflow bucket
+     */
+    private double percentile(long[] counts, long count, double quantile) {
+        if (count == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return BUCKET_BOUNDS_MS[i];
+            }
+        }
+        return maxMicros.get() / 1000.0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.demo.parkinglot.payment;
+
+/**
+ * Adapter to a payment provider.
+ * Implementations may block; callers run them on the gateway pool behind a timeout,
+ * a bulkhead and a circuit breaker.
+ */
+public interface PaymentGateway {
+    
+    /**
+     * Charge the amount for a ticket
+     * @param ticketId Ticket being paid, used as the payment reference
+     * @param amount Amount to charge
+     * @param idempotencyKey Unique per payment attempt; a resent attempt carries the same key
+     * @return true if the charge was approved, false if the provider declined it
+     * @throws com.demo.parkinglot.exception.PaymentProcessingException if the provider could not be reached or answered with an error
+     */
+    boolean charge(Long ticketId, double amount, String idempotencyKey);
+    
+    /**
+     * Get gateway name
+     */
+    String getGatewayName();
+}
@@ -0,0 +1,48 @@
+package com.demo.parkinglot.payment;
+
+import com.demo.parkinglot.exception.PaymentProcessingException;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local gateway simulation.
+ * Latency is drawn from a log-normal distribution around the median, so a few calls take several
+ * times longer than most. A share of calls is declined and a separate share fails with a gateway error.
+ */
+public class StubPaymentGateway implements PaymentGateway {
+    
+    private final long medianLatencyMs;
+    private final double latencySigma;
+    private final double declineRate;
+    private final double errorRate;
+    
+    public StubPaymentGateway(long medianLatencyMs, double latencySigma, double declineRate, double errorRate) {
+        this.medianLatencyMs = medianLatencyMs;
+        this.latencySigma = latencySigma;
+        this.declineRate = declineRate;
+        this.errorRate = errorRate;
+    }
+    
+    @Override
+    public boolean charge(Long ticketId, double amount, String idempotencyKey) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latencyMs = Math.round(medianLatencyMs * Math.exp(latencySigma * random.nextGaussian()));
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("GATEWAY", "Payment gateway call interrupted");
+        }
+        
+        double outcome = random.nextDouble();
+        if (outcome < errorRate) {
+            throw new PaymentProcessingException("GATEWAY", "Simulated payment gateway error");
+        }
+        return outcome >= errorRate + declineRate;
+    }
+    
+    @Override
+    public String getGatewayName() {
+        return "STUB";
+    }
+}
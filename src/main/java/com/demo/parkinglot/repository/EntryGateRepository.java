@@ -1,7 +1,9 @@
 package com.demo.parkinglot.repository;
 
+import com.demo.parkinglot.dto.EntryGateResponse;
 import com.demo.parkinglot.entity.EntryGate;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +11,8 @@ import java.util.List;
 @Repository
 public interface EntryGateRepository extends JpaRepository<EntryGate, Long> {
     List<EntryGate> findByParkingLotId(Long parkingLotId);
+    
+    @Query("SELECT new com.demo.parkinglot.dto.EntryGateResponse(g.id, g.gateName, g.gateNumber, g.xCoordinate, g.yCoordinate, g.parkingLot.id) " +
+           "FROM EntryGate g ORDER BY g.id")
+    List<EntryGateResponse> findAllGateResponses();
 }
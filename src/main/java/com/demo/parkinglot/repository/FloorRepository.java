@@ -3,6 +3,7 @@ package com.demo.parkinglot.repository;
 import com.demo.parkinglot.entity.Floor;
 import com.demo.parkinglot.entity.ParkingLot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -28,4 +29,12 @@ public interface FloorRepository extends JpaRepository<Floor, Long> {
     
     @Query("SELECT SUM(f.availableSlots) FROM Floor f WHERE f.parkingLot = :parkingLot AND f.isActive = true")
     Integer getTotalAvailableSlots(@Param("parkingLot") ParkingLot parkingLot);
+    
+    @Modifying
+    @Query("UPDATE Floor f SET f.availableSlots = f.availableSlots + :change WHERE f.id = :floorId")
+    int adjustAvailableSlots(@Param("floorId") Long floorId, @Param("change") int change);
+    
+    @Modifying
+    @Query("UPDATE Floor f SET f.totalSlots = f.totalSlots + :count, f.availableSlots = f.availableSlots + :count WHERE f.id = :floorId")
+    int addSlots(@Param("floorId") Long floorId, @Param("count") int count);
 }
@@ -2,6 +2,7 @@ package com.demo.parkinglot.repository;
 
 import com.demo.parkinglot.entity.ParkingSlot;
 import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.dto.SlotOccupancyCount;
 import com.demo.parkinglot.entity.Floor;
 import com.demo.parkinglot.enums.VehicleType;
 import jakarta.persistence.LockModeType;
@@ -15,21 +16,17 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
-public interface ParkingSlotRepository extends JpaRepository<ParkingSlot, Long> {
+public interface ParkingSlotRepository extends JpaRepository<ParkingSlot, Long>, ParkingSlotRepositoryCustom {
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT ps FROM ParkingSlot ps WHERE ps.available = true AND ps.slotType = :slotType ORDER BY ps.floor ASC")
     List<ParkingSlot> findAvailableSlotsByType(@Param("slotType") VehicleType slotType);
     
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT ps FROM ParkingSlot ps WHERE ps.available = true AND ps.slotType = :slotType")
     List<ParkingSlot> findAllAvailableSlotsByType(@Param("slotType") VehicleType slotType);
     
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT ps FROM ParkingSlot ps WHERE ps.available = true AND ps.slotType = :slotType AND ps.parkingLot = :parkingLot ORDER BY ps.floor ASC")
     List<ParkingSlot> findAvailableSlotsByTypeAndParkingLot(@Param("slotType") VehicleType slotType, @Param("parkingLot") ParkingLot parkingLot);
     
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT ps FROM ParkingSlot ps WHERE ps.available = true AND ps.slotType = :slotType AND ps.floor = :floor ORDER BY ps.id ASC")
     List<ParkingSlot> findAvailableSlotsByTypeAndFloor(@Param("slotType") VehicleType slotType, @Param("floor") int floor);
     
@@ -59,6 +56,8 @@ public interface ParkingSlotRepository extends JpaRepository<ParkingSlot, Long>
     @Query("SELECT ps FROM ParkingSlot ps WHERE ps.parkingLot = :parkingLot AND ps.floor = :floor")
     List<ParkingSlot> findByParkingLotAndFloor(@Param("parkingLot") ParkingLot parkingLot, @Param("floor") int floor);
     
+    List<ParkingSlot> findByParkingLotAndSlotType(ParkingLot parkingLot, VehicleType slotType);
+    
     long countByParkingLotAndSlotType(ParkingLot parkingLot, VehicleType slotType);
     
     long countByAvailableTrue();
@@ -70,4 +69,18 @@ public interface ParkingSlotRepository extends JpaRepository<ParkingSlot, Long>
     long countByParkingLot(ParkingLot parkingLot);
     
     long countByParkingLotAndAvailableTrue(ParkingLot parkingLot);
+    
+    @Query("SELECT new com.demo.parkinglot.dto.SlotOccupancyCount(ps.floor, ps.slotType, ps.available, COUNT(ps)) " +
+           "FROM ParkingSlot ps WHERE ps.parkingLot = :parkingLot GROUP BY ps.floor, ps.slotType, ps.available")
+    List<SlotOccupancyCount> countSlotsByFloorTypeAndAvailability(@Param("parkingLot") ParkingLot parkingLot);
+    
+    @Query("SELECT new com.demo.parkinglot.dto.SlotOccupancyCount(ps.parkingLot.id, ps.floor, ps.slotType, ps.available, COUNT(ps)) " +
+           "FROM ParkingSlot ps GROUP BY ps.parkingLot.id, ps.floor, ps.slotType, ps.available")
+    List<SlotOccupancyCount> countAllSlotsByLotFloorTypeAndAvailability();
+    
+    @Query("SELECT ps.floorEntity.id, COUNT(ps), SUM(CASE WHEN ps.available = true THEN 1 ELSE 0 END) FROM ParkingSlot ps WHERE ps.floorEntity IS NOT NULL GROUP BY ps.floorEntity.id")
+    List<Object[]> countSlotsByFloorEntity();
+    
+    @Query("SELECT ps.parkingLot.id, ps.slotType, COUNT(ps) FROM ParkingSlot ps WHERE ps.available = true GROUP BY ps.parkingLot.id, ps.slotType")
+    List<Object[]> countAvailableSlotsByLotAndType();
 }
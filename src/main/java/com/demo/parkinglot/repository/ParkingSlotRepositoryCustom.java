@@ -0,0 +1,29 @@
+package com.demo.parkinglot.repository;
+
+import com.demo.parkinglot.entity.EntryGate;
+import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.enums.AllocationStrategyType;
+import com.demo.parkinglot.enums.VehicleType;
+
+import java.util.Optional;
+
+/**
+ * Custom slot repository operations that need direct EntityManager access
+ */
+public interface ParkingSlotRepositoryCustom {
+
+    /**
+     * Claim exactly one free slot in the current transaction.
+     * Selects the best candidate for the strategy and flips it to occupied, locking only that row.
+     * Rows locked by other transactions are skipped where the dialect supports SKIP LOCKED;
+     * elsewhere an ordered conditional UPDATE is retried on the next candidate until none is left.
+     * @param parkingLot Parking lot to claim in
+     * @param slotType Vehicle type of the slot
+     * @param strategyType Strategy that defines candidate ordering
+     * @param entryGate Entry gate used for distance ordering
+     * @return Claimed slot, or empty if no slot is free
+     */
+    Optional<ParkingSlot> claimSlot(ParkingLot parkingLot, VehicleType slotType,
+                                    AllocationStrategyType strategyType, EntryGate entryGate);
+}
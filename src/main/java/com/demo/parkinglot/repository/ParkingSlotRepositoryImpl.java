@@ -0,0 +1,141 @@
+package com.demo.parkinglot.repository;
+
+import com.demo.parkinglot.entity.EntryGate;
+import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.enums.AllocationStrategyType;
+import com.demo.parkinglot.enums.VehicleType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.LockOptions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Single-row slot claim implementation for {@link ParkingSlotRepositoryCustom}
+ */
+public class ParkingSlotRepositoryImpl implements ParkingSlotRepositoryCustom {
+
+    private static final String CANDIDATE_FILTER =
+            " FROM ParkingSlot ps WHERE ps.available = true AND ps.slotType = :slotType AND ps.parkingLot = :parkingLot";
+
+    private static final String NOT_LOST = " AND ps.id NOT IN :lostSlotIds";
+
+    private static final String LEVEL_ORDER = " ORDER BY ps.floor ASC, ps.id ASC";
+
+    private static final String DISTANCE_ORDER =
+            " ORDER BY (ps.xCoordinate - :gateX) * (ps.xCoordinate - :gateX) + (ps.yCoordinate - :gateY) * (ps.yCoordinate - :gateY) ASC, ps.floor ASC, ps.id ASC";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean skipLockedSupported;
+
+    @Override
+    public Optional<ParkingSlot> claimSlot(ParkingLot parkingLot, VehicleType slotType,
+                                           AllocationStrategyType strategyType, EntryGate entryGate) {
+        return supportsSkipLocked()
+                ? claimWithSkipLocked(parkingLot, slotType, strategyType, entryGate)
+                : claimWithConditionalUpdate(parkingLot, slotType, strategyType, entryGate);
+    }
+
+    /**
+     * Lock the first candidate row nobody else holds, then flip it
+     */
+    private Optional<ParkingSlot> claimWithSkipLocked(ParkingLot parkingLot, VehicleType slotType,
+                                                      AllocationStrategyType strategyType, EntryGate entryGate) {
+        TypedQuery<ParkingSlot> query = entityManager
+                .createQuery("SELECT ps" + CANDIDATE_FILTER + orderFor(strategyType), ParkingSlot.class)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint("jakarta.persistence.lock.timeout", LockOptions.SKIP_LOCKED)
+                .setMaxResults(1);
+        bindParameters(query, parkingLot, slotType, strategyType, entryGate);
+
+        List<ParkingSlot> candidates = query.getResultList();
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ParkingSlot slot = candidates.get(0);
+        if (flip(slot.getId()) != 1) {
+            return Optional.empty();
+        }
+        slot.setAvailable(false);
+        return Optional.of(slot);
+    }
+
+    /**
+     * Read the best candidate without locking and flip it with a conditional UPDATE,
+     * moving on to the next candidate if another transaction got there first.
+     * A lost slot is left out of the next read: the UPDATE saw it occupied, and a snapshot read could
+     * keep offering it. Every lost race moves on by one row, so the claim only ends empty once the
+     * read finds no other free slot.
+     */
+    private Optional<ParkingSlot> claimWithConditionalUpdate(ParkingLot parkingLot, VehicleType slotType,
+                                                             AllocationStrategyType strategyType, EntryGate entryGate) {
+        List<Long> lostSlotIds = new ArrayList<>();
+        while (true) {
+            TypedQuery<Long> query = entityManager
+                    .createQuery("SELECT ps.id" + CANDIDATE_FILTER + (lostSlotIds.isEmpty() ? "" : NOT_LOST)
+                            + orderFor(strategyType), Long.class)
+                    .setMaxResults(1);
+            bindParameters(query, parkingLot, slotType, strategyType, entryGate);
+            if (!lostSlotIds.isEmpty()) {
+                query.setParameter("lostSlotIds", lostSlotIds);
+            }
+
+            List<Long> candidates = query.getResultList();
+            if (candidates.isEmpty()) {
+                return Optional.empty();
+            }
+
+            Long slotId = candidates.get(0);
+            if (flip(slotId) == 1) {
+                ParkingSlot slot = entityManager.find(ParkingSlot.class, slotId);
+                // Reflect the bulk update on the managed entity
+                slot.setAvailable(false);
+                return Optional.of(slot);
+            }
+            lostSlotIds.add(slotId);
+        }
+    }
+
+    private int flip(Long slotId) {
+        return entityManager
+                .createQuery("UPDATE ParkingSlot ps SET ps.available = false WHERE ps.id = :slotId AND ps.available = true")
+                .setParameter("slotId", slotId)
+                .executeUpdate();
+    }
+
+    private String orderFor(AllocationStrategyType strategyType) {
+        return strategyType == AllocationStrategyType.NEAREST_SLOT ? DISTANCE_ORDER : LEVEL_ORDER;
+    }
+
+    private void bindParameters(TypedQuery<?> query, ParkingLot parkingLot, VehicleType slotType,
+                                AllocationStrategyType strategyType, EntryGate entryGate) {
+        query.setParameter("slotType", slotType);
+        query.setParameter("parkingLot", parkingLot);
+        if (strategyType == AllocationStrategyType.NEAREST_SLOT) {
+            query.setParameter("gateX", entryGate.getXCoordinate());
+            query.setParameter("gateY", entryGate.getYCoordinate());
+        }
+    }
+
+    private boolean supportsSkipLocked() {
+        Boolean supported = skipLockedSupported;
+        if (supported == null) {
+            supported = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect()
+                    .supportsSkipLocked();
+            skipLockedSupported = supported;
+        }
+        return supported;
+    }
+}
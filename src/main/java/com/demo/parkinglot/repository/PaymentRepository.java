@@ -3,10 +3,18 @@ package com.demo.parkinglot.repository;
 import com.demo.parkinglot.entity.Payment;
 import com.demo.parkinglot.entity.Ticket;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     Optional<Payment> findByTicket(Ticket ticket);
+    
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.demo.parkinglot.enums.PaymentStatus.FAILED, p.failureReason = :reason " +
+           "WHERE p.id = :paymentId AND p.status = com.demo.parkinglot.enums.PaymentStatus.PENDING")
+    int failIfPending(@Param("paymentId") Long paymentId, @Param("reason") String reason);
 }
@@ -1,9 +1,14 @@
 package com.demo.parkinglot.repository;
 
 import com.demo.parkinglot.entity.Receipt;
+import com.demo.parkinglot.entity.Ticket;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface ReceiptRepository extends JpaRepository<Receipt, Long> {
+    
+    Optional<Receipt> findByTicket(Ticket ticket);
 }
@@ -3,9 +3,30 @@ package com.demo.parkinglot.repository;
 import com.demo.parkinglot.entity.Ticket;
 import com.demo.parkinglot.entity.Vehicle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
     Optional<Ticket> findByVehicleAndActiveTrue(Vehicle vehicle);
+    
+    @Query("SELECT t.vehicle.plateNo, t.id FROM Ticket t WHERE t.active = true")
+    List<Object[]> findActivePlateNumbersAndTicketIds();
+    
+    @Query("SELECT t.id FROM Ticket t WHERE t.vehicle.plateNo = :plateNo AND t.active = true")
+    List<Long> findActiveTicketIdsByPlateNo(@Param("plateNo") String plateNo);
+    
+    boolean existsByIdAndActiveFalse(Long id);
+    
+    @Modifying
+    @Query("UPDATE Ticket t SET t.active = false, t.exitTime = :exitTime WHERE t.id = :ticketId AND t.active = true")
+    int closeTicket(@Param("ticketId") Long ticketId, @Param("exitTime") LocalDateTime exitTime);
+    
+    @Modifying
+    @Query("UPDATE Ticket t SET t.vehicle = :to WHERE t.vehicle = :from")
+    int moveTickets(@Param("from") Vehicle from, @Param("to") Vehicle to);
 }
\ No newline at end of file
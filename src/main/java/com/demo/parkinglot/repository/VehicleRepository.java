@@ -1,10 +1,22 @@
 package com.demo.parkinglot.repository;
 
 import com.demo.parkinglot.entity.Vehicle;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     Optional<Vehicle> findByPlateNo(String plateNo);
-}
\ No newline at end of file
+
+    @Query("SELECT v.id, v.plateNo FROM Vehicle v WHERE v.id > :afterId ORDER BY v.id")
+    List<Object[]> findPlateNumbersAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Vehicle v SET v.plateNo = :plateNo WHERE v.id = :vehicleId")
+    int updatePlateNo(@Param("vehicleId") Long vehicleId, @Param("plateNo") String plateNo);
+}
@@ -0,0 +1,99 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.repository.TicketRepository;
+import com.demo.parkinglot.util.ParkingUtility;
+import com.demo.parkinglot.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory registry of active tickets keyed by normalized plate number.
+ * Loaded from the active tickets at startup and kept current by park and unpark, so a duplicate entry
+ * on this node and an exit-by-plate lookup are O(1) map operations. It is a fast path only: entries
+ * still check the database, which also sees tickets opened through other nodes.
+ * An entry reserves its plate before allocation; the ticket ID is bound once the entry commits
+ * and the reservation is dropped if it rolls back.
+ */
+@Service
+public class ActiveSessionRegistry {
+
+    /** Marks a plate whose entry is still in flight */
+    private static final Long PENDING = -1L;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    private final Map<String, Long> activeTickets = new ConcurrentHashMap<>();
+
+    /**
+     * Load active tickets; entries registered while loading are kept
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (Object[] row : ticketRepository.findActivePlateNumbersAndTicketIds()) {
+            activeTickets.putIfAbsent(ParkingUtility.normalizePlateNumber((String) row[0]), (Long) row[1]);
+        }
+    }
+
+    /**
+     * Reserve a plate for an entry; the reservation is released if the transaction rolls back.
+     * A plate held by a ticket that has since been closed, by an exit through another node, is taken over.
+     * @return false if the plate is already parked or entering
+     */
+    public boolean reserve(String plateNo) {
+        String key = ParkingUtility.normalizePlateNumber(plateNo);
+        Long current;
+        while ((current = activeTickets.putIfAbsent(key, PENDING)) != null) {
+            if (PENDING.equals(current) || !ticketRepository.existsByIdAndActiveFalse(current)) {
+                return false;
+            }
+            activeTickets.remove(key, current);
+        }
+        TransactionHooks.afterRollback(() -> activeTickets.remove(key, PENDING));
+        return true;
+    }
+
+    /**
+     * Drop the reservation of an entry that failed outside a transaction
+     */
+    public void release(String plateNo) {
+        activeTickets.remove(ParkingUtility.normalizePlateNumber(plateNo), PENDING);
+    }
+
+    /**
+     * Bind a reserved plate to its ticket once the entry commits
+     */
+    public void entered(String plateNo, Long ticketId) {
+        String key = ParkingUtility.normalizePlateNumber(plateNo);
+        TransactionHooks.afterCommit(() -> activeTickets.put(key, ticketId));
+    }
+
+    /**
+     * Drop a plate once its exit commits
+     */
+    public void exited(String plateNo, Long ticketId) {
+        String key = ParkingUtility.normalizePlateNumber(plateNo);
+        TransactionHooks.afterCommit(() -> activeTickets.remove(key, ticketId));
+    }
+
+    /**
+     * Get the active ticket of a plate, if its entry has committed
+     */
+    public Optional<Long> findActiveTicketId(String plateNo) {
+        Long ticketId = activeTickets.get(ParkingUtility.normalizePlateNumber(plateNo));
+        return ticketId == null || PENDING.equals(ticketId) ? Optional.empty() : Optional.of(ticketId);
+    }
+
+    /**
+     * Number of plates currently parked or entering
+     */
+    public int size() {
+        return activeTickets.size();
+    }
+}
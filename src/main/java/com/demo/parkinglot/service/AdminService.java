@@ -1,15 +1,19 @@
 package com.demo.parkinglot.service;
 
+import com.demo.parkinglot.allocation.AllocationStatistics;
+import com.demo.parkinglot.allocation.ContentionTracker;
 import com.demo.parkinglot.dto.*;
 import com.demo.parkinglot.entity.*;
 import com.demo.parkinglot.repository.*;
 import com.demo.parkinglot.enums.VehicleType;
-import com.demo.parkinglot.config.ParkingChargesConfig;
+import com.demo.parkinglot.tariff.Tariff;
+import com.demo.parkinglot.tariff.TariffTable;
 
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -17,7 +21,7 @@ import java.util.*;
 public class AdminService {
     
     @Autowired
-    private ParkingChargesConfig parkingChargesConfig;
+    private TariffService tariffService;
     
     @Autowired
     private ParkingLotRepository parkingLotRepository;
@@ -31,25 +35,55 @@ public class AdminService {
     @Autowired
     private EntryGateRepository entryGateRepository;
     
+    @Autowired
+    private SlotAllocationIndexService slotAllocationIndexService;
+    
+    @Autowired
+    private AllocationStatistics allocationStatistics;
+    
+    @Autowired
+    private ContentionTracker contentionTracker;
+    
+    @Autowired
+    private OccupancyCounterService occupancyCounterService;
+    
+    @Autowired
+    private PaymentGatewayService paymentGatewayService;
+    
+    @Autowired
+    private SlotImportService slotImportService;
+    
+    @Autowired
+    private EventJournalService eventJournalService;
+    
+    @Autowired
+    private OccupancySnapshotService occupancySnapshotService;
+    
+    @Autowired
+    private FlightRecorderService flightRecorderService;
+    
     /**
      * Update pricing rules for vehicle types
      */
     @Transactional
     public AdminResponse updatePricingRules(PricingRuleRequest request) {
         try {
+            if (request.getParkingLotId() != null && !parkingLotRepository.existsById(request.getParkingLotId())) {
+                return new AdminResponse(false, "Parking lot not found");
+            }
+            
             // Validate pricing hierarchy
             if (!validatePricingHierarchy(request)) {
                 return new AdminResponse(false, "Invalid pricing: Bike rate must be less than Car rate, and Car rate must be less than Truck rate");
             }
             
-            // Update pricing configuration
-            Map<String, Double> hourlyRates = parkingChargesConfig.getHourlyRates();
-            hourlyRates.put(request.getVehicleType().name(), request.getHourlyRate());
-            parkingChargesConfig.setHourlyRates(hourlyRates);
+            // Compile the new rule and swap it in; exits in flight keep the table they started with
+            Tariff tariff = tariffService.updateRule(request.getParkingLotId(), request.getVehicleType(),
+                    request.getHourlyRate(), request.getGracePeriodMinutes(), request.getDailyCap(), request.getTimeBands());
             
-            Map<String, Object> data = new HashMap<>();
+            Map<String, Object> data = new HashMap<>(tariff.getSnapshot());
             data.put("vehicleType", request.getVehicleType().getDisplayName());
-            data.put("hourlyRate", request.getHourlyRate());
+            data.put("parkingLotId", request.getParkingLotId());
             data.put("description", request.getDescription());
             data.put("isActive", request.isActive());
             
@@ -66,16 +100,23 @@ public class AdminService {
     public AdminResponse getPricingRules() {
         try {
             Map<String, Object> pricingData = new HashMap<>();
-            Map<String, Double> hourlyRates = parkingChargesConfig.getHourlyRates();
+            TariffTable table = tariffService.getTable();
             
             for (VehicleType type : VehicleType.values()) {
-                Map<String, Object> typeData = new HashMap<>();
-                typeData.put("hourlyRate", hourlyRates.getOrDefault(type.name(), type.getDefaultHourlyRate()));
+                Map<String, Object> typeData = new HashMap<>(table.defaultTariff(type).getSnapshot());
                 typeData.put("displayName", type.getDisplayName());
                 typeData.put("isActive", true);
                 pricingData.put(type.name(), typeData);
             }
             
+            Map<Long, Map<String, Object>> lotOverrides = new HashMap<>();
+            table.getLotOverrides().forEach((parkingLotId, overrides) -> {
+                Map<String, Object> lotData = new HashMap<>();
+                overrides.forEach((type, tariff) -> lotData.put(type.name(), tariff.getSnapshot()));
+                lotOverrides.put(parkingLotId, lotData);
+            });
+            pricingData.put("lotOverrides", lotOverrides);
+            
             return new AdminResponse(true, "Pricing rules retrieved successfully", pricingData);
             
         } catch (Exception e) {
@@ -108,10 +149,12 @@ public class AdminService {
             
             ParkingSlot savedSlot = parkingSlotRepository.save(newSlot);
             
-            // Update floor capacity
-            floor.setTotalSlots(floor.getTotalSlots() + 1);
-            floor.setAvailableSlots(floor.getAvailableSlots() + 1);
-            floorRepository.save(floor);
+            // Update floor capacity in place, without overwriting concurrent availability changes
+            floorRepository.addSlots(floor.getId(), 1);
+            
+            // Layout changed, rebuild allocation indexes for this lot
+            slotAllocationIndexService.invalidate(parkingLot.getId());
+            occupancyCounterService.slotAdded(savedSlot);
             
             Map<String, Object> data = new HashMap<>();
             data.put("slotId", savedSlot.getId());
@@ -141,16 +184,16 @@ public class AdminService {
                 return new AdminResponse(false, "Cannot remove occupied parking slot. Please wait until vehicle exits.");
             }
             
-            // Update floor capacity
+            // Update floor capacity in place, without overwriting concurrent availability changes
             Floor floor = slot.getFloorEntity();
             if (floor != null) {
-                floor.setTotalSlots(floor.getTotalSlots() - 1);
-                floor.setAvailableSlots(floor.getAvailableSlots() - 1);
-                floorRepository.save(floor);
+                floorRepository.addSlots(floor.getId(), -1);
             }
             
             // Remove slot
             parkingSlotRepository.delete(slot);
+            slotAllocationIndexService.invalidate(slot.getParkingLot().getId());
+            occupancyCounterService.slotRemoved(slot);
             
             Map<String, Object> data = new HashMap<>();
             data.put("removedSlotId", slotId);
@@ -173,6 +216,8 @@ public class AdminService {
             ParkingSlot slot = parkingSlotRepository.findById(slotId)
                     .orElseThrow(() -> new IllegalArgumentException("Parking slot not found"));
             
+            VehicleType previousType = slot.getSlotType();
+            
             // Update slot properties
             if (request.getSlotType() != null) {
                 slot.setSlotType(request.getSlotType());
@@ -188,6 +233,8 @@ public class AdminService {
             }
             
             ParkingSlot updatedSlot = parkingSlotRepository.save(slot);
+            slotAllocationIndexService.invalidate(updatedSlot.getParkingLot().getId());
+            occupancyCounterService.slotTypeChanged(updatedSlot, previousType);
             
             Map<String, Object> data = new HashMap<>();
             data.put("slotId", updatedSlot.getId());
@@ -218,11 +265,15 @@ public class AdminService {
             overview.put("totalFloors", parkingLot.getTotalFloors());
             overview.put("isActive", parkingLot.isActive());
             
+            // One GROUP BY query backs both the type and the floor breakdown
+            SlotOccupancySummary summary = new SlotOccupancySummary(
+                    parkingSlotRepository.countSlotsByFloorTypeAndAvailability(parkingLot));
+            
             // Get slot statistics
             Map<String, Object> slotStats = new HashMap<>();
             for (VehicleType type : VehicleType.values()) {
-                long totalSlots = parkingSlotRepository.countByParkingLotAndSlotType(parkingLot, type);
-                long availableSlots = parkingSlotRepository.countAvailableSlotsByTypeAndParkingLot(parkingLot, type);
+                long totalSlots = summary.getTotalSlots(type);
+                long availableSlots = summary.getAvailableSlots(type);
                 long occupiedSlots = totalSlots - availableSlots;
                 
                 Map<String, Long> typeStats = new HashMap<>();
@@ -237,9 +288,8 @@ public class AdminService {
             Map<String, Object> floorStats = new HashMap<>();
             for (int floor = 1; floor <= parkingLot.getTotalFloors(); floor++) {
                 Map<String, Object> floorInfo = new HashMap<>();
-                List<ParkingSlot> floorSlots = parkingSlotRepository.findByParkingLotAndFloorAndSlotType(parkingLot, floor, null);
-                long totalSlots = floorSlots.size();
-                long availableSlots = floorSlots.stream().mapToLong(s -> s.isAvailable() ? 1 : 0).sum();
+                long totalSlots = summary.getTotalSlots(floor);
+                long availableSlots = summary.getAvailableSlots(floor);
                 long occupiedSlots = totalSlots - availableSlots;
                 
                 floorInfo.put("totalSlots", totalSlots);
@@ -262,11 +312,13 @@ public class AdminService {
      * Validate pricing hierarchy
      */
     private boolean validatePricingHierarchy(PricingRuleRequest request) {
-        Map<String, Double> currentRates = parkingChargesConfig.getHourlyRates();
+        // Checked against the rates in effect where the rule applies: the lot's if given, else the defaults
+        TariffTable table = tariffService.getTable();
+        Long parkingLotId = request.getParkingLotId();
         
-        double bikeRate = currentRates.getOrDefault(VehicleType.BIKE.name(), VehicleType.BIKE.getDefaultHourlyRate());
-        double carRate = currentRates.getOrDefault(VehicleType.CAR.name(), VehicleType.CAR.getDefaultHourlyRate());
-        double truckRate = currentRates.getOrDefault(VehicleType.TRUCK.name(), VehicleType.TRUCK.getDefaultHourlyRate());
+        double bikeRate = table.tariffFor(parkingLotId, VehicleType.BIKE).getHourlyRate();
+        double carRate = table.tariffFor(parkingLotId, VehicleType.CAR).getHourlyRate();
+        double truckRate = table.tariffFor(parkingLotId, VehicleType.TRUCK).getHourlyRate();
         
         // Update the rate being changed
         if (request.getVehicleType() == VehicleType.BIKE) {
@@ -319,16 +371,45 @@ public class AdminService {
         }
     }
     
+    /**
+     * Stream a CSV or NDJSON slot layout into the database in chunks, reporting bad rows without aborting
+     */
+    public AdminResponse importParkingSlots(InputStream body, String contentType) {
+        try {
+            Map<String, Object> data = slotImportService.importSlots(body, contentType);
+            int failureCount = (int) data.get("failureCount");
+            String message = String.format("Slot import completed: %d imported, %d failed", (int) data.get("importedCount"), failureCount);
+            return new AdminResponse(failureCount == 0, message, data);
+        } catch (Exception e) {
+            return new AdminResponse(false, "Failed to import parking slots: " + e.getMessage());
+        }
+    }
+    
     /**
      * Get slot management statistics
      */
     public AdminResponse getSlotStatistics() {
         try {
+            // Read the materialized counters instead of counting rows
+            List<OccupancyCounterService.CounterSnapshot> cells = occupancyCounterService.snapshot();
+            Map<VehicleType, long[]> countsByType = new EnumMap<>(VehicleType.class);
+            Map<Long, long[]> countsByLot = new HashMap<>();
+            long totalSlots = 0;
+            long availableSlots = 0;
+            for (OccupancyCounterService.CounterSnapshot cell : cells) {
+                totalSlots += cell.getTotal();
+                availableSlots += cell.getAvailable();
+                long[] typeCounts = countsByType.computeIfAbsent(cell.getSlotType(), type -> new long[2]);
+                typeCounts[0] += cell.getTotal();
+                typeCounts[1] += cell.getAvailable();
+                long[] lotCounts = countsByLot.computeIfAbsent(cell.getParkingLotId(), id -> new long[2]);
+                lotCounts[0] += cell.getTotal();
+                lotCounts[1] += cell.getAvailable();
+            }
+            
             Map<String, Object> statistics = new HashMap<>();
             
             // Overall statistics
-            long totalSlots = parkingSlotRepository.count();
-            long availableSlots = parkingSlotRepository.countByAvailableTrue();
             long occupiedSlots = totalSlots - availableSlots;
             
             statistics.put("totalSlots", totalSlots);
@@ -339,36 +420,17 @@ public class AdminService {
             // Statistics by vehicle type
             Map<String, Object> typeStats = new HashMap<>();
             for (VehicleType type : VehicleType.values()) {
-                Map<String, Object> typeData = new HashMap<>();
-                long totalByType = parkingSlotRepository.countBySlotType(type);
-                long availableByType = parkingSlotRepository.countBySlotTypeAndAvailableTrue(type);
-                long occupiedByType = totalByType - availableByType;
-                
-                typeData.put("total", totalByType);
-                typeData.put("available", availableByType);
-                typeData.put("occupied", occupiedByType);
-                typeData.put("occupancyRate", totalByType > 0 ? (double) occupiedByType / totalByType * 100 : 0.0);
-                
-                typeStats.put(type.getDisplayName(), typeData);
+                long[] counts = countsByType.getOrDefault(type, new long[2]);
+                typeStats.put(type.getDisplayName(), countStats(counts[0], counts[1]));
             }
             statistics.put("byVehicleType", typeStats);
             
             // Statistics by parking lot
-            List<ParkingLot> parkingLots = parkingLotRepository.findAll();
             Map<String, Object> lotStats = new HashMap<>();
-            for (ParkingLot lot : parkingLots) {
-                Map<String, Object> lotData = new HashMap<>();
-                long totalInLot = parkingSlotRepository.countByParkingLot(lot);
-                long availableInLot = parkingSlotRepository.countByParkingLotAndAvailableTrue(lot);
-                long occupiedInLot = totalInLot - availableInLot;
-                
-                lotData.put("total", totalInLot);
-                lotData.put("available", availableInLot);
-                lotData.put("occupied", occupiedInLot);
-                lotData.put("occupancyRate", totalInLot > 0 ? (double) occupiedInLot / totalInLot * 100 : 0.0);
-                
-                lotStats.put(lot.getName(), lotData);
-            }
+            occupancyCounterService.getLotNames().forEach((lotId, lotName) -> {
+                long[] counts = countsByLot.getOrDefault(lotId, new long[2]);
+                lotStats.put(lotName, countStats(counts[0], counts[1]));
+            });
             statistics.put("byParkingLot", lotStats);
             
             return new AdminResponse(true, "Slot statistics retrieved successfully", statistics);
@@ -378,6 +440,155 @@ public class AdminService {
         }
     }
     
+    /**
+     * Rebuild the materialized slot counters from the slot table
+     */
+    public AdminResponse rebuildSlotStatistics() {
+        try {
+            occupancyCounterService.rebuild();
+            return new AdminResponse(true, "Slot statistics rebuilt successfully");
+        } catch (Exception e) {
+            return new AdminResponse(false, "Failed to rebuild slot statistics: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Total, available, occupied and occupancy rate for one group of slots
+     */
+    private Map<String, Object> countStats(long total, long available) {
+        long occupied = total - available;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("total", total);
+        stats.put("available", available);
+        stats.put("occupied", occupied);
+        stats.put("occupancyRate", total > 0 ? (double) occupied / total * 100 : 0.0);
+        return stats;
+    }
+    
+    /**
+     * Get slot allocation attempt and retry statistics
+     */
+    public AdminResponse getAllocationStatistics() {
+        try {
+            return new AdminResponse(true, "Allocation statistics retrieved successfully", allocationStatistics.getSnapshot());
+        } catch (Exception e) {
+            return new AdminResponse(false, "Failed to retrieve allocation statistics: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Get slot allocation contention per lot and vehicle type over the rolling window, most contended first
+     */
+    public AdminResponse getAllocationContention(int limit, int hotSlots) {
+        try {
+            return new AdminResponse(true, "Allocation contention retrieved successfully",
+                    contentionTracker.getWindow(limit, hotSlots));
+        } catch (Exception e) {
+            return new AdminResponse(false, "Failed to retrieve allocation contention: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Get payment gateway circuit breaker state, bulkhead usage and call latency histogram
+     */
+    public AdminResponse getPaymentGatewayStatistics() {
+        try {
+            return new AdminResponse(true, "Payment gateway statistics retrieved successfully", paymentGatewayService.getStatistics());
+        } catch (Exception e) {
+            return new AdminResponse(false, "Failed to retrieve payment gateway statistics: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Get event journal group commit, write-behind and recovery counters
+     */
+    public AdminResponse getJournalStatistics() {
+        try {
+            return new AdminResponse(true, "Journal statistics retrieved successfully", eventJournalService.getStatistics());
+        } catch (Exception e) {
+            return new AdminResponse(false, "Failed to retrieve journal statistics: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Retry the event the journal write-behind is held at, and carry on writing behind from there
+     */
+    public AdminResponse resumeJournalWriteBehind() {
+        try {
+            eventJournalService.resume();
+            return new AdminResponse(true, "Journal write-behind resumed", eventJournalService.getStatistics());
+        } catch (Exception e) {
+            return new AdminResponse(false, "Failed to resume journal write-behind: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Get startup time, time to first allocation and occupancy snapshot restore and verification figures
+     */
+    public AdminResponse getStartupStatistics() {
+        try {
+            return new AdminResponse(true, "Startup statistics retrieved successfully", occupancySnapshotService.getStatistics());
+        } catch (Exception e) {
+            return new AdminResponse(false, "Failed to retrieve startup statistics: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Write an occupancy snapshot of the cached allocation indexes now
+     */
+    public AdminResponse writeOccupancySnapshot() {
+        try {
+            occupancySnapshotService.writeSnapshot();
+            return new AdminResponse(true, "Occupancy snapshot written", occupancySnapshotService.getStatistics());
+        } catch (Exception e) {
+            return new AdminResponse(false, "Failed to write occupancy snapshot: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Get the state of the on-demand flight recording
+     */
+    public AdminResponse getFlightRecording() {
+        try {
+            return new AdminResponse(true, "Flight recording status retrieved successfully", flightRecorderService.getStatus());
+        } catch (Exception e) {
+            return new AdminResponse(false, "Failed to retrieve flight recording status: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Start a bounded flight recording with the parking events enabled
+     */
+    public AdminResponse startFlightRecording(String settings) {
+        try {
+            return new AdminResponse(true, "Flight recording started", flightRecorderService.start(settings));
+        } catch (Exception e) {
+            return new AdminResponse(false, "Failed to start flight recording: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Write the running flight recording to a file, leaving it running
+     */
+    public AdminResponse dumpFlightRecording() {
+        try {
+            return new AdminResponse(true, "Flight recording dumped", flightRecorderService.dump());
+        } catch (Exception e) {
+            return new AdminResponse(false, "Failed to dump flight recording: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Stop the running flight recording and write it to a file
+     */
+    public AdminResponse stopFlightRecording() {
+        try {
+            return new AdminResponse(true, "Flight recording stopped", flightRecorderService.stop());
+        } catch (Exception e) {
+            return new AdminResponse(false, "Failed to stop flight recording: " + e.getMessage());
+        }
+    }
+    
     /**
      * Find or create floor entity
      */
@@ -0,0 +1,245 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.allocation.LotSequencer;
+import com.demo.parkinglot.allocation.LotSequencer.SequencedCommand;
+import com.demo.parkinglot.config.AllocationStrategyConfig;
+import com.demo.parkinglot.constants.ParkingConstants;
+import com.demo.parkinglot.entity.EntryGate;
+import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.entity.Ticket;
+import com.demo.parkinglot.repository.EntryGateRepository;
+import com.demo.parkinglot.repository.ParkingLotRepository;
+import com.demo.parkinglot.util.TransactionHooks;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Routes entries and exits through one single-writer sequencer per parking lot.
+ * Each batch drained from a lot's queue is applied in one transaction, each command under its own
+ * savepoint: a command that fails is rolled back to its savepoint, together with its transaction hooks
+ * and the entities it left in the persistence context, and only its caller sees the error.
+ * Sequencers of lots that were deleted or deactivated are stopped.
+ * <p>
+ * The owner thread orders a lot's commands and keeps its in-memory claims uncontended, but the database
+ * still holds the authoritative occupancy: each entry confirms its slot with the same conditional UPDATE
+ * the other engines use, so writers outside the sequencer (admin changes, another instance) stay safe.
+ */
+@Service
+public class AllocationSequencerService {
+
+    @Autowired
+    private ParkingManagementService parkingManagementService;
+
+    @Autowired
+    private EntryGateRepository entryGateRepository;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private AllocationStrategyConfig allocationStrategyConfig;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, LotSequencer> sequencers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AllocationSequencerService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queue a vehicle entry on the sequencer of the gate's parking lot
+     * @return Future completed with the ticket once the entry is committed
+     */
+    public CompletableFuture<Ticket> submitEntry(String plateNo, String type, String ownerId, Long entryGateId) {
+        EntryGate entryGate = entryGateRepository.findById(entryGateId)
+                .orElseThrow(() -> new IllegalArgumentException(ParkingConstants.INVALID_ENTRY_GATE));
+        ParkingLot parkingLot = entryGate.getParkingLot();
+        if (parkingLot == null || !parkingLot.isActive()) {
+            throw new IllegalStateException("Parking lot is not available");
+        }
+
+        return sequencerFor(parkingLot.getId())
+                // Joins the batch transaction without a transactional proxy, so a refused entry does not
+                // mark the whole batch rollback-only
+                .submit(() -> parkingManagementService.parkVehicleInCurrentTransaction(plateNo, type, ownerId, entryGateId));
+    }
+
+    /**
+     * Queue the state changes of an exit (closing the ticket and freeing its slot) on the lot's sequencer,
+     * so they are applied in order with the lot's entries.
+     * The payment is already approved, so the exit is not refused when the queue is full: the caller waits
+     * for space instead, and the exit is still applied by the owner thread.
+     * @return Future completed with the action's result once committed
+     */
+    public <T> CompletableFuture<T> submitExit(Long parkingLotId, Supplier<T> exit) {
+        while (true) {
+            LotSequencer sequencer = sequencerFor(parkingLotId);
+            CompletableFuture<T> result = sequencer.submitWaiting(exit);
+            if (result != null) {
+                return result;
+            }
+            if (sequencers.get(parkingLotId) == sequencer) {
+                // Stopped without being retired: the service is shutting down
+                return CompletableFuture.failedFuture(
+                        new IllegalStateException("Sequencer for parking lot " + parkingLotId + " stopped"));
+            }
+            // Retired while waiting; the exit goes to the lot's next sequencer
+        }
+    }
+
+    /**
+     * Get queue depth per parking lot
+     */
+    public Map<Long, Integer> getQueueDepths() {
+        Map<Long, Integer> depths = new ConcurrentHashMap<>();
+        sequencers.forEach((lotId, sequencer) -> depths.put(lotId, sequencer.getQueueDepth()));
+        return depths;
+    }
+
+    /**
+     * Stop the owner threads of parking lots that no longer exist or are no longer active.
+     * A stopped sequencer applies what is already queued; a later command for the lot starts a new one.
+     */
+    @Scheduled(fixedDelayString = "${parking.allocation.sequencer-retire-interval-ms:60000}")
+    public void retireSequencers() {
+        for (Long parkingLotId : sequencers.keySet()) {
+            if (parkingLotRepository.findActiveById(parkingLotId).isEmpty()) {
+                LotSequencer sequencer = sequencers.remove(parkingLotId);
+                if (sequencer != null) {
+                    sequencer.stop();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sequencers.values().forEach(LotSequencer::shutdown);
+    }
+
+    private LotSequencer sequencerFor(Long parkingLotId) {
+        return sequencers.computeIfAbsent(parkingLotId, id -> new LotSequencer(id,
+                allocationStrategyConfig.getSequencerCapacity(),
+                allocationStrategyConfig.getSequencerBatchSize(),
+                allocationStrategyConfig.getSequencerOfferTimeoutMs(),
+                this::applyBatch));
+    }
+
+    private void applyBatch(List<SequencedCommand<?>> batch) {
+        List<SequencedCommand<?>> applied = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (SequencedCommand<?> command : batch) {
+                    if (applyUnderSavepoint(command)) {
+                        applied.add(command);
+                    }
+                }
+            });
+        } catch (RuntimeException commitFailure) {
+            // The batch itself could not commit; replay the commands it held one per transaction
+            for (SequencedCommand<?> command : applied) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> command.run());
+                    command.complete();
+                } catch (RuntimeException e) {
+                    command.fail(e);
+                }
+            }
+            return;
+        }
+        applied.forEach(SequencedCommand::complete);
+    }
+
+    /**
+     * Run one command of the batch under a JDBC savepoint (the JPA dialect offers none)
+     * @return true if the command stays in the batch; false if it was rolled back and its caller failed
+     */
+    private boolean applyUnderSavepoint(SequencedCommand<?> command) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        Map<Object, Object[]> managedBefore = snapshotManagedEntities(session);
+        Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+        TransactionHooks.Scope hooks = TransactionHooks.openScope();
+        try {
+            command.run();
+            // Write it now, so a failure shows up here and not when the batch commits
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            session.doWork(connection -> connection.rollback(savepoint));
+            evictFailedCommand(session, managedBefore);
+            hooks.discard();
+            command.fail(e);
+            return false;
+        }
+        session.doWork(connection -> connection.releaseSavepoint(savepoint));
+        hooks.keep();
+        return true;
+    }
+
+    /**
+     * State of every entity in the persistence context, taken before a command runs
+     */
+    private Map<Object, Object[]> snapshotManagedEntities(SessionImplementor session) {
+        Map<Object, Object[]> snapshot = new IdentityHashMap<>();
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            snapshot.put(entry.getKey(), entry.getValue().getPersister().getValues(entry.getKey()));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Take what a rolled-back command left in the persistence context out of it, so it is not written with
+     * the batch: entities it brought in are detached, entities it removed are detached, and entities it
+     * changed are reloaded. Entities of the commands applied before it stay managed.
+     */
+    private void evictFailedCommand(SessionImplementor session, Map<Object, Object[]> managedBefore) {
+        // Whatever the failed flush did not execute must not run with the next command's flush
+        session.getActionQueue().clear();
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            Object entity = entry.getKey();
+            EntityEntry entityEntry = entry.getValue();
+            if (!session.contains(entity)) {
+                // Already detached by a cascade from an earlier entry
+                continue;
+            }
+            Object[] before = managedBefore.get(entity);
+            if (before == null || entityEntry.getStatus() != Status.MANAGED) {
+                entityManager.detach(entity);
+            } else if (isChanged(session, entityEntry, entity, before)) {
+                entityManager.refresh(entity);
+            }
+        }
+    }
+
+    private boolean isChanged(SessionImplementor session, EntityEntry entityEntry, Object entity, Object[] before) {
+        EntityPersister persister = entityEntry.getPersister();
+        // The loaded state moves on when the failed flush wrote the entity before the rollback
+        Object[] loadedState = entityEntry.getLoadedState();
+        return persister.findDirty(persister.getValues(entity), before, entity, session) != null
+                || (loadedState != null && persister.findDirty(loadedState, before, entity, session) != null);
+    }
+}
@@ -0,0 +1,297 @@
+package com.demo.parkinglot.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes availability changes per parking lot to Server-Sent Events subscribers.
+ * Counter changes only mark the lot dirty; one flush per coalescing window diffs the lot's
+ * (floor, vehicle type) counters against what was last published and serializes the delta once
+ * for all subscribers. A new subscriber gets a full snapshot before any delta.
+ * Events are queued per subscriber under the channel lock and written on a send thread outside it,
+ * so a slow client delays only its own stream; one stuck in a write for longer than the send
+ * timeout is dropped.
+ */
+@Service
+public class AvailabilityStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityStreamService.class);
+
+    @Autowired
+    private OccupancyCounterService occupancyCounterService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${parking.availability.stream-window-ms:250}")
+    private long windowMillis;
+
+    @Value("${parking.availability.stream-timeout-ms:1800000}")
+    private long emitterTimeoutMillis;
+
+    @Value("${parking.availability.stream-send-timeout-ms:5000}")
+    private long sendTimeoutMillis;
+
+    private final Map<Long, LotChannel> channels = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "availability-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Writes queued events to subscribers; a thread is busy only while some subscriber has events to write */
+    private final ExecutorService sendExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "availability-send-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    @PostConstruct
+    public void registerListener() {
+        occupancyCounterService.addChangeListener(this::lotChanged);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdownNow();
+        sendExecutor.shutdownNow();
+        channels.values().forEach(channel -> channel.subscribers.keySet().forEach(SseEmitter::complete));
+    }
+
+    /**
+     * Open a stream for a parking lot; the first event is a snapshot of every counter
+     */
+    public SseEmitter subscribe(Long parkingLotId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        register(parkingLotId, emitter);
+        return emitter;
+    }
+
+    /**
+     * Attach an emitter to a lot's channel and queue the current snapshot for it
+     */
+    void register(Long parkingLotId, SseEmitter emitter) {
+        LotChannel channel = channels.computeIfAbsent(parkingLotId, LotChannel::new);
+        emitter.onCompletion(() -> channel.subscribers.remove(emitter));
+        emitter.onTimeout(() -> channel.subscribers.remove(emitter));
+        emitter.onError(error -> channel.subscribers.remove(emitter));
+
+        channel.lock.lock();
+        try {
+            // Under the channel lock so no delta computed against an older snapshot is queued ahead of it
+            Map<String, Map<String, Object>> cells = readCells(parkingLotId);
+            if (channel.subscribers.isEmpty()) {
+                // Nobody saw the older baseline, so the next delta is measured from this snapshot
+                channel.published.clear();
+                channel.published.putAll(cells);
+            }
+            Set<DataWithMediaType> snapshot;
+            try {
+                snapshot = event("snapshot", channel.sequence.get(), new ArrayList<>(cells.values()));
+            } catch (JsonProcessingException e) {
+                emitter.completeWithError(e);
+                return;
+            }
+            Subscriber subscriber = new Subscriber(channel, emitter);
+            channel.subscribers.put(emitter, subscriber);
+            subscriber.offer(snapshot);
+        } finally {
+            channel.lock.unlock();
+        }
+    }
+
+    /**
+     * Number of open streams per parking lot
+     */
+    public Map<Long, Integer> getSubscriberCounts() {
+        Map<Long, Integer> counts = new HashMap<>();
+        channels.forEach((parkingLotId, channel) -> counts.put(parkingLotId, channel.subscribers.size()));
+        return counts;
+    }
+
+    private void lotChanged(Long parkingLotId) {
+        LotChannel channel = channels.get(parkingLotId);
+        if (channel == null || channel.subscribers.isEmpty()) {
+            return;
+        }
+        // Changes inside the window ride on the flush that is already scheduled
+        if (channel.flushScheduled.compareAndSet(false, true)) {
+            flushScheduler.schedule(() -> flush(channel), windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush(LotChannel channel) {
+        channel.flushScheduled.set(false);
+        channel.lock.lock();
+        try {
+            Map<String, Map<String, Object>> cells = readCells(channel.parkingLotId);
+            List<Map<String, Object>> changed = new ArrayList<>();
+            cells.forEach((key, cell) -> {
+                if (!cell.equals(channel.published.get(key))) {
+                    changed.add(cell);
+                }
+            });
+            channel.published.keySet().retainAll(cells.keySet());
+            channel.published.putAll(cells);
+            if (changed.isEmpty()) {
+                return;
+            }
+
+            Set<DataWithMediaType> delta;
+            try {
+                delta = event("delta", channel.sequence.incrementAndGet(), changed);
+            } catch (JsonProcessingException e) {
+                return;
+            }
+            channel.subscribers.values().forEach(subscriber -> subscriber.offer(delta));
+        } finally {
+            channel.lock.unlock();
+        }
+    }
+
+    private Map<String, Map<String, Object>> readCells(Long parkingLotId) {
+        Map<String, Map<String, Object>> cells = new LinkedHashMap<>();
+        for (OccupancyCounterService.CounterSnapshot snapshot : occupancyCounterService.snapshot(parkingLotId)) {
+            Map<String, Object> cell = new LinkedHashMap<>();
+            cell.put("floor", snapshot.getFloor());
+            cell.put("vehicleType", snapshot.getSlotType().name());
+            cell.put("totalSlots", snapshot.getTotal());
+            cell.put("availableSlots", snapshot.getAvailable());
+            cells.put(snapshot.getFloor() + ":" + snapshot.getSlotType(), cell);
+        }
+        return cells;
+    }
+
+    /**
+     * Serialize an event once so every subscriber gets the same bytes
+     */
+    private Set<DataWithMediaType> event(String name, long sequence, List<Map<String, Object>> cells) throws JsonProcessingException {
+        return SseEmitter.event()
+                .name(name)
+                .id(String.valueOf(sequence))
+                .data(objectMapper.writeValueAsString(cells), MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private static final class LotChannel {
+        private final Long parkingLotId;
+        private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+        private final Map<String, Map<String, Object>> published = new HashMap<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private final AtomicLong sequence = new AtomicLong();
+        /** Held while diffing and queueing; a monitor would pin a virtual thread's carrier while it is held */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        LotChannel(Long parkingLotId) {
+            this.parkingLotId = parkingLotId;
+        }
+    }
+
+    /**
+     * One open stream: events in the order they were queued, written by at most one send thread at a time
+     */
+    private final class Subscriber {
+        private final LotChannel channel;
+        private final SseEmitter emitter;
+        private final Queue<Set<DataWithMediaType>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        /** When the write in progress started, in nanoseconds; 0 while no write is in progress */
+        private volatile long writeStartedAt;
+
+        Subscriber(LotChannel channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+
+        /**
+         * Queue an event and make sure a send thread is writing; never blocks on the client
+         */
+        void offer(Set<DataWithMediaType> event) {
+            long startedAt = writeStartedAt;
+            if (startedAt != 0 && System.nanoTime() - startedAt > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis)) {
+                drop(new IOException("Subscriber did not accept an event within " + sendTimeoutMillis + " ms"));
+                return;
+            }
+            pending.add(event);
+            if (sending.compareAndSet(false, true)) {
+                try {
+                    sendExecutor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    sending.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<DataWithMediaType> event;
+                while ((event = pending.poll()) != null) {
+                    // Odd, so never 0 while a write is in progress
+                    writeStartedAt = System.nanoTime() | 1;
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        channel.subscribers.remove(emitter);
+                        pending.clear();
+                        return;
+                    } finally {
+                        writeStartedAt = 0;
+                    }
+                }
+                sending.set(false);
+                // An event queued after the last poll but before the flag was cleared still needs a writer
+            } while (!pending.isEmpty() && sending.compareAndSet(false, true));
+        }
+
+        private void drop(IOException reason) {
+            if (channel.subscribers.remove(emitter) == null) {
+                return;
+            }
+            pending.clear();
+            logger.warn("Dropping slow availability subscriber for parking lot {}: {}", channel.parkingLotId, reason.getMessage());
+            // Completing waits for the stuck write to finish, so do it off the flush thread
+            try {
+                sendExecutor.execute(() -> emitter.completeWithError(reason));
+            } catch (RejectedExecutionException e) {
+                // Shutting down, the emitter is completed there
+            }
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.config.PersistenceConfig;
+import com.demo.parkinglot.entity.EntryGate;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.entity.Payment;
+import com.demo.parkinglot.entity.Receipt;
+import com.demo.parkinglot.entity.Ticket;
+import com.demo.parkinglot.entity.Vehicle;
+import com.demo.parkinglot.enums.PaymentStatus;
+import com.demo.parkinglot.journal.EventJournal;
+import com.demo.parkinglot.journal.JournalEvent;
+import com.demo.parkinglot.repository.FloorRepository;
+import com.demo.parkinglot.repository.ParkingSlotRepository;
+import com.demo.parkinglot.repository.PaymentRepository;
+import com.demo.parkinglot.repository.TicketRepository;
+import com.demo.parkinglot.repository.VehicleRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Event journal and write-behind for the JOURNAL persistence mode.
+ * Entries and exits return once their event is forced to the journal; the Vehicle, Ticket, slot, Payment
+ * and Receipt rows are then written by a background flusher, many events per transaction, in journal order.
+ * After each batch commits, its last sequence is saved as the checkpoint and fully applied segments are
+ * deleted. An event that fails to apply holds the checkpoint back and is retried on the next flush; once it
+ * has failed max-apply-attempts times the write-behind is held at it until resumed, so no event is ever
+ * skipped and replaying the journal always restores the same occupancy. At startup, events after
+ * the checkpoint are replayed before anything reads the database; every event is applied idempotently,
+ * so replaying one that was written just before a crash changes nothing.
+ */
+@Service
+public class EventJournalService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventJournalService.class);
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    @Autowired
+    private PersistenceConfig persistenceConfig;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private ParkingSlotRepository slotRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private FloorRepository floorRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private EventJournal journal;
+    private Path checkpointFile;
+    private final Queue<JournalEvent> unapplied = new ConcurrentLinkedQueue<>();
+    /** Latest unapplied event sequence per ticket */
+    private final Map<Long, Long> unappliedTickets = new ConcurrentHashMap<>();
+    /** Latest unapplied event per slot: the slot's state the database has not caught up with */
+    private final Map<Long, JournalEvent> unappliedSlots = new ConcurrentHashMap<>();
+    /** Tickets whose exit is being journaled or is not yet applied */
+    private final Set<Long> exitingTickets = ConcurrentHashMap.newKeySet();
+    /** Failed attempts per event sequence, for events not yet applied */
+    private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>();
+    /** Event the write-behind is held at after using up its attempts; null while flushing normally */
+    private volatile JournalEvent heldAt;
+    private volatile String heldError;
+    /** Held across JDBC batches, so not a monitor, which would pin a virtual thread to its carrier */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile long appliedSequence;
+    private int replayedEvents;
+    private final LongAdder appliedEvents = new LongAdder();
+    private final LongAdder failedEvents = new LongAdder();
+    private final LongAdder writeBehindBatches = new LongAdder();
+
+    @Autowired
+    public EventJournalService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Flushes may be forced from inside a caller's transaction; they must commit on their own
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Open the journal and replay anything not yet in the database
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!persistenceConfig.isJournalMode()) {
+            return;
+        }
+        PersistenceConfig.Journal settings = persistenceConfig.getJournal();
+        Path directory = Paths.get(settings.getDirectory());
+        checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        appliedSequence = readCheckpoint();
+        // Whatever was pending belongs to the journal being replaced and is recovered from it, not carried over
+        unapplied.clear();
+        unappliedTickets.clear();
+        unappliedSlots.clear();
+        exitingTickets.clear();
+        failedAttempts.clear();
+        heldAt = null;
+        heldError = null;
+
+        journal = new EventJournal(directory, settings.getSegmentSizeMb() * 1024 * 1024,
+                settings.getMaxGroupCommit(), this::durable);
+        List<JournalEvent> recovered = journal.open(appliedSequence);
+        replayedEvents = recovered.size();
+        durable(recovered);
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (journal == null) {
+            return;
+        }
+        journal.close();
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    /**
+     * Append an event and wait until it is on disk
+     * @return The event's journal sequence
+     */
+    public long append(JournalEvent event) {
+        try {
+            return journal.append(event).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Apply the ticket's pending events first, if it has any, so the database shows its current state
+     */
+    public void flushTicket(Long ticketId) {
+        if (isEnabled() && unappliedTickets.containsKey(ticketId)) {
+            flush();
+        }
+    }
+
+    /**
+     * Reserve a ticket's exit before it is journaled, so a second exit for the same ticket is refused
+     * while the first is not yet in the database
+     * @return false if the ticket already has an exit journaled or is closed
+     */
+    public boolean reserveExit(Long ticketId) {
+        if (!exitingTickets.add(ticketId)) {
+            return false;
+        }
+        // Checked after the reservation: an applied exit leaves the set only once the ticket row is closed
+        if (ticketRepository.existsByIdAndActiveFalse(ticketId)) {
+            exitingTickets.remove(ticketId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Drop the reservation of an exit that never reached the journal
+     */
+    public void releaseExit(Long ticketId) {
+        exitingTickets.remove(ticketId);
+    }
+
+    /**
+     * Whether the ticket's exit is journaled or being journaled but not yet in the database
+     */
+    public boolean isExitPending(Long ticketId) {
+        return exitingTickets.contains(ticketId);
+    }
+
+    /**
+     * Get a slot's row if the slot is free once the events not yet written behind are counted
+     */
+    public Optional<ParkingSlot> findFreeSlot(Long slotId) {
+        // Read the pending state first: an event leaves the map only after its row change has committed
+        JournalEvent pending = unappliedSlots.get(slotId);
+        Optional<ParkingSlot> slot = slotRepository.findById(slotId);
+        boolean free = pending != null
+                ? pending.getType() == JournalEvent.Type.EXIT
+                : slot.map(ParkingSlot::isAvailable).orElse(false);
+        return free ? slot : Optional.empty();
+    }
+
+    /**
+     * Retry the event the write-behind is held at, once whatever made it fail has been fixed
+     */
+    public void resume() {
+        JournalEvent held = heldAt;
+        if (held != null) {
+            failedAttempts.remove(held.getSequence());
+            heldAt = null;
+            heldError = null;
+            logger.info("Write-behind resumed at journal event {}", held.getSequence());
+        }
+        flush();
+    }
+
+    /**
+     * Write every durable event that is not yet in the database, in batches of one transaction each.
+     * Stops at an event that fails to apply, which stays first in line for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${parking.persistence.journal.flush-interval-ms:200}")
+    public void flush() {
+        if (!isEnabled() || heldAt != null) {
+            return;
+        }
+        int batchSize = persistenceConfig.getJournal().getWriteBehindBatchSize();
+        flushLock.lock();
+        try {
+            List<JournalEvent> batch = new ArrayList<>(batchSize);
+            do {
+                // Events leave the queue only once applied; only the flusher removes them, under the lock
+                batch.clear();
+                for (JournalEvent event : unapplied) {
+                    batch.add(event);
+                    if (batch.size() == batchSize) {
+                        break;
+                    }
+                }
+            } while (!batch.isEmpty() && applyBatch(batch));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Get journal, write-behind and recovery counters
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("mode", persistenceConfig.getPersistenceMode().name());
+        if (!isEnabled()) {
+            return statistics;
+        }
+        statistics.put("journal", journal.getSnapshot());
+        statistics.put("appliedSequence", appliedSequence);
+        statistics.put("unappliedEvents", unapplied.size());
+        statistics.put("appliedEvents", appliedEvents.sum());
+        statistics.put("failedEvents", failedEvents.sum());
+        JournalEvent next = unapplied.peek();
+        if (next != null && failedAttempts.containsKey(next.getSequence())) {
+            statistics.put("blockedSequence", next.getSequence());
+            statistics.put("blockedAttempts", failedAttempts.get(next.getSequence()));
+        }
+        JournalEvent held = heldAt;
+        statistics.put("writeBehindHeld", held != null);
+        if (held != null) {
+            statistics.put("heldEvent", held.toString());
+            statistics.put("heldError", heldError);
+        }
+        statistics.put("writeBehindBatches", writeBehindBatches.sum());
+        statistics.put("replayedOnStartup", replayedEvents);
+        return statistics;
+    }
+
+    /**
+     * Queue events that reached the disk for the flusher
+     */
+    private void durable(List<JournalEvent> events) {
+        for (JournalEvent event : events) {
+            unappliedTickets.put(event.getTicketId(), event.getSequence());
+            unappliedSlots.put(event.getSlotId(), event);
+            if (event.getType() == JournalEvent.Type.EXIT) {
+                exitingTickets.add(event.getTicketId());
+            }
+            unapplied.add(event);
+        }
+    }
+
+    /**
+     * Apply a batch in one transaction, or event by event if that fails
+     * @return false if an event failed and was kept for the next flush
+     */
+    private boolean applyBatch(List<JournalEvent> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyAll(batch));
+            applied(batch);
+            return true;
+        } catch (RuntimeException batchFailure) {
+            // Apply the events before the bad one, each on its own; nothing after it is applied out of order
+            int done = 0;
+            boolean blocked = false;
+            for (JournalEvent event : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> applyAll(List.of(event)));
+                } catch (RuntimeException e) {
+                    recordFailure(event, e);
+                    blocked = true;
+                    break;
+                }
+                done++;
+            }
+            if (done > 0) {
+                applied(batch.subList(0, done));
+            }
+            return !blocked;
+        }
+    }
+
+    /**
+     * Take events that are in the database off the queue and move the checkpoint past them.
+     * Segments are only deleted up to the checkpoint, so none still holds an unapplied event.
+     */
+    private void applied(List<JournalEvent> events) {
+        for (JournalEvent event : events) {
+            unapplied.poll();
+            unappliedTickets.remove(event.getTicketId(), event.getSequence());
+            unappliedSlots.remove(event.getSlotId(), event);
+            if (event.getType() == JournalEvent.Type.EXIT) {
+                exitingTickets.remove(event.getTicketId());
+            }
+            failedAttempts.remove(event.getSequence());
+        }
+        writeBehindBatches.increment();
+        appliedEvents.add(events.size());
+
+        long lastSequence = events.get(events.size() - 1).getSequence();
+        appliedSequence = lastSequence;
+        writeCheckpoint(lastSequence);
+        journal.deleteSegmentsUpTo(lastSequence);
+    }
+
+    /**
+     * Count a failed attempt to apply an event, and hold the write-behind at it once it has used up its attempts.
+     * Errors reaching the database are not the event's fault and are retried without limit.
+     * The event is never skipped: the checkpoint and its segment stay until it is applied.
+     */
+    private void recordFailure(JournalEvent event, RuntimeException error) {
+        failedEvents.increment();
+        int maxAttempts = persistenceConfig.getJournal().getMaxApplyAttempts();
+        int attempts = isTransient(error) ? 0 : failedAttempts.merge(event.getSequence(), 1, Integer::sum);
+        if (attempts < maxAttempts) {
+            logger.warn("Could not apply journal event {} (attempt {} of {}), retrying on the next flush: {}",
+                    event.getSequence(), attempts, maxAttempts, error.toString());
+            return;
+        }
+        heldError = error.toString();
+        heldAt = event;
+        logger.error("Write-behind held at journal event {} after {} failed attempts; nothing after it is written "
+                + "until it is resumed: {}", event, attempts, error.toString());
+    }
+
+    private static boolean isTransient(RuntimeException error) {
+        return error instanceof TransientDataAccessException || error instanceof RecoverableDataAccessException
+                || error instanceof CannotCreateTransactionException;
+    }
+
+    private void applyAll(List<JournalEvent> events) {
+        Map<Long, Integer> floorChanges = new HashMap<>();
+        for (JournalEvent event : events) {
+            if (event.getType() == JournalEvent.Type.ENTRY) {
+                applyEntry(event, floorChanges);
+            } else {
+                applyExit(event, floorChanges);
+            }
+        }
+        floorChanges.forEach((floorId, change) -> {
+            if (change != 0) {
+                floorRepository.adjustAvailableSlots(floorId, change);
+            }
+        });
+    }
+
+    private void applyEntry(JournalEvent event, Map<Long, Integer> floorChanges) {
+        if (ticketRepository.existsById(event.getTicketId())) {
+            return;
+        }
+        Vehicle vehicle = vehicleRepository.findByPlateNo(event.getPlateNo())
+                .orElseGet(() -> vehicleRepository.save(new Vehicle(event.getPlateNo(), event.getVehicleType(), event.getOwnerId())));
+        ParkingSlot slot = slotRepository.findById(event.getSlotId())
+                .orElseThrow(() -> new IllegalStateException("Slot " + event.getSlotId() + " no longer exists"));
+        // Entries are checked against the slot before they are journaled, so an occupied slot here is an
+        // inconsistency to fix, not a ticket to write on top of it
+        if (slotRepository.allocateSlot(slot.getId()) != 1) {
+            throw new IllegalStateException("Journal entry " + event.getSequence() + " for ticket " + event.getTicketId()
+                    + " found slot " + slot.getId() + " already occupied");
+        }
+        recordFloorChange(slot, -1, floorChanges);
+
+        Ticket ticket = new Ticket(vehicle, slot, entityManager.getReference(EntryGate.class, event.getEntryGateId()),
+                event.getTime(), true);
+        ticket.setId(event.getTicketId());
+        entityManager.persist(ticket);
+    }
+
+    private void applyExit(JournalEvent event, Map<Long, Integer> floorChanges) {
+        // Closing the ticket is the exit's guard: a replayed exit finds it already closed
+        if (ticketRepository.closeTicket(event.getTicketId(), event.getTime()) != 1) {
+            return;
+        }
+        Payment payment = paymentRepository.findById(event.getPaymentId())
+                .orElseThrow(() -> new IllegalStateException("Payment " + event.getPaymentId() + " no longer exists"));
+        payment.setStatus(PaymentStatus.PAID);
+        payment.setFailureReason(null);
+
+        Receipt receipt = new Receipt(entityManager.getReference(Ticket.class, event.getTicketId()), event.getAmount(),
+                event.getHourlyRate(), event.getDurationInMinutes(), event.getReceiptNumber());
+        receipt.setId(event.getReceiptId());
+        receipt.setGeneratedAt(event.getTime());
+        entityManager.persist(receipt);
+
+        ParkingSlot slot = slotRepository.findById(event.getSlotId())
+                .orElseThrow(() -> new IllegalStateException("Slot " + event.getSlotId() + " no longer exists"));
+        slotRepository.freeSlot(slot.getId());
+        recordFloorChange(slot, 1, floorChanges);
+    }
+
+    private void recordFloorChange(ParkingSlot slot, int change, Map<Long, Integer> floorChanges) {
+        if (slot.getFloorEntity() != null) {
+            floorChanges.merge(slot.getFloorEntity().getId(), change, Integer::sum);
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(checkpointFile, StandardCharsets.UTF_8).trim());
+    }
+
+    /**
+     * Replace the checkpoint file atomically; a stale checkpoint only means some events are replayed again
+     */
+    private void writeCheckpoint(long sequence) {
+        try {
+            Path temporary = checkpointFile.resolveSibling(CHECKPOINT_FILE + ".tmp");
+            Files.writeString(temporary, Long.toString(sequence), StandardCharsets.UTF_8);
+            Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
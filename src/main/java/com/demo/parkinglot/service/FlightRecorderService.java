@@ -0,0 +1,141 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.config.FlightRecorderConfig;
+import com.demo.parkinglot.jfr.PaymentGatewayEvent;
+import com.demo.parkinglot.jfr.ReceiptGenerationEvent;
+import com.demo.parkinglot.jfr.SlotAllocationEvent;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * On-demand Java Flight Recorder recording for the admin API.
+ * One recording at a time, started from the JDK "default" or "profile" settings with the parking events
+ * enabled, so allocation, gateway and receipt events line up with GC, lock and thread events in the same file.
+ * The recording is bounded by age and size and kept on disk, so it can run for as long as needed; a dump
+ * copies what it currently holds to a file in the configured directory.
+ */
+@Service
+public class FlightRecorderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderService.class);
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    @Autowired
+    private FlightRecorderConfig flightRecorderConfig;
+
+    private Recording recording;
+    private String recordingSettings;
+    private Path lastDump;
+
+    /**
+     * Start a recording from the given JDK settings, or the configured ones if none are given
+     */
+    public synchronized Map<String, Object> start(String settings) throws IOException, ParseException {
+        if (isRunning()) {
+            throw new IllegalStateException("A flight recording is already running");
+        }
+        String name = settings == null || settings.isBlank() ? flightRecorderConfig.getSettings() : settings.trim();
+        if (!SETTINGS.contains(name)) {
+            throw new IllegalArgumentException("Unknown recording settings: " + name + ", expected default or profile");
+        }
+        closeRecording();
+
+        Recording started = new Recording(Configuration.getConfiguration(name));
+        started.setName("parking");
+        started.setToDisk(true);
+        started.setMaxAge(Duration.ofSeconds(flightRecorderConfig.getMaxAgeSeconds()));
+        started.setMaxSize(flightRecorderConfig.getMaxSizeMb() * 1024 * 1024);
+        started.enable(SlotAllocationEvent.class);
+        started.enable(PaymentGatewayEvent.class);
+        started.enable(ReceiptGenerationEvent.class);
+        started.start();
+        recording = started;
+        recordingSettings = name;
+        logger.info("Started flight recording with {} settings", name);
+        return getStatus();
+    }
+
+    /**
+     * Write what the running recording currently holds to a new file, leaving it running
+     */
+    public synchronized Map<String, Object> dump() throws IOException {
+        if (!isRunning()) {
+            throw new IllegalStateException("No flight recording is running");
+        }
+        dumpRecording();
+        return getStatus();
+    }
+
+    /**
+     * Stop the running recording and write it to a new file
+     */
+    public synchronized Map<String, Object> stop() throws IOException {
+        if (!isRunning()) {
+            throw new IllegalStateException("No flight recording is running");
+        }
+        recording.stop();
+        try {
+            dumpRecording();
+        } finally {
+            closeRecording();
+        }
+        logger.info("Stopped flight recording, written to {}", lastDump);
+        return getStatus();
+    }
+
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", isRunning());
+        status.put("settings", recording != null ? recordingSettings : null);
+        status.put("startedAt", recording != null ? recording.getStartTime() : null);
+        status.put("recordedBytes", recording != null ? recording.getSize() : 0);
+        status.put("maxAgeSeconds", flightRecorderConfig.getMaxAgeSeconds());
+        status.put("maxSizeMb", flightRecorderConfig.getMaxSizeMb());
+        status.put("directory", flightRecorderConfig.getDirectory());
+        status.put("lastDump", lastDump != null ? lastDump.toString() : null);
+        return status;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        closeRecording();
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private void dumpRecording() throws IOException {
+        Path directory = Paths.get(flightRecorderConfig.getDirectory());
+        Files.createDirectories(directory);
+        Path file = directory.resolve("parking-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+        recording.dump(file);
+        lastDump = file;
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.allocation.SlotAllocationIndex;
+import com.demo.parkinglot.config.PersistenceConfig;
+import com.demo.parkinglot.entity.Floor;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.repository.FloorRepository;
+import com.demo.parkinglot.repository.ParkingSlotRepository;
+import com.demo.parkinglot.util.TransactionHooks;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps Floor.availableSlots in step with slot allocations.
+ * Allocations and frees only bump an in-memory delta per floor after commit, so the entry
+ * transaction never takes a row lock on the shared floor row; the deltas are written behind
+ * in one UPDATE per floor. A periodic reconciliation recomputes the counters from the slot rows
+ * and, outside JOURNAL mode, drops in-memory allocation indexes that keep disagreeing with the database.
+ */
+@Service
+public class FloorAvailabilityService {
+
+    @Autowired
+    private FloorRepository floorRepository;
+
+    @Autowired
+    private ParkingSlotRepository slotRepository;
+
+    @Autowired
+    private SlotAllocationIndexService slotAllocationIndexService;
+
+    @Autowired
+    private PersistenceConfig persistenceConfig;
+
+    private final Map<Long, AtomicInteger> pendingChanges = new ConcurrentHashMap<>();
+
+    /** Index counts that disagreed with the database on the last reconciliation, keyed by "lotId:type" */
+    private final Map<String, String> lastMismatches = new ConcurrentHashMap<>();
+
+    /**
+     * Record a change in a floor's free slots once the current transaction commits
+     */
+    public void recordChange(ParkingSlot slot, int change) {
+        Floor floor = slot.getFloorEntity();
+        if (floor == null || floor.getId() == null) {
+            return;
+        }
+        Long floorId = floor.getId();
+        TransactionHooks.afterCommit(() -> pendingChanges.computeIfAbsent(floorId, id -> new AtomicInteger()).addAndGet(change));
+    }
+
+    /**
+     * Write pending floor changes behind, one UPDATE per floor
+     */
+    @Scheduled(fixedDelayString = "${parking.floors.flush-interval-ms:1000}")
+    @Transactional
+    public void flushPendingChanges() {
+        pendingChanges.forEach((floorId, pending) -> {
+            int change = pending.getAndSet(0);
+            if (change != 0) {
+                floorRepository.adjustAvailableSlots(floorId, change);
+            }
+        });
+    }
+
+    /**
+     * Recompute floor counters from the slot rows and check the in-memory indexes against them
+     */
+    @Scheduled(fixedDelayString = "${parking.floors.reconcile-interval-ms:60000}",
+            initialDelayString = "${parking.floors.reconcile-interval-ms:60000}")
+    @Transactional
+    public void reconcile() {
+        // Changes pending now were committed before the recount, so it includes them; changes recorded while it
+        // runs may not be, so only the ones seen here are dropped, once the recount is committed
+        Map<Long, Integer> counted = new HashMap<>();
+        pendingChanges.forEach((floorId, pending) -> counted.put(floorId, pending.get()));
+        reconcileFloors();
+        TransactionHooks.afterCommit(() -> counted.forEach((floorId, change) -> pendingChanges.get(floorId).addAndGet(-change)));
+        // In JOURNAL mode the index is ahead of the written-behind rows, and it is the only record of claims
+        if (!persistenceConfig.isJournalMode()) {
+            reconcileIndexes();
+        }
+    }
+
+    private void reconcileFloors() {
+        Map<Long, long[]> countsByFloor = new HashMap<>();
+        for (Object[] row : slotRepository.countSlotsByFloorEntity()) {
+            countsByFloor.put((Long) row[0], new long[] {((Number) row[1]).longValue(), ((Number) row[2]).longValue()});
+        }
+
+        for (Floor floor : floorRepository.findAll()) {
+            long[] counts = countsByFloor.getOrDefault(floor.getId(), new long[] {0, 0});
+            if (floor.getTotalSlots() != counts[0] || floor.getAvailableSlots() != counts[1]) {
+                floor.setTotalSlots((int) counts[0]);
+                floor.setAvailableSlots((int) counts[1]);
+                floorRepository.save(floor);
+            }
+        }
+    }
+
+    private void reconcileIndexes() {
+        Map<String, Long> availableByLotAndType = new HashMap<>();
+        for (Object[] row : slotRepository.countAvailableSlotsByLotAndType()) {
+            availableByLotAndType.put(row[0] + ":" + row[1], ((Number) row[2]).longValue());
+        }
+
+        Map<String, String> mismatches = new HashMap<>();
+        for (SlotAllocationIndex index : slotAllocationIndexService.getCachedIndexes()) {
+            String key = index.getParkingLotId() + ":" + index.getSlotType();
+            long expected = availableByLotAndType.getOrDefault(key, 0L);
+            if (expected == index.availableCount()) {
+                continue;
+            }
+            // In-flight transactions make a single mismatch normal; only the same mismatch twice means drift
+            String observed = expected + "/" + index.availableCount();
+            if (observed.equals(lastMismatches.get(key))) {
+                slotAllocationIndexService.invalidate(index.getParkingLotId());
+            } else {
+                mismatches.put(key, observed);
+            }
+        }
+        lastMismatches.clear();
+        lastMismatches.putAll(mismatches);
+    }
+}
@@ -0,0 +1,360 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.dto.SlotOccupancyCount;
+import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.repository.ParkingLotRepository;
+import com.demo.parkinglot.repository.ParkingSlotRepository;
+import com.demo.parkinglot.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Materialized slot counters keyed by (lot, vehicle type, floor).
+ * Allocate, free, add and remove bump a single cell after commit, so the slot statistics
+ * endpoint reads memory instead of counting rows. Each lot has its own lock: updates share its
+ * read side and a snapshot of the lot takes its write side, so a snapshot never sees half of a
+ * multi-cell change and reading one lot never waits on updates to another. A change never spans lots.
+ * Counters are loaded from the database on first use and can be rebuilt on demand for repair; changes
+ * committed while a load reads the table are held back and applied on top of it.
+ */
+@Service
+public class OccupancyCounterService {
+
+    @Autowired
+    private ParkingSlotRepository slotRepository;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    /** Changes share the read side; a reload takes the write side to start holding changes back and to swap in */
+    private final ReadWriteLock reloadLock = new ReentrantReadWriteLock();
+    /** Replaced as a whole by a reload, so readers see either the old or the new counters */
+    private volatile Map<Long, LotCounters> lots = new ConcurrentHashMap<>();
+    private final List<Consumer<Long>> changeListeners = new CopyOnWriteArrayList<>();
+    /** One reload at a time */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    /** Changes committed during a reload, applied once it completes; null when no reload is running */
+    private volatile Queue<Consumer<Map<Long, LotCounters>>> rebuildBuffer;
+    private volatile boolean loaded;
+
+    /**
+     * Record an allocation once the current transaction commits
+     */
+    public void slotAllocated(ParkingSlot slot) {
+        record(slot, 0, -1);
+    }
+
+    /**
+     * Record a freed slot once the current transaction commits
+     */
+    public void slotFreed(ParkingSlot slot) {
+        record(slot, 0, 1);
+    }
+
+    /**
+     * Record a new slot once the current transaction commits
+     */
+    public void slotAdded(ParkingSlot slot) {
+        record(slot, 1, slot.isAvailable() ? 1 : 0);
+    }
+
+    /**
+     * Record a removed slot once the current transaction commits
+     */
+    public void slotRemoved(ParkingSlot slot) {
+        record(slot, -1, slot.isAvailable() ? -1 : 0);
+    }
+
+    /**
+     * Record a slot moving from one vehicle type to another once the current transaction commits
+     */
+    public void slotTypeChanged(ParkingSlot slot, VehicleType previousType) {
+        if (slot.getParkingLot() == null || previousType == slot.getSlotType()) {
+            return;
+        }
+        Long parkingLotId = slot.getParkingLot().getId();
+        CounterKey from = new CounterKey(previousType, slot.getFloor());
+        CounterKey to = new CounterKey(slot.getSlotType(), slot.getFloor());
+        int available = slot.isAvailable() ? 1 : 0;
+        TransactionHooks.afterCommit(() -> apply(parkingLotId, lot -> {
+            lot.counterFor(from).add(-1, -available);
+            lot.counterFor(to).add(1, available);
+        }));
+    }
+
+    /**
+     * Register a new parking lot once the current transaction commits, so it is listed before it has slots
+     */
+    public void lotCreated(ParkingLot parkingLot) {
+        Long parkingLotId = parkingLot.getId();
+        String lotName = parkingLot.getName();
+        if (parkingLotId == null || lotName == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> apply(parkingLotId, lot -> lot.name = lotName));
+    }
+
+    /**
+     * Reload all counters from the slot table.
+     * Changes committed while the table is read are held back and applied on top of the reloaded counters.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            reload();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        rebuildLock.lock();
+        try {
+            if (!loaded) {
+                reload();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void reload() {
+        Queue<Consumer<Map<Long, LotCounters>>> heldBack = new ConcurrentLinkedQueue<>();
+        reloadLock.writeLock().lock();
+        try {
+            rebuildBuffer = heldBack;
+        } finally {
+            reloadLock.writeLock().unlock();
+        }
+
+        Map<Long, LotCounters> rebuilt = new ConcurrentHashMap<>();
+        try {
+            for (SlotOccupancyCount count : slotRepository.countAllSlotsByLotFloorTypeAndAvailability()) {
+                CounterKey key = new CounterKey(count.getSlotType(), count.getFloor());
+                int slots = (int) count.getCount();
+                lotFor(rebuilt, count.getParkingLotId()).counterFor(key).add(slots, count.isAvailable() ? slots : 0);
+            }
+            for (ParkingLot lot : parkingLotRepository.findAll()) {
+                lotFor(rebuilt, lot.getId()).name = lot.getName();
+            }
+        } catch (RuntimeException e) {
+            // Keep the current counters, with the changes held back so far
+            reloadLock.writeLock().lock();
+            try {
+                rebuildBuffer = null;
+                if (loaded) {
+                    heldBack.forEach(change -> change.accept(lots));
+                }
+            } finally {
+                reloadLock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        reloadLock.writeLock().lock();
+        try {
+            heldBack.forEach(change -> change.accept(rebuilt));
+            lots = rebuilt;
+            rebuildBuffer = null;
+            loaded = true;
+        } finally {
+            reloadLock.writeLock().unlock();
+        }
+        rebuilt.keySet().forEach(parkingLotId -> changeListeners.forEach(listener -> listener.accept(parkingLotId)));
+    }
+
+    /**
+     * Take a copy of every counter cell, consistent within each lot
+     */
+    public List<CounterSnapshot> snapshot() {
+        ensureLoaded();
+        List<CounterSnapshot> cells = new ArrayList<>();
+        lots.forEach((parkingLotId, lot) -> cells.addAll(lot.copy(parkingLotId)));
+        return cells;
+    }
+
+    /**
+     * Take a consistent copy of the counter cells of one parking lot, without blocking other lots
+     */
+    public List<CounterSnapshot> snapshot(Long parkingLotId) {
+        ensureLoaded();
+        LotCounters lot = lots.get(parkingLotId);
+        return lot != null ? lot.copy(parkingLotId) : new ArrayList<>();
+    }
+
+    /**
+     * Register a callback run with the lot ID after counters of that lot change
+     */
+    public void addChangeListener(Consumer<Long> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Names of all known parking lots, keyed by ID
+     */
+    public Map<Long, String> getLotNames() {
+        ensureLoaded();
+        Map<Long, String> names = new HashMap<>();
+        lots.forEach((parkingLotId, lot) -> {
+            if (lot.name != null) {
+                names.put(parkingLotId, lot.name);
+            }
+        });
+        return names;
+    }
+
+    private void record(ParkingSlot slot, int totalChange, int availableChange) {
+        if (slot.getParkingLot() == null) {
+            return;
+        }
+        ParkingLot parkingLot = slot.getParkingLot();
+        Long parkingLotId = parkingLot.getId();
+        CounterKey key = new CounterKey(slot.getSlotType(), slot.getFloor());
+        String lotName = parkingLot.getName();
+        TransactionHooks.afterCommit(() -> apply(parkingLotId, lot -> {
+            if (lot.name == null) {
+                lot.name = lotName;
+            }
+            lot.counterFor(key).add(totalChange, availableChange);
+        }));
+    }
+
+    private void apply(Long parkingLotId, Consumer<LotCounters> change) {
+        reloadLock.readLock().lock();
+        try {
+            Queue<Consumer<Map<Long, LotCounters>>> heldBack = rebuildBuffer;
+            if (heldBack != null) {
+                // Reloading: the table read may already have missed this change, so apply it after the load
+                heldBack.add(target -> lotFor(target, parkingLotId).update(change));
+                return;
+            }
+            // Never loaded and no load running: the first load reads this change from the table
+            if (!loaded) {
+                return;
+            }
+            lotFor(lots, parkingLotId).update(change);
+        } finally {
+            reloadLock.readLock().unlock();
+        }
+        changeListeners.forEach(listener -> listener.accept(parkingLotId));
+    }
+
+    private static LotCounters lotFor(Map<Long, LotCounters> target, Long parkingLotId) {
+        return target.computeIfAbsent(parkingLotId, id -> new LotCounters());
+    }
+
+    /**
+     * Counter cells of one parking lot and the lock that keeps a copy of them consistent
+     */
+    private static final class LotCounters {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<CounterKey, Counter> counters = new ConcurrentHashMap<>();
+        private volatile String name;
+
+        void update(Consumer<LotCounters> change) {
+            lock.readLock().lock();
+            try {
+                change.accept(this);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Counter counterFor(CounterKey key) {
+            return counters.computeIfAbsent(key, k -> new Counter());
+        }
+
+        List<CounterSnapshot> copy(Long parkingLotId) {
+            lock.writeLock().lock();
+            try {
+                List<CounterSnapshot> cells = new ArrayList<>();
+                counters.forEach((key, counter) -> cells.add(new CounterSnapshot(parkingLotId, name,
+                        key.slotType, key.floor, counter.total.get(), counter.available.get())));
+                return cells;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static final class CounterKey {
+        private final VehicleType slotType;
+        private final int floor;
+
+        CounterKey(VehicleType slotType, int floor) {
+            this.slotType = slotType;
+            this.floor = floor;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CounterKey)) return false;
+            CounterKey that = (CounterKey) o;
+            return floor == that.floor && slotType == that.slotType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(slotType, floor);
+        }
+    }
+
+    private static final class Counter {
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger available = new AtomicInteger();
+
+        void add(int totalChange, int availableChange) {
+            total.addAndGet(totalChange);
+            available.addAndGet(availableChange);
+        }
+    }
+
+    /**
+     * Copy of one counter cell
+     */
+    public static class CounterSnapshot {
+        private final Long parkingLotId;
+        private final String parkingLotName;
+        private final VehicleType slotType;
+        private final int floor;
+        private final int total;
+        private final int available;
+
+        public CounterSnapshot(Long parkingLotId, String parkingLotName, VehicleType slotType, int floor, int total, int available) {
+            this.parkingLotId = parkingLotId;
+            this.parkingLotName = parkingLotName;
+            this.slotType = slotType;
+            this.floor = floor;
+            this.total = total;
+            this.available = available;
+        }
+
+        public Long getParkingLotId() { return parkingLotId; }
+        public String getParkingLotName() { return parkingLotName; }
+        public VehicleType getSlotType() { return slotType; }
+        public int getFloor() { return floor; }
+        public int getTotal() { return total; }
+        public int getAvailable() { return available; }
+    }
+}
@@ -0,0 +1,197 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.allocation.AllocationStatistics;
+import com.demo.parkinglot.allocation.OccupancySnapshot;
+import com.demo.parkinglot.allocation.SlotAllocationIndex;
+import com.demo.parkinglot.config.PersistenceConfig;
+import com.demo.parkinglot.config.SnapshotConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Warm start of the allocation indexes from an occupancy snapshot file.
+ * The cached indexes are written to the snapshot periodically and at shutdown. At startup the latest
+ * snapshot is mapped and its indexes installed before the first request, so no slot scan runs on the
+ * request path; once the application is ready, each restored index is compared with the database in
+ * the background and rebuilt if they differ. Until then a stale index can only offer a slot the
+ * conditional UPDATE rejects, or skip a free one. Not used in JOURNAL mode, where the index is the only
+ * guard on a claim and must be built from the database after the journal replay.
+ */
+@Service
+public class OccupancySnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancySnapshotService.class);
+    private static final String SNAPSHOT_FILE = "occupancy.snapshot";
+
+    @Autowired
+    private SnapshotConfig snapshotConfig;
+
+    @Autowired
+    private PersistenceConfig persistenceConfig;
+
+    @Autowired
+    private SlotAllocationIndexService slotAllocationIndexService;
+
+    @Autowired
+    private AllocationStatistics allocationStatistics;
+
+    private volatile List<SlotAllocationIndex> restoredIndexes = List.of();
+    private volatile long snapshotAgeMs = -1;
+    private volatile double restoreMs;
+    private volatile String restoreFailure;
+    private volatile long startupMs = -1;
+    private volatile boolean verificationComplete;
+    private volatile double verificationMs;
+    private final LongAdder matchedIndexes = new LongAdder();
+    private final LongAdder rebuiltIndexes = new LongAdder();
+    private final LongAdder writtenSnapshots = new LongAdder();
+    private volatile long lastSnapshotBytes;
+    private volatile double lastWriteMs;
+
+    /**
+     * Install the indexes saved in the latest snapshot, if there is one
+     */
+    @PostConstruct
+    public void restore() {
+        if (!isActive()) {
+            return;
+        }
+        Path file = snapshotFile();
+        if (!Files.exists(file)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            OccupancySnapshot snapshot = OccupancySnapshot.read(file);
+            List<SlotAllocationIndex> installed = snapshot.getIndexes().stream()
+                    .filter(slotAllocationIndexService::install)
+                    .toList();
+            restoredIndexes = installed;
+            snapshotAgeMs = System.currentTimeMillis() - snapshot.getCreatedAt().toEpochMilli();
+            restoreMs = (System.nanoTime() - start) / 1_000_000.0;
+            logger.info("Restored {} allocation indexes from a snapshot taken {} ms ago in {} ms",
+                    installed.size(), snapshotAgeMs, restoreMs);
+        } catch (IOException e) {
+            // Indexes are then built from the database on first use, as without a snapshot
+            restoreFailure = e.getMessage();
+            logger.warn("Ignoring unreadable occupancy snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Record the startup time and verify the restored indexes in the background
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        startupMs = event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1;
+        if (restoredIndexes.isEmpty() || !snapshotConfig.isVerifyOnStartup()) {
+            verificationComplete = true;
+            return;
+        }
+        Thread verifier = new Thread(this::verifyRestoredIndexes, "occupancy-snapshot-verify");
+        verifier.setDaemon(true);
+        verifier.start();
+    }
+
+    /**
+     * Compare every restored index with the database, rebuilding those that differ
+     */
+    public void verifyRestoredIndexes() {
+        long start = System.nanoTime();
+        for (SlotAllocationIndex index : restoredIndexes) {
+            try {
+                if (slotAllocationIndexService.verify(index)) {
+                    matchedIndexes.increment();
+                } else {
+                    rebuiltIndexes.increment();
+                }
+            } catch (RuntimeException e) {
+                // Drop the lot's indexes so they are rebuilt from the database on next use
+                slotAllocationIndexService.invalidate(index.getParkingLotId());
+                rebuiltIndexes.increment();
+                logger.warn("Could not verify the restored index of lot {}: {}", index.getParkingLotId(), e.getMessage());
+            }
+        }
+        verificationMs = (System.nanoTime() - start) / 1_000_000.0;
+        verificationComplete = true;
+        logger.info("Verified restored allocation indexes in {} ms: {} matched, {} rebuilt",
+                verificationMs, matchedIndexes.sum(), rebuiltIndexes.sum());
+    }
+
+    /**
+     * Write the cached indexes to the snapshot file
+     */
+    @Scheduled(fixedDelayString = "${parking.snapshot.interval-ms:60000}")
+    public void writeSnapshot() {
+        if (!isActive()) {
+            return;
+        }
+        List<SlotAllocationIndex> indexes = slotAllocationIndexService.getCachedIndexes();
+        if (indexes.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            lastSnapshotBytes = OccupancySnapshot.write(snapshotFile(), indexes);
+            lastWriteMs = (System.nanoTime() - start) / 1_000_000.0;
+            writtenSnapshots.increment();
+        } catch (IOException e) {
+            logger.warn("Could not write occupancy snapshot: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeSnapshot();
+    }
+
+    /**
+     * Get startup, time-to-first-allocation, restore, verification and snapshot write figures
+     */
+    public Map<String, Object> getStatistics() {
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        long firstAllocationAt = allocationStatistics.getFirstAllocationAt();
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("enabled", isActive());
+        statistics.put("startupMs", startupMs);
+        statistics.put("timeToFirstAllocationMs", firstAllocationAt > 0 ? firstAllocationAt - jvmStart : -1);
+        statistics.put("restoredIndexes", restoredIndexes.size());
+        statistics.put("snapshotAgeMs", snapshotAgeMs);
+        statistics.put("restoreMs", restoreMs);
+        statistics.put("restoreFailure", restoreFailure);
+        statistics.put("verificationComplete", verificationComplete);
+        statistics.put("verificationMs", verificationMs);
+        statistics.put("matchedIndexes", matchedIndexes.sum());
+        statistics.put("rebuiltIndexes", rebuiltIndexes.sum());
+        statistics.put("writtenSnapshots", writtenSnapshots.sum());
+        statistics.put("lastSnapshotBytes", lastSnapshotBytes);
+        statistics.put("lastWriteMs", lastWriteMs);
+        return statistics;
+    }
+
+    private boolean isActive() {
+        return snapshotConfig.isEnabled() && !persistenceConfig.isJournalMode();
+    }
+
+    private Path snapshotFile() {
+        return Paths.get(snapshotConfig.getDirectory()).resolve(SNAPSHOT_FILE);
+    }
+}
@@ -1,18 +1,26 @@
 package com.demo.parkinglot.service;
 
+import com.demo.parkinglot.allocation.AllocationStatistics;
+import com.demo.parkinglot.allocation.ContentionTracker;
+import com.demo.parkinglot.allocation.SlotAllocationIndex;
 import com.demo.parkinglot.dto.ExitResponse;
+import com.demo.parkinglot.dto.SlotOccupancySummary;
 import com.demo.parkinglot.entity.*;
 import com.demo.parkinglot.repository.*;
 import com.demo.parkinglot.util.ParkingUtility;
+import com.demo.parkinglot.enums.AllocationEngineType;
 import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.config.AllocationStrategyConfig;
 import com.demo.parkinglot.config.ParkingChargesConfig;
 import com.demo.parkinglot.constants.ParkingConstants;
 import com.demo.parkinglot.exception.SlotAllocationException;
+import com.demo.parkinglot.jfr.SlotAllocationEvent;
+import com.demo.parkinglot.journal.JournalEvent;
+import com.demo.parkinglot.util.TimeOrderedIdGenerator;
 
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -52,21 +60,50 @@ public class ParkingManagementService {
     @Autowired
     private PaymentService paymentService;
     
+    @Autowired
+    private SlotAllocationService slotAllocationService;
+    
+    @Autowired
+    private SlotAllocationIndexService slotAllocationIndexService;
+    
+    @Autowired
+    private AllocationStrategyConfig allocationStrategyConfig;
+    
+    @Autowired
+    private AllocationStatistics allocationStatistics;
+    
+    @Autowired
+    private ContentionTracker contentionTracker;
+    
+    @Autowired
+    private FloorAvailabilityService floorAvailabilityService;
+    
+    @Autowired
+    private OccupancyCounterService occupancyCounterService;
+    
+    @Autowired
+    private ActiveSessionRegistry activeSessionRegistry;
+    
+    @Autowired
+    private EventJournalService eventJournalService;
+    
     /**
      * Park a vehicle with concurrency-safe slot allocation
      */
     @Transactional
     public Ticket parkVehicle(String plateNo, String type, String ownerId, Long entryGateId) {
+        return parkVehicleInCurrentTransaction(plateNo, type, ownerId, entryGateId);
+    }
+    
+    /**
+     * Body of {@link #parkVehicle}, run in the caller's transaction. For callers that undo a failed entry
+     * themselves, such as the sequencer rolling it back to a savepoint: an exception thrown here does not
+     * mark their transaction rollback-only.
+     */
+    public Ticket parkVehicleInCurrentTransaction(String plateNo, String type, String ownerId, Long entryGateId) {
         // Validate and parse vehicle type
         VehicleType vehicleType = ParkingUtility.validateAndParseVehicleType(type);
-
-        // Check if vehicle is already parked
-        Vehicle vehicle = vehicleRepository.findByPlateNo(plateNo)
-                .orElseGet(() -> vehicleRepository.save(new Vehicle(plateNo, vehicleType, ownerId)));
-
-        if (ticketRepository.findByVehicleAndActiveTrue(vehicle).isPresent()) {
-            throw new SlotAllocationException("Vehicle with plate number " + plateNo + " is already parked");
-        }
+        String normalizedPlate = ParkingUtility.normalizePlateNumber(plateNo);
 
         // Validate entry gate
         EntryGate entryGate = entryGateRepository.findById(entryGateId)
@@ -78,83 +115,288 @@ public class ParkingManagementService {
             throw new IllegalStateException("Parking lot is not available");
         }
 
-        // Check if parking lot is full
+        // Reject a full lot from the live counters, before any plate or slot query runs
         if (isParkingLotFull(parkingLot, vehicleType)) {
             throw new SlotAllocationException("Parking lot is full for vehicle type: " + vehicleType.getDisplayName());
         }
 
+        // Check if vehicle is already parked; the plate stays reserved until this entry commits or rolls back
+        if (!activeSessionRegistry.reserve(normalizedPlate)) {
+            throw new SlotAllocationException("Vehicle with plate number " + normalizedPlate + " is already parked");
+        }
+        requireNoActiveTicket(normalizedPlate);
+
+        Vehicle vehicle = vehicleRepository.findByPlateNo(normalizedPlate)
+                .orElseGet(() -> vehicleRepository.save(new Vehicle(normalizedPlate, vehicleType, ownerId)));
+
         // Find and allocate slot with concurrency safety
         ParkingSlot allocatedSlot = allocateSlotSafely(parkingLot, vehicleType, entryGate);
         
         // Create ticket
-        Ticket ticket = new Ticket(vehicle, allocatedSlot, entryGate, LocalDateTime.now(), true);
-        return ticketRepository.save(ticket);
+        Ticket ticket = ticketRepository.save(new Ticket(vehicle, allocatedSlot, entryGate, LocalDateTime.now(), true));
+        activeSessionRegistry.entered(normalizedPlate, ticket.getId());
+        return ticket;
     }
     
     /**
-     * Safely allocate a slot with concurrency protection
+     * Park a vehicle under the JOURNAL persistence mode.
+     * The slot is claimed in the allocation index and the entry is durable once its event is forced to the
+     * journal, so no row is written here; the vehicle, ticket and slot rows are written behind by
+     * {@link EventJournalService}. The ticket ID is assigned up front, so the caller gets its final ticket.
      */
-    private ParkingSlot allocateSlotSafely(ParkingLot parkingLot, VehicleType vehicleType, EntryGate entryGate) {
-        int maxRetries = 3;
-        int retryCount = 0;
+    public Ticket parkVehicleJournaled(String plateNo, String type, String ownerId, Long entryGateId) {
+        VehicleType vehicleType = ParkingUtility.validateAndParseVehicleType(type);
+        String normalizedPlate = ParkingUtility.normalizePlateNumber(plateNo);
+        
+        if (!activeSessionRegistry.reserve(normalizedPlate)) {
+            throw new SlotAllocationException("Vehicle with plate number " + normalizedPlate + " is already parked");
+        }
         
-        while (retryCount < maxRetries) {
-            try {
-                // Get available slots for the specific parking lot and vehicle type
-                List<ParkingSlot> availableSlots = slotRepository.findAvailableSlotsByTypeAndParkingLot(vehicleType, parkingLot);
-                
-                if (availableSlots.isEmpty()) {
-                    throw new SlotAllocationException("No available slots for vehicle type: " + vehicleType.getDisplayName());
+        SlotAllocationIndex index = null;
+        int ordinal = -1;
+        try {
+            requireNoActiveTicket(normalizedPlate);
+            EntryGate entryGate = entryGateRepository.findById(entryGateId)
+                    .orElseThrow(() -> new IllegalArgumentException(ParkingConstants.INVALID_ENTRY_GATE));
+            ParkingLot parkingLot = entryGate.getParkingLot();
+            if (parkingLot == null || !parkingLot.isActive()) {
+                throw new IllegalStateException("Parking lot is not available");
+            }
+            
+            // The index is the live view of occupancy here; the database catches up behind it
+            index = slotAllocationIndexService.getIndex(parkingLot, vehicleType);
+            ContentionTracker.Cell contention = contentionTracker.cell(parkingLot.getId(), vehicleType);
+            SlotAllocationEvent event = new SlotAllocationEvent();
+            event.begin();
+            int attempts = 0;
+            ParkingSlot slot;
+            while (true) {
+                int candidate = slotAllocationService.selectSlot(index, entryGate);
+                if (candidate < 0) {
+                    event.setCandidatesScanned(attempts);
+                    commitAllocationEvent(event, parkingLot, vehicleType, "JOURNAL", null);
+                    throw new SlotAllocationException("Parking lot is full for vehicle type: " + vehicleType.getDisplayName());
                 }
-                
-                // Find the nearest slot to the entry gate
-                ParkingSlot nearestSlot = ParkingUtility.findNearestSlot(availableSlots, entryGate);
-                
-                // Attempt to allocate the slot atomically
-                int updatedRows = slotRepository.allocateSlot(nearestSlot.getId());
-                
-                if (updatedRows == 1) {
-                    // Successfully allocated, update floor availability
-                    updateFloorAvailability(nearestSlot.getFloor(), -1);
-                    // Refresh the slot to get updated availability status
-                    nearestSlot.setAvailable(false);
-                    return nearestSlot;
-                } else {
-                    // Slot was already allocated by another transaction
-                    retryCount++;
-                    if (retryCount >= maxRetries) {
-                        throw new SlotAllocationException("Unable to allocate slot after " + maxRetries + " attempts");
+                attempts++;
+                if (slotAllocationIndexService.hold(index, candidate)) {
+                    // Checked before the entry is journaled: a slot taken outside this index must not be
+                    // handed out again, since the write-behind refuses an entry onto an occupied slot
+                    Optional<ParkingSlot> free = eventJournalService.findFreeSlot(index.slotIdAt(candidate));
+                    if (free.isPresent()) {
+                        ordinal = candidate;
+                        slot = free.get();
+                        break;
                     }
-                    // Small delay before retry
-                    Thread.sleep(50);
+                    slotAllocationIndexService.settle(index, candidate, true);
                 }
-                
-            } catch (OptimisticLockingFailureException e) {
-                retryCount++;
-                if (retryCount >= maxRetries) {
-                    throw new IllegalStateException("Concurrent modification detected. Please try again.");
-                }
-                try {
-                    Thread.sleep(50);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new IllegalStateException("Allocation interrupted");
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new IllegalStateException("Allocation interrupted");
+                allocationStatistics.recordConflict();
+                contention.conflict(index.slotIdAt(candidate), entryGateId);
+            }
+            contention.allocated(attempts, entryGateId);
+            event.setCandidatesScanned(attempts);
+            commitAllocationEvent(event, parkingLot, vehicleType, "JOURNAL", index.slotIdAt(ordinal));
+            
+            Long slotId = slot.getId();
+            Vehicle vehicle = vehicleRepository.findByPlateNo(normalizedPlate)
+                    .orElseGet(() -> new Vehicle(normalizedPlate, vehicleType, ownerId));
+            Ticket ticket = new Ticket(vehicle, slot, entryGate, LocalDateTime.now(), true);
+            ticket.setId(TimeOrderedIdGenerator.shared().nextId());
+            
+            eventJournalService.append(JournalEvent.entry(ticket.getId(), slotId, ticket.getEntryTime(),
+                    normalizedPlate, vehicleType, ownerId, entryGateId));
+            
+            slot.setAvailable(false);
+            occupancyCounterService.slotAllocated(slot);
+            allocationStatistics.recordAllocation(attempts);
+            activeSessionRegistry.entered(normalizedPlate, ticket.getId());
+            slotAllocationIndexService.settle(index, ordinal, true);
+            return ticket;
+        } catch (RuntimeException e) {
+            // Nothing reached the journal, so give back the claim and the plate
+            if (ordinal >= 0) {
+                slotAllocationIndexService.settle(index, ordinal, false);
+            }
+            activeSessionRegistry.release(normalizedPlate);
+            throw e;
+        }
+    }
+    
+    /**
+     * Database check behind the registry reservation, for tickets the registry cannot know about: opened on
+     * another node, or by an entry this node has not seen commit. A ticket with journaled events not yet
+     * written behind is brought up to date first, so an exit already on the journal counts.
+     */
+    private void requireNoActiveTicket(String normalizedPlate) {
+        List<Long> activeTicketIds = ticketRepository.findActiveTicketIdsByPlateNo(normalizedPlate);
+        if (!activeTicketIds.isEmpty() && eventJournalService.isEnabled()) {
+            activeTicketIds.forEach(eventJournalService::flushTicket);
+            activeTicketIds = ticketRepository.findActiveTicketIdsByPlateNo(normalizedPlate);
+        }
+        if (!activeTicketIds.isEmpty()) {
+            throw new SlotAllocationException("Vehicle with plate number " + normalizedPlate + " is already parked");
+        }
+    }
+    
+    /**
+     * Safely allocate a slot with concurrency protection, on the configured engine, as one SlotAllocation JFR event
+     */
+    private ParkingSlot allocateSlotSafely(ParkingLot parkingLot, VehicleType vehicleType, EntryGate entryGate) {
+        AllocationEngineType engineType = allocationStrategyConfig.getEngineType();
+        SlotAllocationEvent event = new SlotAllocationEvent();
+        event.begin();
+        ParkingSlot allocatedSlot = null;
+        try {
+            allocatedSlot = engineType == AllocationEngineType.MEMORY || engineType == AllocationEngineType.SEQUENCER
+                    ? allocateSlotInMemory(parkingLot, vehicleType, entryGate, event)
+                    : allocateSlotFromCandidates(parkingLot, vehicleType, entryGate, event);
+            return allocatedSlot;
+        } finally {
+            commitAllocationEvent(event, parkingLot, vehicleType, engineType.name(),
+                    allocatedSlot != null ? allocatedSlot.getId() : null);
+        }
+    }
+    
+    /**
+     * The strategy ranks the top candidates from the in-memory allocation index and the conditional
+     * UPDATE decides each claim. A lost candidate moves straight on to the next one; the database is
+     * only asked directly once every ranked candidate is exhausted.
+     */
+    private ParkingSlot allocateSlotFromCandidates(ParkingLot parkingLot, VehicleType vehicleType, EntryGate entryGate,
+                                                   SlotAllocationEvent event) {
+        SlotAllocationIndex index = slotAllocationIndexService.getIndex(parkingLot, vehicleType);
+        ContentionTracker.Cell contention = contentionTracker.cell(parkingLot.getId(), vehicleType);
+        int[] candidates = slotAllocationService.rankSlots(index, entryGate, allocationStrategyConfig.getCandidateCount());
+        int attempts = 0;
+        
+        for (int ordinal : candidates) {
+            attempts++;
+            event.setCandidatesScanned(attempts);
+            // Attempt to allocate the slot atomically; the UPDATE waits if another transaction holds the row
+            Long slotId = index.slotIdAt(ordinal);
+            long updateStart = System.nanoTime();
+            int updated = slotRepository.allocateSlot(slotId);
+            contention.lockWait(System.nanoTime() - updateStart);
+            if (updated == 1) {
+                ParkingSlot allocatedSlot = slotRepository.findById(slotId)
+                        .orElseThrow(() -> new SlotAllocationException("Allocated slot no longer exists"));
+                // Reflect the bulk update on the managed entity
+                allocatedSlot.setAvailable(false);
+                slotAllocationIndexService.slotAllocated(allocatedSlot);
+                recordSlotAllocated(allocatedSlot);
+                allocationStatistics.recordAllocation(attempts);
+                contention.allocated(attempts, entryGate.getId());
+                return allocatedSlot;
             }
+            // Slot was already allocated by another transaction
+            index.markOccupied(ordinal);
+            allocationStatistics.recordConflict();
+            contention.conflict(slotId, entryGate.getId());
         }
         
-        throw new SlotAllocationException("Unable to allocate slot after maximum retries");
+        contention.databaseFallback();
+        event.setCandidatesScanned(attempts + 1);
+        long claimStart = System.nanoTime();
+        ParkingSlot claimedSlot = claimSlotFromDatabase(parkingLot, vehicleType, entryGate);
+        contention.lockWait(System.nanoTime() - claimStart);
+        allocationStatistics.recordAllocation(attempts + 1);
+        contention.allocated(attempts + 1, entryGate.getId());
+        return claimedSlot;
     }
     
     /**
-     * Check if parking lot is full for a specific vehicle type
+     * Claim a single row straight from the database when the index has no free candidate left.
+     * Only that row is locked, so concurrent entries for the lot are not serialized.
+     */
+    private ParkingSlot claimSlotFromDatabase(ParkingLot parkingLot, VehicleType vehicleType, EntryGate entryGate) {
+        allocationStatistics.recordDatabaseFallback();
+        ParkingSlot claimedSlot = slotRepository.claimSlot(parkingLot, vehicleType, slotAllocationService.getCurrentStrategy(), entryGate)
+                .orElseThrow(() -> new SlotAllocationException("Parking lot is full for vehicle type: " + vehicleType.getDisplayName()));
+        // The index missed a free slot, rebuild it on next use
+        slotAllocationIndexService.invalidate(parkingLot.getId());
+        recordSlotAllocated(claimedSlot);
+        return claimedSlot;
+    }
+    
+    /**
+     * Allocate a slot by claiming it in memory first.
+     * The CAS on the occupancy bitset guarantees no two requests in this process get the same slot,
+     * so there is no lock wait and no sleep; the conditional UPDATE only confirms the claim.
+     * Under the sequencer engine this runs on the lot's owner thread, so the CAS is never contended.
+     */
+    private ParkingSlot allocateSlotInMemory(ParkingLot parkingLot, VehicleType vehicleType, EntryGate entryGate,
+                                             SlotAllocationEvent event) {
+        SlotAllocationIndex index = slotAllocationIndexService.getIndex(parkingLot, vehicleType);
+        ContentionTracker.Cell contention = contentionTracker.cell(parkingLot.getId(), vehicleType);
+        boolean refreshed = false;
+        int attempts = 0;
+        
+        while (true) {
+            int ordinal = slotAllocationService.selectSlot(index, entryGate);
+            if (ordinal < 0) {
+                // Index may be stale: rebuild it from the database, unless that was done recently
+                SlotAllocationIndex rebuilt = refreshed ? null : slotAllocationIndexService.refreshIfDue(parkingLot, vehicleType);
+                if (rebuilt == null) {
+                    throw new SlotAllocationException("Parking lot is full for vehicle type: " + vehicleType.getDisplayName());
+                }
+                index = rebuilt;
+                refreshed = true;
+                allocationStatistics.recordDatabaseFallback();
+                contention.databaseFallback();
+                continue;
+            }
+            
+            attempts++;
+            event.setCandidatesScanned(attempts);
+            Long slotId = index.slotIdAt(ordinal);
+            if (!slotAllocationIndexService.claim(index, ordinal)) {
+                // Another request won this slot, move on to the next candidate
+                allocationStatistics.recordConflict();
+                contention.conflict(slotId, entryGate.getId());
+                continue;
+            }
+            
+            long updateStart = System.nanoTime();
+            int updated = slotRepository.allocateSlot(slotId);
+            contention.lockWait(System.nanoTime() - updateStart);
+            if (updated == 1) {
+                ParkingSlot allocatedSlot = slotRepository.findById(slotId)
+                        .orElseThrow(() -> new SlotAllocationException("Allocated slot no longer exists"));
+                // Reflect the bulk update on the managed entity
+                allocatedSlot.setAvailable(false);
+                recordSlotAllocated(allocatedSlot);
+                allocationStatistics.recordAllocation(attempts);
+                contention.allocated(attempts, entryGate.getId());
+                return allocatedSlot;
+            }
+            // Database already has the slot occupied (changed outside this process); keep it claimed and move on
+            allocationStatistics.recordConflict();
+            contention.conflict(slotId, entryGate.getId());
+        }
+    }
+    
+    private void commitAllocationEvent(SlotAllocationEvent event, ParkingLot parkingLot, VehicleType vehicleType,
+                                       String engine, Long slotId) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setParkingLotId(parkingLot.getId());
+            event.setVehicleType(vehicleType.name());
+            event.setStrategy(slotAllocationService.getCurrentStrategy().name());
+            event.setEngine(engine);
+            event.setSlotId(slotId != null ? slotId : 0);
+            event.commit();
+        }
+    }
+    
+    /**
+     * Check if parking lot is full for a specific vehicle type, using the index's free-slot counter.
+     * A counter at zero is checked against the database at most once per refresh interval.
      */
     private boolean isParkingLotFull(ParkingLot parkingLot, VehicleType vehicleType) {
-        long availableSlots = slotRepository.countAvailableSlotsByTypeAndParkingLot(parkingLot, vehicleType);
-        return availableSlots == 0;
+        if (slotAllocationIndexService.getIndex(parkingLot, vehicleType).availableCount() > 0) {
+            return false;
+        }
+        SlotAllocationIndex rebuilt = slotAllocationIndexService.refreshIfDue(parkingLot, vehicleType);
+        return rebuilt == null || rebuilt.availableCount() == 0;
     }
     
     /**
@@ -164,21 +406,26 @@ public class ParkingManagementService {
         ParkingLot parkingLot = parkingLotRepository.findById(parkingLotId)
                 .orElseThrow(() -> new IllegalArgumentException("Parking lot not found"));
         
+        // One GROUP BY query backs both the floor and the vehicle type breakdown
+        SlotOccupancySummary summary = new SlotOccupancySummary(slotRepository.countSlotsByFloorTypeAndAvailability(parkingLot));
+        return buildParkingLotStatus(parkingLot, summary);
+    }
+    
+    /**
+     * Shape a lot and its slot counts into the status response, however they were read
+     */
+    public Map<String, Object> buildParkingLotStatus(ParkingLot parkingLot, SlotOccupancySummary summary) {
         Map<String, Object> status = new java.util.HashMap<>();
-        status.put("parkingLotId", parkingLotId);
+        status.put("parkingLotId", parkingLot.getId());
         status.put("parkingLotName", parkingLot.getName());
         status.put("totalFloors", parkingLot.getTotalFloors());
         status.put("isActive", parkingLot.isActive());
         
-        // Get floor-wise availability
-        Map<Integer, Integer> floorCapacities = parkingLot.getFloorCapacities();
-        Map<Integer, Integer> availableByFloor = parkingLot.getAvailableSlotsByFloor();
-        
         Map<String, Object> floorStatus = new java.util.HashMap<>();
         for (int floor = 1; floor <= parkingLot.getTotalFloors(); floor++) {
             Map<String, Object> floorInfo = new java.util.HashMap<>();
-            int totalSlots = floorCapacities.getOrDefault(floor, 0);
-            int availableSlots = availableByFloor.getOrDefault(floor, 0);
+            int totalSlots = (int) summary.getTotalSlots(floor);
+            int availableSlots = (int) summary.getAvailableSlots(floor);
             int occupiedSlots = totalSlots - availableSlots;
             
             floorInfo.put("totalSlots", totalSlots);
@@ -195,8 +442,7 @@ public class ParkingManagementService {
         // Overall availability by vehicle type
         Map<String, Long> availabilityByType = new java.util.HashMap<>();
         for (VehicleType type : VehicleType.values()) {
-            long count = slotRepository.countAvailableSlotsByTypeAndParkingLot(parkingLot, type);
-            availabilityByType.put(type.getDisplayName(), count);
+            availabilityByType.put(type.getDisplayName(), summary.getAvailableSlots(type));
         }
         status.put("availabilityByVehicleType", availabilityByType);
         
@@ -204,18 +450,16 @@ public class ParkingManagementService {
     }
     
     /**
-     * Update floor availability count
+     * Count an allocated slot in the floor availability and the occupancy counters; both apply once the transaction commits
      */
-    private void updateFloorAvailability(int floorNumber, int change) {
-        // This would typically update the Floor entity's availableSlots count
-        // For now, we'll implement a simple approach
-        // In a real implementation, you might want to use a more sophisticated approach
+    private void recordSlotAllocated(ParkingSlot slot) {
+        floorAvailabilityService.recordChange(slot, -1);
+        occupancyCounterService.slotAllocated(slot);
     }
     
     /**
-     * Unpark vehicle with atomic payment processing
+     * Unpark vehicle; the payment service runs its own short transactions around the gateway call
      */
-    @Transactional
     public ExitResponse unparkVehicle(Long ticketId, double amount) {
         return paymentService.processPayment(ticketId, amount);
     }
@@ -223,8 +467,28 @@ public class ParkingManagementService {
     /**
      * Retry failed payment
      */
-    @Transactional
     public ExitResponse retryPayment(Long ticketId, double amount) {
         return paymentService.retryPayment(ticketId, amount);
     }
+    
+    /**
+     * Start an exit without waiting for the payment gateway
+     */
+    public PaymentService.PendingPayment unparkVehicleAsync(Long ticketId, double amount) {
+        return paymentService.submitPayment(ticketId, amount);
+    }
+    
+    /**
+     * Retry failed payment without waiting for the payment gateway
+     */
+    public PaymentService.PendingPayment retryPaymentAsync(Long ticketId, double amount) {
+        return paymentService.submitRetry(ticketId, amount);
+    }
+    
+    /**
+     * Get the status of an exit payment
+     */
+    public Map<String, Object> getPaymentStatus(Long paymentId) {
+        return paymentService.getPaymentStatus(paymentId);
+    }
 }
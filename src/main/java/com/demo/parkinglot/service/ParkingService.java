@@ -1,21 +1,28 @@
 package com.demo.parkinglot.service;
 
 import com.demo.parkinglot.dto.ExitResponse;
+import com.demo.parkinglot.allocation.ContentionTracker;
 import com.demo.parkinglot.entity.*;
 import com.demo.parkinglot.repository.*;
 import com.demo.parkinglot.util.ParkingUtility;
+import com.demo.parkinglot.enums.AllocationEngineType;
 import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.config.AllocationStrategyConfig;
 import com.demo.parkinglot.config.ParkingChargesConfig;
+import com.demo.parkinglot.config.PersistenceConfig;
 import com.demo.parkinglot.constants.ParkingConstants;
+import com.demo.parkinglot.metrics.ParkingMetrics;
 
-import jakarta.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class ParkingService {
@@ -43,17 +50,94 @@ public class ParkingService {
     
     @Autowired
     private ParkingManagementService parkingManagementService;
+    
+    @Autowired
+    private AllocationSequencerService allocationSequencerService;
+    
+    @Autowired
+    private AllocationStrategyConfig allocationStrategyConfig;
+    
+    @Autowired
+    private ActiveSessionRegistry activeSessionRegistry;
+    
+    @Autowired
+    private PersistenceConfig persistenceConfig;
+    
+    @Autowired
+    private ParkingMetrics parkingMetrics;
+    
+    @Autowired
+    private ContentionTracker contentionTracker;
 
-    @Transactional
+    /**
+     * Park a vehicle; under the sequencer engine this waits for the lot's owner thread
+     * without holding a transaction of its own, and in JOURNAL mode it waits for the journal instead
+     */
     public Ticket parkVehicle(String plateNo, String type, String ownerId, Long entryGateId) {
-        return parkingManagementService.parkVehicle(plateNo, type, ownerId, entryGateId);
+        long startNanos = System.nanoTime();
+        try {
+            Ticket ticket = enter(plateNo, type, ownerId, entryGateId);
+            parkingMetrics.recordEntry(type, ParkingMetrics.EntryOutcome.PARKED, startNanos);
+            return ticket;
+        } catch (RuntimeException e) {
+            parkingMetrics.recordEntry(type, ParkingMetrics.outcomeOf(e), startNanos);
+            if (e instanceof OptimisticLockingFailureException) {
+                recordOptimisticLockFailure(type, entryGateId);
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Charge a slot version conflict, surfacing at commit, to the lot of the entry gate
+     */
+    private void recordOptimisticLockFailure(String type, Long entryGateId) {
+        entryGateRepository.findById(entryGateId)
+                .map(EntryGate::getParkingLot)
+                .ifPresent(parkingLot -> contentionTracker.cell(parkingLot.getId(), VehicleType.fromString(type))
+                        .optimisticLockFailure());
+    }
+    
+    private Ticket enter(String plateNo, String type, String ownerId, Long entryGateId) {
+        if (persistenceConfig.isJournalMode()) {
+            return parkingManagementService.parkVehicleJournaled(plateNo, type, ownerId, entryGateId);
+        }
+        if (allocationStrategyConfig.getEngineType() != AllocationEngineType.SEQUENCER) {
+            return parkingManagementService.parkVehicle(plateNo, type, ownerId, entryGateId);
+        }
+        try {
+            return allocationSequencerService.submitEntry(plateNo, type, ownerId, entryGateId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Park a vehicle without blocking the caller
+     */
+    public CompletableFuture<Ticket> parkVehicleAsync(String plateNo, String type, String ownerId, Long entryGateId) {
+        if (allocationStrategyConfig.getEngineType() == AllocationEngineType.SEQUENCER && !persistenceConfig.isJournalMode()) {
+            return allocationSequencerService.submitEntry(plateNo, type, ownerId, entryGateId);
+        }
+        return CompletableFuture.completedFuture(parkVehicle(plateNo, type, ownerId, entryGateId));
     }
 
-    @Transactional
     public ExitResponse unparkVehicle(Long ticketId, double amount) {
         return parkingManagementService.unparkVehicle(ticketId, amount);
     }
     
+    /**
+     * Unpark the vehicle with the given plate, for gates that only read the plate
+     */
+    public ExitResponse unparkVehicleByPlate(String plateNo, double amount) {
+        Long ticketId = activeSessionRegistry.findActiveTicketId(plateNo)
+                .orElseGet(() -> findActiveTicketId(plateNo));
+        return parkingManagementService.unparkVehicle(ticketId, amount);
+    }
+    
     /**
      * Get parking lot status with floor-wise availability
      */
@@ -64,8 +148,38 @@ public class ParkingService {
     /**
      * Retry failed payment
      */
-    @Transactional
     public ExitResponse retryPayment(Long ticketId, double amount) {
         return parkingManagementService.retryPayment(ticketId, amount);
     }
+    
+    /**
+     * Start an exit and return as soon as the payment is recorded as PENDING
+     */
+    public PaymentService.PendingPayment unparkVehicleAsync(Long ticketId, double amount) {
+        return parkingManagementService.unparkVehicleAsync(ticketId, amount);
+    }
+    
+    /**
+     * Retry a failed payment and return as soon as the new attempt is recorded as PENDING
+     */
+    public PaymentService.PendingPayment retryPaymentAsync(Long ticketId, double amount) {
+        return parkingManagementService.retryPaymentAsync(ticketId, amount);
+    }
+    
+    /**
+     * Get the status of an exit payment
+     */
+    public Map<String, Object> getPaymentStatus(Long paymentId) {
+        return parkingManagementService.getPaymentStatus(paymentId);
+    }
+    
+    /**
+     * Look up an active ticket by plate in the database, for entries the registry has not seen committed
+     */
+    private Long findActiveTicketId(String plateNo) {
+        return vehicleRepository.findByPlateNo(ParkingUtility.normalizePlateNumber(plateNo))
+                .flatMap(ticketRepository::findByVehicleAndActiveTrue)
+                .map(Ticket::getId)
+                .orElseThrow(() -> new IllegalArgumentException("No active ticket for plate number " + plateNo));
+    }
 }
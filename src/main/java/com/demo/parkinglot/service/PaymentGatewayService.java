@@ -0,0 +1,225 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.config.ExecutionConfig;
+import com.demo.parkinglot.config.PaymentConfig;
+import com.demo.parkinglot.exception.PaymentProcessingException;
+import com.demo.parkinglot.jfr.PaymentGatewayEvent;
+import com.demo.parkinglot.metrics.ParkingMetrics;
+import com.demo.parkinglot.payment.CircuitBreaker;
+import com.demo.parkinglot.payment.HttpPaymentGateway;
+import com.demo.parkinglot.payment.LatencyHistogram;
+import com.demo.parkinglot.payment.PaymentGateway;
+import com.demo.parkinglot.payment.StubPaymentGateway;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calls the configured payment gateway on a bounded pool.
+ * Each call takes one of gateway-threads bulkhead permits, passes the circuit breaker and is cut off
+ * at the call timeout. While the breaker is open or the bulkhead is full, calls fail immediately
+ * instead of queueing behind a slow gateway.
+ */
+@Service
+public class PaymentGatewayService {
+
+    @Autowired
+    private PaymentConfig paymentConfig;
+
+    @Autowired
+    private ParkingMetrics parkingMetrics;
+
+    @Autowired
+    private ExecutionConfig executionConfig;
+
+    private PaymentGateway gateway;
+    private ExecutorService gatewayExecutor;
+    private Semaphore bulkhead;
+    private CircuitBreaker circuitBreaker;
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    private final LongAdder bulkheadRejections = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder declines = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        gateway = createGateway();
+        bulkhead = new Semaphore(paymentConfig.getGatewayThreads());
+        PaymentConfig.CircuitBreaker breaker = paymentConfig.getCircuitBreaker();
+        circuitBreaker = new CircuitBreaker(breaker.getFailureRateThreshold(), breaker.getSlidingWindowSize(),
+                breaker.getMinimumCalls(), breaker.getOpenDurationMs(), breaker.getHalfOpenCalls(), System::currentTimeMillis);
+
+        if (executionConfig.isVirtualThreads()) {
+            // On virtual threads a call holds no pooled thread; the bulkhead still caps calls in flight
+            gatewayExecutor = executionConfig.newExecutor("payment-gateway-", paymentConfig.getGatewayThreads());
+        } else {
+            // One thread per bulkhead permit and no queue: a call still stuck on a thread after its timeout
+            // released the permit is refused rather than queued behind it
+            int threads = paymentConfig.getGatewayThreads();
+            gatewayExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    executionConfig.threadFactory("payment-gateway-"));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        gatewayExecutor.shutdownNow();
+    }
+
+    /**
+     * Fail fast if the breaker is open, before any payment is recorded
+     */
+    public void checkAvailable() {
+        if (!circuitBreaker.isCallPermitted()) {
+            throw new PaymentProcessingException("GATEWAY", "Payment gateway unavailable, please retry later");
+        }
+    }
+
+    /**
+     * Charge the amount for a ticket
+     * @param idempotencyKey Key of this payment attempt, so a call the gateway received but did not answer
+     *                       in time is not charged twice if it is resent
+     * @return Future completed with true if approved, false if declined, or exceptionally with a
+     *         PaymentProcessingException if the call was refused, timed out or failed
+     */
+    public CompletableFuture<Boolean> charge(Long ticketId, double amount, String idempotencyKey) {
+        PaymentGatewayEvent event = new PaymentGatewayEvent();
+        event.begin();
+        if (!bulkhead.tryAcquire()) {
+            bulkheadRejections.increment();
+            recordCall(event, ticketId, amount, ParkingMetrics.GatewayOutcome.REJECTED, 0);
+            return CompletableFuture.failedFuture(
+                    new PaymentProcessingException("GATEWAY", "Payment gateway busy, please retry"));
+        }
+        CircuitBreaker.Permit permit = circuitBreaker.tryAcquirePermission();
+        if (!permit.isGranted()) {
+            bulkhead.release();
+            recordCall(event, ticketId, amount, ParkingMetrics.GatewayOutcome.REJECTED, 0);
+            return CompletableFuture.failedFuture(
+                    new PaymentProcessingException("GATEWAY", "Payment gateway unavailable, please retry later"));
+        }
+
+        long startNanos = System.nanoTime();
+        CompletableFuture<Boolean> call = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = gatewayExecutor.submit(() -> {
+                try {
+                    call.complete(gateway.charge(ticketId, amount, idempotencyKey));
+                } catch (RuntimeException e) {
+                    call.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The gateway was never called, so no outcome is recorded against its health
+            bulkhead.release();
+            circuitBreaker.releasePermission(permit);
+            if (gatewayExecutor.isShutdown()) {
+                return CompletableFuture.failedFuture(new PaymentProcessingException("GATEWAY", "Payment gateway stopped"));
+            }
+            // Every thread is still busy with calls that already timed out
+            bulkheadRejections.increment();
+            recordCall(event, ticketId, amount, ParkingMetrics.GatewayOutcome.REJECTED, 0);
+            return CompletableFuture.failedFuture(
+                    new PaymentProcessingException("GATEWAY", "Payment gateway busy, please retry"));
+        }
+
+        long timeoutMillis = paymentConfig.getCallTimeoutMs();
+        return call.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .handle((approved, error) -> {
+                    bulkhead.release();
+                    long elapsedNanos = System.nanoTime() - startNanos;
+                    latencyHistogram.record(elapsedNanos);
+                    if (error == null) {
+                        circuitBreaker.recordSuccess(permit);
+                        if (!approved) {
+                            declines.increment();
+                        }
+                        recordCall(event, ticketId, amount, approved ? ParkingMetrics.GatewayOutcome.APPROVED
+                                : ParkingMetrics.GatewayOutcome.DECLINED, elapsedNanos);
+                        return approved;
+                    }
+
+                    circuitBreaker.recordFailure(permit);
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        timeouts.increment();
+                        recordCall(event, ticketId, amount, ParkingMetrics.GatewayOutcome.TIMEOUT, elapsedNanos);
+                        task.cancel(true);
+                        throw new PaymentProcessingException("GATEWAY", "Payment gateway timed out after " + timeoutMillis + " ms");
+                    }
+                    errors.increment();
+                    recordCall(event, ticketId, amount, ParkingMetrics.GatewayOutcome.ERROR, elapsedNanos);
+                    if (cause instanceof PaymentProcessingException paymentError) {
+                        throw paymentError;
+                    }
+                    throw new PaymentProcessingException("GATEWAY", "Payment gateway call failed: " + cause.getMessage(), cause);
+                });
+    }
+
+    /**
+     * Record a finished or refused call in the metrics and as a PaymentGatewayCall JFR event
+     */
+    private void recordCall(PaymentGatewayEvent event, Long ticketId, double amount,
+                            ParkingMetrics.GatewayOutcome outcome, long elapsedNanos) {
+        parkingMetrics.recordGatewayCall(outcome, elapsedNanos);
+        event.end();
+        if (event.shouldCommit()) {
+            event.setTicketId(ticketId);
+            event.setAmount(amount);
+            event.setGateway(gateway.getGatewayName());
+            event.setOutcome(outcome.name());
+            event.commit();
+        }
+    }
+
+    /**
+     * Get breaker state, bulkhead usage, outcome counters and the call latency histogram
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> bulkheadStats = new HashMap<>();
+        bulkheadStats.put("maxConcurrentCalls", paymentConfig.getGatewayThreads());
+        bulkheadStats.put("callsInFlight", paymentConfig.getGatewayThreads() - bulkhead.availablePermits());
+        bulkheadStats.put("rejectedCalls", bulkheadRejections.sum());
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("gateway", gateway.getGatewayName());
+        statistics.put("callTimeoutMs", paymentConfig.getCallTimeoutMs());
+        statistics.put("circuitBreaker", circuitBreaker.getSnapshot());
+        statistics.put("bulkhead", bulkheadStats);
+        statistics.put("timeouts", timeouts.sum());
+        statistics.put("errors", errors.sum());
+        statistics.put("declines", declines.sum());
+        statistics.put("latency", latencyHistogram.getSnapshot());
+        return statistics;
+    }
+
+    private PaymentGateway createGateway() {
+        switch (paymentConfig.getGatewayType()) {
+            case HTTP:
+                PaymentConfig.Http http = paymentConfig.getHttp();
+                return new HttpPaymentGateway(http.getUrl(), http.getApiKey(), paymentConfig.getCallTimeoutMs());
+            case STUB:
+            default:
+                PaymentConfig.Stub stub = paymentConfig.getStub();
+                return new StubPaymentGateway(stub.getMedianLatencyMs(), stub.getLatencySigma(),
+                        stub.getDeclineRate(), stub.getErrorRate());
+        }
+    }
+}
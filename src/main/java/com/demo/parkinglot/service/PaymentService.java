@@ -4,20 +4,41 @@ import com.demo.parkinglot.dto.ExitResponse;
 import com.demo.parkinglot.entity.*;
 import com.demo.parkinglot.repository.*;
 import com.demo.parkinglot.util.ParkingUtility;
+import com.demo.parkinglot.enums.AllocationEngineType;
 import com.demo.parkinglot.enums.PaymentStatus;
 import com.demo.parkinglot.enums.VehicleType;
-import com.demo.parkinglot.config.ParkingChargesConfig;
+import com.demo.parkinglot.config.AllocationStrategyConfig;
+import com.demo.parkinglot.config.PaymentConfig;
 import com.demo.parkinglot.constants.ParkingConstants;
+import com.demo.parkinglot.jfr.ReceiptGenerationEvent;
+import com.demo.parkinglot.journal.JournalEvent;
+import com.demo.parkinglot.metrics.ParkingMetrics;
+import com.demo.parkinglot.tariff.Tariff;
+import com.demo.parkinglot.util.TimeOrderedIdGenerator;
 
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+/**
+ * Vehicle exit payments.
+ * An exit runs in three stages so no database connection is held while the gateway is called:
+ * a short transaction records a PENDING payment, the gateway is called through {@link PaymentGatewayService}
+ * outside any transaction, then a second short transaction settles the payment and frees the slot.
+ */
 @Service
 public class PaymentService {
-    
+
     @Autowired
     private PaymentRepository paymentRepository;
     
@@ -31,115 +52,323 @@ public class PaymentService {
     private ParkingSlotRepository slotRepository;
     
     @Autowired
-    private ParkingChargesConfig parkingChargesConfig;
+    private TariffService tariffService;
+    
+    @Autowired
+    private SlotAllocationIndexService slotAllocationIndexService;
+    
+    @Autowired
+    private AllocationStrategyConfig allocationStrategyConfig;
+    
+    @Autowired
+    private FloorAvailabilityService floorAvailabilityService;
+    
+    @Autowired
+    private OccupancyCounterService occupancyCounterService;
+    
+    @Autowired
+    private ActiveSessionRegistry activeSessionRegistry;
+    
+    @Autowired
+    private PaymentConfig paymentConfig;
+    
+    @Autowired
+    private PaymentGatewayService paymentGatewayService;
+    
+    @Autowired
+    private EventJournalService eventJournalService;
+    
+    @Autowired
+    private ParkingMetrics parkingMetrics;
+    
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor applicationTaskExecutor;
+    
+    @Lazy
+    @Autowired
+    private AllocationSequencerService allocationSequencerService;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    public PaymentService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
     
     /**
-     * Process payment atomically - slot is only freed after successful payment
+     * Process payment and wait for the outcome - slot is only freed after successful payment
      */
-    @Transactional
     public ExitResponse processPayment(Long ticketId, double amount) {
-        Ticket ticket = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new IllegalArgumentException(ParkingConstants.INVALID_TICKET_ID));
+        paymentGatewayService.checkAvailable();
+        PendingPayment pending = beginPayment(ticketId, amount);
+        boolean approved;
+        Throwable gatewayError = null;
+        try {
+            approved = callGateway(pending).join();
+        } catch (CompletionException e) {
+            approved = false;
+            gatewayError = e.getCause();
+        }
+        return finishPayment(pending, approved, gatewayError);
+    }
+    
+    /**
+     * Start a payment without waiting for the gateway; poll {@link #getPaymentStatus(Long)} for the outcome
+     */
+    public PendingPayment submitPayment(Long ticketId, double amount) {
+        paymentGatewayService.checkAvailable();
+        PendingPayment pending = beginPayment(ticketId, amount);
+        // Settle on the application executor, not on the gateway or timeout thread that completed the call;
+        // settling blocks on JDBC, so it must not run on the common ForkJoin pool either
+        pending.result = callGateway(pending)
+                .handleAsync((approved, error) -> finishPayment(pending, error == null && approved,
+                        error instanceof CompletionException ? error.getCause() : error), applicationTaskExecutor);
+        return pending;
+    }
+    
+    /**
+     * Get the status of a payment, with its receipt number once paid
+     */
+    public Map<String, Object> getPaymentStatus(Long paymentId) {
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new IllegalArgumentException("Payment not found"));
 
-        if (!ticket.isActive()) {
-            throw new IllegalStateException(ParkingConstants.TICKET_INACTIVE);
+        Map<String, Object> status = new HashMap<>();
+        status.put("paymentId", payment.getId());
+        // Time-ordered ticket IDs are above 2^53, so as JSON numbers clients would round them
+        status.put("ticketId", String.valueOf(payment.getTicket().getId()));
+        status.put("status", payment.getStatus().name());
+        status.put("amount", payment.getAmount());
+        if (payment.getFailureReason() != null) {
+            status.put("failureReason", payment.getFailureReason());
         }
+        if (payment.getStatus() == PaymentStatus.PAID) {
+            receiptRepository.findByTicket(payment.getTicket())
+                    .ifPresent(receipt -> status.put("receiptNumber", receipt.getReceiptNumber()));
+        }
+        return status;
+    }
+    
+    /**
+     * Stage 1: validate the ticket and amount, then record a PENDING payment
+     */
+    private PendingPayment beginPayment(Long ticketId, double amount) {
+        long startNanos = System.nanoTime();
+        // In JOURNAL mode the ticket's latest entry or exit may not be written yet
+        eventJournalService.flushTicket(ticketId);
+        return transactionTemplate.execute(status -> {
+            Ticket ticket = ticketRepository.findById(ticketId)
+                    .orElseThrow(() -> new IllegalArgumentException(ParkingConstants.INVALID_TICKET_ID));
 
-        LocalDateTime exitTime = LocalDateTime.now();
+            // An exit on the journal but not yet written behind also closes the ticket
+            if (!ticket.isActive() || eventJournalService.isExitPending(ticketId)) {
+                throw new IllegalStateException(ParkingConstants.TICKET_INACTIVE);
+            }
 
-        // Calculate parking charges
-        long durationInMinutes = ParkingUtility.calculateDurationInMinutes(ticket.getEntryTime(), exitTime);
-        VehicleType vehicleType = ticket.getVehicle().getType();
-        double hourlyRate = parkingChargesConfig.getHourlyRate(vehicleType);
-        double calculatedAmount = ParkingUtility.calculateParkingCharge(durationInMinutes, hourlyRate);
-        
-        // Validate payment amount
-        if (!ParkingUtility.isPaymentAmountValid(amount, calculatedAmount)) {
-            // Create failed payment record
-            Payment failedPayment = new Payment(ticket, amount, exitTime, PaymentStatus.FAILED);
-            failedPayment.setFailureReason("Payment amount mismatch. Expected: " + calculatedAmount + ", Received: " + amount);
-            paymentRepository.save(failedPayment);
-            
-            throw new IllegalArgumentException(ParkingConstants.PAYMENT_AMOUNT_MISMATCH + 
-                " Expected: " + calculatedAmount + ", Received: " + amount);
-        }
+            LocalDateTime exitTime = LocalDateTime.now();
 
-        try {
-            // Simulate payment processing (in real implementation, this would call payment gateway)
-            boolean paymentSuccessful = processPaymentWithGateway(amount, ticket);
-            
-            if (!paymentSuccessful) {
-                // Payment failed - create failed payment record and keep slot occupied
+            // Calculate parking charges
+            long durationInMinutes = ParkingUtility.calculateDurationInMinutes(ticket.getEntryTime(), exitTime);
+            VehicleType vehicleType = ticket.getVehicle().getType();
+            Tariff tariff = tariffService.tariffFor(ticket.getSlot().getParkingLot().getId(), vehicleType);
+            double hourlyRate = tariff.getHourlyRate();
+            double calculatedAmount = tariff.charge(ticket.getEntryTime(), durationInMinutes);
+
+            // Validate payment amount
+            if (!ParkingUtility.isPaymentAmountValid(amount, calculatedAmount)) {
+                // Create failed payment record
                 Payment failedPayment = new Payment(ticket, amount, exitTime, PaymentStatus.FAILED);
-                failedPayment.setFailureReason("Payment gateway processing failed");
+                failedPayment.setFailureReason("Payment amount mismatch. Expected: " + calculatedAmount + ", Received: " + amount);
                 paymentRepository.save(failedPayment);
-                
-                throw new IllegalStateException("Payment processing failed. Slot remains occupied.");
+
+                throw new IllegalArgumentException(ParkingConstants.PAYMENT_AMOUNT_MISMATCH +
+                    " Expected: " + calculatedAmount + ", Received: " + amount);
             }
-            
-            // Payment successful - create payment record
-            Payment payment = new Payment(ticket, amount, exitTime, PaymentStatus.PAID);
-            payment = paymentRepository.save(payment);
 
-            // Update ticket status
-            ticket.setExitTime(exitTime);
-            ticket.setActive(false);
-            ticketRepository.save(ticket);
-
-            // Generate receipt
-            String receiptNumber = ParkingUtility.generateReceiptNumber();
-            Receipt receipt = new Receipt(ticket, calculatedAmount, hourlyRate, durationInMinutes, receiptNumber);
-            receipt = receiptRepository.save(receipt);
-
-            // ONLY NOW free the parking slot - this is the atomic operation
-            ParkingSlot slot = ticket.getSlot();
-            int freedRows = slotRepository.freeSlot(slot.getId());
-            if (freedRows != 1) {
-                // This should not happen, but if it does, we have a serious issue
-                throw new IllegalStateException("Failed to free parking slot after successful payment");
+            // One payment row per ticket; a failed or abandoned attempt is reused by the next one
+            Payment payment = paymentRepository.findByTicket(ticket).orElseGet(Payment::new);
+            if (payment.getStatus() == PaymentStatus.PAID) {
+                throw new IllegalStateException("Payment already successful for this ticket");
             }
-            
-            // Refresh the slot entity to reflect the database changes
-            slot.setAvailable(true);
+            if (payment.getStatus() == PaymentStatus.PENDING
+                    && payment.getPaidAt().plusNanos(paymentConfig.getPendingTimeoutMs() * 1_000_000).isAfter(exitTime)) {
+                throw new IllegalStateException("Payment already in progress for this ticket");
+            }
+            payment.setTicket(ticket);
+            payment.setAmount(amount);
+            payment.setPaidAt(exitTime);
+            payment.setStatus(PaymentStatus.PENDING);
+            payment.setFailureReason(null);
+            payment = paymentRepository.save(payment);
 
-            return new ExitResponse(payment, receipt, ParkingConstants.VEHICLE_EXIT_SUCCESS);
-            
-        } catch (Exception e) {
+            return new PendingPayment(payment.getId(), ticket.getId(), ticket.getSlot().getParkingLot().getId(), amount,
+                    calculatedAmount, hourlyRate, durationInMinutes, exitTime, startNanos);
+        });
+    }
+    
+    /**
+     * Stage 2: call the gateway outside any transaction
+     */
+    private CompletableFuture<Boolean> callGateway(PendingPayment pending) {
+        return paymentGatewayService.charge(pending.ticketId, pending.amount, pending.getIdempotencyKey());
+    }
+    
+    /**
+     * Stage 3: settle the payment as PAID or FAILED; on success close the ticket, write the receipt and free the slot
+     */
+    private ExitResponse finishPayment(PendingPayment pending, boolean approved, Throwable gatewayError) {
+        String failureReason = gatewayError != null
+                ? "Payment gateway error: " + gatewayError.getMessage()
+                : "Payment gateway processing failed";
+        ExitResponse response;
+        try {
+            if (approved && eventJournalService.isEnabled()) {
+                response = completePaymentJournaled(pending);
+            } else if (approved && allocationStrategyConfig.getEngineType() == AllocationEngineType.SEQUENCER) {
+                response = completePaymentSequenced(pending);
+            } else {
+                response = transactionTemplate.execute(status -> approved
+                        ? completePayment(pending)
+                        : failPayment(pending, failureReason));
+            }
+        } catch (RuntimeException e) {
             // Any exception during payment processing means slot remains occupied
-            Payment failedPayment = new Payment(ticket, amount, exitTime, PaymentStatus.FAILED);
-            failedPayment.setFailureReason("Payment processing exception: " + e.getMessage());
-            paymentRepository.save(failedPayment);
-            
+            transactionTemplate.execute(status -> failPayment(pending, "Payment processing exception: " + e.getMessage()));
+            parkingMetrics.recordPayment(PaymentStatus.FAILED, pending.startNanos);
             throw new IllegalStateException("Payment processing failed. Slot remains occupied. Error: " + e.getMessage());
         }
+
+        parkingMetrics.recordPayment(response.payment().status(), pending.startNanos);
+        if (response.payment().status() != PaymentStatus.PAID) {
+            throw new IllegalStateException("Payment processing failed. Slot remains occupied.");
+        }
+        return response;
+    }
+    
+    private ExitResponse completePayment(PendingPayment pending) {
+        Payment payment = paymentRepository.findById(pending.paymentId)
+                .orElseThrow(() -> new IllegalStateException("Pending payment no longer exists"));
+        Ticket ticket = payment.getTicket();
+
+        // Close the ticket only if no other exit closed it first
+        if (ticketRepository.closeTicket(ticket.getId(), pending.exitTime) != 1) {
+            throw new IllegalStateException(ParkingConstants.TICKET_INACTIVE);
+        }
+        ticket.setExitTime(pending.exitTime);
+        ticket.setActive(false);
+        activeSessionRegistry.exited(ticket.getVehicle().getPlateNo(), ticket.getId());
+
+        payment.setStatus(PaymentStatus.PAID);
+        payment = paymentRepository.save(payment);
+
+        // Generate receipt
+        ReceiptGenerationEvent receiptEvent = new ReceiptGenerationEvent();
+        receiptEvent.begin();
+        String receiptNumber = ParkingUtility.generateReceiptNumber();
+        Receipt receipt = new Receipt(ticket, pending.calculatedAmount, pending.hourlyRate,
+                pending.durationInMinutes, receiptNumber);
+        receipt = receiptRepository.save(receipt);
+        commitReceiptEvent(receiptEvent, receipt);
+
+        // ONLY NOW free the parking slot - this is the atomic operation
+        ParkingSlot slot = ticket.getSlot();
+        int freedRows = slotRepository.freeSlot(slot.getId());
+        if (freedRows != 1) {
+            // This should not happen, but if it does, we have a serious issue
+            throw new IllegalStateException("Failed to free parking slot after successful payment");
+        }
+
+        // Refresh the slot entity to reflect the database changes
+        slot.setAvailable(true);
+        floorAvailabilityService.recordChange(slot, 1);
+        occupancyCounterService.slotFreed(slot);
+        slotAllocationIndexService.slotFreed(slot);
+
+        return new ExitResponse(payment, receipt, ParkingConstants.VEHICLE_EXIT_SUCCESS);
     }
     
     /**
-     * Simulate payment gateway processing
-     * In a real implementation, this would integrate with actual payment gateways
+     * SEQUENCER engine version of {@link #completePayment}: the ticket is closed and the slot freed on the
+     * owner thread of the slot's parking lot, in order with the lot's entries
      */
-    private boolean processPaymentWithGateway(double amount, Ticket ticket) {
-        // Simulate payment gateway processing
-        // In real implementation, this would:
-        // 1. Call payment gateway API
-        // 2. Handle various payment methods (credit card, digital wallet, etc.)
-        // 3. Process payment authorization
-        // 4. Handle payment failures and retries
-        
-        // For simulation, we'll randomly fail 5% of payments
-        if (Math.random() < 0.05) {
-            return false; // Simulate payment failure
+    private ExitResponse completePaymentSequenced(PendingPayment pending) {
+        try {
+            return allocationSequencerService.submitExit(pending.parkingLotId, () -> completePayment(pending)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * JOURNAL mode version of {@link #completePayment}: the exit is durable once its event is on disk, and
+     * the payment, receipt, ticket and slot rows are written behind. The exit is reserved before it is
+     * journaled, so a second exit for the ticket is refused even while this one is not yet in the database.
+     */
+    private ExitResponse completePaymentJournaled(PendingPayment pending) {
+        Payment payment = paymentRepository.findById(pending.paymentId)
+                .orElseThrow(() -> new IllegalStateException("Pending payment no longer exists"));
+        Ticket ticket = payment.getTicket();
+        ParkingSlot slot = ticket.getSlot();
+        if (!eventJournalService.reserveExit(ticket.getId())) {
+            throw new IllegalStateException(ParkingConstants.TICKET_INACTIVE);
         }
         
-        // Simulate processing delay
+        ReceiptGenerationEvent receiptEvent = new ReceiptGenerationEvent();
+        receiptEvent.begin();
+        Receipt receipt = new Receipt(ticket, pending.calculatedAmount, pending.hourlyRate,
+                pending.durationInMinutes, ParkingUtility.generateReceiptNumber());
+        receipt.setId(TimeOrderedIdGenerator.shared().nextId());
+        receipt.setGeneratedAt(pending.exitTime);
         try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return false;
+            eventJournalService.append(JournalEvent.exit(ticket.getId(), slot.getId(), pending.exitTime, payment.getId(),
+                    pending.calculatedAmount, pending.hourlyRate, pending.durationInMinutes, receipt.getId(), receipt.getReceiptNumber()));
+        } catch (RuntimeException e) {
+            eventJournalService.releaseExit(ticket.getId());
+            throw e;
         }
+        commitReceiptEvent(receiptEvent, receipt);
+        
+        ticket.setExitTime(pending.exitTime);
+        ticket.setActive(false);
+        payment.setStatus(PaymentStatus.PAID);
+        activeSessionRegistry.exited(ticket.getVehicle().getPlateNo(), ticket.getId());
+        slot.setAvailable(true);
+        occupancyCounterService.slotFreed(slot);
+        // Journaled entries always claim through the index, never the sequencer
+        slotAllocationIndexService.slotFreed(slot);
         
-        return true; // Payment successful
+        return new ExitResponse(payment, receipt, ParkingConstants.VEHICLE_EXIT_SUCCESS);
+    }
+    
+    private void commitReceiptEvent(ReceiptGenerationEvent event, Receipt receipt) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setTicketId(receipt.getTicket().getId());
+            event.setReceiptNumber(receipt.getReceiptNumber());
+            event.setAmount(receipt.getTotalAmount());
+            event.commit();
+        }
+    }
+    
+    /**
+     * Fail the attempt, unless it was already settled: a payment whose exit committed, or is on the journal,
+     * stays PAID even if something after that went wrong
+     */
+    private ExitResponse failPayment(PendingPayment pending, String reason) {
+        Payment payment = paymentRepository.findById(pending.paymentId)
+                .orElseThrow(() -> new IllegalStateException("Pending payment no longer exists"));
+        if (!eventJournalService.isExitPending(pending.ticketId)
+                && paymentRepository.failIfPending(pending.paymentId, reason) == 1) {
+            // Reflect the conditional update on the managed entity
+            payment.setStatus(PaymentStatus.FAILED);
+            payment.setFailureReason(reason);
+        }
+        return new ExitResponse(payment, null, payment.getStatus() == PaymentStatus.PAID
+                ? "Payment already settled." : "Payment processing failed. Slot remains occupied.");
     }
     
     /**
@@ -148,7 +377,7 @@ public class PaymentService {
     public Payment getPaymentByTicketId(Long ticketId) {
         Ticket ticket = ticketRepository.findById(ticketId)
                 .orElseThrow(() -> new IllegalArgumentException(ParkingConstants.INVALID_TICKET_ID));
-        
+
         return paymentRepository.findByTicket(ticket)
                 .orElseThrow(() -> new IllegalArgumentException("No payment found for ticket"));
     }
@@ -156,16 +385,72 @@ public class PaymentService {
     /**
      * Retry failed payment
      */
-    @Transactional
     public ExitResponse retryPayment(Long ticketId, double amount) {
+        checkRetryable(ticketId);
+
+        // Process new payment attempt
+        return processPayment(ticketId, amount);
+    }
+    
+    /**
+     * Retry failed payment without waiting for the gateway
+     */
+    public PendingPayment submitRetry(Long ticketId, double amount) {
+        checkRetryable(ticketId);
+        return submitPayment(ticketId, amount);
+    }
+    
+    private void checkRetryable(Long ticketId) {
         // Check if there's a failed payment for this ticket
         Payment existingPayment = getPaymentByTicketId(ticketId);
-        
+
         if (existingPayment.getStatus() == PaymentStatus.PAID) {
             throw new IllegalStateException("Payment already successful for this ticket");
         }
-        
-        // Process new payment attempt
-        return processPayment(ticketId, amount);
+    }
+    
+    /**
+     * A payment recorded as PENDING, with the charges computed when it was started
+     */
+    public static class PendingPayment {
+
+        private final Long paymentId;
+        private final Long ticketId;
+        private final Long parkingLotId;
+        private final double amount;
+        private final double calculatedAmount;
+        private final double hourlyRate;
+        private final long durationInMinutes;
+        private final LocalDateTime exitTime;
+        private final long startNanos;
+        private CompletableFuture<ExitResponse> result;
+
+        PendingPayment(Long paymentId, Long ticketId, Long parkingLotId, double amount, double calculatedAmount,
+                       double hourlyRate, long durationInMinutes, LocalDateTime exitTime, long startNanos) {
+            this.paymentId = paymentId;
+            this.ticketId = ticketId;
+            this.parkingLotId = parkingLotId;
+            this.amount = amount;
+            this.calculatedAmount = calculatedAmount;
+            this.hourlyRate = hourlyRate;
+            this.durationInMinutes = durationInMinutes;
+            this.exitTime = exitTime;
+            this.startNanos = startNanos;
+        }
+
+        public Long getPaymentId() { return paymentId; }
+
+        public Long getTicketId() { return ticketId; }
+
+        /**
+         * Key of this attempt at the payment: the payment row is reused by retries, but each attempt
+         * stamps it with its own time
+         */
+        public String getIdempotencyKey() { return "payment-" + paymentId + "-" + exitTime; }
+
+        /**
+         * Completes with the exit response, or exceptionally if the payment failed
+         */
+        public CompletableFuture<ExitResponse> getResult() { return result; }
     }
 }
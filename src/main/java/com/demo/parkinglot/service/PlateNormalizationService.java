@@ -0,0 +1,102 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.entity.Vehicle;
+import com.demo.parkinglot.repository.TicketRepository;
+import com.demo.parkinglot.repository.VehicleRepository;
+import com.demo.parkinglot.util.ParkingUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Brings vehicle rows written before plates were normalized at entry in line with the normalized form,
+ * so the indexed plate lookups on the entry path find them. A raw row whose normalized plate already has
+ * a vehicle is merged into it: its tickets are moved over and the row is deleted.
+ * Runs once at startup, before the session registry loads, one page of vehicles per transaction.
+ */
+@Service
+public class PlateNormalizationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlateNormalizationService.class);
+    private static final int PAGE_SIZE = 1000;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Value("${parking.vehicle.normalize-plates-on-startup:true}")
+    private boolean enabled;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public PlateNormalizationService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void normalizeStoredPlates() {
+        if (!enabled) {
+            return;
+        }
+        long afterId = 0;
+        int normalized = 0;
+        int merged = 0;
+        while (true) {
+            List<Object[]> page = vehicleRepository.findPlateNumbersAfter(afterId, PageRequest.of(0, PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            int[] changes = transactionTemplate.execute(status -> normalizePage(page));
+            normalized += changes[0];
+            merged += changes[1];
+            afterId = (Long) page.get(page.size() - 1)[0];
+        }
+        if (normalized + merged > 0) {
+            logger.info("Normalized {} stored plate numbers and merged {} duplicate vehicles", normalized, merged);
+        }
+    }
+
+    /**
+     * @return Rows renamed and rows merged into an existing vehicle
+     */
+    private int[] normalizePage(List<Object[]> page) {
+        int normalized = 0;
+        int merged = 0;
+        for (Object[] row : page) {
+            Long vehicleId = (Long) row[0];
+            String plateNo = (String) row[1];
+            if (plateNo == null) {
+                continue;
+            }
+            String normalizedPlate = ParkingUtility.normalizePlateNumber(plateNo);
+            if (normalizedPlate.equals(plateNo)) {
+                continue;
+            }
+            Optional<Vehicle> existing = vehicleRepository.findByPlateNo(normalizedPlate);
+            if (existing.isPresent()) {
+                ticketRepository.moveTickets(vehicleRepository.getReferenceById(vehicleId), existing.get());
+                vehicleRepository.deleteById(vehicleId);
+                merged++;
+            } else {
+                vehicleRepository.updatePlateNo(vehicleId, normalizedPlate);
+                normalized++;
+            }
+        }
+        return new int[] {normalized, merged};
+    }
+}
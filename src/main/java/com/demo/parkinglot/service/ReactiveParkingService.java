@@ -0,0 +1,112 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.dto.ExitResponse;
+import com.demo.parkinglot.dto.SlotOccupancyCount;
+import com.demo.parkinglot.dto.SlotOccupancySummary;
+import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.entity.Ticket;
+import com.demo.parkinglot.enums.VehicleType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Reactive variant of the parking operations, for callers that should not hold a thread per request.
+ * Entries, exits and retries go through the same services as the blocking API, so allocation, the
+ * allocation index, the journal and the counters stay in one place. Those services block on JDBC, so each
+ * call runs on the bounded blocking scheduler; an exit then waits on the payment's future, so a slow
+ * gateway holds no thread at all. The lot status is read over R2DBC.
+ */
+@Service
+public class ReactiveParkingService {
+
+    private static final String FIND_PARKING_LOT =
+            "SELECT id, name, total_floors, is_active FROM parking_lot WHERE id = :parkingLotId";
+    private static final String COUNT_SLOTS =
+            "SELECT floor, slot_type, available, COUNT(*) AS slot_count FROM parking_slot " +
+            "WHERE parking_lot_id = :parkingLotId GROUP BY floor, slot_type, available";
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private ParkingManagementService parkingManagementService;
+
+    @Autowired
+    private DatabaseClient reactiveDatabaseClient;
+
+    @Autowired
+    @Qualifier("reactiveBlockingScheduler")
+    private Scheduler blockingScheduler;
+
+    /**
+     * Park a vehicle; emits the ticket once the slot is claimed
+     */
+    public Mono<Ticket> parkVehicle(String plateNo, String type, String ownerId, Long entryGateId) {
+        // suppressCancel: a client going away must not cancel an entry the sequencer already accepted
+        return Mono.fromFuture(() -> parkingService.parkVehicleAsync(plateNo, type, ownerId, entryGateId), true)
+                .subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Exit a vehicle; emits the exit response once the gateway has answered and the payment is settled
+     */
+    public Mono<ExitResponse> unparkVehicle(Long ticketId, double amount) {
+        return awaitPayment(() -> parkingService.unparkVehicleAsync(ticketId, amount));
+    }
+
+    /**
+     * Retry a failed payment; emits the exit response once the new attempt is settled
+     */
+    public Mono<ExitResponse> retryPayment(Long ticketId, double amount) {
+        return awaitPayment(() -> parkingService.retryPaymentAsync(ticketId, amount));
+    }
+
+    /**
+     * Get parking lot status with floor-wise availability, read without blocking
+     */
+    public Mono<Map<String, Object>> getParkingLotStatus(Long parkingLotId) {
+        Mono<ParkingLot> parkingLot = reactiveDatabaseClient.sql(FIND_PARKING_LOT)
+                .bind("parkingLotId", parkingLotId)
+                .map(row -> {
+                    ParkingLot lot = new ParkingLot();
+                    lot.setId(row.get("id", Long.class));
+                    lot.setName(row.get("name", String.class));
+                    lot.setTotalFloors(row.get("total_floors", Integer.class));
+                    lot.setActive(Boolean.TRUE.equals(row.get("is_active", Boolean.class)));
+                    return lot;
+                })
+                .one()
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Parking lot not found")));
+
+        Mono<List<SlotOccupancyCount>> counts = reactiveDatabaseClient.sql(COUNT_SLOTS)
+                .bind("parkingLotId", parkingLotId)
+                .map(row -> new SlotOccupancyCount(
+                        row.get("floor", Integer.class),
+                        VehicleType.valueOf(row.get("slot_type", String.class)),
+                        Boolean.TRUE.equals(row.get("available", Boolean.class)),
+                        row.get("slot_count", Long.class)))
+                .all()
+                .collectList();
+
+        return parkingLot.zipWith(counts, (lot, slotCounts) ->
+                parkingManagementService.buildParkingLotStatus(lot, new SlotOccupancySummary(slotCounts)));
+    }
+
+    /**
+     * Record the payment as PENDING on the blocking scheduler, then wait for its outcome without a thread
+     */
+    private Mono<ExitResponse> awaitPayment(Supplier<PaymentService.PendingPayment> submit) {
+        // suppressCancel: cancelling the settlement stage would leave the payment PENDING
+        return Mono.fromSupplier(submit)
+                .subscribeOn(blockingScheduler)
+                .flatMap(pending -> Mono.fromFuture(pending.getResult(), true));
+    }
+}
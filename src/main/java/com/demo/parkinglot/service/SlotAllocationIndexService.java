@@ -0,0 +1,317 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.allocation.SlotAllocationIndex;
+import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.repository.EntryGateRepository;
+import com.demo.parkinglot.repository.ParkingLotRepository;
+import com.demo.parkinglot.repository.ParkingSlotRepository;
+import com.demo.parkinglot.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps one in-memory allocation index per (ParkingLot, VehicleType).
+ * Indexes are built lazily from the database, or restored from an occupancy snapshot at startup,
+ * and dropped whenever the lot layout changes.
+ * A claim stays live until its entry commits, rolls back or reaches the journal. A rebuild cannot see
+ * uncommitted claims in the slot table, so it blocks new claims on the lot while it runs and marks every
+ * live claim occupied in the index it builds.
+ */
+@Service
+public class SlotAllocationIndexService {
+
+    @Autowired
+    private ParkingSlotRepository slotRepository;
+
+    @Autowired
+    private EntryGateRepository entryGateRepository;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private EventJournalService eventJournalService;
+
+    @Value("${parking.allocation.index-refresh-interval-ms:5000}")
+    private long refreshIntervalMillis;
+
+    private final Map<Long, Map<VehicleType, SlotAllocationIndex>> indexes = new ConcurrentHashMap<>();
+    /** Slot IDs claimed by entries not yet settled, per lot */
+    private final Map<Long, Set<Long>> liveClaims = new ConcurrentHashMap<>();
+    /** Claims and settles share the read side of their lot's lock; building an index takes the write side */
+    private final Map<Long, ReadWriteLock> rebuildLocks = new ConcurrentHashMap<>();
+    /** When each (lot, type) index was last built from the database, keyed "lotId:type" */
+    private final Map<String, AtomicLong> lastBuilt = new ConcurrentHashMap<>();
+
+    /**
+     * Get the allocation index for a lot and vehicle type, building it on first use
+     */
+    public SlotAllocationIndex getIndex(ParkingLot parkingLot, VehicleType vehicleType) {
+        Map<VehicleType, SlotAllocationIndex> lotIndexes = indexes.computeIfAbsent(parkingLot.getId(), id -> new ConcurrentHashMap<>());
+        SlotAllocationIndex index = lotIndexes.get(vehicleType);
+        if (index != null) {
+            return index;
+        }
+        Lock lock = rebuildLock(parkingLot.getId()).writeLock();
+        lock.lock();
+        try {
+            flushJournal();
+            return lotIndexes.computeIfAbsent(vehicleType, type -> buildIndex(parkingLot, type));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rebuild the allocation index for a lot and vehicle type from the database
+     */
+    public SlotAllocationIndex refreshIndex(ParkingLot parkingLot, VehicleType vehicleType) {
+        Lock lock = rebuildLock(parkingLot.getId()).writeLock();
+        lock.lock();
+        try {
+            flushJournal();
+            SlotAllocationIndex index = buildIndex(parkingLot, vehicleType);
+            indexes.computeIfAbsent(parkingLot.getId(), id -> new ConcurrentHashMap<>()).put(vehicleType, index);
+            return index;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rebuild an index that shows no free slot, at most once per refresh interval per lot and type, so a full
+     * lot is not rescanned on every arrival; drift in between is caught by the scheduled reconcile
+     * @return the rebuilt index, or null if it was built from the database too recently
+     */
+    public SlotAllocationIndex refreshIfDue(ParkingLot parkingLot, VehicleType vehicleType) {
+        AtomicLong built = lastBuilt.computeIfAbsent(parkingLot.getId() + ":" + vehicleType, key -> new AtomicLong());
+        long previous = built.get();
+        long now = System.currentTimeMillis();
+        // Only the caller that moves the timestamp rebuilds; concurrent misses answer from the current index
+        if (now - previous < refreshIntervalMillis || !built.compareAndSet(previous, now)) {
+            return null;
+        }
+        return refreshIndex(parkingLot, vehicleType);
+    }
+
+    /**
+     * Use an index restored from a snapshot, unless one has already been built for its lot and type
+     * @return true if the index was installed
+     */
+    public boolean install(SlotAllocationIndex index) {
+        return indexes.computeIfAbsent(index.getParkingLotId(), id -> new ConcurrentHashMap<>())
+                .putIfAbsent(index.getSlotType(), index) == null;
+    }
+
+    /**
+     * Compare a restored index with the database and replace it with a fresh build if they differ.
+     * An index that was already rebuilt or dropped in the meantime is left alone.
+     * @return true if the restored index matched the database
+     */
+    public boolean verify(SlotAllocationIndex restored) {
+        Map<VehicleType, SlotAllocationIndex> lotIndexes = indexes.get(restored.getParkingLotId());
+        Optional<ParkingLot> parkingLot = parkingLotRepository.findById(restored.getParkingLotId());
+        if (parkingLot.isEmpty()) {
+            if (lotIndexes != null) {
+                lotIndexes.remove(restored.getSlotType(), restored);
+            }
+            return false;
+        }
+        Lock lock = rebuildLock(restored.getParkingLotId()).writeLock();
+        lock.lock();
+        try {
+            flushJournal();
+            SlotAllocationIndex current = buildIndex(parkingLot.get(), restored.getSlotType());
+            if (restored.matches(current)) {
+                return true;
+            }
+            if (lotIndexes != null) {
+                lotIndexes.replace(restored.getSlotType(), restored, current);
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop all indexes of a lot once the current transaction commits, so the next allocation rebuilds them.
+     * Live claims on the dropped indexes are carried into the rebuilt ones.
+     */
+    public void invalidate(Long parkingLotId) {
+        indexes.remove(parkingLotId);
+        TransactionHooks.afterCommit(() -> indexes.remove(parkingLotId));
+    }
+
+    /**
+     * Claim a slot in memory with a CAS on the occupancy bitset; the claim is released if the transaction rolls back
+     * @return true if this call won the slot
+     */
+    public boolean claim(SlotAllocationIndex index, int ordinal) {
+        if (!hold(index, ordinal)) {
+            return false;
+        }
+        TransactionHooks.afterCommit(() -> settle(index, ordinal, true));
+        TransactionHooks.afterRollback(() -> settle(index, ordinal, false));
+        return true;
+    }
+
+    /**
+     * Claim a slot that stays live until {@link #settle} is called, for entries that are not settled by a transaction
+     * @return true if this call won the slot
+     */
+    public boolean hold(SlotAllocationIndex index, int ordinal) {
+        Long parkingLotId = index.getParkingLotId();
+        Lock lock = rebuildLock(parkingLotId).readLock();
+        lock.lock();
+        try {
+            if (!index.markOccupied(ordinal)) {
+                return false;
+            }
+            Long slotId = index.slotIdAt(ordinal);
+            SlotAllocationIndex current = currentIndex(parkingLotId, index.getSlotType());
+            if (current != null && current != index) {
+                // The caller's index was rebuilt since it was read, so the claim must also win in the new one
+                int currentOrdinal = current.ordinalOf(slotId);
+                if (currentOrdinal >= 0 && !current.markOccupied(currentOrdinal)) {
+                    index.markAvailable(ordinal);
+                    return false;
+                }
+            }
+            liveClaims.computeIfAbsent(parkingLotId, id -> ConcurrentHashMap.newKeySet()).add(slotId);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * End a claim: kept once the entry is committed or on the journal, given back if the entry failed
+     */
+    public void settle(SlotAllocationIndex index, int ordinal, boolean kept) {
+        Long parkingLotId = index.getParkingLotId();
+        Long slotId = index.slotIdAt(ordinal);
+        Lock lock = rebuildLock(parkingLotId).readLock();
+        lock.lock();
+        try {
+            Set<Long> claims = liveClaims.get(parkingLotId);
+            if (claims != null) {
+                claims.remove(slotId);
+            }
+            if (kept) {
+                return;
+            }
+            index.markAvailable(ordinal);
+            SlotAllocationIndex current = currentIndex(parkingLotId, index.getSlotType());
+            if (current != null && current != index) {
+                int currentOrdinal = current.ordinalOf(slotId);
+                if (currentOrdinal >= 0) {
+                    current.markAvailable(currentOrdinal);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record that a slot was allocated; the bit is restored if the transaction rolls back
+     */
+    public void slotAllocated(ParkingSlot slot) {
+        SlotAllocationIndex index = findIndex(slot);
+        if (index == null) {
+            return;
+        }
+        int ordinal = index.ordinalOf(slot.getId());
+        if (ordinal >= 0) {
+            claim(index, ordinal);
+        }
+    }
+
+    /**
+     * Record that a slot was freed; the bit is set only once the transaction commits
+     */
+    public void slotFreed(ParkingSlot slot) {
+        TransactionHooks.afterCommit(() -> markFreed(slot));
+    }
+
+    /**
+     * Set a freed slot's bit right away; callers must only do this once the free is committed
+     */
+    public void markFreed(ParkingSlot slot) {
+        SlotAllocationIndex index = findIndex(slot);
+        if (index == null) {
+            return;
+        }
+        int ordinal = index.ordinalOf(slot.getId());
+        if (ordinal >= 0) {
+            index.markAvailable(ordinal);
+        }
+    }
+
+    /**
+     * Indexes currently held in memory
+     */
+    public List<SlotAllocationIndex> getCachedIndexes() {
+        List<SlotAllocationIndex> cached = new ArrayList<>();
+        indexes.values().forEach(lotIndexes -> cached.addAll(lotIndexes.values()));
+        return cached;
+    }
+
+    private SlotAllocationIndex findIndex(ParkingSlot slot) {
+        if (slot.getParkingLot() == null) {
+            return null;
+        }
+        return currentIndex(slot.getParkingLot().getId(), slot.getSlotType());
+    }
+
+    private SlotAllocationIndex currentIndex(Long parkingLotId, VehicleType vehicleType) {
+        Map<VehicleType, SlotAllocationIndex> lotIndexes = indexes.get(parkingLotId);
+        return lotIndexes != null ? lotIndexes.get(vehicleType) : null;
+    }
+
+    private ReadWriteLock rebuildLock(Long parkingLotId) {
+        return rebuildLocks.computeIfAbsent(parkingLotId, id -> new ReentrantReadWriteLock());
+    }
+
+    /**
+     * In JOURNAL mode, write pending entries and exits first so the slot rows are current.
+     * Called under the lot's rebuild lock, so every claim settled onto the journal is written before the read.
+     * Never called from inside computeIfAbsent: the flush runs its own transactions.
+     */
+    private void flushJournal() {
+        eventJournalService.flush();
+    }
+
+    /**
+     * Build from the slot table, with every live claim of the lot marked occupied; callers hold the lot's rebuild lock
+     */
+    private SlotAllocationIndex buildIndex(ParkingLot parkingLot, VehicleType vehicleType) {
+        lastBuilt.computeIfAbsent(parkingLot.getId() + ":" + vehicleType, key -> new AtomicLong())
+                .set(System.currentTimeMillis());
+        SlotAllocationIndex index = SlotAllocationIndex.build(parkingLot.getId(), vehicleType,
+                slotRepository.findByParkingLotAndSlotType(parkingLot, vehicleType),
+                entryGateRepository.findByParkingLotId(parkingLot.getId()));
+        liveClaims.getOrDefault(parkingLot.getId(), Set.of()).forEach(slotId -> {
+            int ordinal = index.ordinalOf(slotId);
+            if (ordinal >= 0) {
+                index.markOccupied(ordinal);
+            }
+        });
+        return index;
+    }
+}
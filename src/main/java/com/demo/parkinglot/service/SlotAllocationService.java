@@ -1,9 +1,11 @@
 package com.demo.parkinglot.service;
 
+import com.demo.parkinglot.allocation.SlotAllocationIndex;
 import com.demo.parkinglot.entity.EntryGate;
 import com.demo.parkinglot.entity.ParkingSlot;
 import com.demo.parkinglot.enums.AllocationStrategyType;
-import com.demo.parkinglot.strategy.SlotAllocationStrategy;
+import com.demo.parkinglot.metrics.ParkingMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -21,21 +23,24 @@ public class SlotAllocationService {
     @Value("${parking.allocation.strategy:NEAREST_SLOT}")
     private String allocationStrategy;
 
+    @Autowired
+    private ParkingMetrics parkingMetrics;
+
     /**
      * Allocate slot using the configured strategy
      */
     public ParkingSlot allocateSlot(List<ParkingSlot> availableSlots, EntryGate entryGate) {
-        AllocationStrategyType strategyType = AllocationStrategyType.fromString(allocationStrategy);
-        SlotAllocationStrategy strategy = strategyType.createStrategy();
-        return strategy.allocateSlot(availableSlots, entryGate);
+        return allocateSlot(availableSlots, entryGate, AllocationStrategyType.fromString(allocationStrategy));
     }
 
     /**
      * Allocate slot using a specific strategy by enum
      */
     public ParkingSlot allocateSlot(List<ParkingSlot> availableSlots, EntryGate entryGate, AllocationStrategyType strategyType) {
-        SlotAllocationStrategy strategy = strategyType.createStrategy();
-        return strategy.allocateSlot(availableSlots, entryGate);
+        long startNanos = System.nanoTime();
+        ParkingSlot slot = strategyType.createStrategy().allocateSlot(availableSlots, entryGate);
+        parkingMetrics.recordStrategySelection(strategyType, startNanos);
+        return slot;
     }
 
     /**
@@ -46,6 +51,29 @@ public class SlotAllocationService {
         return allocateSlot(availableSlots, entryGate, strategyType);
     }
 
+    /**
+     * Select a free slot from an allocation index using the configured strategy
+     * @return Ordinal of the selected slot, or -1 if no slot is free
+     */
+    public int selectSlot(SlotAllocationIndex index, EntryGate entryGate) {
+        AllocationStrategyType strategyType = AllocationStrategyType.fromString(allocationStrategy);
+        long startNanos = System.nanoTime();
+        int ordinal = strategyType.createStrategy().selectSlot(index, entryGate);
+        parkingMetrics.recordStrategySelection(strategyType, startNanos);
+        return ordinal;
+    }
+
+    /**
+     * Rank up to k free slots from an allocation index using the configured strategy, best first
+     */
+    public int[] rankSlots(SlotAllocationIndex index, EntryGate entryGate, int k) {
+        AllocationStrategyType strategyType = AllocationStrategyType.fromString(allocationStrategy);
+        long startNanos = System.nanoTime();
+        int[] ranked = strategyType.createStrategy().rankSlots(index, entryGate, k);
+        parkingMetrics.recordStrategySelection(strategyType, startNanos);
+        return ranked;
+    }
+
     /**
      * Get all available strategy types
      */
@@ -0,0 +1,318 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.dto.SlotManagementRequest;
+import com.demo.parkinglot.entity.Floor;
+import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.repository.FloorRepository;
+import com.demo.parkinglot.repository.ParkingLotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming bulk import of parking slots from CSV or NDJSON.
+ * Rows are read one at a time and written in chunks, one transaction per chunk, with lot and floor
+ * lookups cached for the whole import and inserts sent as JDBC batches. If a chunk fails, its rows
+ * are replayed one per transaction so only the bad rows are reported. Floor totals are adjusted once
+ * per floor after the last chunk; if an import dies halfway, the periodic floor recount corrects them.
+ */
+@Service
+public class SlotImportService {
+
+    public static final String CSV = "text/csv";
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("parkinglotid", "floor", "slottype", "slotnumber");
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private FloorRepository floorRepository;
+
+    @Autowired
+    private SlotAllocationIndexService slotAllocationIndexService;
+
+    @Autowired
+    private OccupancyCounterService occupancyCounterService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${parking.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${parking.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public SlotImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Import slots from a CSV (header row required) or NDJSON body
+     * @return Row counts, chunk count, floors updated and per-row errors by line number
+     */
+    public Map<String, Object> importSlots(InputStream body, String contentType) throws IOException {
+        boolean csv = isCsv(contentType);
+        ImportRun run = new ImportRun();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = csv ? readCsvHeader(reader.readLine()) : null;
+            int lineNumber = csv ? 1 : 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                run.totalRows++;
+                try {
+                    SlotManagementRequest request = csv ? parseCsvRow(line, columns) : objectMapper.readValue(line, SlotManagementRequest.class);
+                    validate(request, run);
+                    run.pending.add(new ImportRow(lineNumber, request));
+                } catch (IOException | RuntimeException e) {
+                    run.fail(lineNumber, e.getMessage());
+                }
+                if (run.pending.size() >= chunkSize) {
+                    writeChunk(run);
+                }
+            }
+        }
+        if (!run.pending.isEmpty()) {
+            writeChunk(run);
+        }
+
+        finish(run);
+        return run.toResult();
+    }
+
+    private boolean isCsv(String contentType) {
+        String type = contentType == null ? "" : contentType.toLowerCase();
+        if (type.contains("csv")) {
+            return true;
+        }
+        if (type.contains("ndjson") || type.contains("jsonl")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Unsupported import format: " + contentType + ". Use " + CSV + " or " + NDJSON);
+    }
+
+    private Map<String, Integer> readCsvHeader(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV import needs a header row");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        String[] names = header.split(",");
+        for (int i = 0; i < names.length; i++) {
+            columns.put(names[i].trim().toLowerCase(), i);
+        }
+        for (String required : REQUIRED_CSV_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column " + required);
+            }
+        }
+        return columns;
+    }
+
+    private SlotManagementRequest parseCsvRow(String line, Map<String, Integer> columns) {
+        String[] values = line.split(",", -1);
+        SlotManagementRequest request = new SlotManagementRequest();
+        request.setParkingLotId(Long.parseLong(csvValue(values, columns, "parkinglotid")));
+        request.setFloor(Integer.parseInt(csvValue(values, columns, "floor")));
+        request.setSlotType(VehicleType.fromString(csvValue(values, columns, "slottype")));
+        request.setSlotNumber(csvValue(values, columns, "slotnumber"));
+        String x = csvValue(values, columns, "xcoordinate");
+        String y = csvValue(values, columns, "ycoordinate");
+        request.setXCoordinate(x.isEmpty() ? 0.0 : Double.parseDouble(x));
+        request.setYCoordinate(y.isEmpty() ? 0.0 : Double.parseDouble(y));
+        return request;
+    }
+
+    private String csvValue(String[] values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index != null && index < values.length ? values[index].trim() : "";
+    }
+
+    private void validate(SlotManagementRequest request, ImportRun run) {
+        if (request.getParkingLotId() == null
+                || !run.lotExists.computeIfAbsent(request.getParkingLotId(), parkingLotRepository::existsById)) {
+            throw new IllegalArgumentException("Parking lot not found");
+        }
+        if (request.getSlotType() == null) {
+            throw new IllegalArgumentException("Slot type is required");
+        }
+        if (request.getSlotNumber() == null || request.getSlotNumber().isBlank()) {
+            throw new IllegalArgumentException("Slot number is required");
+        }
+    }
+
+    /**
+     * Write the pending rows in one transaction, or one row per transaction if that fails
+     */
+    private void writeChunk(ImportRun run) {
+        List<ImportRow> chunk = new ArrayList<>(run.pending);
+        run.pending.clear();
+        run.chunks++;
+        try {
+            ChunkResult result = transactionTemplate.execute(status -> persistRows(chunk, run));
+            run.commit(result, chunk.size());
+        } catch (RuntimeException chunkFailure) {
+            for (ImportRow row : chunk) {
+                try {
+                    ChunkResult result = transactionTemplate.execute(status -> persistRows(List.of(row), run));
+                    run.commit(result, 1);
+                } catch (RuntimeException e) {
+                    run.fail(row.lineNumber, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private ChunkResult persistRows(List<ImportRow> rows, ImportRun run) {
+        ChunkResult result = new ChunkResult();
+        for (ImportRow row : rows) {
+            SlotManagementRequest request = row.request;
+            ParkingLot parkingLot = entityManager.getReference(ParkingLot.class, request.getParkingLotId());
+            Long floorId = floorIdFor(parkingLot, request.getFloor(), run, result);
+
+            ParkingSlot slot = new ParkingSlot();
+            slot.setSlotType(request.getSlotType());
+            slot.setFloor(request.getFloor());
+            slot.setAvailable(true);
+            slot.setXCoordinate(request.getXCoordinate());
+            slot.setYCoordinate(request.getYCoordinate());
+            slot.setSlotNumber(request.getSlotNumber());
+            slot.setParkingLot(parkingLot);
+            slot.setFloorEntity(entityManager.getReference(Floor.class, floorId));
+            entityManager.persist(slot);
+
+            result.addedByFloor.merge(floorId, 1, Integer::sum);
+            result.parkingLotIds.add(request.getParkingLotId());
+        }
+        // Send the inserts as JDBC batches and keep the persistence context from growing across chunks
+        entityManager.flush();
+        entityManager.clear();
+        return result;
+    }
+
+    /**
+     * Floor ID from the import cache, creating the floor if the lot does not have it yet
+     */
+    private Long floorIdFor(ParkingLot parkingLot, int floorNumber, ImportRun run, ChunkResult result) {
+        String key = parkingLot.getId() + ":" + floorNumber;
+        Long floorId = run.floorIds.get(key);
+        if (floorId == null) {
+            floorId = result.createdFloorIds.get(key);
+        }
+        if (floorId == null) {
+            floorId = floorRepository.findByParkingLotAndFloorNumber(parkingLot, floorNumber)
+                    .orElseGet(() -> floorRepository.save(new Floor(floorNumber, 0, "Floor " + floorNumber, parkingLot)))
+                    .getId();
+            // Only cached for the rest of the import once this chunk commits
+            result.createdFloorIds.put(key, floorId);
+        }
+        return floorId;
+    }
+
+    /**
+     * Adjust floor totals once per floor, then refresh the in-memory views of the touched lots
+     */
+    private void finish(ImportRun run) {
+        if (run.imported == 0) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> run.addedByFloor.forEach(floorRepository::addSlots));
+        run.parkingLotIds.forEach(slotAllocationIndexService::invalidate);
+        occupancyCounterService.rebuild();
+    }
+
+    private static class ImportRow {
+        private final int lineNumber;
+        private final SlotManagementRequest request;
+
+        ImportRow(int lineNumber, SlotManagementRequest request) {
+            this.lineNumber = lineNumber;
+            this.request = request;
+        }
+    }
+
+    /**
+     * What one committed chunk added
+     */
+    private static class ChunkResult {
+        private final Map<Long, Integer> addedByFloor = new HashMap<>();
+        private final Map<String, Long> createdFloorIds = new HashMap<>();
+        private final Set<Long> parkingLotIds = new HashSet<>();
+    }
+
+    /**
+     * State of one import: caches, pending rows, counts and errors
+     */
+    private class ImportRun {
+        private final Map<Long, Boolean> lotExists = new HashMap<>();
+        private final Map<String, Long> floorIds = new HashMap<>();
+        private final Map<Long, Integer> addedByFloor = new HashMap<>();
+        private final Set<Long> parkingLotIds = new HashSet<>();
+        private final List<ImportRow> pending = new ArrayList<>();
+        private final List<Map<String, Object>> errors = new ArrayList<>();
+        private int totalRows;
+        private int imported;
+        private int failed;
+        private int chunks;
+
+        void commit(ChunkResult result, int rows) {
+            imported += rows;
+            floorIds.putAll(result.createdFloorIds);
+            result.addedByFloor.forEach((floorId, added) -> addedByFloor.merge(floorId, added, Integer::sum));
+            parkingLotIds.addAll(result.parkingLotIds);
+        }
+
+        void fail(int lineNumber, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("line", lineNumber);
+                error.put("error", message);
+                errors.add(error);
+            }
+        }
+
+        Map<String, Object> toResult() {
+            Map<String, Object> data = new HashMap<>();
+            data.put("totalRows", totalRows);
+            data.put("importedCount", imported);
+            data.put("failureCount", failed);
+            data.put("chunks", chunks);
+            data.put("floorsUpdated", addedByFloor.size());
+            data.put("errors", errors);
+            data.put("errorsTruncated", failed > errors.size());
+            return data;
+        }
+    }
+}
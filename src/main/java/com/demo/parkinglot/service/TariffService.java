@@ -0,0 +1,73 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.config.ParkingChargesConfig;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.tariff.Tariff;
+import com.demo.parkinglot.tariff.TariffTable;
+import com.demo.parkinglot.tariff.TimeBand;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes the compiled tariff table.
+ * Exit threads read the current table without locking; a rule change compiles a new table off to the
+ * side and swaps it in with one reference write, so a charge never sees a half-applied update.
+ */
+@Service
+public class TariffService {
+
+    @Autowired
+    private ParkingChargesConfig parkingChargesConfig;
+
+    private final AtomicReference<TariffTable> table = new AtomicReference<>();
+
+    @PostConstruct
+    public void compileConfiguredRules() {
+        Map<VehicleType, Tariff> defaults = new EnumMap<>(VehicleType.class);
+        for (VehicleType type : VehicleType.values()) {
+            defaults.put(type, Tariff.compile(parkingChargesConfig.getHourlyRate(type),
+                    parkingChargesConfig.getGracePeriodMinutes(), parkingChargesConfig.getDailyCap(type),
+                    parkingChargesConfig.getTimeBands()));
+        }
+        table.set(TariffTable.of(defaults));
+    }
+
+    /**
+     * Tariff for a vehicle type in a lot, or the default if the lot has no override
+     */
+    public Tariff tariffFor(Long parkingLotId, VehicleType vehicleType) {
+        return table.get().tariffFor(parkingLotId, vehicleType);
+    }
+
+    /**
+     * Current table, for reading several tariffs from one consistent version
+     */
+    public TariffTable getTable() {
+        return table.get();
+    }
+
+    /**
+     * Replace the rule for a vehicle type, as a lot override if a lot is given or as the default otherwise.
+     * Grace period, daily cap and time bands left null keep the values currently in effect there.
+     * @return The compiled tariff now in effect
+     */
+    public synchronized Tariff updateRule(Long parkingLotId, VehicleType vehicleType, double hourlyRate,
+                                          Integer gracePeriodMinutes, Double dailyCap, List<TimeBand> timeBands) {
+        TariffTable current = table.get();
+        Tariff existing = current.tariffFor(parkingLotId, vehicleType);
+        Tariff tariff = Tariff.compile(hourlyRate,
+                gracePeriodMinutes != null ? gracePeriodMinutes : existing.getGracePeriodMinutes(),
+                dailyCap != null ? dailyCap : existing.getDailyCap(),
+                timeBands != null ? timeBands : existing.getTimeBands());
+        table.set(parkingLotId != null
+                ? current.withLotOverride(parkingLotId, vehicleType, tariff)
+                : current.withDefault(vehicleType, tariff));
+        return tariff;
+    }
+}
@@ -1,5 +1,6 @@
 package com.demo.parkinglot.strategy;
 
+import com.demo.parkinglot.allocation.SlotAllocationIndex;
 import com.demo.parkinglot.entity.EntryGate;
 import com.demo.parkinglot.entity.ParkingSlot;
 import com.demo.parkinglot.util.ParkingUtility;
@@ -16,6 +17,16 @@ public class NearestSlotStrategy implements SlotAllocationStrategy {
         return ParkingUtility.findNearestSlot(availableSlots, entryGate);
     }
     
+    @Override
+    public int selectSlot(SlotAllocationIndex index, EntryGate entryGate) {
+        return index.firstAvailableFrom(entryGate);
+    }
+    
+    @Override
+    public int[] rankSlots(SlotAllocationIndex index, EntryGate entryGate, int k) {
+        return index.topAvailableFrom(entryGate, k);
+    }
+    
     @Override
     public String getStrategyName() {
         return "NEAREST_SLOT";
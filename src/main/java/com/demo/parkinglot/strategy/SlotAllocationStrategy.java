@@ -1,5 +1,6 @@
 package com.demo.parkinglot.strategy;
 
+import com.demo.parkinglot.allocation.SlotAllocationIndex;
 import com.demo.parkinglot.entity.EntryGate;
 import com.demo.parkinglot.entity.ParkingSlot;
 
@@ -18,6 +19,28 @@ public interface SlotAllocationStrategy {
      */
     ParkingSlot allocateSlot(List<ParkingSlot> availableSlots, EntryGate entryGate);
     
+    /**
+     * Select a free slot from a precomputed allocation index.
+     * Defaults to ordinal order, which is floor ascending and then slot ID.
+     * @param index Allocation index for the lot and vehicle type
+     * @param entryGate Entry gate for context
+     * @return Ordinal of the selected slot, or -1 if no slot is free
+     */
+    default int selectSlot(SlotAllocationIndex index, EntryGate entryGate) {
+        return index.firstAvailable();
+    }
+    
+    /**
+     * Rank up to k free slots from a precomputed allocation index, best first
+     * @param index Allocation index for the lot and vehicle type
+     * @param entryGate Entry gate for context
+     * @param k Maximum number of candidates
+     * @return Ordinals of the candidates, empty if no slot is free
+     */
+    default int[] rankSlots(SlotAllocationIndex index, EntryGate entryGate, int k) {
+        return index.topAvailable(k);
+    }
+    
     /**
      * Get strategy name
      * @return Strategy name
@@ -0,0 +1,197 @@
+package com.demo.parkinglot.tariff;
+
+import com.demo.parkinglot.constants.ParkingConstants;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled, immutable tariff for one vehicle type (optionally in one lot).
+ * Time bands are flattened at compile time into sorted band start minutes and the hourly rate of each
+ * band, so a charge walks only the bands the stay crosses and allocates nothing. Billed hours are
+ * rounded as before (every started hour, plus one); each billed hour is charged at the rate of the band
+ * its start falls in. The daily cap applies per 24 hours counted from entry, and stays shorter than the
+ * grace period are free.
+ */
+public final class Tariff {
+
+    private static final int MINUTES_PER_DAY = 24 * ParkingConstants.MINUTES_PER_HOUR;
+    private static final int HOURS_PER_DAY = 24;
+
+    private final double hourlyRate;
+    private final int gracePeriodMinutes;
+    private final double dailyCap;
+    private final List<TimeBand> timeBands;
+    private final int[] bandStarts;
+    private final double[] bandRates;
+
+    private Tariff(double hourlyRate, int gracePeriodMinutes, double dailyCap, List<TimeBand> timeBands,
+                   int[] bandStarts, double[] bandRates) {
+        this.hourlyRate = hourlyRate;
+        this.gracePeriodMinutes = gracePeriodMinutes;
+        this.dailyCap = dailyCap;
+        this.timeBands = timeBands;
+        this.bandStarts = bandStarts;
+        this.bandRates = bandRates;
+    }
+
+    /**
+     * Flat hourly rate with no bands, cap or grace period
+     */
+    public static Tariff flat(double hourlyRate) {
+        return compile(hourlyRate, 0, 0, List.of());
+    }
+
+    /**
+     * Compile a tariff; later bands win where bands overlap
+     * @param dailyCap Maximum charge per 24 hours, or 0 for no cap
+     */
+    public static Tariff compile(double hourlyRate, int gracePeriodMinutes, double dailyCap, List<TimeBand> timeBands) {
+        if (hourlyRate < 0) {
+            throw new IllegalArgumentException("Hourly rate cannot be negative");
+        }
+        if (gracePeriodMinutes < 0) {
+            throw new IllegalArgumentException("Grace period cannot be negative");
+        }
+        if (dailyCap < 0) {
+            throw new IllegalArgumentException("Daily cap cannot be negative");
+        }
+
+        double[] minuteRates = new double[MINUTES_PER_DAY];
+        Arrays.fill(minuteRates, hourlyRate);
+        List<TimeBand> bands = new ArrayList<>();
+        for (TimeBand band : timeBands) {
+            if (band.getMultiplier() < 0) {
+                throw new IllegalArgumentException("Time band multiplier cannot be negative");
+            }
+            int from = minuteOfDay(LocalTime.parse(band.getFrom()));
+            int to = minuteOfDay(LocalTime.parse(band.getTo()));
+            int length = to > from ? to - from : to - from + MINUTES_PER_DAY;
+            for (int i = 0; i < length; i++) {
+                minuteRates[(from + i) % MINUTES_PER_DAY] = hourlyRate * band.getMultiplier();
+            }
+            bands.add(new TimeBand(band.getFrom(), band.getTo(), band.getMultiplier()));
+        }
+
+        // Collapse runs of equal rate into bands
+        int[] starts = new int[MINUTES_PER_DAY];
+        double[] rates = new double[MINUTES_PER_DAY];
+        int count = 0;
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            if (minute == 0 || minuteRates[minute] != minuteRates[minute - 1]) {
+                starts[count] = minute;
+                rates[count] = minuteRates[minute];
+                count++;
+            }
+        }
+        return new Tariff(hourlyRate, gracePeriodMinutes, dailyCap > 0 ? dailyCap : Double.POSITIVE_INFINITY,
+                List.copyOf(bands), Arrays.copyOf(starts, count), Arrays.copyOf(rates, count));
+    }
+
+    /**
+     * Charge for a stay starting at entry and lasting the given minutes
+     */
+    public double charge(LocalDateTime entryTime, long durationInMinutes) {
+        if (durationInMinutes < 0) {
+            throw new IllegalArgumentException("Duration cannot be negative");
+        }
+        if (durationInMinutes < gracePeriodMinutes) {
+            return 0.0;
+        }
+
+        long hours = (durationInMinutes + ParkingConstants.ROUNDING_OFFSET) / ParkingConstants.MINUTES_PER_HOUR;
+        int startMinute = entryTime.getHour() * ParkingConstants.MINUTES_PER_HOUR + entryTime.getMinute();
+        long fullDays = hours / HOURS_PER_DAY;
+        int remainingHours = (int) (hours % HOURS_PER_DAY);
+
+        // Every full day from entry bills the same 24 hour starts, so it is priced once
+        double total = 0.0;
+        if (fullDays > 0) {
+            total = fullDays * Math.min(chargeHours(startMinute, HOURS_PER_DAY), dailyCap);
+        }
+        if (remainingHours > 0) {
+            total += Math.min(chargeHours(startMinute, remainingHours), dailyCap);
+        }
+        return total;
+    }
+
+    /**
+     * Sum the rates of the given number of consecutive hours starting at a minute of the day, band by band
+     */
+    private double chargeHours(int startMinute, int hours) {
+        double total = 0.0;
+        int minute = startMinute;
+        int band = bandAt(minute);
+        int remaining = hours;
+        while (remaining > 0) {
+            int bandEnd = band + 1 < bandStarts.length ? bandStarts[band + 1] : MINUTES_PER_DAY;
+            int hoursStartingInBand = (bandEnd - minute + ParkingConstants.MINUTES_PER_HOUR - 1) / ParkingConstants.MINUTES_PER_HOUR;
+            int billed = Math.min(hoursStartingInBand, remaining);
+            total += billed * bandRates[band];
+            remaining -= billed;
+            minute += billed * ParkingConstants.MINUTES_PER_HOUR;
+            if (minute >= MINUTES_PER_DAY) {
+                minute -= MINUTES_PER_DAY;
+                band = 0;
+            }
+            while (band + 1 < bandStarts.length && bandStarts[band + 1] <= minute) {
+                band++;
+            }
+        }
+        return total;
+    }
+
+    private int bandAt(int minute) {
+        int index = Arrays.binarySearch(bandStarts, minute);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * ParkingConstants.MINUTES_PER_HOUR + time.getMinute();
+    }
+
+    public double getHourlyRate() { return hourlyRate; }
+
+    public int getGracePeriodMinutes() { return gracePeriodMinutes; }
+
+    /**
+     * Maximum charge per 24 hours, or 0 if uncapped
+     */
+    public double getDailyCap() {
+        return Double.isInfinite(dailyCap) ? 0.0 : dailyCap;
+    }
+
+    public List<TimeBand> getTimeBands() { return timeBands; }
+
+    /**
+     * Number of distinct-rate bands in a day after compilation
+     */
+    public int getBandCount() {
+        return bandStarts.length;
+    }
+
+    /**
+     * Get the rule as configured, for the admin API
+     */
+    public Map<String, Object> getSnapshot() {
+        List<Map<String, Object>> bands = new ArrayList<>();
+        for (TimeBand band : timeBands) {
+            Map<String, Object> bandData = new HashMap<>();
+            bandData.put("from", band.getFrom());
+            bandData.put("to", band.getTo());
+            bandData.put("multiplier", band.getMultiplier());
+            bands.add(bandData);
+        }
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("hourlyRate", hourlyRate);
+        snapshot.put("gracePeriodMinutes", gracePeriodMinutes);
+        snapshot.put("dailyCap", getDailyCap());
+        snapshot.put("timeBands", bands);
+        return snapshot;
+    }
+}
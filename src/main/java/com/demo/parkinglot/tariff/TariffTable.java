@@ -0,0 +1,85 @@
+package com.demo.parkinglot.tariff;
+
+import com.demo.parkinglot.enums.VehicleType;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of compiled tariffs: one default per vehicle type plus per-lot overrides.
+ * Every lot with an override gets a full array indexed by vehicle type ordinal, with the defaults filled
+ * in, so a lookup is one map get and one array read. Changes build a new table.
+ */
+public final class TariffTable {
+
+    private final Tariff[] defaults;
+    private final Map<Long, Map<VehicleType, Tariff>> lotOverrides;
+    private final Map<Long, Tariff[]> lotTariffs;
+
+    private TariffTable(Tariff[] defaults, Map<Long, Map<VehicleType, Tariff>> lotOverrides) {
+        this.defaults = defaults;
+        this.lotOverrides = lotOverrides;
+
+        Map<Long, Tariff[]> resolved = new HashMap<>();
+        lotOverrides.forEach((parkingLotId, overrides) -> {
+            Tariff[] tariffs = Arrays.copyOf(defaults, defaults.length);
+            overrides.forEach((type, tariff) -> tariffs[type.ordinal()] = tariff);
+            resolved.put(parkingLotId, tariffs);
+        });
+        this.lotTariffs = Map.copyOf(resolved);
+    }
+
+    /**
+     * Table with the given default tariff per vehicle type and no lot overrides
+     */
+    public static TariffTable of(Map<VehicleType, Tariff> defaults) {
+        Tariff[] tariffs = new Tariff[VehicleType.values().length];
+        for (VehicleType type : VehicleType.values()) {
+            Tariff tariff = defaults.get(type);
+            tariffs[type.ordinal()] = tariff != null ? tariff : Tariff.flat(type.getDefaultHourlyRate());
+        }
+        return new TariffTable(tariffs, Map.of());
+    }
+
+    /**
+     * Tariff for a vehicle type in a lot, falling back to the default when the lot has no override
+     */
+    public Tariff tariffFor(Long parkingLotId, VehicleType vehicleType) {
+        Tariff[] tariffs = parkingLotId != null ? lotTariffs.get(parkingLotId) : null;
+        return (tariffs != null ? tariffs : defaults)[vehicleType.ordinal()];
+    }
+
+    public Tariff defaultTariff(VehicleType vehicleType) {
+        return defaults[vehicleType.ordinal()];
+    }
+
+    /**
+     * Overrides per lot, without the defaults filled in
+     */
+    public Map<Long, Map<VehicleType, Tariff>> getLotOverrides() {
+        return lotOverrides;
+    }
+
+    /**
+     * Copy of this table with a new default for one vehicle type
+     */
+    public TariffTable withDefault(VehicleType vehicleType, Tariff tariff) {
+        Tariff[] tariffs = Arrays.copyOf(defaults, defaults.length);
+        tariffs[vehicleType.ordinal()] = tariff;
+        return new TariffTable(tariffs, lotOverrides);
+    }
+
+    /**
+     * Copy of this table with an override for one vehicle type in one lot
+     */
+    public TariffTable withLotOverride(Long parkingLotId, VehicleType vehicleType, Tariff tariff) {
+        Map<Long, Map<VehicleType, Tariff>> overrides = new HashMap<>(lotOverrides);
+        Map<VehicleType, Tariff> lot = new EnumMap<>(VehicleType.class);
+        lot.putAll(overrides.getOrDefault(parkingLotId, Map.of()));
+        lot.put(vehicleType, tariff);
+        overrides.put(parkingLotId, Map.copyOf(lot));
+        return new TariffTable(defaults, Map.copyOf(overrides));
+    }
+}
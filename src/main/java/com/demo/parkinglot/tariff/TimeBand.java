@@ -0,0 +1,29 @@
+package com.demo.parkinglot.tariff;
+
+/**
+ * Time-of-day window, as "HH:mm" from (inclusive) to (exclusive), in which the hourly rate is multiplied.
+ * A window with to before from runs over midnight; from equal to to covers the whole day.
+ */
+public class TimeBand {
+
+    private String from;
+    private String to;
+    private double multiplier = 1.0;
+
+    public TimeBand() {}
+
+    public TimeBand(String from, String to, double multiplier) {
+        this.from = from;
+        this.to = to;
+        this.multiplier = multiplier;
+    }
+
+    public String getFrom() { return from; }
+    public void setFrom(String from) { this.from = from; }
+
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+
+    public double getMultiplier() { return multiplier; }
+    public void setMultiplier(double multiplier) { this.multiplier = multiplier; }
+}
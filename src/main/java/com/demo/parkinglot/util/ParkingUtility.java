@@ -27,13 +27,19 @@ public class ParkingUtility {
             throw new IllegalArgumentException("Entry gate cannot be null");
         }
         
-        return slots.stream()
-                .min((slot1, slot2) -> {
-                    double distance1 = calculateDistance(entryGate, slot1);
-                    double distance2 = calculateDistance(entryGate, slot2);
-                    return Double.compare(distance1, distance2);
-                })
-                .orElse(slots.get(0));
+        // Compare squared distances in a single pass; the first slot wins on ties
+        ParkingSlot nearestSlot = slots.get(0);
+        double nearestDistance = Double.MAX_VALUE;
+        for (ParkingSlot slot : slots) {
+            double deltaX = entryGate.getXCoordinate() - slot.getXCoordinate();
+            double deltaY = entryGate.getYCoordinate() - slot.getYCoordinate();
+            double distance = deltaX * deltaX + deltaY * deltaY;
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearestSlot = slot;
+            }
+        }
+        return nearestSlot;
     }
     
     /**
@@ -93,10 +99,10 @@ public class ParkingUtility {
     }
     
     /**
-     * Generates a unique receipt number
+     * Generates a unique receipt number from a time-ordered ID, e.g. RCP-0CQ8M3ZT4G001
      */
     public static String generateReceiptNumber() {
-        return ParkingConstants.RECEIPT_PREFIX + "-" + System.currentTimeMillis();
+        return ParkingConstants.RECEIPT_PREFIX + "-" + TimeOrderedIdGenerator.shared().nextEncoded();
     }
     
     /**
@@ -112,4 +118,21 @@ public class ParkingUtility {
     public static VehicleType validateAndParseVehicleType(String vehicleTypeString) {
         return VehicleType.fromString(vehicleTypeString);
     }
+    
+    /**
+     * Normalizes a plate number for lookups: upper case, letters and digits only
+     */
+    public static String normalizePlateNumber(String plateNo) {
+        if (plateNo == null) {
+            throw new IllegalArgumentException("Plate number cannot be null");
+        }
+        StringBuilder normalized = new StringBuilder(plateNo.length());
+        for (int i = 0; i < plateNo.length(); i++) {
+            char c = plateNo.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        return normalized.toString();
+    }
 }
@@ -0,0 +1,129 @@
+package com.demo.parkinglot.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Node-aware, time-ordered 64-bit IDs without locks or database round trips.
+ * Layout, high to low: 1 unused sign bit, 41 bits of milliseconds since 2024-01-01 UTC
+ * (about 69 years), 10 bits of node ID and a 12-bit per-millisecond sequence.
+ * Timestamp and sequence share one atomic word, so a full sequence carries into the next
+ * millisecond instead of waiting for the clock, and a clock that steps back is ignored.
+ * IDs are therefore strictly increasing per node and unique across nodes with distinct node IDs.
+ */
+public class TimeOrderedIdGenerator {
+
+    public static final long EPOCH_MILLIS = 1704067200000L;
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final char[] CROCKFORD_ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private static volatile TimeOrderedIdGenerator shared = new TimeOrderedIdGenerator(0, System::currentTimeMillis);
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+    // (milliseconds since epoch << SEQUENCE_BITS) | sequence of the last ID handed out
+    private final AtomicLong lastTimeAndSequence = new AtomicLong();
+
+    public TimeOrderedIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ", was " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    /**
+     * Generator shared by the entity ID generator and receipt numbers
+     */
+    public static TimeOrderedIdGenerator shared() {
+        return shared;
+    }
+
+    /**
+     * Replace the shared generator with one for the given node
+     */
+    public static void useNode(int nodeId) {
+        shared = new TimeOrderedIdGenerator(nodeId, System::currentTimeMillis);
+    }
+
+    /**
+     * Next ID, strictly greater than every ID this generator handed out before
+     */
+    public long nextId() {
+        long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long next = lastTimeAndSequence.updateAndGet(last -> now > last ? now : last + 1);
+        long millis = next >>> SEQUENCE_BITS;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & ((1L << SEQUENCE_BITS) - 1));
+    }
+
+    /**
+     * Next ID in its printable form
+     */
+    public String nextEncoded() {
+        return encode(nextId());
+    }
+
+    /**
+     * Wall-clock milliseconds at which an ID was generated
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+
+    /**
+     * Fixed-width 13-character Crockford base32 form; sorts in the same order as the IDs
+     */
+    public static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD_ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Parse an encoded ID; case-insensitive, ignores hyphens and reads I/L as 1 and O as 0
+     */
+    public static long decode(String encoded) {
+        long id = 0;
+        int digits = 0;
+        for (char c : encoded.toCharArray()) {
+            if (c == '-') {
+                continue;
+            }
+            int value = decodeDigit(Character.toUpperCase(c));
+            if (value < 0 || ++digits > ENCODED_LENGTH) {
+                throw new IllegalArgumentException("Invalid encoded ID: " + encoded);
+            }
+            id = (id << 5) | value;
+        }
+        if (digits != ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Invalid encoded ID: " + encoded);
+        }
+        return id;
+    }
+
+    private static int decodeDigit(char c) {
+        if (c == 'I' || c == 'L') {
+            return 1;
+        }
+        if (c == 'O') {
+            return 0;
+        }
+        for (int i = 0; i < CROCKFORD_ALPHABET.length; i++) {
+            if (CROCKFORD_ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
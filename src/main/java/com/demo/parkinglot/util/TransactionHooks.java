@@ -0,0 +1,108 @@
+package com.demo.parkinglot.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TransactionHooks {
+    
+    private static final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+    
+    private TransactionHooks() {
+        // Utility class - prevent instantiation
+    }
+    
+    /**
+     * Runs the action after the current transaction commits, or right away if there is no transaction
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        Scope scope = currentScope.get();
+        if (scope != null) {
+            scope.commitActions.add(action);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    /**
+     * Runs the action if the current transaction rolls back; does nothing outside a transaction
+     */
+    public static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Scope scope = currentScope.get();
+        if (scope != null) {
+            scope.rollbackActions.add(action);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+    
+    /**
+     * Collect the hooks this thread registers from now on, for work that is kept or undone on its own
+     * within the transaction, such as work rolled back to a savepoint. Must be closed by keep or discard.
+     */
+    public static Scope openScope() {
+        Scope scope = new Scope(currentScope.get());
+        currentScope.set(scope);
+        return scope;
+    }
+    
+    /**
+     * Hooks registered while a scope is open
+     */
+    public static final class Scope {
+        
+        private final Scope parent;
+        private final List<Runnable> commitActions = new ArrayList<>();
+        private final List<Runnable> rollbackActions = new ArrayList<>();
+        
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+        
+        /**
+         * The work stays in the transaction: its hooks run when the enclosing transaction completes
+         */
+        public void keep() {
+            close();
+            commitActions.forEach(TransactionHooks::afterCommit);
+            rollbackActions.forEach(TransactionHooks::afterRollback);
+        }
+        
+        /**
+         * The work was undone: run its rollback hooks now and drop its commit hooks
+         */
+        public void discard() {
+            close();
+            rollbackActions.forEach(Runnable::run);
+        }
+        
+        private void close() {
+            if (parent != null) {
+                currentScope.set(parent);
+            } else {
+                currentScope.remove();
+            }
+        }
+    }
+}
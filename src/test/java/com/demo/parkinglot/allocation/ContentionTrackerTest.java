@@ -0,0 +1,89 @@
+package com.demo.parkinglot.allocation;
+
+import com.demo.parkinglot.enums.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ContentionTracker
+ * Verifies per-lot accounting and ordering, expiry of old buckets and the cap on itemized slots
+ */
+class ContentionTrackerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    void testGetWindow_MostContendedLotFirstWithHotSlotsAndGates() {
+        // Given
+        ContentionTracker tracker = new ContentionTracker(60, 10, 16, now::get);
+        ContentionTracker.Cell quiet = tracker.cell(1L, VehicleType.CAR);
+        quiet.allocated(1, 100L);
+        ContentionTracker.Cell busy = tracker.cell(2L, VehicleType.CAR);
+        busy.conflict(20L, 200L);
+        busy.conflict(20L, 200L);
+        busy.conflict(21L, 201L);
+        busy.lockWait(4_000_000);
+        busy.lockWait(2_000_000);
+        busy.allocated(4, 200L);
+
+        // When
+        Map<String, Object> window = tracker.getWindow(10, 1);
+
+        // Then
+        List<Map<String, Object>> lots = lots(window);
+        assertEquals(2, lots.size());
+        Map<String, Object> hottest = lots.get(0);
+        assertEquals(2L, hottest.get("parkingLotId"));
+        assertEquals(3L, hottest.get("conflicts"));
+        assertEquals(3.0, hottest.get("retriesPerAllocation"));
+        assertEquals(3.0, hottest.get("averageLockWaitMs"));
+        assertEquals(4.0, hottest.get("maxLockWaitMs"));
+        assertEquals(List.of(Map.of("slotId", 20L, "conflicts", 2L)), hottest.get("hotSlots"));
+        assertEquals(List.of(Map.of("entryGateId", 200L, "allocations", 1L, "conflicts", 2L)), hottest.get("gates"));
+    }
+
+    @Test
+    void testGetWindow_BucketsOlderThanWindowDropOut() {
+        // Given
+        ContentionTracker tracker = new ContentionTracker(60, 10, 16, now::get);
+        tracker.cell(1L, VehicleType.CAR).conflict(10L, null);
+        now.addAndGet(30_000);
+        tracker.cell(1L, VehicleType.CAR).conflict(10L, null);
+
+        // When - the first conflict is 30 s old, then more than a window old
+        long withinWindow = (Long) lots(tracker.getWindow(10, 5)).get(0).get("conflicts");
+        now.addAndGet(40_000);
+        long afterFirstExpired = (Long) lots(tracker.getWindow(10, 5)).get(0).get("conflicts");
+
+        // Then
+        assertEquals(2L, withinWindow);
+        assertEquals(1L, afterFirstExpired);
+    }
+
+    @Test
+    void testConflict_BeyondTrackedSlots_CountedButNotItemized() {
+        // Given
+        ContentionTracker tracker = new ContentionTracker(60, 10, 2, now::get);
+        ContentionTracker.Cell cell = tracker.cell(1L, VehicleType.BIKE);
+
+        // When
+        for (long slotId = 1; slotId <= 5; slotId++) {
+            cell.conflict(slotId, null);
+        }
+
+        // Then
+        Map<String, Object> row = lots(tracker.getWindow(10, 10)).get(0);
+        assertEquals(5L, row.get("conflicts"));
+        assertEquals(2, ((List<?>) row.get("hotSlots")).size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> lots(Map<String, Object> window) {
+        return (List<Map<String, Object>>) window.get("lots");
+    }
+}
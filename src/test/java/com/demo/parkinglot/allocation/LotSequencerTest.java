@@ -0,0 +1,177 @@
+package com.demo.parkinglot.allocation;
+
+import com.demo.parkinglot.exception.SlotAllocationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LotSequencer
+ * Verifies single-owner ordering, batching and backpressure
+ */
+class LotSequencerTest {
+
+    private LotSequencer sequencer;
+
+    @AfterEach
+    void tearDown() {
+        if (sequencer != null) {
+            sequencer.shutdown();
+        }
+    }
+
+    @Test
+    void testSubmit_RunsAllCommandsInOrderOnOwnerThread() throws Exception {
+        // Given
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        List<Integer> applied = new ArrayList<>();
+        sequencer = new LotSequencer(1L, 256, 16, 1000, batch -> {
+            batch.forEach(LotSequencer.SequencedCommand::run);
+            batch.forEach(LotSequencer.SequencedCommand::complete);
+        });
+
+        // When
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            futures.add(sequencer.submit(() -> {
+                threadNames.add(Thread.currentThread().getName());
+                applied.add(value);
+                return value;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(Set.of("lot-sequencer-1"), threadNames);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, applied.get(i));
+            assertEquals(i, futures.get(i).get());
+        }
+    }
+
+    @Test
+    void testSubmit_BufferFull_RejectsWithBackpressure() throws Exception {
+        // Given - owner thread blocked inside the first batch
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        sequencer = new LotSequencer(2L, 2, 1, 10, batch -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batch.forEach(LotSequencer.SequencedCommand::run);
+            batch.forEach(LotSequencer.SequencedCommand::complete);
+        });
+        CompletableFuture<String> first = sequencer.submit(() -> "first");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When - fill the buffer, then overflow it
+        CompletableFuture<String> second = sequencer.submit(() -> "second");
+        CompletableFuture<String> third = sequencer.submit(() -> "third");
+        CompletableFuture<String> rejected = sequencer.submit(() -> "rejected");
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(SlotAllocationException.class, exception.getCause());
+
+        release.countDown();
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+        assertEquals("third", third.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSubmitWaiting_BufferFull_WaitsForSpaceUntilStopped() throws Exception {
+        // Given - owner thread blocked inside the first batch with the buffer full behind it
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        sequencer = new LotSequencer(5L, 1, 1, 10, batch -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batch.forEach(LotSequencer.SequencedCommand::run);
+            batch.forEach(LotSequencer.SequencedCommand::complete);
+        });
+        CompletableFuture<String> first = sequencer.submit(() -> "first");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> second = sequencer.submit(() -> "second");
+
+        // When - a caller that must not be refused waits well past the offer timeout
+        CompletableFuture<CompletableFuture<String>> waiting =
+                CompletableFuture.supplyAsync(() -> sequencer.submitWaiting(() -> "waited"));
+        Thread.sleep(200);
+        assertFalse(waiting.isDone());
+        release.countDown();
+
+        // Then - it is queued once there is space and still applied by the owner thread
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+        assertEquals("waited", waiting.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS));
+
+        // And - a stopped sequencer tells the caller to go elsewhere
+        sequencer.stop();
+        assertNull(sequencer.submitWaiting(() -> "refused"));
+    }
+
+    @Test
+    void testSubmit_HandlerThrows_FailsWholeBatch() {
+        // Given
+        sequencer = new LotSequencer(3L, 16, 16, 1000, batch -> {
+            throw new IllegalStateException("Batch failed");
+        });
+
+        // When
+        CompletableFuture<String> future = sequencer.submit(() -> "never");
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals("Batch failed", exception.getCause().getMessage());
+    }
+
+    @Test
+    void testStop_QueuedCommandsAppliedThenOwnerExits() throws Exception {
+        // Given - two commands queued behind a blocked batch
+        CountDownLatch release = new CountDownLatch(1);
+        sequencer = new LotSequencer(4L, 16, 1, 1000, batch -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batch.forEach(LotSequencer.SequencedCommand::run);
+            batch.forEach(LotSequencer.SequencedCommand::complete);
+        });
+        CompletableFuture<String> first = sequencer.submit(() -> "first");
+        CompletableFuture<String> second = sequencer.submit(() -> "second");
+
+        // When
+        sequencer.stop();
+        release.countDown();
+
+        // Then - the queued commands still run, new ones are refused and the owner thread exits
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+        assertNull(sequencer.trySubmit(() -> "refused"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sequencer.isOwnerAlive() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(sequencer.isOwnerAlive());
+    }
+}
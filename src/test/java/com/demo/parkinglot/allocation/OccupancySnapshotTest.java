@@ -0,0 +1,105 @@
+package com.demo.parkinglot.allocation;
+
+import com.demo.parkinglot.entity.EntryGate;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.enums.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OccupancySnapshot
+ * Verifies that restored indexes match the originals and that damaged files are rejected
+ */
+class OccupancySnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteAndRead_RestoredIndexesMatchOriginals() throws Exception {
+        // Given - two lots, one larger than a bitset word, with some slots taken
+        EntryGate gate = createGate(7L, 0.0, 0.0);
+        SlotAllocationIndex cars = SlotAllocationIndex.build(1L, VehicleType.CAR, createSlots(1, 150), List.of(gate));
+        SlotAllocationIndex bikes = SlotAllocationIndex.build(2L, VehicleType.BIKE, createSlots(1000, 10), List.of(gate));
+        cars.markOccupied(cars.firstAvailableFrom(gate));
+        cars.markOccupied(140);
+        Path file = directory.resolve("occupancy.snapshot");
+
+        // When
+        long bytes = OccupancySnapshot.write(file, List.of(cars, bikes));
+        OccupancySnapshot snapshot = OccupancySnapshot.read(file);
+
+        // Then
+        assertEquals(Files.size(file), bytes);
+        assertEquals(2, snapshot.getIndexes().size());
+        SlotAllocationIndex restored = snapshot.getIndexes().get(0);
+        assertTrue(restored.matches(cars));
+        assertTrue(snapshot.getIndexes().get(1).matches(bikes));
+        assertEquals(VehicleType.CAR, restored.getSlotType());
+        assertEquals(cars.availableCount(), restored.availableCount());
+        assertEquals(cars.getAvailableByFloor(), restored.getAvailableByFloor());
+        // The gate ranking came from the file, and still gives the same nearest slot
+        assertEquals(cars.firstAvailableFrom(gate), restored.firstAvailableFrom(gate));
+        assertEquals(cars.ordinalOf(149L), restored.ordinalOf(149L));
+    }
+
+    @Test
+    void testMatches_DifferentOccupancy_ReturnsFalse() {
+        // Given
+        SlotAllocationIndex original = SlotAllocationIndex.build(1L, VehicleType.CAR, createSlots(1, 10), List.of());
+        SlotAllocationIndex changed = SlotAllocationIndex.build(1L, VehicleType.CAR, createSlots(1, 10), List.of());
+
+        // When
+        changed.markOccupied(3);
+
+        // Then
+        assertFalse(original.matches(changed));
+    }
+
+    @Test
+    void testRead_CorruptedFile_Rejected() throws Exception {
+        // Given
+        SlotAllocationIndex cars = SlotAllocationIndex.build(1L, VehicleType.CAR, createSlots(1, 20), List.of());
+        Path file = directory.resolve("occupancy.snapshot");
+        OccupancySnapshot.write(file, List.of(cars));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(40);
+            raf.write(0x7F);
+        }
+
+        // When & Then
+        assertThrows(IOException.class, () -> OccupancySnapshot.read(file));
+    }
+
+    private List<ParkingSlot> createSlots(long firstId, int count) {
+        List<ParkingSlot> slots = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ParkingSlot slot = new ParkingSlot();
+            slot.setId(firstId + i);
+            slot.setSlotType(VehicleType.CAR);
+            slot.setFloor(1 + i / 50);
+            slot.setXCoordinate(i % 50);
+            slot.setYCoordinate(i / 50 * 10.0);
+            slot.setAvailable(i % 7 != 0);
+            slots.add(slot);
+        }
+        return slots;
+    }
+
+    private EntryGate createGate(Long id, double x, double y) {
+        EntryGate gate = new EntryGate();
+        gate.setId(id);
+        gate.setXCoordinate(x);
+        gate.setYCoordinate(y);
+        return gate;
+    }
+}
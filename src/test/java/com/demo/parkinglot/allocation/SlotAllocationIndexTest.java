@@ -0,0 +1,236 @@
+package com.demo.parkinglot.allocation;
+
+import com.demo.parkinglot.entity.EntryGate;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.util.ParkingUtility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SlotAllocationIndex
+ * Verifies gate rankings and availability tracking against the list-based search
+ */
+class SlotAllocationIndexTest {
+
+    private EntryGate mainGate;
+    private EntryGate sideGate;
+    private List<ParkingSlot> slots;
+    private SlotAllocationIndex index;
+
+    @BeforeEach
+    void setUp() {
+        mainGate = createGate(1L, 0.0, 0.0);
+        sideGate = createGate(2L, 100.0, 100.0);
+
+        slots = List.of(
+            createSlot(1L, 2, 15.0, 15.0, true),
+            createSlot(2L, 1, 10.0, 10.0, true),
+            createSlot(3L, 1, 90.0, 90.0, true),
+            createSlot(4L, 1, 50.0, 50.0, false)
+        );
+
+        index = SlotAllocationIndex.build(1L, VehicleType.CAR, slots, List.of(mainGate));
+    }
+
+    @Test
+    void testFirstAvailableFrom_ReturnsNearestSlotPerGate() {
+        // When
+        long nearestToMain = index.slotIdAt(index.firstAvailableFrom(mainGate));
+        long nearestToSide = index.slotIdAt(index.firstAvailableFrom(sideGate));
+
+        // Then
+        assertEquals(2L, nearestToMain);
+        assertEquals(3L, nearestToSide);
+    }
+
+    @Test
+    void testFirstAvailableFrom_MatchesListBasedSearch() {
+        // Given
+        List<ParkingSlot> availableSlots = slots.stream().filter(ParkingSlot::isAvailable).toList();
+
+        // When
+        ParkingSlot expected = ParkingUtility.findNearestSlot(availableSlots, mainGate);
+
+        // Then
+        assertEquals(expected.getId(), index.slotIdAt(index.firstAvailableFrom(mainGate)));
+    }
+
+    @Test
+    void testFirstAvailable_UsesFloorThenIdOrder() {
+        // When
+        int ordinal = index.firstAvailable();
+
+        // Then
+        assertEquals(2L, index.slotIdAt(ordinal));
+        assertEquals(1, index.floorAt(ordinal));
+    }
+
+    @Test
+    void testTopAvailableFrom_ReturnsRankedCandidates() {
+        // When
+        int[] candidates = index.topAvailableFrom(mainGate, 2);
+        int[] allCandidates = index.topAvailableFrom(mainGate, 10);
+
+        // Then
+        assertEquals(2, candidates.length);
+        assertEquals(2L, index.slotIdAt(candidates[0]));
+        assertEquals(1L, index.slotIdAt(candidates[1]));
+        assertEquals(3, allCandidates.length);
+        assertEquals(3L, index.slotIdAt(allCandidates[2]));
+    }
+
+    @Test
+    void testTopAvailable_SkipsOccupiedSlots() {
+        // When
+        int[] candidates = index.topAvailable(10);
+
+        // Then
+        assertArrayEquals(new long[] {2L, 3L, 1L},
+                Arrays.stream(candidates).mapToLong(index::slotIdAt).toArray());
+    }
+
+    @Test
+    void testMarkOccupied_SkipsSlotUntilFreed() {
+        // Given
+        int nearest = index.firstAvailableFrom(mainGate);
+
+        // When
+        assertTrue(index.markOccupied(nearest));
+
+        // Then
+        assertFalse(index.markOccupied(nearest));
+        assertEquals(1L, index.slotIdAt(index.firstAvailableFrom(mainGate)));
+        assertEquals(2, index.availableCount());
+
+        // When
+        assertTrue(index.markAvailable(nearest));
+
+        // Then
+        assertEquals(2L, index.slotIdAt(index.firstAvailableFrom(mainGate)));
+    }
+
+    @Test
+    void testFirstAvailableFrom_AllOccupied_ReturnsMinusOne() {
+        // Given
+        for (int ordinal = 0; ordinal < index.size(); ordinal++) {
+            index.markOccupied(ordinal);
+        }
+
+        // When & Then
+        assertEquals(-1, index.firstAvailableFrom(mainGate));
+        assertEquals(-1, index.firstAvailable());
+        assertEquals(0, index.availableCount());
+    }
+
+    @Test
+    void testMarkOccupied_ConcurrentClaims_EachSlotWonOnce() throws InterruptedException {
+        // Given
+        List<ParkingSlot> manySlots = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            manySlots.add(createSlot(id, (int) (id % 5), id, id, true));
+        }
+        SlotAllocationIndex largeIndex = SlotAllocationIndex.build(1L, VehicleType.CAR, manySlots, List.of(mainGate));
+        ConcurrentLinkedQueue<Long> claimed = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When - 8 threads keep claiming the nearest free slot until none are left
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                start.await();
+                int ordinal;
+                while ((ordinal = largeIndex.firstAvailableFrom(mainGate)) >= 0) {
+                    if (largeIndex.markOccupied(ordinal)) {
+                        claimed.add(largeIndex.slotIdAt(ordinal));
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Then
+        Set<Long> unique = new HashSet<>(claimed);
+        assertEquals(500, claimed.size());
+        assertEquals(500, unique.size());
+        assertEquals(0, largeIndex.availableCount());
+    }
+
+    @Test
+    void testOrdinalOf_UnknownSlot_ReturnsMinusOne() {
+        assertEquals(-1, index.ordinalOf(99L));
+    }
+
+    @Test
+    void testFloorCounters_TrackClaimsAndFrees() {
+        // Given
+        int ordinal = index.ordinalOf(2L);
+
+        // When
+        index.markOccupied(ordinal);
+        index.markOccupied(ordinal);
+
+        // Then - a repeated claim does not count twice
+        assertEquals(2, index.availableCount());
+        assertEquals(Map.of(1, 1, 2, 1), index.getAvailableByFloor());
+        assertEquals(Map.of(1, 3, 2, 1), index.getTotalByFloor());
+
+        // When
+        index.markAvailable(ordinal);
+
+        // Then
+        assertEquals(3, index.availableCount());
+        assertEquals(Map.of(1, 2, 2, 1), index.getAvailableByFloor());
+    }
+
+    @Test
+    void testTopAvailable_FullFloor_MovesToNextFloor() {
+        // Given - fill floor 1
+        index.markOccupied(index.ordinalOf(2L));
+        index.markOccupied(index.ordinalOf(3L));
+
+        // When
+        int[] candidates = index.topAvailable(3);
+
+        // Then
+        assertEquals(1, candidates.length);
+        assertEquals(1L, index.slotIdAt(candidates[0]));
+        assertEquals(0, index.getAvailableByFloor().get(1));
+    }
+
+    private EntryGate createGate(Long id, double x, double y) {
+        EntryGate gate = new EntryGate();
+        gate.setId(id);
+        gate.setXCoordinate(x);
+        gate.setYCoordinate(y);
+        return gate;
+    }
+
+    private ParkingSlot createSlot(Long id, int floor, double x, double y, boolean available) {
+        ParkingSlot slot = new ParkingSlot();
+        slot.setId(id);
+        slot.setSlotType(VehicleType.CAR);
+        slot.setFloor(floor);
+        slot.setXCoordinate(x);
+        slot.setYCoordinate(y);
+        slot.setAvailable(available);
+        return slot;
+    }
+}
@@ -0,0 +1,144 @@
+package com.demo.parkinglot.integration;
+
+import com.demo.parkinglot.dto.ExitResponse;
+import com.demo.parkinglot.entity.EntryGate;
+import com.demo.parkinglot.entity.Floor;
+import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.entity.Ticket;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.exception.SlotAllocationException;
+import com.demo.parkinglot.repository.EntryGateRepository;
+import com.demo.parkinglot.repository.FloorRepository;
+import com.demo.parkinglot.repository.ParkingLotRepository;
+import com.demo.parkinglot.repository.ParkingSlotRepository;
+import com.demo.parkinglot.repository.TicketRepository;
+import com.demo.parkinglot.service.AllocationSequencerService;
+import com.demo.parkinglot.service.ParkingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the SEQUENCER allocation engine.
+ * Not transactional: commands are committed by the lot's owner thread, so test data must be committed too.
+ */
+@SpringBootTest(properties = {
+        "parking.allocation.engine=SEQUENCER",
+        "spring.datasource.url=jdbc:h2:mem:sequencerdb;DB_CLOSE_DELAY=-1;MODE=MySQL"
+})
+@ActiveProfiles("test")
+class AllocationSequencerIntegrationTest {
+
+    @Autowired
+    private AllocationSequencerService allocationSequencerService;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private EntryGateRepository entryGateRepository;
+
+    @Autowired
+    private FloorRepository floorRepository;
+
+    @Autowired
+    private ParkingSlotRepository parkingSlotRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    private ParkingLot parkingLot;
+    private EntryGate entryGate;
+
+    @BeforeEach
+    void setUp() {
+        parkingLot = parkingLotRepository.save(new ParkingLot("Sequencer Test Lot", "Test Location", 1));
+        entryGate = entryGateRepository.save(new EntryGate("Main Gate", 1, 0.0, 0.0, parkingLot));
+        Floor floor = floorRepository.save(new Floor(1, 2, "Floor 1", parkingLot));
+        for (int i = 1; i <= 2; i++) {
+            ParkingSlot slot = new ParkingSlot();
+            slot.setSlotNumber("S-00" + i);
+            slot.setSlotType(VehicleType.CAR);
+            slot.setFloor(1);
+            slot.setAvailable(true);
+            slot.setParkingLot(parkingLot);
+            slot.setFloorEntity(floor);
+            parkingSlotRepository.save(slot);
+        }
+    }
+
+    @Test
+    void testSubmitEntry_FailingCommandsInBatch_OthersCommitted() throws Exception {
+        // Given - the owner thread held up, so the entries below are drained as one batch
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> blocker = allocationSequencerService.submitExit(parkingLot.getId(), () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+
+        // When - a good entry, a duplicate plate, a second good entry and one more than the lot holds
+        CompletableFuture<Ticket> first = submit("SEQ-001");
+        CompletableFuture<Ticket> duplicate = submit("SEQ-001");
+        CompletableFuture<Ticket> second = submit("SEQ-002");
+        CompletableFuture<Ticket> full = submit("SEQ-003");
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+
+        // Then - only the failing commands fail, and the others are in the database
+        Ticket firstTicket = first.get(5, TimeUnit.SECONDS);
+        Ticket secondTicket = second.get(5, TimeUnit.SECONDS);
+        assertInstanceOf(SlotAllocationException.class,
+                assertThrows(ExecutionException.class, () -> duplicate.get(5, TimeUnit.SECONDS)).getCause());
+        assertInstanceOf(SlotAllocationException.class,
+                assertThrows(ExecutionException.class, () -> full.get(5, TimeUnit.SECONDS)).getCause());
+        assertTrue(ticketRepository.findById(firstTicket.getId()).orElseThrow().isActive());
+        assertTrue(ticketRepository.findById(secondTicket.getId()).orElseThrow().isActive());
+        assertNotEquals(firstTicket.getSlot().getId(), secondTicket.getSlot().getId());
+        assertEquals(0, parkingSlotRepository.findAll().stream()
+                .filter(slot -> slot.getParkingLot().getId().equals(parkingLot.getId()) && slot.isAvailable()).count());
+
+        // When - one vehicle leaves; its exit is applied by the owner thread
+        ExitResponse exit = parkingService.unparkVehicle(firstTicket.getId(), 2.0);
+
+        // Then - the freed slot goes to the next entry
+        assertNotNull(exit.receipt());
+        Ticket third = submit("SEQ-003").get(5, TimeUnit.SECONDS);
+        assertEquals(firstTicket.getSlot().getId(), third.getSlot().getId());
+    }
+
+    @Test
+    void testRetireSequencers_LotDeactivated_OwnerStopped() {
+        // Given
+        submit("SEQ-010").join();
+        assertTrue(allocationSequencerService.getQueueDepths().containsKey(parkingLot.getId()));
+
+        // When
+        parkingLot.setActive(false);
+        parkingLotRepository.save(parkingLot);
+        allocationSequencerService.retireSequencers();
+
+        // Then
+        assertFalse(allocationSequencerService.getQueueDepths().containsKey(parkingLot.getId()));
+    }
+
+    private CompletableFuture<Ticket> submit(String plateNo) {
+        return allocationSequencerService.submitEntry(plateNo, "CAR", "user1", entryGate.getId());
+    }
+}
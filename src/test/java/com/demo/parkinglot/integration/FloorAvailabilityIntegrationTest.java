@@ -0,0 +1,112 @@
+package com.demo.parkinglot.integration;
+
+import com.demo.parkinglot.entity.Floor;
+import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.repository.FloorRepository;
+import com.demo.parkinglot.repository.ParkingLotRepository;
+import com.demo.parkinglot.repository.ParkingSlotRepository;
+import com.demo.parkinglot.service.FloorAvailabilityService;
+import com.demo.parkinglot.service.SlotAllocationIndexService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for floor counter reconciliation
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class FloorAvailabilityIntegrationTest {
+
+    @Autowired
+    private FloorAvailabilityService floorAvailabilityService;
+
+    @Autowired
+    private SlotAllocationIndexService slotAllocationIndexService;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private ParkingSlotRepository parkingSlotRepository;
+
+    @Autowired
+    private FloorRepository floorRepository;
+
+    private ParkingLot parkingLot;
+    private Floor floor;
+    private ParkingSlot occupiedSlot;
+
+    @BeforeEach
+    void setUp() {
+        parkingLot = parkingLotRepository.save(new ParkingLot("Floor Test Lot", "Test Location", 1));
+        floor = floorRepository.save(new Floor(1, 0, "Floor 1", parkingLot));
+
+        createSlot("F-101", true);
+        createSlot("F-102", true);
+        occupiedSlot = createSlot("F-103", false);
+    }
+
+    @Test
+    void testReconcile_DriftedFloorCounters_RecountedFromSlots() {
+        // Given - counters drifted from the slot rows
+        floor.setTotalSlots(10);
+        floor.setAvailableSlots(7);
+        floorRepository.save(floor);
+
+        // When
+        floorAvailabilityService.reconcile();
+
+        // Then
+        Floor reconciled = floorRepository.findById(floor.getId()).orElseThrow();
+        assertEquals(3, reconciled.getTotalSlots());
+        assertEquals(2, reconciled.getAvailableSlots());
+    }
+
+    @Test
+    void testReconcile_IndexDisagreesTwice_IndexDropped() {
+        // Given - index built, then a slot freed behind its back
+        slotAllocationIndexService.getIndex(parkingLot, VehicleType.CAR);
+        parkingSlotRepository.freeSlot(occupiedSlot.getId());
+        occupiedSlot.setAvailable(true);
+
+        // When - first mismatch may be an in-flight transaction
+        floorAvailabilityService.reconcile();
+
+        // Then
+        assertTrue(isIndexCached());
+
+        // When - same mismatch again
+        floorAvailabilityService.reconcile();
+
+        // Then
+        assertFalse(isIndexCached());
+        assertEquals(3, slotAllocationIndexService.getIndex(parkingLot, VehicleType.CAR).availableCount());
+    }
+
+    private boolean isIndexCached() {
+        return slotAllocationIndexService.getCachedIndexes().stream()
+                .anyMatch(index -> index.getParkingLotId().equals(parkingLot.getId()));
+    }
+
+    private ParkingSlot createSlot(String slotNumber, boolean available) {
+        ParkingSlot slot = new ParkingSlot();
+        slot.setSlotNumber(slotNumber);
+        slot.setSlotType(VehicleType.CAR);
+        slot.setFloor(1);
+        slot.setXCoordinate(10.0);
+        slot.setYCoordinate(10.0);
+        slot.setAvailable(available);
+        slot.setParkingLot(parkingLot);
+        slot.setFloorEntity(floor);
+        return parkingSlotRepository.save(slot);
+    }
+}
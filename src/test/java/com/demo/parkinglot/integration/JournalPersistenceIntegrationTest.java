@@ -0,0 +1,242 @@
+package com.demo.parkinglot.integration;
+
+import com.demo.parkinglot.config.PersistenceConfig;
+import com.demo.parkinglot.dto.ExitResponse;
+import com.demo.parkinglot.entity.EntryGate;
+import com.demo.parkinglot.entity.Floor;
+import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.entity.Ticket;
+import com.demo.parkinglot.enums.PaymentStatus;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.journal.EventJournal;
+import com.demo.parkinglot.journal.JournalEvent;
+import com.demo.parkinglot.repository.EntryGateRepository;
+import com.demo.parkinglot.repository.FloorRepository;
+import com.demo.parkinglot.repository.ParkingLotRepository;
+import com.demo.parkinglot.repository.ParkingSlotRepository;
+import com.demo.parkinglot.repository.PaymentRepository;
+import com.demo.parkinglot.repository.ReceiptRepository;
+import com.demo.parkinglot.repository.TicketRepository;
+import com.demo.parkinglot.service.EventJournalService;
+import com.demo.parkinglot.service.ParkingService;
+import com.demo.parkinglot.util.TimeOrderedIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the JOURNAL persistence mode.
+ * Not transactional: the write-behind commits its own transactions, so test data must be committed too.
+ * Runs on its own in-memory database and journal directory, with the periodic flush effectively off.
+ */
+@SpringBootTest(properties = {
+        "parking.persistence.mode=JOURNAL",
+        "parking.persistence.journal.directory=target/journal-test/${random.uuid}",
+        "parking.persistence.journal.flush-interval-ms=3600000",
+        "spring.datasource.url=jdbc:h2:mem:journaldb;DB_CLOSE_DELAY=-1;MODE=MySQL"
+})
+@ActiveProfiles("test")
+class JournalPersistenceIntegrationTest {
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private EventJournalService eventJournalService;
+
+    @Autowired
+    private PersistenceConfig persistenceConfig;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private EntryGateRepository entryGateRepository;
+
+    @Autowired
+    private FloorRepository floorRepository;
+
+    @Autowired
+    private ParkingSlotRepository parkingSlotRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ReceiptRepository receiptRepository;
+
+    private EntryGate entryGate;
+    private Floor floor;
+    private ParkingSlot slot;
+
+    @BeforeEach
+    void setUp() {
+        ParkingLot parkingLot = parkingLotRepository.save(new ParkingLot("Journal Test Lot", "Test Location", 1));
+        entryGate = new EntryGate();
+        entryGate.setGateName("Main Gate");
+        entryGate.setParkingLot(parkingLot);
+        entryGate = entryGateRepository.save(entryGate);
+        floor = floorRepository.save(new Floor(1, 1, "Floor 1", parkingLot));
+
+        slot = new ParkingSlot();
+        slot.setSlotNumber("J-001");
+        slot.setSlotType(VehicleType.CAR);
+        slot.setFloor(1);
+        slot.setAvailable(true);
+        slot.setParkingLot(parkingLot);
+        slot.setFloorEntity(floor);
+        slot = parkingSlotRepository.save(slot);
+    }
+
+    @Test
+    void testParkAndExit_JournalMode_RowsWrittenBehind() {
+        // When - entry returns once the event is on disk
+        Ticket ticket = parkingService.parkVehicle("JRN-001", "CAR", "user1", entryGate.getId());
+
+        // Then - nothing written yet, then everything after a flush
+        assertNotNull(ticket.getId());
+        assertEquals(slot.getId(), ticket.getSlot().getId());
+        assertFalse(ticketRepository.existsById(ticket.getId()));
+        eventJournalService.flush();
+        assertTrue(ticketRepository.findById(ticket.getId()).orElseThrow().isActive());
+        assertFalse(parkingSlotRepository.findById(slot.getId()).orElseThrow().isAvailable());
+        assertEquals(0, floorRepository.findById(floor.getId()).orElseThrow().getAvailableSlots());
+
+        // When - exit
+        ExitResponse exit = parkingService.unparkVehicle(ticket.getId(), 2.0);
+        eventJournalService.flush();
+
+        // Then - receipt, payment, ticket and slot match what the caller was told
+        Ticket closed = ticketRepository.findById(ticket.getId()).orElseThrow();
+        assertFalse(closed.isActive());
+        assertEquals(exit.receipt().receiptNumber(), receiptRepository.findByTicket(closed).orElseThrow().getReceiptNumber());
+        assertEquals(exit.receipt().id(), receiptRepository.findByTicket(closed).orElseThrow().getId());
+        assertEquals(PaymentStatus.PAID, paymentRepository.findByTicket(closed).orElseThrow().getStatus());
+        assertTrue(parkingSlotRepository.findById(slot.getId()).orElseThrow().isAvailable());
+        assertEquals(1, floorRepository.findById(floor.getId()).orElseThrow().getAvailableSlots());
+    }
+
+    @Test
+    void testStart_UnappliedEntryInJournal_ReplayedOnce(@TempDir Path crashedJournal) throws Exception {
+        // Given - an entry made durable by a process that crashed before writing it behind
+        long ticketId = TimeOrderedIdGenerator.shared().nextId();
+        EventJournal journal = new EventJournal(crashedJournal, 1 << 20, 64, events -> {});
+        journal.open(0);
+        journal.append(JournalEvent.entry(ticketId, slot.getId(), LocalDateTime.now(), "JRN-002", VehicleType.CAR,
+                "user2", entryGate.getId())).join();
+        journal.close();
+
+        // When - started on that journal, twice, the second time without a checkpoint
+        eventJournalService.shutdown();
+        persistenceConfig.getJournal().setDirectory(crashedJournal.toString());
+        eventJournalService.start();
+        assertEquals(1, eventJournalService.getStatistics().get("replayedOnStartup"));
+        eventJournalService.shutdown();
+        Files.delete(crashedJournal.resolve("checkpoint"));
+        eventJournalService.start();
+
+        // Then - occupancy is restored exactly once
+        assertEquals(1, eventJournalService.getStatistics().get("replayedOnStartup"));
+        assertTrue(ticketRepository.findById(ticketId).orElseThrow().isActive());
+        assertFalse(parkingSlotRepository.findById(slot.getId()).orElseThrow().isAvailable());
+        assertEquals(0, floorRepository.findById(floor.getId()).orElseThrow().getAvailableSlots());
+    }
+
+    @Test
+    void testExit_SecondExitBeforeWriteBehind_Rejected() {
+        // Given - an exit on the journal that is not written behind yet
+        Ticket ticket = parkingService.parkVehicle("JRN-005", "CAR", "user5", entryGate.getId());
+        eventJournalService.flush();
+        parkingService.unparkVehicle(ticket.getId(), 2.0);
+
+        // When / Then - a second exit for the same ticket is refused before it reaches the journal
+        assertThrows(IllegalStateException.class, () -> parkingService.unparkVehicle(ticket.getId(), 2.0));
+        eventJournalService.flush();
+        assertEquals(1, floorRepository.findById(floor.getId()).orElseThrow().getAvailableSlots());
+        assertEquals(false, eventJournalService.getStatistics().get("writeBehindHeld"));
+    }
+
+    @Test
+    void testPark_SlotOccupiedOutsideIndex_RejectedBeforeJournaling() {
+        // Given - the only slot taken in the database behind the index's back
+        parkingService.parkVehicle("JRN-006", "CAR", "user6", entryGate.getId());
+        eventJournalService.flush();
+        Ticket ticket = ticketRepository.findAll().stream().filter(Ticket::isActive).findFirst().orElseThrow();
+        parkingService.unparkVehicle(ticket.getId(), 2.0);
+        eventJournalService.flush();
+        parkingSlotRepository.allocateSlot(slot.getId());
+
+        // When / Then - the entry is refused rather than journaled onto an occupied slot
+        assertThrows(RuntimeException.class, () -> parkingService.parkVehicle("JRN-007", "CAR", "user7", entryGate.getId()));
+        eventJournalService.flush();
+        assertEquals(false, eventJournalService.getStatistics().get("writeBehindHeld"));
+    }
+
+    @Test
+    void testFlush_EventCannotBeApplied_HoldsWriteBehindWithoutSkipping(@TempDir Path crashedJournal) throws Exception {
+        // Given - an entry for a slot that no longer exists, followed by a good entry
+        long badTicketId = TimeOrderedIdGenerator.shared().nextId();
+        long goodTicketId = TimeOrderedIdGenerator.shared().nextId();
+        EventJournal journal = new EventJournal(crashedJournal, 1 << 20, 64, events -> {});
+        journal.open(0);
+        journal.append(JournalEvent.entry(badTicketId, Long.MAX_VALUE, LocalDateTime.now(), "JRN-003", VehicleType.CAR,
+                "user3", entryGate.getId())).join();
+        journal.append(JournalEvent.entry(goodTicketId, slot.getId(), LocalDateTime.now(), "JRN-004", VehicleType.CAR,
+                "user4", entryGate.getId())).join();
+        journal.close();
+        int maxApplyAttempts = persistenceConfig.getJournal().getMaxApplyAttempts();
+        String directory = persistenceConfig.getJournal().getDirectory();
+        persistenceConfig.getJournal().setMaxApplyAttempts(2);
+
+        try {
+            // When - started on that journal; the replay's flush fails on the first event
+            eventJournalService.shutdown();
+            persistenceConfig.getJournal().setDirectory(crashedJournal.toString());
+            eventJournalService.start();
+
+            // Then - nothing after the bad event is applied and the checkpoint has not moved
+            assertEquals(1L, eventJournalService.getStatistics().get("blockedSequence"));
+            assertFalse(ticketRepository.existsById(goodTicketId));
+            assertFalse(Files.exists(crashedJournal.resolve("checkpoint")));
+
+            // When - it fails again on the next flush
+            eventJournalService.flush();
+
+            // Then - the write-behind is held at it: later flushes do nothing, and neither the checkpoint
+            // nor the segment holding the event moves, so a replay still restores the same occupancy
+            assertEquals(true, eventJournalService.getStatistics().get("writeBehindHeld"));
+            eventJournalService.flush();
+            assertFalse(ticketRepository.existsById(badTicketId));
+            assertFalse(ticketRepository.existsById(goodTicketId));
+            assertFalse(Files.exists(crashedJournal.resolve("checkpoint")));
+            assertEquals(2, eventJournalService.getStatistics().get("unappliedEvents"));
+
+            // When - resumed without fixing the cause
+            eventJournalService.resume();
+
+            // Then - the event is retried from a fresh attempt count, not skipped
+            assertEquals(false, eventJournalService.getStatistics().get("writeBehindHeld"));
+            assertEquals(1, eventJournalService.getStatistics().get("blockedAttempts"));
+            assertFalse(ticketRepository.existsById(goodTicketId));
+        } finally {
+            persistenceConfig.getJournal().setMaxApplyAttempts(maxApplyAttempts);
+            // Leave the other tests their own journal rather than this held one
+            eventJournalService.shutdown();
+            persistenceConfig.getJournal().setDirectory(directory);
+            eventJournalService.start();
+        }
+    }
+}
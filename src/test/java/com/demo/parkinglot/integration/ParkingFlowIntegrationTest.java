@@ -1,19 +1,33 @@
 package com.demo.parkinglot.integration;
 
+import com.demo.parkinglot.allocation.SlotAllocationIndex;
+import com.demo.parkinglot.dto.AdminResponse;
+import com.demo.parkinglot.dto.EntryGateResponse;
+import com.demo.parkinglot.dto.TicketResponse;
 import com.demo.parkinglot.entity.*;
+import com.demo.parkinglot.enums.PaymentStatus;
 import com.demo.parkinglot.enums.VehicleType;
 import com.demo.parkinglot.exception.SlotAllocationException;
 import com.demo.parkinglot.repository.*;
+import com.demo.parkinglot.service.AdminService;
 import com.demo.parkinglot.service.ParkingManagementService;
+import com.demo.parkinglot.service.ParkingService;
 import com.demo.parkinglot.service.PaymentService;
+import com.demo.parkinglot.service.PlateNormalizationService;
+import com.demo.parkinglot.service.SlotAllocationIndexService;
+import com.demo.parkinglot.util.TimeOrderedIdGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -44,6 +58,30 @@ class ParkingFlowIntegrationTest {
     @Autowired
     private TicketRepository ticketRepository;
 
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private SlotAllocationIndexService slotAllocationIndexService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlateNormalizationService plateNormalizationService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private ParkingLot parkingLot;
     private EntryGate entryGate;
     private List<ParkingSlot> carSlots;
@@ -98,7 +136,7 @@ class ParkingFlowIntegrationTest {
         assertTrue(ticket.isActive());
         assertNotNull(ticket.getEntryTime());
         assertNull(ticket.getExitTime());
-        assertEquals(plateNo, ticket.getVehicle().getPlateNo());
+        assertEquals("ABC123", ticket.getVehicle().getPlateNo());
         assertEquals(VehicleType.CAR, ticket.getVehicle().getType());
         assertNotNull(ticket.getSlot());
         assertFalse(ticket.getSlot().isAvailable());
@@ -113,9 +151,9 @@ class ParkingFlowIntegrationTest {
 
         // Then - Exit validation
         assertNotNull(exitResponse);
-        assertNotNull(exitResponse.getPayment());
-        assertNotNull(exitResponse.getReceipt());
-        assertEquals("Vehicle successfully exited. Payment processed and slot freed.", exitResponse.getMessage());
+        assertNotNull(exitResponse.payment());
+        assertNotNull(exitResponse.receipt());
+        assertEquals("Vehicle successfully exited. Payment processed and slot freed.", exitResponse.message());
 
         // Verify slot is freed
         ParkingSlot freedSlot = parkingSlotRepository.findById(ticket.getSlot().getId()).orElseThrow();
@@ -148,7 +186,7 @@ class ParkingFlowIntegrationTest {
 
         // Then - Exit validation
         assertNotNull(exitResponse);
-        assertTrue(exitResponse.getPayment().getAmount() > 0);
+        assertTrue(exitResponse.payment().amount() > 0);
     }
 
     @Test
@@ -166,6 +204,38 @@ class ParkingFlowIntegrationTest {
         assertThrows(SlotAllocationException.class, () -> parkingManagementService.parkVehicle(plateNo, vehicleType, ownerId, entryGate.getId()));
     }
 
+    @Test
+    void testParkingFlow_ActiveTicketOnlyInDatabase_ThrowsException() {
+        // Given - a ticket opened elsewhere, never seen by this node's registry
+        Vehicle vehicle = vehicleRepository.save(new Vehicle("NODE2001", VehicleType.CAR, "user1"));
+        ticketRepository.save(new Ticket(vehicle, carSlots.get(0), entryGate, LocalDateTime.now(), true));
+
+        // When & Then - the same plate, written differently, is still rejected
+        assertThrows(SlotAllocationException.class, () ->
+                parkingManagementService.parkVehicle("node2 001", "CAR", "user1", entryGate.getId()));
+    }
+
+    @Test
+    void testPlateNormalization_RawStoredPlates_NormalizedAndMerged() {
+        // Given - rows stored before plates were normalized: one with an active ticket, one duplicating a normalized row
+        Vehicle raw = vehicleRepository.save(new Vehicle("old-3001", VehicleType.CAR, "user1"));
+        Ticket ticket = ticketRepository.save(new Ticket(raw, carSlots.get(0), entryGate, LocalDateTime.now(), true));
+        Vehicle normalized = vehicleRepository.save(new Vehicle("OLD3002", VehicleType.CAR, "user2"));
+        Vehicle duplicate = vehicleRepository.save(new Vehicle("old 3002", VehicleType.CAR, "user2"));
+
+        // When
+        plateNormalizationService.normalizeStoredPlates();
+
+        // Then - the indexed lookups on the entry path find them, and the entry is rejected
+        assertEquals(List.of(ticket.getId()), ticketRepository.findActiveTicketIdsByPlateNo("OLD3001"));
+        assertEquals(normalized.getId(), vehicleRepository.findByPlateNo("OLD3002").orElseThrow().getId());
+        assertFalse(vehicleRepository.existsById(duplicate.getId()));
+        assertThrows(SlotAllocationException.class, () ->
+                parkingManagementService.parkVehicle("OLD-3001", "CAR", "user1", entryGate.getId()));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'IDX_VEHICLE_PLATE_NO'", Integer.class));
+    }
+
     @Test
     void testParkingFlow_PaymentFailure_SlotRemainsOccupied() {
         // Given
@@ -226,6 +296,164 @@ class ParkingFlowIntegrationTest {
                 parkingManagementService.parkVehicle("FULL-999", "CAR", "user999", entryGate.getId()));
     }
 
+    @Test
+    void testParkingFlow_IndexShowsLotFull_RejectedUntilIndexRefreshed() {
+        // Given - the in-memory index, just built, wrongly believes every car slot is taken
+        SlotAllocationIndex index = slotAllocationIndexService.getIndex(parkingLot, VehicleType.CAR);
+        for (int ordinal = 0; ordinal < index.size(); ordinal++) {
+            index.markOccupied(ordinal);
+        }
+
+        // When & Then - rejected from the counter, without rescanning the lot on every arrival
+        assertThrows(SlotAllocationException.class, () ->
+                parkingManagementService.parkVehicle("STALE-001", "CAR", "user1", entryGate.getId()));
+
+        // When - the index is rebuilt, as the scheduled reconcile or the next due refresh does
+        slotAllocationIndexService.refreshIndex(parkingLot, VehicleType.CAR);
+        Ticket ticket = parkingManagementService.parkVehicle("STALE-001", "CAR", "user1", entryGate.getId());
+
+        // Then
+        assertNotNull(ticket);
+        assertEquals(VehicleType.CAR, ticket.getSlot().getSlotType());
+    }
+
+    @Test
+    void testIndexRebuild_LiveClaim_CarriedUntilSettled() {
+        // Given - a claim whose entry has not settled yet
+        SlotAllocationIndex index = slotAllocationIndexService.getIndex(parkingLot, VehicleType.CAR);
+        int ordinal = index.ordinalOf(carSlots.get(0).getId());
+        assertTrue(slotAllocationIndexService.hold(index, ordinal));
+
+        // When - the index is dropped and rebuilt from the slot table, which does not show the claim
+        slotAllocationIndexService.invalidate(parkingLot.getId());
+        SlotAllocationIndex rebuilt = slotAllocationIndexService.getIndex(parkingLot, VehicleType.CAR);
+
+        // Then - the claim holds in the rebuilt index, and a claim on the old one cannot take its slot twice
+        assertNotSame(index, rebuilt);
+        assertFalse(rebuilt.isAvailable(rebuilt.ordinalOf(carSlots.get(0).getId())));
+        int otherOrdinal = index.ordinalOf(carSlots.get(1).getId());
+        rebuilt.markOccupied(rebuilt.ordinalOf(carSlots.get(1).getId()));
+        assertFalse(slotAllocationIndexService.hold(index, otherOrdinal));
+
+        // When - the entry fails
+        slotAllocationIndexService.settle(index, ordinal, false);
+
+        // Then
+        assertTrue(rebuilt.isAvailable(rebuilt.ordinalOf(carSlots.get(0).getId())));
+    }
+
+    @Test
+    void testExitByPlate_ActiveTicket_ExitsVehicle() {
+        // Given
+        Ticket ticket = parkingManagementService.parkVehicle("PLATE-001", "CAR", "user1", entryGate.getId());
+
+        // When
+        var exitResponse = parkingService.unparkVehicleByPlate("PLATE-001", 2.0);
+
+        // Then
+        assertNotNull(exitResponse.receipt());
+        assertFalse(ticketRepository.findById(ticket.getId()).orElseThrow().isActive());
+        assertThrows(IllegalArgumentException.class, () -> parkingService.unparkVehicleByPlate("UNKNOWN-1", 2.0));
+    }
+
+    @Test
+    void testPaymentStatus_AfterExit_ShowsPaidWithReceipt() {
+        // Given
+        Ticket ticket = parkingManagementService.parkVehicle("PAY-001", "CAR", "user1", entryGate.getId());
+        var exitResponse = paymentService.processPayment(ticket.getId(), 2.0);
+
+        // When
+        Map<String, Object> status = paymentService.getPaymentStatus(exitResponse.payment().id());
+
+        // Then - one payment row per ticket, settled as PAID, and the closed ticket cannot be paid again
+        assertEquals("PAID", status.get("status"));
+        assertEquals(exitResponse.receipt().receiptNumber(), status.get("receiptNumber"));
+        assertEquals(exitResponse.payment().id(), paymentService.getPaymentByTicketId(ticket.getId()).getId());
+        assertThrows(IllegalStateException.class, () -> paymentService.processPayment(ticket.getId(), 2.0));
+        assertTrue(exitResponse.receipt().receiptNumber().matches("RCP-[0-9A-Z]{13}"));
+        assertTrue(System.currentTimeMillis() - TimeOrderedIdGenerator.timestampOf(ticket.getId()) < 60_000);
+    }
+
+    @Test
+    void testFailIfPending_PaymentAlreadyPaid_KeptPaid() {
+        // Given - one settled payment and one attempt still in flight
+        Ticket paid = parkingManagementService.parkVehicle("FAIL-001", "CAR", "user1", entryGate.getId());
+        var exitResponse = paymentService.processPayment(paid.getId(), 2.0);
+        Ticket parked = parkingManagementService.parkVehicle("FAIL-002", "CAR", "user2", entryGate.getId());
+        Payment pending = paymentRepository.save(new Payment(parked, 2.0, LocalDateTime.now(), PaymentStatus.PENDING));
+
+        // When & Then - a late failure only lands on the attempt that is still PENDING
+        assertEquals(0, paymentRepository.failIfPending(exitResponse.payment().id(), "late gateway error"));
+        assertEquals(1, paymentRepository.failIfPending(pending.getId(), "gateway error"));
+        assertEquals(0, paymentRepository.failIfPending(pending.getId(), "second failure"));
+    }
+
+    @Test
+    void testResponses_TimeOrderedIds_SerializedAsStrings() throws Exception {
+        // Given - IDs above 2^53, which a JSON number would round in JavaScript clients
+        Ticket ticket = parkingManagementService.parkVehicle("JSON-001", "CAR", "user1", entryGate.getId());
+        var exitResponse = paymentService.processPayment(ticket.getId(), 2.0);
+        assertTrue(ticket.getId() > (1L << 53));
+
+        // When
+        String ticketJson = objectMapper.writeValueAsString(TicketResponse.of(ticket));
+        String exitJson = objectMapper.writeValueAsString(exitResponse);
+
+        // Then - written as exact strings, and read back to the same IDs
+        assertTrue(ticketJson.contains("\"id\":\"" + ticket.getId() + "\""));
+        assertTrue(exitJson.contains("\"ticketId\":\"" + ticket.getId() + "\""));
+        assertTrue(exitJson.contains("\"id\":\"" + exitResponse.receipt().id() + "\""));
+        assertEquals(ticket.getId(), objectMapper.readValue(ticketJson, TicketResponse.class).id());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testParkingLotStatus_AfterEntry_ReflectsFloorAndTypeCounts() {
+        // Given
+        parkingManagementService.parkVehicle("STAT-001", "CAR", "user1", entryGate.getId());
+
+        // When
+        Map<String, Object> status = parkingManagementService.getParkingLotStatus(parkingLot.getId());
+        AdminResponse overview = adminService.getParkingLotOverview(parkingLot.getId());
+
+        // Then - status
+        Map<String, Object> floorStatus = (Map<String, Object>) status.get("floorStatus");
+        Map<String, Object> firstFloor = (Map<String, Object>) floorStatus.get("Floor 1");
+        Map<String, Object> secondFloor = (Map<String, Object>) floorStatus.get("Floor 2");
+        assertEquals(4, firstFloor.get("totalSlots"));
+        assertEquals(3, firstFloor.get("availableSlots"));
+        assertEquals(1, secondFloor.get("availableSlots"));
+
+        Map<String, Long> availabilityByType = (Map<String, Long>) status.get("availabilityByVehicleType");
+        assertEquals(2L, availabilityByType.get(VehicleType.CAR.getDisplayName()));
+        assertEquals(2L, availabilityByType.get(VehicleType.BIKE.getDisplayName()));
+        assertEquals(0L, availabilityByType.get(VehicleType.TRUCK.getDisplayName()));
+
+        // Then - admin overview
+        assertTrue(overview.isSuccess());
+        Map<String, Object> data = overview.getData();
+        Map<String, Long> carStats = (Map<String, Long>) ((Map<String, Object>) data.get("slotStatistics")).get(VehicleType.CAR.getDisplayName());
+        assertEquals(3L, carStats.get("total"));
+        assertEquals(1L, carStats.get("occupied"));
+        Map<String, Object> firstFloorStats = (Map<String, Object>) ((Map<String, Object>) data.get("floorStatistics")).get("Floor 1");
+        assertEquals(4L, firstFloorStats.get("totalSlots"));
+        assertEquals(1L, firstFloorStats.get("occupiedSlots"));
+    }
+
+    @Test
+    void testGetEntryGates_ProjectedToFlatResponses() {
+        // When
+        List<EntryGateResponse> gates = entryGateRepository.findAllGateResponses();
+
+        // Then
+        EntryGateResponse gate = gates.stream()
+                .filter(response -> response.id().equals(entryGate.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("Main Gate", gate.gateName());
+        assertEquals(parkingLot.getId(), gate.parkingLotId());
+    }
+
     private ParkingSlot createSlot(String slotNumber, VehicleType slotType, int floor, double x, double y) {
         ParkingSlot slot = new ParkingSlot();
         slot.setSlotNumber(slotNumber);
@@ -0,0 +1,111 @@
+package com.demo.parkinglot.integration;
+
+import com.demo.parkinglot.dto.ExitResponse;
+import com.demo.parkinglot.dto.TicketResponse;
+import com.demo.parkinglot.entity.*;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.repository.*;
+import com.demo.parkinglot.service.ReactiveParkingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the reactive parking operations.
+ * Not transactional: the reactive calls run on other threads and the status is read over R2DBC, so test
+ * data must be committed. Runs on its own in-memory database, shared by the JDBC and R2DBC connections.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactivedb;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "parking.reactive.r2dbc-url=r2dbc:h2:mem:///reactivedb;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+class ReactiveParkingIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private ReactiveParkingService reactiveParkingService;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private EntryGateRepository entryGateRepository;
+
+    @Autowired
+    private FloorRepository floorRepository;
+
+    @Autowired
+    private ParkingSlotRepository parkingSlotRepository;
+
+    private ParkingLot parkingLot;
+    private EntryGate entryGate;
+    private ParkingSlot slot;
+
+    @BeforeEach
+    void setUp() {
+        parkingLot = parkingLotRepository.save(new ParkingLot("Reactive Test Lot", "Test Location", 1));
+        entryGate = new EntryGate();
+        entryGate.setGateName("Main Gate");
+        entryGate.setParkingLot(parkingLot);
+        entryGate = entryGateRepository.save(entryGate);
+        Floor floor = floorRepository.save(new Floor(1, 1, "Floor 1", parkingLot));
+
+        slot = new ParkingSlot();
+        slot.setSlotNumber("R-001");
+        slot.setSlotType(VehicleType.CAR);
+        slot.setFloor(1);
+        slot.setAvailable(true);
+        slot.setParkingLot(parkingLot);
+        slot.setFloorEntity(floor);
+        slot = parkingSlotRepository.save(slot);
+    }
+
+    @Test
+    void testParkAndExit_ReactiveApi_StatusReadOverR2dbc() {
+        // When - entry
+        Ticket ticket = reactiveParkingService.parkVehicle("RCT-001", "CAR", "user1", entryGate.getId()).block(TIMEOUT);
+
+        // Then - slot claimed and the status read over R2DBC sees it
+        assertNotNull(ticket);
+        assertEquals(slot.getId(), ticket.getSlot().getId());
+        // The response is built outside any session, from what was loaded with the ticket
+        TicketResponse response = TicketResponse.of(ticket);
+        assertEquals(slot.getId(), response.slotId());
+        assertEquals("R-001", response.slotNumber());
+        assertEquals(parkingLot.getId(), response.parkingLotId());
+        assertEquals(entryGate.getId(), response.entryGateId());
+        assertEquals(0, floorStatus(reactiveParkingService.getParkingLotStatus(parkingLot.getId()).block(TIMEOUT)).get("availableSlots"));
+
+        // When - exit, settled once the gateway answers
+        ExitResponse exit = reactiveParkingService.unparkVehicle(ticket.getId(), 2.0).block(TIMEOUT);
+
+        // Then
+        assertNotNull(exit);
+        assertNotNull(exit.receipt());
+        assertTrue(parkingSlotRepository.findById(slot.getId()).orElseThrow().isAvailable());
+        Map<String, Object> status = reactiveParkingService.getParkingLotStatus(parkingLot.getId()).block(TIMEOUT);
+        assertEquals("Reactive Test Lot", status.get("parkingLotName"));
+        assertEquals(1, floorStatus(status).get("availableSlots"));
+    }
+
+    @Test
+    void testGetParkingLotStatus_UnknownLot_Error() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> reactiveParkingService.getParkingLotStatus(Long.MAX_VALUE).block(TIMEOUT));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> floorStatus(Map<String, Object> status) {
+        return (Map<String, Object>) ((Map<String, Object>) status.get("floorStatus")).get("Floor 1");
+    }
+}
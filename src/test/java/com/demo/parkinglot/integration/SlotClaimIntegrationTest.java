@@ -0,0 +1,104 @@
+package com.demo.parkinglot.integration;
+
+import com.demo.parkinglot.entity.EntryGate;
+import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.enums.AllocationStrategyType;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.repository.EntryGateRepository;
+import com.demo.parkinglot.repository.ParkingLotRepository;
+import com.demo.parkinglot.repository.ParkingSlotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the single-row slot claim path on H2
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class SlotClaimIntegrationTest {
+
+    @Autowired
+    private ParkingSlotRepository parkingSlotRepository;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private EntryGateRepository entryGateRepository;
+
+    private ParkingLot parkingLot;
+    private EntryGate entryGate;
+
+    @BeforeEach
+    void setUp() {
+        parkingLot = parkingLotRepository.save(new ParkingLot("Claim Test Lot", "Test Location", 2));
+        entryGate = entryGateRepository.save(new EntryGate("Main Gate", 1, 0.0, 0.0, parkingLot));
+
+        createSlot("C-201", 2, 5.0, 5.0);
+        createSlot("C-101", 1, 30.0, 30.0);
+        createSlot("C-102", 1, 10.0, 10.0);
+    }
+
+    @Test
+    void testClaimSlot_NearestStrategy_ClaimsClosestRow() {
+        // When
+        Optional<ParkingSlot> claimed = parkingSlotRepository.claimSlot(parkingLot, VehicleType.CAR,
+                AllocationStrategyType.NEAREST_SLOT, entryGate);
+
+        // Then
+        assertTrue(claimed.isPresent());
+        assertEquals("C-201", claimed.get().getSlotNumber());
+        assertFalse(parkingSlotRepository.findById(claimed.get().getId()).orElseThrow().isAvailable());
+    }
+
+    @Test
+    void testClaimSlot_LevelWiseStrategy_ClaimsLowestFloorFirst() {
+        // When
+        Optional<ParkingSlot> claimed = parkingSlotRepository.claimSlot(parkingLot, VehicleType.CAR,
+                AllocationStrategyType.LEVEL_WISE, entryGate);
+
+        // Then
+        assertTrue(claimed.isPresent());
+        assertEquals("C-101", claimed.get().getSlotNumber());
+    }
+
+    @Test
+    void testClaimSlot_RepeatedClaims_NeverReturnSameSlotAndEmptyWhenFull() {
+        // When
+        ParkingSlot first = parkingSlotRepository.claimSlot(parkingLot, VehicleType.CAR,
+                AllocationStrategyType.NEAREST_SLOT, entryGate).orElseThrow();
+        ParkingSlot second = parkingSlotRepository.claimSlot(parkingLot, VehicleType.CAR,
+                AllocationStrategyType.NEAREST_SLOT, entryGate).orElseThrow();
+        ParkingSlot third = parkingSlotRepository.claimSlot(parkingLot, VehicleType.CAR,
+                AllocationStrategyType.NEAREST_SLOT, entryGate).orElseThrow();
+
+        // Then
+        assertEquals("C-201", first.getSlotNumber());
+        assertEquals("C-102", second.getSlotNumber());
+        assertEquals("C-101", third.getSlotNumber());
+        assertTrue(parkingSlotRepository.claimSlot(parkingLot, VehicleType.CAR,
+                AllocationStrategyType.NEAREST_SLOT, entryGate).isEmpty());
+    }
+
+    private void createSlot(String slotNumber, int floor, double x, double y) {
+        ParkingSlot slot = new ParkingSlot();
+        slot.setSlotNumber(slotNumber);
+        slot.setSlotType(VehicleType.CAR);
+        slot.setFloor(floor);
+        slot.setXCoordinate(x);
+        slot.setYCoordinate(y);
+        slot.setAvailable(true);
+        slot.setParkingLot(parkingLot);
+        parkingSlotRepository.save(slot);
+    }
+}
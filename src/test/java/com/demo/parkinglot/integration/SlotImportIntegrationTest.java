@@ -0,0 +1,112 @@
+package com.demo.parkinglot.integration;
+
+import com.demo.parkinglot.entity.Floor;
+import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.repository.FloorRepository;
+import com.demo.parkinglot.repository.ParkingLotRepository;
+import com.demo.parkinglot.repository.ParkingSlotRepository;
+import com.demo.parkinglot.service.SlotImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for streaming bulk slot import
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class SlotImportIntegrationTest {
+
+    @Autowired
+    private SlotImportService slotImportService;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private ParkingSlotRepository parkingSlotRepository;
+
+    @Autowired
+    private FloorRepository floorRepository;
+
+    private ParkingLot parkingLot;
+
+    @BeforeEach
+    void setUp() {
+        parkingLot = parkingLotRepository.save(new ParkingLot("Import Test Lot", "Test Location", 2));
+        floorRepository.save(new Floor(1, 0, "Floor 1", parkingLot));
+        ReflectionTestUtils.setField(slotImportService, "chunkSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(slotImportService, "chunkSize", 500);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportCsv_BadRows_ReportedWithoutAbortingImport() throws Exception {
+        // Given
+        String csv = "parkingLotId,floor,slotType,slotNumber,xCoordinate,yCoordinate\n"
+                + parkingLot.getId() + ",1,CAR,I-101,1.0,1.0\n"
+                + "999999,1,CAR,I-102,2.0,1.0\n"
+                + parkingLot.getId() + ",1,CAR,I-103,3.0,1.0\n"
+                + parkingLot.getId() + ",1,PLANE,I-104,4.0,1.0\n"
+                + parkingLot.getId() + ",1,BIKE,I-105,5.0,1.0\n";
+
+        // When
+        Map<String, Object> result = slotImportService.importSlots(stream(csv), SlotImportService.CSV);
+
+        // Then
+        assertEquals(5, result.get("totalRows"));
+        assertEquals(3, result.get("importedCount"));
+        assertEquals(2, result.get("failureCount"));
+        assertEquals(2, result.get("chunks"));
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) result.get("errors");
+        assertEquals(List.of(3, 5), errors.stream().map(error -> error.get("line")).toList());
+        assertEquals("Parking lot not found", errors.get(0).get("error"));
+
+        assertEquals(2, parkingSlotRepository.countByParkingLotAndSlotType(parkingLot, VehicleType.CAR));
+        Floor floor = floorRepository.findByParkingLotAndFloorNumber(parkingLot, 1).orElseThrow();
+        assertEquals(3, floor.getTotalSlots());
+        assertEquals(3, floor.getAvailableSlots());
+    }
+
+    @Test
+    void testImportNdjson_NewFloor_CreatedOnceAndTotalled() throws Exception {
+        // Given
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            ndjson.append("{\"parkingLotId\":").append(parkingLot.getId())
+                    .append(",\"floor\":2,\"slotType\":\"TRUCK\",\"slotNumber\":\"T-20").append(i).append("\"}\n");
+        }
+
+        // When
+        Map<String, Object> result = slotImportService.importSlots(stream(ndjson.toString()), SlotImportService.NDJSON);
+
+        // Then
+        assertEquals(5, result.get("importedCount"));
+        assertEquals(1, result.get("floorsUpdated"));
+        Floor floor = floorRepository.findByParkingLotAndFloorNumber(parkingLot, 2).orElseThrow();
+        assertEquals(5, floor.getTotalSlots());
+        assertEquals(5, parkingSlotRepository.findByParkingLotAndFloor(parkingLot, 2).size());
+    }
+
+    private ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,153 @@
+package com.demo.parkinglot.journal;
+
+import com.demo.parkinglot.enums.VehicleType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for EventJournal
+ * Verifies group commit and replay, torn-tail recovery and segment cleanup after a checkpoint
+ */
+class EventJournalTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 9, 30, 15, 123_000_000);
+
+    @TempDir
+    Path directory;
+
+    private final List<EventJournal> journals = new ArrayList<>();
+    private final List<JournalEvent> durable = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        journals.forEach(EventJournal::close);
+    }
+
+    @Test
+    void testAppend_ConcurrentEvents_DurableInOrderAndReplayed() throws Exception {
+        // Given
+        EventJournal journal = journal(1 << 20);
+        journal.open(0);
+
+        // When
+        List<CompletableFuture<Long>> appends = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            appends.add(journal.append(entry(i)));
+        }
+        appends.add(journal.append(JournalEvent.exit(1, 1001, NOW.plusHours(2), 77, 6.0, 2.0, 120, 88, "RCP-1")));
+        CompletableFuture.allOf(appends.toArray(new CompletableFuture[0])).join();
+
+        // Then - every event was handed on once, in sequence order, before its append completed
+        assertEquals(201, durable.size());
+        for (int i = 0; i < durable.size(); i++) {
+            assertEquals(i + 1, durable.get(i).getSequence());
+        }
+        assertEquals(201L, journal.getSnapshot().get("appendedEvents"));
+
+        // A restart reads back everything after the checkpoint, fields intact
+        journal.close();
+        List<JournalEvent> recovered = journal(1 << 20).open(150);
+        assertEquals(51, recovered.size());
+        assertEquals(151, recovered.get(0).getSequence());
+        JournalEvent exit = recovered.get(50);
+        assertEquals(JournalEvent.Type.EXIT, exit.getType());
+        assertEquals(NOW.plusHours(2), exit.getTime());
+        assertEquals("RCP-1", exit.getReceiptNumber());
+        assertEquals(6.0, exit.getAmount());
+    }
+
+    @Test
+    void testOpen_TornLastRecord_TruncatedAndAppendingResumes() throws Exception {
+        // Given - three records, then the last one damaged as if the crash hit mid-write
+        EventJournal journal = journal(1 << 20);
+        journal.open(0);
+        for (int i = 1; i <= 3; i++) {
+            journal.append(entry(i)).join();
+        }
+        journal.close();
+        Path segment = segments().get(0);
+        long lastRecordEnd = lastRecordEnd(segment);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(lastRecordEnd - 3);
+            file.write(0x5A);
+        }
+
+        // When
+        EventJournal reopened = journal(1 << 20);
+        List<JournalEvent> recovered = reopened.open(0);
+        long sequence = reopened.append(entry(4)).join();
+
+        // Then
+        assertEquals(2, recovered.size());
+        assertEquals(1, reopened.getSnapshot().get("tornRecordsOnOpen"));
+        assertEquals(3, sequence);
+        reopened.close();
+        assertEquals(3, journal(1 << 20).open(0).size());
+    }
+
+    @Test
+    void testDeleteSegmentsUpTo_RotatedSegments_OnlyAppliedOnesRemoved() throws Exception {
+        // Given - segments small enough to hold two records each
+        EventJournal journal = journal(200);
+        journal.open(0);
+        for (int i = 1; i <= 7; i++) {
+            journal.append(entry(i)).join();
+        }
+        assertEquals(4, segments().size());
+
+        // When - events up to 5 are applied
+        journal.deleteSegmentsUpTo(5);
+
+        // Then - the segment holding 5 and 6 stays, as does the current one
+        assertEquals(2, segments().size());
+        journal.close();
+        List<JournalEvent> recovered = journal(200).open(5);
+        assertEquals(List.of(6L, 7L), recovered.stream().map(JournalEvent::getSequence).toList());
+    }
+
+    private EventJournal journal(int segmentBytes) {
+        EventJournal journal = new EventJournal(directory, segmentBytes, 64, durable::addAll);
+        journals.add(journal);
+        return journal;
+    }
+
+    private JournalEvent entry(long ticketId) {
+        return JournalEvent.entry(ticketId, 1000 + ticketId, NOW, "KA-01-" + ticketId, VehicleType.CAR, "owner", 3);
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    /**
+     * Walk the length prefixes to the end of the last record
+     */
+    private long lastRecordEnd(Path segment) throws Exception {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "r")) {
+            long position = 0;
+            while (true) {
+                file.seek(position);
+                int length = file.readInt();
+                if (length == 0) {
+                    return position;
+                }
+                position += 8 + length;
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.demo.parkinglot.metrics;
+
+import com.demo.parkinglot.allocation.AllocationStatistics;
+import com.demo.parkinglot.config.MetricsConfig;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.exception.SlotAllocationException;
+import com.demo.parkinglot.service.OccupancyCounterService;
+import com.demo.parkinglot.service.OccupancyCounterService.CounterSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ParkingMetrics
+ * Verifies entry tagging, allocation counters read from the statistics, and the per-lot occupancy gauges and tag cap
+ */
+class ParkingMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AllocationStatistics allocationStatistics = new AllocationStatistics();
+    private final OccupancyCounterService occupancyCounterService = mock(OccupancyCounterService.class);
+    private ParkingMetrics parkingMetrics;
+
+    @BeforeEach
+    void setUp() {
+        MetricsConfig metricsConfig = new MetricsConfig();
+        metricsConfig.setMaxLotTags(2);
+        meterRegistry.config().meterFilter(metricsConfig.lotTagLimit());
+        parkingMetrics = new ParkingMetrics(meterRegistry, allocationStatistics);
+        ReflectionTestUtils.setField(parkingMetrics, "occupancyCounterService", occupancyCounterService);
+    }
+
+    @Test
+    void testRecordEntry_TagsByVehicleTypeAndOutcome() {
+        // Given
+        long start = System.nanoTime();
+        SlotAllocationException full = new SlotAllocationException("Parking lot is full for vehicle type: Car");
+
+        // When
+        parkingMetrics.recordEntry("car", ParkingMetrics.EntryOutcome.PARKED, start);
+        parkingMetrics.recordEntry("CAR", ParkingMetrics.outcomeOf(full), start);
+        parkingMetrics.recordEntry("BOAT", ParkingMetrics.outcomeOf(new IllegalArgumentException("Invalid vehicle type")), start);
+
+        // Then
+        assertEquals(1, entries("CAR", "PARKED"));
+        assertEquals(1, entries("CAR", "LOT_FULL"));
+        assertEquals(1, entries("UNKNOWN", "REJECTED"));
+        assertEquals(ParkingMetrics.EntryOutcome.FAILED, ParkingMetrics.outcomeOf(new RuntimeException("boom")));
+    }
+
+    @Test
+    void testAllocationCounters_ReadFromStatistics() {
+        // Given
+        allocationStatistics.recordConflict();
+        allocationStatistics.recordAllocation(2);
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("parking.allocation.allocations").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("parking.allocation.attempts").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("parking.allocation.conflicts").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("parking.allocation.attempts.max").gauge().value());
+    }
+
+    @Test
+    void testRefreshOccupancy_SumsFloorsAndCapsLots() {
+        // Given - two floors of lot 1, and three lots against a cap of two
+        when(occupancyCounterService.snapshot()).thenReturn(List.of(
+                new CounterSnapshot(1L, "North", VehicleType.CAR, 1, 10, 4),
+                new CounterSnapshot(1L, "North", VehicleType.CAR, 2, 10, 6),
+                new CounterSnapshot(2L, "South", VehicleType.CAR, 1, 5, 5),
+                new CounterSnapshot(3L, "East", VehicleType.CAR, 1, 7, 7)));
+
+        // When
+        parkingMetrics.refreshOccupancy();
+
+        // Then
+        assertEquals(20.0, meterRegistry.get("parking.lot.slots").tags("lot", "1", "vehicleType", "CAR").gauge().value());
+        assertEquals(10.0, meterRegistry.get("parking.lot.slots.available").tags("lot", "1", "vehicleType", "CAR").gauge().value());
+        assertEquals(2, meterRegistry.find("parking.lot.slots").gauges().size());
+    }
+
+    private long entries(String vehicleType, String outcome) {
+        return meterRegistry.get("parking.entry").tags("vehicleType", vehicleType, "outcome", outcome).timer().count();
+    }
+}
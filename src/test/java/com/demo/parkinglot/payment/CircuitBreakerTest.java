@@ -0,0 +1,144 @@
+package com.demo.parkinglot.payment;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CircuitBreaker
+ * Verifies opening on failure rate, fail-fast while open, recovery through half-open and that only
+ * trial calls decide the half-open outcome
+ */
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        // 50% threshold over the last 4 calls, open for 1000 ms, 2 trial calls
+        circuitBreaker = new CircuitBreaker(50, 4, 4, 1000, 2, clock::get);
+    }
+
+    @Test
+    void testRecordFailure_ThresholdReached_OpensAndRejects() {
+        // Given
+        record(true, false, true);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        // When - 2 failures out of 4 calls
+        record(false);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.isCallPermitted());
+        assertFalse(circuitBreaker.tryAcquirePermission().isGranted());
+        assertEquals(1L, circuitBreaker.getSnapshot().get("rejectedCalls"));
+    }
+
+    @Test
+    void testHalfOpen_TrialCallsSucceed_Closes() {
+        // Given
+        record(false, false, false, false);
+        clock.addAndGet(1000);
+
+        // When
+        CircuitBreaker.Permit first = circuitBreaker.tryAcquirePermission();
+        CircuitBreaker.Permit second = circuitBreaker.tryAcquirePermission();
+        assertFalse(circuitBreaker.tryAcquirePermission().isGranted());
+        circuitBreaker.recordSuccess(first);
+        circuitBreaker.recordSuccess(second);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission().isGranted());
+    }
+
+    @Test
+    void testHalfOpen_TrialCallFails_Reopens() {
+        // Given
+        record(false, false, false, false);
+        clock.addAndGet(1000);
+        CircuitBreaker.Permit trial = circuitBreaker.tryAcquirePermission();
+        assertTrue(trial.isGranted());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        // When
+        circuitBreaker.recordFailure(trial);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(2L, circuitBreaker.getSnapshot().get("timesOpened"));
+        assertFalse(circuitBreaker.isCallPermitted());
+    }
+
+    @Test
+    void testHalfOpen_PermissionReleased_StaysHalfOpen() {
+        // Given - both trial permissions taken
+        record(false, false, false, false);
+        clock.addAndGet(1000);
+        CircuitBreaker.Permit made = circuitBreaker.tryAcquirePermission();
+        CircuitBreaker.Permit notMade = circuitBreaker.tryAcquirePermission();
+
+        // When - one trial call succeeds and the other is never made
+        circuitBreaker.recordSuccess(made);
+        circuitBreaker.releasePermission(notMade);
+
+        // Then - not closed on one success, and the released trial can be taken again
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission().isGranted());
+        assertFalse(circuitBreaker.tryAcquirePermission().isGranted());
+    }
+
+    @Test
+    void testHalfOpen_CallStartedWhileClosedSucceeds_NotCountedAsTrial() {
+        // Given - a slow call let through while CLOSED, then the breaker opens and turns half-open
+        CircuitBreaker.Permit slowCall = circuitBreaker.tryAcquirePermission();
+        record(false, false, false, false);
+        clock.addAndGet(1000);
+        CircuitBreaker.Permit first = circuitBreaker.tryAcquirePermission();
+        CircuitBreaker.Permit second = circuitBreaker.tryAcquirePermission();
+
+        // When - the slow call finishes with one trial call
+        circuitBreaker.recordSuccess(slowCall);
+        circuitBreaker.recordSuccess(first);
+
+        // Then - only the trial counts, so the breaker stays half-open until the second trial succeeds
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.recordSuccess(second);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void testHalfOpen_CallStartedWhileClosedFails_DoesNotReopen() {
+        // Given
+        CircuitBreaker.Permit slowCall = circuitBreaker.tryAcquirePermission();
+        record(false, false, false, false);
+        clock.addAndGet(1000);
+        assertTrue(circuitBreaker.tryAcquirePermission().isGranted());
+
+        // When
+        circuitBreaker.recordFailure(slowCall);
+
+        // Then
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+    }
+
+    /**
+     * Record outcomes through the breaker, true for success
+     */
+    private void record(boolean... successes) {
+        for (boolean success : successes) {
+            CircuitBreaker.Permit permit = circuitBreaker.tryAcquirePermission();
+            assertTrue(permit.isGranted());
+            if (success) {
+                circuitBreaker.recordSuccess(permit);
+            } else {
+                circuitBreaker.recordFailure(permit);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.demo.parkinglot.payment;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HttpPaymentGateway
+ * Verifies the response mapping and that every charge carries its attempt's idempotency key
+ */
+class HttpPaymentGatewayTest {
+
+    private final List<String> idempotencyKeys = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private volatile int status = 200;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/charges", exchange -> {
+            idempotencyKeys.add(exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testCharge_EachAttempt_SendsItsIdempotencyKey() {
+        // Given
+        HttpPaymentGateway gateway = new HttpPaymentGateway(
+                "http://localhost:" + server.getAddress().getPort() + "/charges", null, 5000);
+
+        // When - a declined attempt and its retry for the same ticket
+        status = 402;
+        boolean declined = gateway.charge(7L, 2.0, "payment-1-attempt-1");
+        status = 200;
+        boolean approved = gateway.charge(7L, 2.0, "payment-1-attempt-2");
+
+        // Then
+        assertFalse(declined);
+        assertTrue(approved);
+        assertEquals(List.of("payment-1-attempt-1", "payment-1-attempt-2"), idempotencyKeys);
+    }
+}
@@ -0,0 +1,91 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.repository.TicketRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ActiveSessionRegistry
+ * Runs outside a transaction, so commit hooks apply immediately
+ */
+@ExtendWith(MockitoExtension.class)
+class ActiveSessionRegistryTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @InjectMocks
+    private ActiveSessionRegistry activeSessionRegistry;
+
+    @Test
+    void testLoad_ActiveTickets_FoundByNormalizedPlate() {
+        // Given
+        when(ticketRepository.findActivePlateNumbersAndTicketIds())
+                .thenReturn(List.<Object[]>of(new Object[] {"ka-01 ab-1234", 42L}));
+
+        // When
+        activeSessionRegistry.load();
+
+        // Then
+        assertEquals(Optional.of(42L), activeSessionRegistry.findActiveTicketId("KA01AB1234"));
+        assertFalse(activeSessionRegistry.reserve("KA 01 AB 1234"));
+    }
+
+    @Test
+    void testReserve_PendingEntry_BlocksDuplicateButNotVisibleForExit() {
+        // When
+        boolean first = activeSessionRegistry.reserve("ABC-123");
+        boolean second = activeSessionRegistry.reserve("abc123");
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(activeSessionRegistry.findActiveTicketId("ABC-123").isEmpty());
+    }
+
+    @Test
+    void testEnteredThenExited_TracksTicketLifecycle() {
+        // Given
+        activeSessionRegistry.reserve("XYZ-789");
+
+        // When
+        activeSessionRegistry.entered("XYZ-789", 7L);
+
+        // Then
+        assertEquals(Optional.of(7L), activeSessionRegistry.findActiveTicketId("xyz 789"));
+
+        // When - a stale exit for another ticket must not drop the session
+        activeSessionRegistry.exited("XYZ-789", 6L);
+        assertEquals(1, activeSessionRegistry.size());
+        activeSessionRegistry.exited("XYZ-789", 7L);
+
+        // Then
+        assertEquals(0, activeSessionRegistry.size());
+        assertTrue(activeSessionRegistry.reserve("XYZ-789"));
+    }
+
+    @Test
+    void testReserve_TicketClosedThroughAnotherNode_PlateTakenOver() {
+        // Given
+        when(ticketRepository.findActivePlateNumbersAndTicketIds())
+                .thenReturn(List.<Object[]>of(new Object[] {"MOV-001", 9L}));
+        activeSessionRegistry.load();
+        when(ticketRepository.existsByIdAndActiveFalse(9L)).thenReturn(true);
+
+        // When
+        boolean reserved = activeSessionRegistry.reserve("MOV-001");
+
+        // Then
+        assertTrue(reserved);
+        assertTrue(activeSessionRegistry.findActiveTicketId("MOV-001").isEmpty());
+    }
+}
@@ -0,0 +1,173 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.enums.VehicleType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AvailabilityStreamService
+ * Verifies snapshot-then-delta ordering and coalescing of bursts
+ */
+@ExtendWith(MockitoExtension.class)
+class AvailabilityStreamServiceTest {
+
+    @Mock
+    private OccupancyCounterService occupancyCounterService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private AvailabilityStreamService availabilityStreamService;
+
+    private Consumer<Long> changeListener;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(availabilityStreamService, "windowMillis", 100L);
+        ReflectionTestUtils.setField(availabilityStreamService, "sendTimeoutMillis", 5000L);
+        availabilityStreamService.registerListener();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<Long>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(occupancyCounterService).addChangeListener(captor.capture());
+        changeListener = captor.getValue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        availabilityStreamService.shutdown();
+    }
+
+    @Test
+    void testSubscribe_SendsSnapshotFirst() throws InterruptedException {
+        // Given
+        when(occupancyCounterService.snapshot(1L)).thenReturn(List.of(cell(1, VehicleType.CAR, 10, 4)));
+        RecordingEmitter emitter = new RecordingEmitter(1);
+
+        // When
+        availabilityStreamService.register(1L, emitter);
+
+        // Then
+        assertTrue(emitter.received.await(5, TimeUnit.SECONDS));
+        assertEquals(1, emitter.events.size());
+        assertTrue(emitter.events.get(0).contains("event:snapshot"));
+        assertTrue(emitter.events.get(0).contains("\"availableSlots\":4"));
+    }
+
+    @Test
+    void testBurstOfChanges_CoalescedIntoOneDeltaWithChangedCellsOnly() throws InterruptedException {
+        // Given
+        when(occupancyCounterService.snapshot(1L))
+                .thenReturn(List.of(cell(1, VehicleType.CAR, 10, 4), cell(2, VehicleType.BIKE, 5, 5)))
+                .thenReturn(List.of(cell(1, VehicleType.CAR, 10, 2), cell(2, VehicleType.BIKE, 5, 5)));
+        RecordingEmitter emitter = new RecordingEmitter(2);
+        availabilityStreamService.register(1L, emitter);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            changeListener.accept(1L);
+        }
+
+        // Then
+        assertTrue(emitter.received.await(5, TimeUnit.SECONDS));
+        Thread.sleep(300);
+        assertEquals(2, emitter.events.size());
+        String delta = emitter.events.get(1);
+        assertTrue(delta.contains("event:delta"));
+        assertTrue(delta.contains("\"vehicleType\":\"CAR\""));
+        assertTrue(delta.contains("\"availableSlots\":2"));
+        assertFalse(delta.contains("BIKE"));
+        verify(occupancyCounterService, times(2)).snapshot(1L);
+    }
+
+    @Test
+    void testSlowSubscriber_OtherSubscribersStillGetDelta() throws InterruptedException {
+        // Given - one client stalls on its first write
+        when(occupancyCounterService.snapshot(1L))
+                .thenReturn(List.of(cell(1, VehicleType.CAR, 10, 4)))
+                .thenReturn(List.of(cell(1, VehicleType.CAR, 10, 4)))
+                .thenReturn(List.of(cell(1, VehicleType.CAR, 10, 3)));
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(1) {
+            @Override
+            public void send(Set<DataWithMediaType> items) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(items);
+            }
+        };
+        RecordingEmitter fast = new RecordingEmitter(2);
+        availabilityStreamService.register(1L, slow);
+        availabilityStreamService.register(1L, fast);
+
+        // When
+        changeListener.accept(1L);
+
+        // Then - the delta reaches the other client while the slow one is still stuck
+        try {
+            assertTrue(fast.received.await(5, TimeUnit.SECONDS));
+            assertTrue(fast.events.get(1).contains("\"availableSlots\":3"));
+            assertTrue(slow.events.isEmpty());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testChange_NoSubscribers_NothingComputed() {
+        // When
+        changeListener.accept(7L);
+
+        // Then
+        verify(occupancyCounterService, never()).snapshot(7L);
+    }
+
+    private OccupancyCounterService.CounterSnapshot cell(int floor, VehicleType type, int total, int available) {
+        return new OccupancyCounterService.CounterSnapshot(1L, "Stream Lot", type, floor, total, available);
+    }
+
+    /**
+     * Emitter that keeps the text of every event it is asked to send
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch received;
+
+        RecordingEmitter(int expectedEvents) {
+            this.received = new CountDownLatch(expectedEvents);
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            events.add(items.stream().map(item -> String.valueOf(item.getData())).collect(Collectors.joining()));
+            received.countDown();
+        }
+    }
+}
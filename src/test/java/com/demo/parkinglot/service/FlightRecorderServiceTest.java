@@ -0,0 +1,80 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.config.FlightRecorderConfig;
+import com.demo.parkinglot.jfr.SlotAllocationEvent;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FlightRecorderService
+ * Verifies that a recording captures the parking events and is written on stop, and that only one runs at a time
+ */
+class FlightRecorderServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private FlightRecorderService flightRecorderService;
+
+    @BeforeEach
+    void setUp() {
+        FlightRecorderConfig config = new FlightRecorderConfig();
+        config.setDirectory(directory.toString());
+        config.setSettings("default");
+        flightRecorderService = new FlightRecorderService();
+        ReflectionTestUtils.setField(flightRecorderService, "flightRecorderConfig", config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        flightRecorderService.shutdown();
+    }
+
+    @Test
+    void testStop_WritesRecordingWithSlotAllocationEvents() throws Exception {
+        // Given
+        flightRecorderService.start(null);
+        SlotAllocationEvent event = new SlotAllocationEvent();
+        event.begin();
+        event.setParkingLotId(7L);
+        event.setVehicleType("CAR");
+        event.setCandidatesScanned(3);
+        event.commit();
+
+        // When
+        Map<String, Object> status = flightRecorderService.stop();
+
+        // Then
+        assertEquals(false, status.get("running"));
+        List<RecordedEvent> events = RecordingFile.readAllEvents(Path.of((String) status.get("lastDump")));
+        RecordedEvent allocation = events.stream()
+                .filter(recorded -> recorded.getEventType().getName().equals("com.demo.parkinglot.SlotAllocation"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(7L, allocation.getLong("parkingLotId"));
+        assertEquals("CAR", allocation.getString("vehicleType"));
+        assertEquals(3, allocation.getInt("candidatesScanned"));
+    }
+
+    @Test
+    void testStart_RejectsSecondRecordingAndUnknownSettings() throws Exception {
+        // Given
+        assertThrows(IllegalArgumentException.class, () -> flightRecorderService.start("verbose"));
+        flightRecorderService.start("default");
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> flightRecorderService.start("profile"));
+        assertEquals(true, flightRecorderService.getStatus().get("running"));
+    }
+}
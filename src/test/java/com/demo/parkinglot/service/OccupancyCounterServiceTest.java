@@ -0,0 +1,149 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.dto.SlotOccupancyCount;
+import com.demo.parkinglot.entity.ParkingLot;
+import com.demo.parkinglot.entity.ParkingSlot;
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.repository.ParkingLotRepository;
+import com.demo.parkinglot.repository.ParkingSlotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OccupancyCounterService
+ * Verifies incremental counter updates against the initial load
+ */
+@ExtendWith(MockitoExtension.class)
+class OccupancyCounterServiceTest {
+
+    @Mock
+    private ParkingSlotRepository slotRepository;
+
+    @Mock
+    private ParkingLotRepository parkingLotRepository;
+
+    @InjectMocks
+    private OccupancyCounterService occupancyCounterService;
+
+    private ParkingLot parkingLot;
+
+    @BeforeEach
+    void setUp() {
+        parkingLot = new ParkingLot();
+        parkingLot.setId(1L);
+        parkingLot.setName("Counter Lot");
+
+        when(parkingLotRepository.findAll()).thenReturn(List.of(parkingLot));
+        when(slotRepository.countAllSlotsByLotFloorTypeAndAvailability()).thenReturn(List.of(
+            new SlotOccupancyCount(1L, 1, VehicleType.CAR, true, 3),
+            new SlotOccupancyCount(1L, 1, VehicleType.CAR, false, 1),
+            new SlotOccupancyCount(1L, 2, VehicleType.BIKE, true, 2)
+        ));
+    }
+
+    @Test
+    void testSnapshot_FirstUse_LoadsFromDatabase() {
+        // When
+        List<OccupancyCounterService.CounterSnapshot> cells = occupancyCounterService.snapshot();
+
+        // Then
+        OccupancyCounterService.CounterSnapshot carCell = findCell(cells, VehicleType.CAR, 1);
+        assertEquals(4, carCell.getTotal());
+        assertEquals(3, carCell.getAvailable());
+        assertEquals("Counter Lot", carCell.getParkingLotName());
+        assertEquals(2, findCell(cells, VehicleType.BIKE, 2).getAvailable());
+    }
+
+    @Test
+    void testIncrementalUpdates_MatchOperations() {
+        // Given
+        occupancyCounterService.snapshot();
+        ParkingSlot carSlot = createSlot(VehicleType.CAR, 1, true);
+        ParkingSlot newTruckSlot = createSlot(VehicleType.TRUCK, 3, true);
+
+        // When
+        occupancyCounterService.slotAllocated(carSlot);
+        occupancyCounterService.slotAllocated(carSlot);
+        occupancyCounterService.slotFreed(carSlot);
+        occupancyCounterService.slotAdded(newTruckSlot);
+        occupancyCounterService.slotRemoved(createSlot(VehicleType.BIKE, 2, true));
+
+        // Then
+        List<OccupancyCounterService.CounterSnapshot> cells = occupancyCounterService.snapshot();
+        assertEquals(2, findCell(cells, VehicleType.CAR, 1).getAvailable());
+        assertEquals(1, findCell(cells, VehicleType.TRUCK, 3).getTotal());
+        assertEquals(1, findCell(cells, VehicleType.BIKE, 2).getTotal());
+        verify(slotRepository, times(1)).countAllSlotsByLotFloorTypeAndAvailability();
+    }
+
+    @Test
+    void testRebuild_DiscardsDriftedCounters() {
+        // Given
+        occupancyCounterService.snapshot();
+        occupancyCounterService.slotAllocated(createSlot(VehicleType.CAR, 1, false));
+
+        // When
+        occupancyCounterService.rebuild();
+
+        // Then
+        assertEquals(3, findCell(occupancyCounterService.snapshot(), VehicleType.CAR, 1).getAvailable());
+    }
+
+    @Test
+    void testRebuild_ChangeCommittedDuringLoad_AppliedAfterIt() {
+        // Given - an allocation committed after the slot table was read
+        occupancyCounterService.snapshot();
+        ParkingSlot carSlot = createSlot(VehicleType.CAR, 1, true);
+        when(parkingLotRepository.findAll()).thenAnswer(invocation -> {
+            occupancyCounterService.slotAllocated(carSlot);
+            return List.of(parkingLot);
+        });
+
+        // When
+        occupancyCounterService.rebuild();
+
+        // Then
+        assertEquals(2, findCell(occupancyCounterService.snapshot(), VehicleType.CAR, 1).getAvailable());
+    }
+
+    @Test
+    void testLotCreated_NoSlots_Listed() {
+        // Given
+        occupancyCounterService.snapshot();
+        ParkingLot emptyLot = new ParkingLot();
+        emptyLot.setId(2L);
+        emptyLot.setName("Empty Lot");
+
+        // When
+        occupancyCounterService.lotCreated(emptyLot);
+
+        // Then
+        assertEquals("Empty Lot", occupancyCounterService.getLotNames().get(2L));
+    }
+
+    private OccupancyCounterService.CounterSnapshot findCell(List<OccupancyCounterService.CounterSnapshot> cells,
+                                                            VehicleType type, int floor) {
+        return cells.stream()
+                .filter(cell -> cell.getSlotType() == type && cell.getFloor() == floor)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private ParkingSlot createSlot(VehicleType type, int floor, boolean available) {
+        ParkingSlot slot = new ParkingSlot();
+        slot.setSlotType(type);
+        slot.setFloor(floor);
+        slot.setAvailable(available);
+        slot.setParkingLot(parkingLot);
+        return slot;
+    }
+}
@@ -0,0 +1,138 @@
+package com.demo.parkinglot.service;
+
+import com.demo.parkinglot.allocation.AllocationStatistics;
+import com.demo.parkinglot.config.ExecutionConfig;
+import com.demo.parkinglot.config.PaymentConfig;
+import com.demo.parkinglot.exception.PaymentProcessingException;
+import com.demo.parkinglot.metrics.ParkingMetrics;
+import com.demo.parkinglot.payment.PaymentGateway;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PaymentGatewayService
+ * Verifies call timeouts, bulkhead rejection and fail-fast once the breaker opens
+ */
+class PaymentGatewayServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final PaymentConfig paymentConfig = new PaymentConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PaymentGatewayService paymentGatewayService;
+
+    @BeforeEach
+    void setUp() {
+        paymentConfig.setGatewayThreads(2);
+        paymentConfig.getCircuitBreaker().setSlidingWindowSize(2);
+        paymentConfig.getCircuitBreaker().setMinimumCalls(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        paymentGatewayService.shutdown();
+    }
+
+    @Test
+    void testCharge_Approved_RecordsLatency() throws Exception {
+        // Given
+        start(1000, () -> true);
+
+        // When
+        Boolean approved = paymentGatewayService.charge(1L, 2.0, "attempt-1").get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(approved);
+        assertEquals(1L, latency().get("count"));
+    }
+
+    @Test
+    void testCharge_GatewayHangs_TimesOutThenFailsFast() {
+        // Given
+        start(100, this::awaitRelease);
+
+        // When - two timeouts fill the breaker window
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<Boolean> call = paymentGatewayService.charge(1L, 2.0, "attempt-1");
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+            assertEquals("Payment gateway timed out after 100 ms", exception.getCause().getMessage());
+        }
+
+        // Then
+        assertThrows(PaymentProcessingException.class, () -> paymentGatewayService.checkAvailable());
+        assertTrue(paymentGatewayService.charge(1L, 2.0, "attempt-1").isCompletedExceptionally());
+        Map<String, Object> statistics = paymentGatewayService.getStatistics();
+        assertEquals(2L, statistics.get("timeouts"));
+        assertEquals("OPEN", ((Map<?, ?>) statistics.get("circuitBreaker")).get("state"));
+        assertEquals(2, gatewayCalls("TIMEOUT"));
+        assertEquals(1, gatewayCalls("REJECTED"));
+    }
+
+    @Test
+    void testCharge_BulkheadFull_RejectsImmediately() {
+        // Given - both permits held by calls that do not return
+        start(60000, this::awaitRelease);
+        paymentGatewayService.charge(1L, 2.0, "attempt-1");
+        paymentGatewayService.charge(2L, 2.0, "attempt-2");
+
+        // When
+        CompletableFuture<Boolean> rejected = paymentGatewayService.charge(3L, 2.0, "attempt-3");
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertEquals("Payment gateway busy, please retry", exception.getCause().getMessage());
+        assertEquals(1L, ((Map<?, ?>) paymentGatewayService.getStatistics().get("bulkhead")).get("rejectedCalls"));
+        assertEquals(1, gatewayCalls("REJECTED"));
+    }
+
+    private long gatewayCalls(String outcome) {
+        return meterRegistry.get("parking.payment.gateway").tag("outcome", outcome).timer().count();
+    }
+
+    private void start(long callTimeoutMs, BooleanSupplier outcome) {
+        paymentConfig.setCallTimeoutMs(callTimeoutMs);
+        paymentGatewayService = new PaymentGatewayService();
+        ReflectionTestUtils.setField(paymentGatewayService, "paymentConfig", paymentConfig);
+        ReflectionTestUtils.setField(paymentGatewayService, "parkingMetrics",
+                new ParkingMetrics(meterRegistry, new AllocationStatistics()));
+        ReflectionTestUtils.setField(paymentGatewayService, "executionConfig", new ExecutionConfig());
+        paymentGatewayService.start();
+        ReflectionTestUtils.setField(paymentGatewayService, "gateway", new PaymentGateway() {
+            @Override
+            public boolean charge(Long ticketId, double amount, String idempotencyKey) {
+                return outcome.getAsBoolean();
+            }
+
+            @Override
+            public String getGatewayName() {
+                return "TEST";
+            }
+        });
+    }
+
+    private boolean awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> latency() {
+        return (Map<String, Object>) paymentGatewayService.getStatistics().get("latency");
+    }
+}
@@ -0,0 +1,87 @@
+package com.demo.parkinglot.tariff;
+
+import com.demo.parkinglot.enums.VehicleType;
+import com.demo.parkinglot.util.ParkingUtility;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Tariff and TariffTable
+ * Verifies flat-rate compatibility, time bands, daily caps, grace periods and lot overrides
+ */
+class TariffTest {
+
+    private static final LocalDateTime NINE_PM = LocalDateTime.of(2025, 3, 1, 21, 0);
+
+    @Test
+    void testCharge_FlatRate_MatchesHourlyRounding() {
+        // Given
+        Tariff tariff = Tariff.flat(2.0);
+
+        // When / Then
+        for (long minutes : new long[]{0, 1, 59, 60, 61, 1439, 1440, 4000}) {
+            assertEquals(ParkingUtility.calculateParkingCharge(minutes, 2.0), tariff.charge(NINE_PM, minutes), 1e-9);
+        }
+        assertEquals(1, tariff.getBandCount());
+    }
+
+    @Test
+    void testCharge_NightBand_BillsEachHourAtItsStartBand() {
+        // Given - half price from 22:00 to 06:00
+        Tariff tariff = Tariff.compile(2.0, 0, 0, List.of(new TimeBand("22:00", "06:00", 0.5)));
+
+        // When / Then - hours starting 21:00, 22:00 and 23:00
+        assertEquals(3, tariff.getBandCount());
+        assertEquals(2.0 + 1.0 + 1.0, tariff.charge(NINE_PM, 150), 1e-9);
+        // Hours starting 05:30, 06:30 and 07:30
+        assertEquals(1.0 + 2.0 + 2.0, tariff.charge(NINE_PM.withHour(5).withMinute(30), 150), 1e-9);
+        // Over midnight: hours starting 23:30, 00:30 and 01:30
+        assertEquals(3.0, tariff.charge(NINE_PM.withHour(23).withMinute(30), 150), 1e-9);
+    }
+
+    @Test
+    void testCharge_DailyCap_AppliesPerDayFromEntry() {
+        // Given
+        Tariff tariff = Tariff.compile(2.0, 0, 20.0, List.of());
+
+        // When - 50 billed hours: two capped days and 2 more hours
+        double charge = tariff.charge(NINE_PM, 49 * 60);
+
+        // Then
+        assertEquals(20.0 + 20.0 + 4.0, charge, 1e-9);
+        assertEquals(20.0, tariff.getDailyCap());
+    }
+
+    @Test
+    void testCharge_GracePeriod_ShortStayIsFree() {
+        // Given
+        Tariff tariff = Tariff.compile(2.0, 15, 0, List.of());
+
+        // When / Then
+        assertEquals(0.0, tariff.charge(NINE_PM, 14));
+        assertEquals(2.0, tariff.charge(NINE_PM, 15), 1e-9);
+    }
+
+    @Test
+    void testTariffTable_LotOverride_OnlyAffectsThatLotAndType() {
+        // Given
+        TariffTable table = TariffTable.of(Map.of(VehicleType.CAR, Tariff.flat(2.0), VehicleType.BIKE, Tariff.flat(1.0)));
+
+        // When
+        TariffTable updated = table.withLotOverride(7L, VehicleType.CAR, Tariff.flat(3.0));
+
+        // Then
+        assertEquals(3.0, updated.tariffFor(7L, VehicleType.CAR).getHourlyRate());
+        assertEquals(1.0, updated.tariffFor(7L, VehicleType.BIKE).getHourlyRate());
+        assertEquals(2.0, updated.tariffFor(8L, VehicleType.CAR).getHourlyRate());
+        assertEquals(2.0, updated.tariffFor(null, VehicleType.CAR).getHourlyRate());
+        assertEquals(VehicleType.TRUCK.getDefaultHourlyRate(), updated.tariffFor(7L, VehicleType.TRUCK).getHourlyRate());
+        // The original table is unchanged
+        assertEquals(2.0, table.tariffFor(7L, VehicleType.CAR).getHourlyRate());
+    }
+}
@@ -0,0 +1,83 @@
+package com.demo.parkinglot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TimeOrderedIdGenerator
+ * Verifies uniqueness under concurrency, ordering across clock steps and the printable encoding
+ */
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void testNextId_ConcurrentCallers_AllUnique() throws Exception {
+        // Given
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(7, System::currentTimeMillis);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(400_000, ids.size());
+        assertTrue(ids.stream().allMatch(id -> TimeOrderedIdGenerator.nodeOf(id) == 7));
+    }
+
+    @Test
+    void testNextId_SequenceFullOrClockBackwards_StaysIncreasing() {
+        // Given - a frozen clock, then one that steps back
+        AtomicLong clock = new AtomicLong(TimeOrderedIdGenerator.EPOCH_MILLIS + 1_000);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1, clock::get);
+
+        // When - more IDs than one millisecond's sequence holds
+        long previous = generator.nextId();
+        for (int i = 0; i < 5_000; i++) {
+            long next = generator.nextId();
+            assertTrue(next > previous);
+            previous = next;
+        }
+        clock.addAndGet(-500);
+        long afterStepBack = generator.nextId();
+
+        // Then
+        assertTrue(afterStepBack > previous);
+        assertEquals(TimeOrderedIdGenerator.EPOCH_MILLIS + 1_001, TimeOrderedIdGenerator.timestampOf(previous));
+    }
+
+    @Test
+    void testEncode_RoundTripsAndKeepsOrder() {
+        // Given
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1023, System::currentTimeMillis);
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        // When
+        String firstEncoded = TimeOrderedIdGenerator.encode(first);
+        String secondEncoded = TimeOrderedIdGenerator.encode(second);
+
+        // Then
+        assertEquals(13, firstEncoded.length());
+        assertTrue(firstEncoded.compareTo(secondEncoded) < 0);
+        assertEquals(first, TimeOrderedIdGenerator.decode(firstEncoded.toLowerCase()));
+        assertEquals(second, TimeOrderedIdGenerator.decode(secondEncoded.substring(0, 4) + "-" + secondEncoded.substring(4)));
+        assertThrows(IllegalArgumentException.class, () -> TimeOrderedIdGenerator.decode("RCP-123"));
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(1024, System::currentTimeMillis));
+    }
+}